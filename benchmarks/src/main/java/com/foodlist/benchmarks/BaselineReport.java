@@ -0,0 +1,132 @@
+package com.foodlist.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with a stored baseline and prints a Markdown table.
+ * A benchmark counts as regressed when it is worse than the threshold and the difference is
+ * larger than the combined error of both runs. Regressions fail the run, so they surface
+ * before a change is merged.
+ *
+ * <p>Arguments: {@code <baseline.json> <result.json> <threshold-percent> <update-baseline>}.
+ * Without an existing baseline, or with update-baseline set to true, the result becomes the new baseline.
+ */
+public final class BaselineReport {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private BaselineReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: BaselineReport <baseline.json> <result.json> <threshold-percent> [update-baseline]");
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path resultPath = Path.of(args[1]);
+        double thresholdPercent = Double.parseDouble(args[2]);
+        boolean updateBaseline = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        Map<String, Score> current = read(resultPath);
+        if (!Files.exists(baselinePath) || updateBaseline) {
+            Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+            Files.copy(resultPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Stored " + current.size() + " results as new baseline: " + baselinePath);
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselinePath);
+        List<String> regressions = new ArrayList<>();
+        StringBuilder report = new StringBuilder()
+                .append("| Benchmark | Baseline | Current | Unit | Change | Status |\n")
+                .append("|---|---:|---:|---|---:|---|\n");
+
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                report.append(row(entry.getKey(), "-", format(now.score()), now.unit(), "-", "new"));
+                continue;
+            }
+            // Positive change means worse: lower throughput or higher time per operation
+            double change = (now.score() - before.score()) / before.score() * 100.0;
+            if (now.higherIsBetter()) {
+                change = -change;
+            }
+            boolean beyondNoise = Math.abs(now.score() - before.score()) > now.error() + before.error();
+            String status = "ok";
+            if (change > thresholdPercent && beyondNoise) {
+                status = "REGRESSION";
+                regressions.add(entry.getKey());
+            } else if (change < -thresholdPercent && beyondNoise) {
+                status = "improved";
+            }
+            report.append(row(entry.getKey(), format(before.score()), format(now.score()), now.unit(),
+                    String.format(Locale.ROOT, "%+.1f%%", change), status));
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                report.append(row(missing, format(baseline.get(missing).score()), "-", baseline.get(missing).unit(), "-", "not run"));
+            }
+        }
+
+        System.out.println(report);
+        Path reportPath = resultPath.resolveSibling("jmh-report.md");
+        Files.writeString(reportPath, report.toString());
+
+        if (!regressions.isEmpty()) {
+            throw new IllegalStateException(regressions.size() + " benchmark(s) regressed by more than "
+                    + thresholdPercent + "%: " + regressions + " (see " + reportPath + ")");
+        }
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : OBJECT_MAPPER.readTree(path.toFile())) {
+            JsonNode metric = run.path("primaryMetric");
+            String mode = run.path("mode").asText();
+            scores.put(key(run), new Score(
+                    metric.path("score").asDouble(),
+                    Double.isNaN(metric.path("scoreError").asDouble()) ? 0.0 : metric.path("scoreError").asDouble(),
+                    metric.path("scoreUnit").asText(),
+                    "thrpt".equals(mode)));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText();
+        name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        Map<String, String> params = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        return params.isEmpty() ? name : name + " " + params;
+    }
+
+    private static String row(String name, String baseline, String current, String unit, String change, String status) {
+        return "| " + name + " | " + baseline + " | " + current + " | " + unit + " | " + change + " | " + status + " |\n";
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.foodlist.benchmarks;
+
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Test data shared by the benchmarks. All objects are built deterministically,
+ * so repeated runs measure the same shapes.
+ */
+final class BenchmarkFixtures {
+
+    static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    static Household household(int users, int shoppingLists) {
+        Household household = new Household();
+        household.setId(1L);
+        household.setName("Household");
+        household.setCreatedAt(NOW);
+        household.setVersion(0L);
+        for (int i = 0; i < users; i++) {
+            household.getUsers().add(user(i + 1L, household));
+        }
+        for (int i = 0; i < shoppingLists; i++) {
+            household.getShoppingLists().add(shoppingList(i + 1L, household));
+        }
+        return household;
+    }
+
+    static User user(Long id, Household household) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPasswordHash("{noop}secret");
+        user.setName("User " + id);
+        user.setEnabled(true);
+        user.setCreatedAt(NOW);
+        user.setHousehold(household);
+        user.setVersion(0L);
+        return user;
+    }
+
+    static ShoppingList shoppingList(Long id, Household household) {
+        ShoppingList shoppingList = new ShoppingList();
+        shoppingList.setId(id);
+        shoppingList.setName("List " + id);
+        shoppingList.setDefault(id == 1L);
+        shoppingList.setCreatedAt(NOW);
+        shoppingList.setHousehold(household);
+        shoppingList.setVersion(0L);
+        return shoppingList;
+    }
+
+    static Item item(Long id, User addedBy, ShoppingList shoppingList) {
+        Item item = new Item("Item " + id, (int) (id % 5) + 1, id % 3 == 0, NOW);
+        item.setId(id);
+        item.setAddedBy(addedBy);
+        item.setShoppingList(shoppingList);
+        item.setVersion(0L);
+        return item;
+    }
+
+    static List<ItemDisplayDTO> itemDisplayDTOs(int size) {
+        List<ItemDisplayDTO> items = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            items.add(new ItemDisplayDTO(id, "Item " + id, (int) (id % 5) + 1, id % 3 == 0, NOW,
+                    id % 10 + 1, "user" + (id % 10 + 1), 1L, "List 1", 0L));
+        }
+        return items;
+    }
+
+    /**
+     * Creates a repository stub that only answers findById, so mapper conversions
+     * can be measured without a database.
+     *
+     * @param repositoryType The Spring Data repository interface.
+     * @param finder Resolves an ID to the entity, or null if it does not exist.
+     * @return A proxy implementing the repository interface.
+     */
+    static <R> R findByIdStub(Class<R> repositoryType, Function<Long, Object> finder) {
+        Object stub = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.ofNullable(finder.apply((Long) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> repositoryType.getSimpleName() + "Stub";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return repositoryType.cast(stub);
+    }
+}
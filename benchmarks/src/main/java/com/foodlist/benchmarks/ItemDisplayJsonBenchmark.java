@@ -0,0 +1,43 @@
+package com.foodlist.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of ItemDisplayDTO lists, as written by GET /api/v1/items.
+ * The ObjectMapper is built with Spring's defaults (JSR-310 module, ISO dates).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemDisplayJsonBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<ItemDisplayDTO> items;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, ItemDisplayDTO.class));
+        items = BenchmarkFixtures.itemDisplayDTOs(size);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return writer.writeValueAsBytes(items);
+    }
+}
@@ -0,0 +1,114 @@
+package com.foodlist.benchmarks;
+
+import com.foodlist.service.ServiceApplication;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemServiceImpl.getAllItems against an embedded H2 database, including the JPA query,
+ * the lazy loading of users and lists and the mapping to ItemDisplayDTOs.
+ * The call runs inside a read-only transaction, like the open session of a web request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    private static final int USERS = 10;
+    private static final int SHOPPING_LISTS = 5;
+
+    @Param({"100", "1000"})
+    public int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private TransactionTemplate readOnlyTransaction;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ServiceApplication.class)
+                .web(WebApplicationType.SERVLET) // The Thymeleaf controllers need the web view resolver
+                .run("--spring.profiles.active=benchmark",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        // Profiles other than "dev" refuse to start without a token secret
+                        "--foodlist.security.token.secret=YmVuY2htYXJrLW9ubHktbm90LWEtcmVhbC1zZWNyZXQ=",
+                        "--logging.level.root=WARN");
+        itemService = context.getBean(ItemService.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        seed();
+    }
+
+    private void seed() {
+        Household household = BenchmarkFixtures.household(0, 0);
+        household.setId(null);
+        household.setVersion(null);
+        household = context.getBean(HouseholdRepo.class).save(household);
+
+        List<User> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            User user = BenchmarkFixtures.user(id, household);
+            user.setId(null);
+            user.setVersion(null);
+            users.add(user);
+        }
+        users = context.getBean(UserRepo.class).saveAll(users);
+
+        List<ShoppingList> shoppingLists = new ArrayList<>(SHOPPING_LISTS);
+        for (long id = 1; id <= SHOPPING_LISTS; id++) {
+            ShoppingList shoppingList = BenchmarkFixtures.shoppingList(id, household);
+            shoppingList.setId(null);
+            shoppingList.setVersion(null);
+            shoppingLists.add(shoppingList);
+        }
+        shoppingLists = context.getBean(ShoppingListRepo.class).saveAll(shoppingLists);
+
+        List<Item> items = new ArrayList<>(itemCount);
+        for (long id = 1; id <= itemCount; id++) {
+            Item item = BenchmarkFixtures.item(id, users.get((int) (id % USERS)),
+                    shoppingLists.get((int) (id % SHOPPING_LISTS)));
+            item.setId(null);
+            item.setVersion(null);
+            items.add(item);
+        }
+        context.getBean(ItemRepo.class).saveAll(items);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemDisplayDTO> getAllItems() {
+        return readOnlyTransaction.execute(status -> itemService.getAllItems());
+    }
+}
@@ -0,0 +1,460 @@
+package com.foodlist.benchmarks;
+
+import com.foodlist.service.ServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test for the REST API. Starts the service in the same JVM on a random port, samples IDs of
+ * existing households, users, lists and items from its database and sends a weighted mix of
+ * {@code /api/v1/**} requests from a fixed number of concurrent clients. Reports throughput and
+ * latency percentiles per endpoint as a Markdown table.
+ *
+ * <p>Arguments: {@code <duration> <warmup> <concurrency> <rate> <mix> <report.md> <variants> [application arguments]}.
+ * <ul>
+ *     <li>duration and warmup are ISO-8601 or Spring style durations ({@code 60s}); requests during the
+ *     warmup are sent but not recorded.</li>
+ *     <li>rate 0 runs a closed loop: every client sends its next request as soon as the previous one
+ *     returned. A positive rate (requests per second over all clients) runs an open loop with fixed
+ *     send times; latency is measured from the planned send time, so a stalled server shows up in the
+ *     percentiles instead of silently lowering the request rate.</li>
+ *     <li>mix is a comma separated list of {@code endpoint=weight}, endpoints: household, user,
+ *     shoppingList, item, allItems, addItem.</li>
+ *     <li>variants are configurations compared in one run, separated by ";", each {@code name: arguments},
+ *     e.g. {@code platform: spring.threads.virtual.enabled=false; virtual: spring.threads.virtual.enabled=true}.
+ *     The service is started once per variant with the shared application arguments plus its own, one variant
+ *     after another; the report compares their totals. {@code default:} runs once without extra arguments.</li>
+ * </ul>
+ * The application arguments go to the service, with or without the leading {@code --}, e.g.
+ * {@code foodlist.dataset.enabled=true} to generate data first (once per variant, so rather in a separate run
+ * before comparing variants), or a different {@code spring.datasource.url}.
+ * Rate limiting is switched off unless the arguments set {@code foodlist.rate-limit.enabled}: the requests are
+ * anonymous and all come from localhost, so they would share the single budget of one remote address.
+ */
+public final class LoadTest {
+
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final String RATE_LIMIT_ENABLED = "foodlist.rate-limit.enabled";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 7) {
+            throw new IllegalArgumentException("Usage: LoadTest <duration> <warmup> <concurrency> <rate> <mix> <report.md> "
+                    + "<variants> [application arguments]");
+        }
+        Duration duration = parseDuration(args[0]);
+        Duration warmup = parseDuration(args[1]);
+        int concurrency = Integer.parseInt(args[2]);
+        double rate = Double.parseDouble(args[3]);
+        List<Endpoint> mix = parseMix(args[4]);
+        Path reportPath = Path.of(args[5]);
+        List<Variant> variants = parseVariants(args[6]);
+        List<String> sharedArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN"));
+        if (args.length > 7) {
+            sharedArgs.addAll(applicationArgs(String.join(" ", Arrays.copyOfRange(args, 7, args.length))));
+        }
+
+        Map<Variant, Map<Endpoint, Stats>> results = new LinkedHashMap<>();
+        for (Variant variant : variants) {
+            List<String> applicationArgs = new ArrayList<>(sharedArgs);
+            applicationArgs.addAll(variant.args());
+            if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--" + RATE_LIMIT_ENABLED + "="))) {
+                // All clients are anonymous and come from localhost, i.e. share one rate limit bucket;
+                // its 429s would be counted as errors and cap the throughput at the configured budget
+                applicationArgs.add("--" + RATE_LIMIT_ENABLED + "=false");
+            }
+            System.out.printf(Locale.ROOT, "Variant %s: %s%n", variant.name(), String.join(" ", applicationArgs));
+            results.put(variant, run(applicationArgs, mix, concurrency, rate, warmup, duration));
+        }
+
+        String report = report(results, duration, concurrency, rate);
+        Files.writeString(reportPath, report);
+        System.out.println(report);
+        System.out.println("Report written to " + reportPath);
+    }
+
+    private static Map<Endpoint, Stats> run(List<String> applicationArgs, List<Endpoint> mix, int concurrency, double rate,
+                                            Duration warmup, Duration duration) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ServiceApplication.class)
+                .run(applicationArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Ids ids = Ids.sample(context.getBean(JdbcTemplate.class));
+            if (ids.items().length == 0) {
+                throw new IllegalStateException("The database contains no items, start with --foodlist.dataset.enabled=true");
+            }
+            System.out.printf(Locale.ROOT, "Sampled %d households, %d users, %d shopping lists, %d items%n",
+                    ids.households().length, ids.users().length, ids.shoppingLists().length, ids.items().length);
+
+            return new Run(URI.create("http://localhost:" + port), mix, ids, concurrency, rate, warmup, duration).execute();
+        }
+    }
+
+    /**
+     * Splits whitespace separated arguments; the leading "--" is optional, so they can be written in the pom without it.
+     */
+    private static List<String> applicationArgs(String value) {
+        return Arrays.stream(value.trim().split("\\s+"))
+                .filter(arg -> !arg.isEmpty())
+                .map(arg -> arg.startsWith("-") ? arg : "--" + arg)
+                .toList();
+    }
+
+    /**
+     * One load test run: the clients, their schedule and their recorded latencies.
+     */
+    private static final class Run {
+
+        private final URI baseUri;
+        private final List<Endpoint> mix;
+        private final int totalWeight;
+        private final Ids ids;
+        private final int concurrency;
+        private final double rate;
+        private final Duration warmup;
+        private final Duration duration;
+        private final HttpClient httpClient;
+
+        Run(URI baseUri, List<Endpoint> mix, Ids ids, int concurrency, double rate, Duration warmup, Duration duration) {
+            this.baseUri = baseUri;
+            this.mix = mix;
+            this.totalWeight = mix.stream().mapToInt(Endpoint::weight).sum();
+            this.ids = ids;
+            this.concurrency = concurrency;
+            this.rate = rate;
+            this.warmup = warmup;
+            this.duration = duration;
+            this.httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build();
+        }
+
+        Map<Endpoint, Stats> execute() throws Exception {
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            long intervalNanos = rate > 0 ? (long) (concurrency * 1e9 / rate) : 0;
+
+            List<Future<Map<Endpoint, Stats>>> clients = new ArrayList<>();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int client = 0; client < concurrency; client++) {
+                    // Spread the open-loop clients over one interval, so they do not fire in lockstep
+                    long firstSend = start + (intervalNanos * client) / concurrency;
+                    clients.add(executor.submit(() -> client(firstSend, intervalNanos, measureFrom, end)));
+                }
+            }
+
+            Map<Endpoint, Stats> merged = new LinkedHashMap<>();
+            for (Endpoint endpoint : mix) {
+                merged.put(endpoint, new Stats());
+            }
+            for (Future<Map<Endpoint, Stats>> client : clients) {
+                client.get().forEach((endpoint, stats) -> merged.get(endpoint).merge(stats));
+            }
+            return merged;
+        }
+
+        private Map<Endpoint, Stats> client(long firstSend, long intervalNanos, long measureFrom, long end) {
+            Map<Endpoint, Stats> stats = new LinkedHashMap<>();
+            for (Endpoint endpoint : mix) {
+                stats.put(endpoint, new Stats());
+            }
+            long plannedSend = firstSend;
+            while (true) {
+                if (intervalNanos > 0) {
+                    long wait = plannedSend - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                } else {
+                    plannedSend = System.nanoTime();
+                }
+                if (plannedSend >= end) {
+                    return stats;
+                }
+
+                Endpoint endpoint = pick();
+                boolean success;
+                try {
+                    HttpResponse<Void> response = httpClient.send(endpoint.request(baseUri, ids),
+                            HttpResponse.BodyHandlers.discarding());
+                    success = response.statusCode() < 400;
+                } catch (IOException e) {
+                    success = false;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return stats;
+                }
+                long finished = System.nanoTime();
+                if (plannedSend >= measureFrom) {
+                    stats.get(endpoint).record(finished - plannedSend, success);
+                }
+                if (intervalNanos > 0) {
+                    plannedSend += intervalNanos;
+                }
+            }
+        }
+
+        private Endpoint pick() {
+            int value = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Endpoint endpoint : mix) {
+                value -= endpoint.weight();
+                if (value < 0) {
+                    return endpoint;
+                }
+            }
+            throw new IllegalStateException("Weights changed during the run");
+        }
+    }
+
+    private static String report(Map<Variant, Map<Endpoint, Stats>> results, Duration duration, int concurrency, double rate) {
+        double seconds = duration.toNanos() / 1e9;
+        StringBuilder report = new StringBuilder()
+                .append("## Load test\n\n")
+                .append(String.format(Locale.ROOT, "%d clients, %s, %.0f s measured per variant, %d CPUs, Java %s%n%n",
+                        concurrency, rate > 0 ? String.format(Locale.ROOT, "open loop at %.0f req/s", rate) : "closed loop",
+                        seconds, Runtime.getRuntime().availableProcessors(), Runtime.version()));
+
+        Map<Variant, Stats> totals = new LinkedHashMap<>();
+        results.forEach((variant, stats) -> {
+            Stats total = new Stats();
+            stats.values().forEach(total::merge);
+            totals.put(variant, total);
+        });
+        if (results.size() > 1) {
+            // Same JVM, one after another: later variants profit from the JIT work of earlier ones in the load
+            // generator and the shared libraries; each variant has its own warmup to level that out
+            report.append("### Comparison\n\n")
+                    .append("Variants ran one after another in the same JVM, each after its own warmup.\n\n");
+            appendHeader(report, "Variant");
+            totals.forEach((variant, total) -> appendRow(report, variant.name(), total, seconds));
+            report.append('\n');
+        }
+
+        for (Map.Entry<Variant, Map<Endpoint, Stats>> variant : results.entrySet()) {
+            if (results.size() > 1) {
+                report.append("### ").append(variant.getKey().name());
+                if (!variant.getKey().args().isEmpty()) {
+                    report.append(" (`").append(String.join(" ", variant.getKey().args())).append("`)");
+                }
+                report.append("\n\n");
+            }
+            appendHeader(report, "Endpoint");
+            for (Map.Entry<Endpoint, Stats> entry : variant.getValue().entrySet()) {
+                appendRow(report, entry.getKey().label(), entry.getValue(), seconds);
+            }
+            appendRow(report, "**total**", totals.get(variant.getKey()), seconds);
+            report.append('\n');
+        }
+        return report.toString();
+    }
+
+    private static void appendHeader(StringBuilder report, String firstColumn) {
+        report.append("| ").append(firstColumn).append(" | Requests | Errors | req/s | p50 ms | p90 ms | p99 ms | p99.9 ms | max ms |\n")
+                .append("|---|---:|---:|---:|---:|---:|---:|---:|---:|\n");
+    }
+
+    private static void appendRow(StringBuilder report, String label, Stats stats, double seconds) {
+        long[] sorted = stats.sortedLatencies();
+        report.append(String.format(Locale.ROOT, "| %s | %d | %d | %.1f", label, sorted.length, stats.errors(),
+                sorted.length / seconds));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, " | %.2f", percentile(sorted, percentile) / 1e6));
+        }
+        report.append(String.format(Locale.ROOT, " | %.2f |%n", sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6));
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values.
+     */
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static Duration parseDuration(String value) {
+        String trimmed = value.trim();
+        if (trimmed.startsWith("P") || trimmed.startsWith("p")) {
+            return Duration.parse(trimmed);
+        }
+        long amount = Long.parseLong(trimmed.replaceAll("\\D+$", ""));
+        return switch (trimmed.replaceAll("^\\d+", "")) {
+            case "ms" -> Duration.ofMillis(amount);
+            case "", "s" -> Duration.ofSeconds(amount);
+            case "m" -> Duration.ofMinutes(amount);
+            default -> throw new IllegalArgumentException("Unsupported duration " + value);
+        };
+    }
+
+    /**
+     * Variants are separated by ";", each is {@code name: application arguments}, e.g.
+     * {@code platform: spring.threads.virtual.enabled=false; virtual: spring.threads.virtual.enabled=true}.
+     */
+    private static List<Variant> parseVariants(String value) {
+        List<Variant> variants = new ArrayList<>();
+        for (String part : value.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int colon = part.indexOf(':');
+            String name = (colon < 0 ? part : part.substring(0, colon)).trim();
+            variants.add(new Variant(name, colon < 0 ? List.of() : applicationArgs(part.substring(colon + 1))));
+        }
+        if (variants.isEmpty()) {
+            variants.add(new Variant("default", List.of()));
+        }
+        return variants;
+    }
+
+    private static List<Endpoint> parseMix(String value) {
+        List<Endpoint> mix = new ArrayList<>();
+        for (String part : value.split(",")) {
+            String[] nameAndWeight = part.trim().split("=");
+            Endpoint endpoint = Endpoint.of(nameAndWeight[0].trim(), Integer.parseInt(nameAndWeight[1].trim()));
+            if (endpoint.weight() > 0) {
+                mix.add(endpoint);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("The mix contains no endpoint with a positive weight: " + value);
+        }
+        return mix;
+    }
+
+    /**
+     * A configuration of the service under test, e.g. a thread mode; its arguments are added to the shared ones.
+     */
+    private record Variant(String name, List<String> args) {
+    }
+
+    /**
+     * An endpoint of the mix with its weight; builds a request with randomly chosen sampled IDs.
+     */
+    private record Endpoint(String name, String label, int weight) {
+
+        private static final Map<String, String> LABELS = Map.of(
+                "household", "GET /api/v1/households/{id}",
+                "user", "GET /api/v1/users/{id}",
+                "shoppingList", "GET /api/v1/shoppinglists/{id}",
+                "item", "GET /api/v1/items/{id}",
+                "allItems", "GET /api/v1/items",
+                "addItem", "POST /api/v1/items");
+
+        static Endpoint of(String name, int weight) {
+            String label = LABELS.get(name);
+            if (label == null) {
+                throw new IllegalArgumentException("Unknown endpoint " + name + ", expected one of " + LABELS.keySet());
+            }
+            return new Endpoint(name, label, weight);
+        }
+
+        HttpRequest request(URI baseUri, Ids ids) {
+            return switch (name) {
+                case "household" -> get(baseUri, "/api/v1/households/" + any(ids.households()));
+                case "user" -> get(baseUri, "/api/v1/users/" + any(ids.users()));
+                case "shoppingList" -> get(baseUri, "/api/v1/shoppinglists/" + any(ids.shoppingLists()));
+                case "item" -> get(baseUri, "/api/v1/items/" + any(ids.items()));
+                case "allItems" -> get(baseUri, "/api/v1/items");
+                case "addItem" -> HttpRequest.newBuilder(baseUri.resolve("/api/v1/items"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("""
+                                {"name": "Lasttest", "quantity": 1, "addedByUserId": %d, "shoppingListId": %d}"""
+                                .formatted(any(ids.users()), any(ids.shoppingLists()))))
+                        .build();
+                default -> throw new IllegalStateException(name);
+            };
+        }
+
+        private static HttpRequest get(URI baseUri, String path) {
+            return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+        }
+
+        private static long any(long[] values) {
+            return values[ThreadLocalRandom.current().nextInt(values.length)];
+        }
+    }
+
+    /**
+     * Randomly sampled IDs of existing rows, so that reads hit data across the whole dataset.
+     */
+    private record Ids(long[] households, long[] users, long[] shoppingLists, long[] items) {
+
+        static Ids sample(JdbcTemplate jdbcTemplate) {
+            return new Ids(sample(jdbcTemplate, "households"), sample(jdbcTemplate, "users"),
+                    sample(jdbcTemplate, "shopping_lists"), sample(jdbcTemplate, "items"));
+        }
+
+        private static long[] sample(JdbcTemplate jdbcTemplate, String table) {
+            return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY random() LIMIT " + SAMPLE_SIZE, Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    /**
+     * Latencies and errors of one endpoint, recorded by a single client or merged afterwards.
+     */
+    private static final class Stats {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long latencyNanos, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        void merge(Stats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+        }
+
+        long[] sortedLatencies() {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        long errors() {
+            return errors;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.foodlist.benchmarks;
+
+import com.foodlist.service.dto.HouseholdDTO;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.mapper.HouseholdMapper;
+import com.foodlist.service.mapper.ItemMapper;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Conversions of the MapStruct-generated ItemMapper and HouseholdMapper.
+ * Repository lookups in the DTO-to-entity direction are answered from memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int ITEMS = 100;
+
+    private final ItemMapper itemMapper = Mappers.getMapper(ItemMapper.class);
+    private final HouseholdMapper householdMapper = Mappers.getMapper(HouseholdMapper.class);
+
+    private UserRepo userRepo;
+    private ShoppingListRepo shoppingListRepo;
+
+    private Item item;
+    private ItemDTO itemDTO;
+    private List<Item> items;
+    private Household household;
+    private HouseholdDTO householdDTO;
+
+    @Setup
+    public void setUp() {
+        household = BenchmarkFixtures.household(10, 5);
+        Map<Long, User> users = household.getUsers().stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        Map<Long, ShoppingList> shoppingLists = household.getShoppingLists().stream()
+                .collect(Collectors.toMap(ShoppingList::getId, Function.identity()));
+        userRepo = BenchmarkFixtures.findByIdStub(UserRepo.class, users::get);
+        shoppingListRepo = BenchmarkFixtures.findByIdStub(ShoppingListRepo.class, shoppingLists::get);
+
+        items = new ArrayList<>(ITEMS);
+        for (long id = 1; id <= ITEMS; id++) {
+            items.add(BenchmarkFixtures.item(id, users.get(id % users.size() + 1),
+                    shoppingLists.get(id % shoppingLists.size() + 1)));
+        }
+        item = items.get(0);
+        itemDTO = itemMapper.itemToItemDTO(item);
+        householdDTO = householdMapper.householdToHouseholdDTO(household);
+    }
+
+    @Benchmark
+    public ItemDTO itemToItemDTO() {
+        return itemMapper.itemToItemDTO(item);
+    }
+
+    @Benchmark
+    public Item itemDTOToItem() {
+        return itemMapper.itemDTOToItem(itemDTO, userRepo, shoppingListRepo);
+    }
+
+    @Benchmark
+    public ItemDisplayDTO itemToItemDisplayDTO() {
+        return itemMapper.itemToItemDisplayDTO(item);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public List<ItemDisplayDTO> itemsToItemDisplayDTOs() {
+        return itemMapper.itemsToItemDisplayDTOs(items);
+    }
+
+    @Benchmark
+    public HouseholdDTO householdToHouseholdDTO() {
+        return householdMapper.householdToHouseholdDTO(household);
+    }
+
+    @Benchmark
+    public Household householdDTOToHousehold() {
+        return householdMapper.householdDTOToHousehold(householdDTO, userRepo, shoppingListRepo);
+    }
+}
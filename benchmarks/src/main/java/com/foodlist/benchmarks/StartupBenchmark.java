@@ -0,0 +1,304 @@
+package com.foodlist.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipFile;
+
+/**
+ * Measures the cold start of the packaged service: time from process start until the first request
+ * is answered, and the resident set size at that point, for the plain JVM, lazy initialization, AOT,
+ * AOT with a CDS archive and the native image.
+ * For every variant, the slowest bean initializations are read from {@code /actuator/startup}
+ * (BufferingApplicationStartup) of the first run.
+ *
+ * <p>Arguments: {@code <application-dir> <runs> <report.md> <profiles> <user:password> [application arguments]}.
+ * All variants run with the given profiles, which must be the ones the AOT classes were generated with
+ * (aot.profiles of the service build); lazy initialization adds "lazy". The first answer of
+ * {@code /api/v1/health} counts as first request, also a 401 of a profile that requires signing in.
+ * The credentials (may be empty) are sent as HTTP Basic to read {@code /actuator/startup}.
+ * The application directory is the extracted layout of the fast-startup build
+ * ({@code service.jar}, {@code lib/}, optionally {@code application.jsa}); the native executable
+ * of the native build is expected next to it ({@code target/foodlist-service}).
+ * Variants that the build does not support (no AOT classes, no archive, no executable) are skipped.
+ * RSS is read from {@code /proc} and only reported on Linux.
+ */
+public final class StartupBenchmark {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final int STARTUP_STEPS = 20_000;
+    private static final int SLOWEST_BEANS = 15;
+    private static final String TOKEN_SECRET_ARG = "--foodlist.security.token.secret=";
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 5) {
+            throw new IllegalArgumentException(
+                    "Usage: StartupBenchmark <application-dir> <runs> <report.md> <profiles> <user:password> [application arguments]");
+        }
+        Path applicationDir = Path.of(args[0]).toAbsolutePath();
+        int runs = Integer.parseInt(args[1]);
+        Path reportPath = Path.of(args[2]);
+        String profiles = args[3].strip();
+        Optional<String> authorization = Optional.ofNullable(args[4])
+                .filter(credentials -> !credentials.isBlank())
+                .map(credentials -> "Basic " + Base64.getEncoder().encodeToString(credentials.strip().getBytes(StandardCharsets.UTF_8)));
+        List<String> applicationArgs = new ArrayList<>(args.length > 5
+                ? Arrays.stream(args, 5, args.length)
+                        .filter(arg -> arg != null)
+                        .flatMap(arg -> Arrays.stream(arg.trim().split("\\s+")))
+                        .filter(arg -> !arg.isEmpty())
+                        .toList()
+                : List.of());
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith(TOKEN_SECRET_ARG))) {
+            // Profiles other than "dev" refuse to start without a token secret; one per benchmark is enough
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            applicationArgs.add(TOKEN_SECRET_ARG + Base64.getEncoder().encodeToString(secret));
+        }
+
+        Path jar = applicationDir.resolve("service.jar");
+        if (!Files.exists(jar)) {
+            throw new IllegalStateException("No service.jar in " + applicationDir + ", build the service with -Pfast-startup first.");
+        }
+        boolean aot = hasAotClasses(jar);
+        boolean cds = Files.exists(applicationDir.resolve("application.jsa"));
+        Path nativeExecutable = applicationDir.resolveSibling("foodlist-service");
+        boolean nativeImage = Files.isExecutable(nativeExecutable);
+
+        List<String> profileArgs = List.of("--spring.profiles.active=" + profiles);
+        List<Variant> variants = new ArrayList<>();
+        variants.add(new Variant("jvm", java("-Dspring.aot.enabled=false"), profileArgs));
+        variants.add(new Variant("jvm + lazy", java("-Dspring.aot.enabled=false"),
+                List.of("--spring.profiles.active=" + profiles + ",lazy")));
+        if (aot) {
+            variants.add(new Variant("aot", java("-Dspring.aot.enabled=true"), profileArgs));
+        }
+        if (aot && cds) {
+            variants.add(new Variant("aot + cds", java("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=off",
+                    "-Dspring.aot.enabled=true"), profileArgs));
+        }
+        if (nativeImage) {
+            variants.add(new Variant("native", List.of(nativeExecutable.toString(), "-Dfoodlist.startup.steps=" + STARTUP_STEPS), profileArgs));
+        }
+
+        Path logDir = reportPath.toAbsolutePath().getParent().resolve("startup-logs");
+        Files.createDirectories(logDir);
+
+        List<Result> results = new ArrayList<>();
+        for (Variant variant : variants) {
+            List<Long> times = new ArrayList<>();
+            List<Long> rssKb = new ArrayList<>();
+            List<BeanTiming> slowestBeans = List.of();
+            for (int run = 0; run < runs; run++) {
+                Path log = logDir.resolve(variant.name().replaceAll("\\W+", "-") + "-" + run + ".log");
+                StartedApplication started = start(applicationDir, variant, applicationArgs, log);
+                try {
+                    times.add(started.timeToFirstRequestMs());
+                    residentSetSizeKb(started.process()).ifPresent(rssKb::add);
+                    if (run == 0) {
+                        slowestBeans = slowestBeans(started.port(), authorization);
+                    }
+                } finally {
+                    stop(started.process());
+                }
+                System.out.printf(Locale.ROOT, "%-10s run %d: %d ms%n", variant.name(), run + 1, started.timeToFirstRequestMs());
+            }
+            results.add(new Result(variant.name(), times, rssKb, slowestBeans));
+        }
+
+        String report = report(results, profiles, aot, cds, nativeImage);
+        Files.writeString(reportPath, report);
+        System.out.println(report);
+        System.out.println("Report written to " + reportPath);
+    }
+
+    private static StartedApplication start(Path applicationDir, Variant variant, List<String> applicationArgs, Path log)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>(variant.launcher());
+        command.add("--server.port=" + port);
+        command.addAll(variant.applicationArgs());
+        command.addAll(applicationArgs);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(applicationDir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+
+        URI health = URI.create("http://localhost:" + port + "/api/v1/health");
+        long deadline = start + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(variant.name() + " exited with " + process.exitValue() + " during startup, see " + log);
+            }
+            try {
+                HttpResponse<Void> response = HTTP_CLIENT.send(HttpRequest.newBuilder(health).GET().build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() < 500) {
+                    return new StartedApplication(process, port, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        stop(process);
+        throw new IllegalStateException(variant.name() + " did not answer within " + STARTUP_TIMEOUT + ", see " + log);
+    }
+
+    /**
+     * Reads the bean instantiation steps from /actuator/startup. The duration of a bean includes the
+     * beans it creates as dependencies.
+     */
+    private static List<BeanTiming> slowestBeans(int port, Optional<String> authorization) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/startup")).GET();
+        authorization.ifPresent(value -> request.header("Authorization", value));
+        HttpResponse<String> response = HTTP_CLIENT.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            System.out.println("No startup timeline available (HTTP " + response.statusCode() + ")");
+            return List.of();
+        }
+
+        List<BeanTiming> beans = new ArrayList<>();
+        for (JsonNode event : OBJECT_MAPPER.readTree(response.body()).path("timeline").path("events")) {
+            JsonNode step = event.path("startupStep");
+            if (!"spring.beans.instantiate".equals(step.path("name").asText())) {
+                continue;
+            }
+            String beanName = null;
+            for (JsonNode tag : step.path("tags")) {
+                if ("beanName".equals(tag.path("key").asText())) {
+                    beanName = tag.path("value").asText();
+                }
+            }
+            if (beanName != null) {
+                beans.add(new BeanTiming(beanName, Duration.parse(event.path("duration").asText()).toNanos() / 1_000_000.0));
+            }
+        }
+        return beans.stream()
+                .sorted(Comparator.comparingDouble(BeanTiming::millis).reversed())
+                .limit(SLOWEST_BEANS)
+                .toList();
+    }
+
+    private static String report(List<Result> results, String profiles, boolean aot, boolean cds, boolean nativeImage) {
+        StringBuilder report = new StringBuilder()
+                .append("## Time to first request\n\n")
+                .append("Profiles: ").append(profiles).append("\n\n")
+                .append("| Variant | Runs | Median ms | Min ms | Max ms | Median RSS MB |\n")
+                .append("|---|---:|---:|---:|---:|---:|\n");
+        for (Result result : results) {
+            List<Long> sorted = result.times().stream().sorted().toList();
+            List<Long> rss = result.rssKb().stream().sorted().toList();
+            report.append(String.format(Locale.ROOT, "| %s | %d | %d | %d | %d | %s |%n", result.variant(), sorted.size(),
+                    sorted.get(sorted.size() / 2), sorted.get(0), sorted.get(sorted.size() - 1),
+                    rss.isEmpty() ? "-" : String.valueOf(rss.get(rss.size() / 2) / 1024)));
+        }
+        if (!aot) {
+            report.append("\nAOT variants skipped: service.jar contains no AOT-generated classes.\n");
+        } else if (!cds) {
+            report.append("\nCDS variant skipped: no application.jsa next to service.jar.\n");
+        }
+        if (!nativeImage) {
+            report.append("\nNative variant skipped: no foodlist-service executable, build the service with -Pnative.\n");
+        }
+
+        for (Result result : results) {
+            report.append("\n## Slowest bean initializations (").append(result.variant()).append(")\n\n")
+                    .append("| Bean | ms |\n")
+                    .append("|---|---:|\n");
+            for (BeanTiming bean : result.slowestBeans()) {
+                report.append(String.format(Locale.ROOT, "| %s | %.1f |%n", bean.beanName(), bean.millis()));
+            }
+        }
+        return report.toString();
+    }
+
+    private static boolean hasAotClasses(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return zip.getEntry("com/foodlist/service/ServiceApplication__ApplicationContextInitializer.class") != null
+                    || zip.getEntry("BOOT-INF/classes/com/foodlist/service/ServiceApplication__ApplicationContextInitializer.class") != null;
+        }
+    }
+
+    /**
+     * @return The resident set size of the process from /proc, empty where /proc is not available.
+     */
+    private static Optional<Long> residentSetSizeKb(Process process) {
+        Path status = Path.of("/proc", String.valueOf(process.pid()), "status");
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Optional.of(Long.parseLong(line.replaceAll("\\D+", "")));
+                }
+            }
+        } catch (IOException e) {
+            // No procfs, e.g. on macOS or Windows
+        }
+        return Optional.empty();
+    }
+
+    private static List<String> java(String... jvmArgs) {
+        List<String> launcher = new ArrayList<>();
+        launcher.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        launcher.addAll(List.of(jvmArgs));
+        launcher.add("-Dfoodlist.startup.steps=" + STARTUP_STEPS);
+        launcher.add("-jar");
+        launcher.add("service.jar");
+        return launcher;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private record Variant(String name, List<String> launcher, List<String> applicationArgs) {
+    }
+
+    private record StartedApplication(Process process, int port, long timeToFirstRequestMs) {
+    }
+
+    private record BeanTiming(String beanName, double millis) {
+    }
+
+    private record Result(String variant, List<Long> times, List<Long> rssKb, List<BeanTiming> slowestBeans) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodlist.benchmarks;
+
+import com.foodlist.service.controller.ItemPageQuery;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thymeleaf rendering of the shopping list page and of the item table fragment, with the templates
+ * of the service and a cached template engine like in production (spring.thymeleaf.cache=true).
+ * The size of the rendered HTML is printed once per trial, so byte savings are visible next to the times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    @Param({"1000", "10000"})
+    public int itemCount;
+
+    private SpringTemplateEngine templateEngine;
+    private Context context;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+
+        templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+        // Outside of a web request there is no context path; links are rendered as if it were empty
+        templateEngine.setLinkBuilder(new StandardLinkBuilder() {
+            @Override
+            protected String computeContextPath(IExpressionContext context, String base, Map<String, Object> parameters) {
+                return "";
+            }
+        });
+
+        ShoppingListDTO shoppingList = new ShoppingListDTO(1L, "List 1", true, BenchmarkFixtures.NOW, 1L, null, 0L);
+        List<ItemDisplayDTO> items = BenchmarkFixtures.itemDisplayDTOs(itemCount);
+        context = new Context();
+        context.setVariable("shoppingList", shoppingList);
+        context.setVariable("shoppingLists", List.of(shoppingList,
+                new ShoppingListDTO(2L, "List 2", false, BenchmarkFixtures.NOW, 1L, null, 0L)));
+        context.setVariable("items", items);
+        context.setVariable("query", new ItemPageQuery(null, null, null, null, null, itemCount));
+        context.setVariable("page", new PageImpl<>(items));
+
+        System.out.printf("%n%d items: page %d bytes, table fragment %d bytes%n", itemCount,
+                renderPage().length(), renderTableFragment().length());
+    }
+
+    @Benchmark
+    public String renderPage() {
+        return templateEngine.process("index", context);
+    }
+
+    @Benchmark
+    public String renderTableFragment() {
+        return templateEngine.process("fragments/item-table", Set.of("item-table"), context);
+    }
+}
@@ -1,35 +0,0 @@
-//package com.foodlist.service;
-//
-//import com.foodlist.service.repository.ShoppingListRepo;
-//import com.foodlist.service.service.ItemService;
-//import org.springframework.boot.context.event.ApplicationReadyEvent;
-//import org.springframework.context.event.EventListener;
-//import org.springframework.stereotype.Component;
-//
-//@Component
-//public class ManualTestBean {
-//
-//    ItemService itemService;
-//    HouseholdService householdService;
-//    private final ShoppingListRepo shoppingListRepo;
-//
-//    public ManualTestBean(ItemService itemService, HouseholdService householdService,
-//                          ShoppingListRepo shoppingListRepo) {
-//        this.itemService = itemService;
-//        this.householdService = householdService;
-//        this.shoppingListRepo = shoppingListRepo;
-//    }
-//
-//    @EventListener(ApplicationReadyEvent.class)
-//    public void createSampleHousehold() {
-//        // Household
-//
-//        // User
-//
-//        // ShoppingList
-//
-//        // Item
-//
-//    }
-//
-//}
@@ -3,13 +3,18 @@ package com.foodlist.service;
 import com.foodlist.service.service.ItemService;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class ServiceApplication {
 
 	public static void main(String[] args) {
 
-		SpringApplication.run(ServiceApplication.class, args);
+		SpringApplication application = new SpringApplication(ServiceApplication.class);
+		// Startup-Schritte (Bean-Initialisierung usw.) fuer /actuator/startup; immer aktiv, damit der Endpunkt
+		// auch im AOT-Build existiert (dort wird seine Bedingung beim Build ausgewertet)
+		application.setApplicationStartup(new BufferingApplicationStartup(Integer.getInteger("foodlist.startup.steps", 10_000)));
+		application.run(args);
 	}
 
 }
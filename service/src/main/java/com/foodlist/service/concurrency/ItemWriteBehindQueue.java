@@ -0,0 +1,456 @@
+package com.foodlist.service.concurrency;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.dto.ItemIngestDTO.Status;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Optional write-behind mode for adding items. Accepted items are queued in memory and written by a single
+ * flusher thread in JDBC batches, one transaction per batch, as soon as max-batch-size items are waiting or
+ * at the latest after flush-interval. Thousands of additions per second then cost a few commits instead of
+ * one transaction (and fsync) each.
+ *
+ * <p>Guarantees, per correlation ID and owner (the signed-in user; IDs of different users never collide):
+ * <ul>
+ *     <li>The future returned by {@link #enqueue} completes once the item's batch is committed (group commit).
+ *     Callers answer the client only then, so a success response means durable; while the item is still
+ *     PENDING it is only queued in memory and may be lost by a crash.</li>
+ *     <li>An item is written at most once: the owner and correlation ID are unique in the items table, so a client
+ *     may resubmit an item whose status is unknown (e.g. after a timeout or a restart) without creating a
+ *     duplicate. Resubmitting the ID with a different item is FAILED and leaves the first one untouched.</li>
+ *     <li>On shutdown the queue is written before the database connections are closed; only a crash
+ *     or a database outage longer than shutdown-timeout loses queued items.</li>
+ *     <li>If the database is unavailable, batches are retried; the queue fills up and new items are
+ *     rejected (back-pressure) instead of growing without bound.</li>
+ * </ul>
+ *
+ * The queue is a lock-free ConcurrentLinkedQueue bounded by a CAS-maintained counter.
+ * When the mode is disabled, nothing is started and {@link #enqueue} must not be called.
+ */
+@Slf4j
+@Component
+public class ItemWriteBehindQueue implements SmartLifecycle, MeterBinder {
+
+    /**
+     * Owner of correlation IDs submitted without a signed-in user (only the "dev" profile allows that).
+     */
+    public static final long ANONYMOUS_OWNER = 0L;
+
+    static final String REUSED_ID = "Correlation ID already used for a different item.";
+
+    private static final String INSERT = "INSERT INTO items (name, quantity, is_checked, added_at, added_by_user_id, "
+            + "shopping_list_id, version, correlation_id, correlation_owner_id, correlation_hash) "
+            + "VALUES (?, ?, ?, ?, ?, ?, 0, ?, ?, ?)";
+    private static final String FIND_WRITTEN = "SELECT id, correlation_hash FROM items "
+            + "WHERE correlation_owner_id = ? AND correlation_id = ?";
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long flushIntervalNanos;
+    private final Duration shutdownTimeout;
+
+    private final Queue<QueuedItem> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ConcurrentMap<CorrelationKey, QueuedItem> pending = new ConcurrentHashMap<>();
+    private final Cache<CorrelationKey, QueuedItem> finished;
+
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    private volatile boolean accepting;
+    private volatile Thread flusher;
+
+    /**
+     * Constructor for ItemWriteBehindQueue.
+     *
+     * @param jdbcTemplate Used for the batch inserts; Hibernate cannot batch inserts of IDENTITY entities.
+     * @param transactionManager The transaction manager used to commit one transaction per batch.
+     * @param enabled Whether items may be accepted asynchronously.
+     * @param capacity Maximum number of queued items; beyond that new items are rejected.
+     * @param maxBatchSize Items written per batch; a full batch is written without waiting for the interval.
+     * @param flushInterval Longest time an accepted item waits before its batch is written.
+     * @param statusRetention How long the outcome of a written item is kept in memory for status requests.
+     * @param shutdownTimeout How long shutdown waits for the queue to be written.
+     */
+    public ItemWriteBehindQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                @Value("${foodlist.items.write-behind.enabled:false}") boolean enabled,
+                                @Value("${foodlist.items.write-behind.capacity:10000}") int capacity,
+                                @Value("${foodlist.items.write-behind.max-batch-size:500}") int maxBatchSize,
+                                @Value("${foodlist.items.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                @Value("${foodlist.items.write-behind.status-retention:10m}") Duration statusRetention,
+                                @Value("${foodlist.items.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.maxBatchSize = maxBatchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.finished = Caffeine.newBuilder()
+                .expireAfterWrite(statusRetention)
+                .maximumSize(Math.max(capacity, 1) * 10L)
+                .build();
+    }
+
+    /**
+     * @return Whether items may be accepted asynchronously.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a validated item for writing. Submitting a correlation ID that is already queued or known to be
+     * written returns its outcome instead of queueing it again, provided it is the same item; a failed one is
+     * queued again.
+     *
+     * @param item The item; addedAt is taken as the time of acceptance.
+     * @param ownerId The signed-in user, or {@link #ANONYMOUS_OWNER}; correlation IDs are unique per owner.
+     * @param correlationId The client-chosen or generated ID under which the status can be read.
+     * @return The outcome, completed once the item's batch is committed (COMMITTED with the item ID) or failed.
+     * Completed right away with FAILED if the ID was already used for a different item.
+     * @throws RejectedExecutionException if the queue is full or shutting down.
+     */
+    public CompletableFuture<ItemIngestDTO> enqueue(ItemDTO item, long ownerId, String correlationId) {
+        CorrelationKey key = new CorrelationKey(ownerId, correlationId);
+        String hash = fingerprint(item);
+        QueuedItem known = known(key);
+        if (known != null && !known.hasFailed()) {
+            return known.outcomeFor(hash);
+        }
+        if (!accepting) {
+            rejected.increment();
+            throw new RejectedExecutionException("Asynchronous item writing is not running.");
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException("Item write-behind queue is full (" + capacity + " items).");
+        }
+
+        QueuedItem queued = new QueuedItem(key, hash, item.getName(), item.getQuantity(), item.isChecked(),
+                LocalDateTime.now(), item.getAddedByUserId(), item.getShoppingListId(), new CompletableFuture<>());
+        QueuedItem concurrent = pending.putIfAbsent(key, queued);
+        if (concurrent != null) {
+            size.decrementAndGet(); // Same ID submitted concurrently; the first one is queued
+            return concurrent.outcomeFor(hash);
+        }
+        queue.offer(queued);
+        if (size.get() >= maxBatchSize) {
+            LockSupport.unpark(flusher);
+        }
+        return queued.outcome();
+    }
+
+    /**
+     * @return The state of an item the owner submitted under this correlation ID: queued, failed, or written (also
+     * if written before a restart). Empty if it is unknown, i.e. never accepted, expired or lost before it was written.
+     */
+    public Optional<ItemIngestDTO> status(long ownerId, String correlationId) {
+        CorrelationKey key = new CorrelationKey(ownerId, correlationId);
+        QueuedItem known = known(key);
+        if (known != null && known.outcome().isDone()) {
+            return Optional.of(known.outcome().join());
+        }
+        if (known != null) {
+            return Optional.of(key.status(Status.PENDING, null, null));
+        }
+        // Written before the outcome expired or before a restart: found by owner and correlation ID
+        return jdbcTemplate.queryForList("SELECT id FROM items WHERE correlation_owner_id = ? AND correlation_id = ?",
+                        Long.class, ownerId, correlationId).stream()
+                .findFirst()
+                .map(itemId -> key.status(Status.COMMITTED, itemId, null));
+    }
+
+    private QueuedItem known(CorrelationKey key) {
+        QueuedItem queued = pending.get(key);
+        return queued != null ? queued : finished.getIfPresent(key);
+    }
+
+    /**
+     * @return SHA-256 of the item's fields as hex, to tell a resubmission from a different item under the same ID.
+     */
+    static String fingerprint(ItemDTO item) {
+        String fields = String.join("\0", item.getName(), String.valueOf(item.getQuantity()),
+                String.valueOf(item.isChecked()), String.valueOf(item.getAddedByUserId()),
+                String.valueOf(item.getShoppingListId()));
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Required by every Java platform
+        }
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return enabled;
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        flusher = Thread.ofVirtual().name("item-write-behind").start(this::flushLoop);
+    }
+
+    /**
+     * Stops accepting items and waits until the queue is written.
+     */
+    @Override
+    public void stop() {
+        accepting = false;
+        Thread current = flusher;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            if (!current.join(shutdownTimeout)) {
+                log.error("{} accepted items could not be written within {}", size.get(), shutdownTimeout);
+                current.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flusher = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flusher != null;
+    }
+
+    /**
+     * Stops after the web server (DEFAULT_PHASE - 2048), so no request can add items to a queue that was
+     * already written; starts before it.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        while (true) {
+            if (accepting && size.get() < maxBatchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            List<QueuedItem> batch = new ArrayList<>(Math.min(size.get(), maxBatchSize));
+            QueuedItem next;
+            while (batch.size() < maxBatchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                if (!accepting) {
+                    return;
+                }
+                continue;
+            }
+            if (!writeBatch(batch)) {
+                return; // Interrupted during shutdown
+            }
+            size.addAndGet(-batch.size());
+        }
+    }
+
+    /**
+     * @return false if the thread was interrupted while waiting for the database.
+     */
+    private boolean writeBatch(List<QueuedItem> batch) {
+        while (true) {
+            try {
+                Map<CorrelationKey, Long> itemIds = transactionTemplate.execute(status -> {
+                    jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), this::bind);
+                    return writtenIds(batch);
+                });
+                batches.increment();
+                batch.forEach(queued -> complete(queued, Status.COMMITTED, itemIds.get(queued.key()), null));
+                return true;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                // Database unavailable: keep the batch; meanwhile the queue fills up and rejects new items
+                log.warn("Writing {} queued items failed, retrying in {}: {}", batch.size(), RETRY_DELAY, e.getMessage());
+                LockSupport.parkNanos(this, RETRY_DELAY.toNanos());
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+            } catch (DataAccessException e) {
+                // One invalid item (e.g. its list was deleted meanwhile) fails the whole batch; write them one by one
+                log.warn("Batch of {} queued items failed, writing them individually: {}", batch.size(), e.getMessage());
+                batch.forEach(this::writeSingle);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Batch inserts do not return generated keys reliably, so the IDs are read back in the same transaction,
+     * by owner and correlation ID together: only that pair is indexed (uq_items_correlation_owner_id).
+     */
+    private Map<CorrelationKey, Long> writtenIds(List<QueuedItem> batch) {
+        String pairs = String.join(", ", Collections.nCopies(batch.size(), "(?, ?)"));
+        Map<CorrelationKey, Long> itemIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, correlation_owner_id, correlation_id FROM items "
+                        + "WHERE (correlation_owner_id, correlation_id) IN (" + pairs + ")",
+                rs -> {
+                    itemIds.put(new CorrelationKey(rs.getLong(2), rs.getString(3)), rs.getLong(1));
+                },
+                batch.stream().flatMap(queued -> Stream.of(queued.key().ownerId(), queued.key().correlationId())).toArray());
+        return itemIds;
+    }
+
+    private void writeSingle(QueuedItem queued) {
+        try {
+            Long itemId = transactionTemplate.execute(status -> {
+                jdbcTemplate.update(INSERT, ps -> bind(ps, queued));
+                return writtenIds(List.of(queued)).get(queued.key());
+            });
+            complete(queued, Status.COMMITTED, itemId, null);
+        } catch (DuplicateKeyException e) {
+            // Written before under the same owner and correlation ID (resubmitted by the client, e.g. after a restart)
+            completeDuplicate(queued);
+        } catch (DataAccessException e) {
+            complete(queued, Status.FAILED, null, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void completeDuplicate(QueuedItem queued) {
+        try {
+            Map<String, Object> written = jdbcTemplate.queryForMap(FIND_WRITTEN, queued.key().ownerId(),
+                    queued.key().correlationId());
+            Object hash = written.get("correlation_hash");
+            if (hash == null || hash.equals(queued.hash())) { // Rows written before V9 have no fingerprint
+                complete(queued, Status.COMMITTED, ((Number) written.get("id")).longValue(), null);
+            } else {
+                complete(queued, Status.FAILED, null, REUSED_ID);
+            }
+        } catch (DataAccessException e) {
+            complete(queued, Status.FAILED, null, e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void bind(PreparedStatement ps, QueuedItem queued) throws SQLException {
+        ps.setString(1, queued.name());
+        ps.setInt(2, queued.quantity());
+        ps.setBoolean(3, queued.checked());
+        ps.setTimestamp(4, Timestamp.valueOf(queued.addedAt()));
+        ps.setObject(5, queued.addedByUserId(), Types.BIGINT);
+        ps.setObject(6, queued.shoppingListId(), Types.BIGINT);
+        ps.setString(7, queued.key().correlationId());
+        ps.setLong(8, queued.key().ownerId());
+        ps.setString(9, queued.hash());
+    }
+
+    private void complete(QueuedItem queued, Status status, Long itemId, String error) {
+        (status == Status.COMMITTED ? committed : failed).increment();
+        // Kept for resubmissions and status requests before it leaves pending, so it is never unknown in between
+        finished.put(queued.key(), queued);
+        pending.remove(queued.key());
+        queued.outcome().complete(queued.key().status(status, itemId, error));
+    }
+
+    /**
+     * @return Number of items written.
+     */
+    public long getCommittedCount() {
+        return committed.sum();
+    }
+
+    /**
+     * @return Number of transactions used for those items.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Registers "foodlist.items.write-behind.items" per outcome (committed, failed, rejected), the number of
+     * batch transactions and the current queue length.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Map.of("committed", committed, "failed", failed, "rejected", rejected).forEach((outcome, count) ->
+                FunctionCounter.builder("foodlist.items.write-behind.items", count, LongAdder::sum)
+                        .description("Items accepted asynchronously, by outcome")
+                        .tag("outcome", outcome)
+                        .register(registry));
+        FunctionCounter.builder("foodlist.items.write-behind.batches", batches, LongAdder::sum)
+                .description("Batch transactions of the item write-behind queue")
+                .register(registry);
+        Gauge.builder("foodlist.items.write-behind.queued", size, AtomicInteger::get)
+                .description("Items accepted but not yet written")
+                .register(registry);
+    }
+
+    private record CorrelationKey(long ownerId, String correlationId) {
+
+        ItemIngestDTO status(Status status, Long itemId, String error) {
+            return new ItemIngestDTO(correlationId, status, itemId, error);
+        }
+    }
+
+    private record QueuedItem(CorrelationKey key, String hash, String name, int quantity, boolean checked,
+                              LocalDateTime addedAt, Long addedByUserId, Long shoppingListId,
+                              CompletableFuture<ItemIngestDTO> outcome) {
+
+        boolean hasFailed() {
+            return outcome.isDone() && outcome.join().getStatus() == Status.FAILED;
+        }
+
+        /**
+         * @return The outcome of this item for a resubmission with the given fingerprint; FAILED if it differs.
+         */
+        CompletableFuture<ItemIngestDTO> outcomeFor(String otherHash) {
+            return hash.equals(otherHash) ? outcome
+                    : CompletableFuture.completedFuture(key.status(Status.FAILED, null, REUSED_ID));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.foodlist.service.concurrency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a queued mutation of a shopping list was not started within the timeout. The mutation has been
+ * withdrawn and is never applied, so the request can safely be retried later (503).
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class MutationTimeoutException extends RuntimeException {
+
+    public MutationTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,183 @@
+package com.foodlist.service.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Single-flight layer for identical reads in the service tier.
+ * Concurrent calls for the same key share one in-flight load: the first caller executes the loader
+ * on its own thread and completes a {@link CompletableFuture}, every other caller waits on that future.
+ * Followers wait at most for the timeout configured for the key's namespace and then load on their own.
+ */
+@Slf4j
+@Component
+public class RequestCoalescer implements MeterBinder {
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> timeoutsByNamespace = new ConcurrentHashMap<>();
+
+    private final Environment environment;
+    private final boolean enabled;
+    private final long defaultTimeoutMs;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Constructor for RequestCoalescer.
+     *
+     * @param environment Used to resolve per-namespace timeouts ({@code foodlist.coalescing.<namespace>.timeout-ms}).
+     * @param enabled Whether identical reads are coalesced at all.
+     * @param defaultTimeoutMs Timeout for followers of a namespace without its own setting.
+     */
+    public RequestCoalescer(Environment environment,
+                            @Value("${foodlist.coalescing.enabled:true}") boolean enabled,
+                            @Value("${foodlist.coalescing.timeout-ms:2000}") long defaultTimeoutMs) {
+        this.environment = environment;
+        this.enabled = enabled;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    /**
+     * Loads the value for the given key, sharing the load with all concurrent callers of the same key.
+     *
+     * @param namespace The kind of resource, e.g. "household". Also selects the timeout.
+     * @param id The ID of the resource within the namespace.
+     * @param loader The actual load, executed by exactly one of the concurrent callers.
+     * @return The loaded value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String namespace, Object id, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        requests.increment();
+
+        Key key = new Key(namespace, id);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, own);
+        if (existing == null) {
+            return (T) lead(key, own, loader);
+        }
+
+        coalesced.increment();
+        try {
+            return (T) existing.get(timeoutFor(namespace), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The leader is too slow; do not let this caller wait any longer than its budget.
+            timeouts.increment();
+            log.warn("Coalesced load for {} timed out, loading independently.", key);
+            loads.increment();
+            return loader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for coalesced load of " + key, e);
+        }
+    }
+
+    private Object lead(Key key, CompletableFuture<Object> own, Supplier<?> loader) {
+        loads.increment();
+        try {
+            Object value = loader.get();
+            own.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    private long timeoutFor(String namespace) {
+        return timeoutsByNamespace.computeIfAbsent(namespace, ns -> environment.getProperty(
+                "foodlist.coalescing." + ns + ".timeout-ms", Long.class, defaultTimeoutMs));
+    }
+
+    /**
+     * @return Total number of calls to {@link #load} while coalescing is enabled.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return Number of loads that actually reached the loader.
+     */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /**
+     * @return Number of calls that joined an in-flight load instead of starting one.
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * @return Number of followers that gave up waiting and loaded on their own.
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return Share of calls served by another caller's load, between 0 and 1.
+     */
+    public double getCoalescingRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0.0 : (double) (coalesced.sum() - timeouts.sum()) / total;
+    }
+
+    /**
+     * Registers "foodlist.coalescing.requests" (all calls), "foodlist.coalescing.calls" per outcome and the
+     * coalescing ratio as a gauge. The outcomes are disjoint, so they add up to the requests: loads = calls that
+     * led a load, coalesced = calls served by another caller's load, timeouts = followers that gave up waiting
+     * and loaded on their own.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("foodlist.coalescing.requests", requests, LongAdder::sum)
+                .description("Calls to the request coalescer")
+                .register(registry);
+        Map.<String, ToDoubleFunction<RequestCoalescer>>of(
+                "loads", coalescer -> coalescer.loads.sum() - coalescer.timeouts.sum(),
+                "coalesced", coalescer -> coalescer.coalesced.sum() - coalescer.timeouts.sum(),
+                "timeouts", coalescer -> coalescer.timeouts.sum()).forEach((outcome, count) ->
+                FunctionCounter.builder("foodlist.coalescing.calls", this, count)
+                        .description("Calls to the request coalescer, by outcome")
+                        .tag("outcome", outcome)
+                        .register(registry));
+        Gauge.builder("foodlist.coalescing.ratio", this, RequestCoalescer::getCoalescingRatio)
+                .description("Share of calls served by another caller's load")
+                .register(registry);
+    }
+
+    private record Key(String namespace, Object id) {
+    }
+}
@@ -0,0 +1,232 @@
+package com.foodlist.service.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Optional single-writer execution mode for mutations of a shopping list.
+ * Every list with pending mutations gets a mailbox that is drained by exactly one virtual thread.
+ * All mutations queued while a drain is running are applied in one transaction on the next drain,
+ * so concurrent writers of one list neither race on read-modify-write nor contend on row locks.
+ * When the mode is disabled, mutations run directly on the calling thread.
+ */
+@Slf4j
+@Component
+public class ShoppingListMutationDispatcher {
+
+    private final ConcurrentMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long timeoutMs;
+
+    private final LongAdder mutations = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchRetries = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+
+    /**
+     * Constructor for ShoppingListMutationDispatcher.
+     *
+     * @param transactionManager The transaction manager used to commit one transaction per drained batch.
+     * @param enabled Whether mutations are routed through the per-list mailboxes.
+     * @param maxBatchSize Upper bound of mutations applied in a single transaction.
+     * @param timeoutMs How long a caller waits for its queued mutation to be started; a mutation that is still
+     * queued then is withdrawn and the caller gets a {@link MutationTimeoutException}.
+     */
+    public ShoppingListMutationDispatcher(PlatformTransactionManager transactionManager,
+                                          @Value("${foodlist.items.single-writer.enabled:false}") boolean enabled,
+                                          @Value("${foodlist.items.single-writer.max-batch-size:256}") int maxBatchSize,
+                                          @Value("${foodlist.items.single-writer.timeout-ms:5000}") long timeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Executes a mutation of the given shopping list.
+     * In single-writer mode the mutation is queued in the list's mailbox and this call blocks until
+     * the batch containing it has been committed.
+     *
+     * @param shoppingListId The list the mutation belongs to. Mutations without a list run directly.
+     * @param mutation The mutation, executed inside the batch transaction.
+     * @return The result of the mutation.
+     * @throws MutationTimeoutException if the mutation was withdrawn because it was not started in time.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Long shoppingListId, Supplier<T> mutation) {
+        if (!enabled || shoppingListId == null) {
+            return mutation.get();
+        }
+
+        Mutation queued = new Mutation((Supplier<Object>) mutation, new CompletableFuture<>(), new AtomicBoolean());
+        mailboxes.compute(shoppingListId, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox(id);
+                Mailbox drained = mailbox;
+                Thread.ofVirtual().name("shopping-list-writer-" + id).start(() -> drain(drained));
+            }
+            mailbox.queue.offer(queued);
+            return mailbox;
+        });
+
+        try {
+            try {
+                return (T) queued.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (queued.taken.compareAndSet(false, true)) {
+                    // Still queued: withdrawn, so it can never commit after the caller was told it failed
+                    cancelled.increment();
+                    throw new MutationTimeoutException("Mutation of shopping list " + shoppingListId
+                            + " was not started within " + timeoutMs + " ms and was withdrawn.", e);
+                }
+                // Already part of a running batch; its outcome follows with the commit
+                return (T) queued.result.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for mutation of shopping list " + shoppingListId, e);
+        }
+    }
+
+    /**
+     * @return Whether mutations are routed through the per-list mailboxes.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    private void drain(Mailbox mailbox) {
+        while (true) {
+            List<Mutation> batch = new ArrayList<>();
+            Mutation next;
+            while (batch.size() < maxBatchSize && (next = mailbox.queue.poll()) != null) {
+                if (next.taken.compareAndSet(false, true)) {
+                    batch.add(next); // Otherwise withdrawn by its caller after the timeout
+                }
+            }
+
+            if (batch.isEmpty()) {
+                // Retire the mailbox atomically with respect to execute(), so no mutation is left behind.
+                Mailbox current = mailboxes.computeIfPresent(mailbox.shoppingListId,
+                        (id, existing) -> existing == mailbox && mailbox.queue.isEmpty() ? null : existing);
+                if (current != mailbox) {
+                    return;
+                }
+                continue;
+            }
+
+            applyBatch(mailbox.shoppingListId, batch);
+        }
+    }
+
+    private void applyBatch(Long shoppingListId, List<Mutation> batch) {
+        batches.increment();
+        mutations.add(batch.size());
+        List<Object> results = new ArrayList<>(batch.size());
+        List<RuntimeException> failures = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Mutation mutation : batch) {
+                    try {
+                        results.add(mutation.action.get());
+                        failures.add(null);
+                    } catch (RuntimeException e) {
+                        // Validation failures of a single mutation must not discard the rest of the batch
+                        results.add(null);
+                        failures.add(e);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            // The shared transaction could not be committed; apply the mutations one by one instead.
+            log.warn("Batch of {} mutations for shopping list {} failed, retrying individually: {}",
+                    batch.size(), shoppingListId, e.getMessage());
+            batchRetries.increment();
+            batch.forEach(this::applySingle);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            if (failures.get(i) != null) {
+                batch.get(i).result.completeExceptionally(failures.get(i));
+            } else {
+                batch.get(i).result.complete(results.get(i));
+            }
+        }
+    }
+
+    private void applySingle(Mutation mutation) {
+        try {
+            mutation.result.complete(transactionTemplate.execute(status -> mutation.action.get()));
+        } catch (RuntimeException e) {
+            mutation.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return Number of mutations applied through mailboxes.
+     */
+    public long getMutationCount() {
+        return mutations.sum();
+    }
+
+    /**
+     * @return Number of transactions used for those mutations.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * @return Number of batches that had to be split into single transactions.
+     */
+    public long getBatchRetryCount() {
+        return batchRetries.sum();
+    }
+
+    /**
+     * @return Number of mutations withdrawn by their caller after the timeout, never applied.
+     */
+    public long getCancelledCount() {
+        return cancelled.sum();
+    }
+
+    /**
+     * @param taken Set by whoever comes first: the writer that applies the mutation or the caller that withdraws it.
+     */
+    private record Mutation(Supplier<Object> action, CompletableFuture<Object> result, AtomicBoolean taken) {
+    }
+
+    private static final class Mailbox {
+        private final Long shoppingListId;
+        private final Queue<Mutation> queue = new ConcurrentLinkedQueue<>();
+
+        private Mailbox(Long shoppingListId) {
+            this.shoppingListId = shoppingListId;
+        }
+    }
+}
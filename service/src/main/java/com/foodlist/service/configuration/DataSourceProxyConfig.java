@@ -0,0 +1,55 @@
+package com.foodlist.service.configuration;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Wraps the DataSource in a datasource-proxy, so every executed JDBC statement is reported to
+ * all QueryExecutionListener beans (JFR events, SQL log, statement recording in tests).
+ * MethodExecutionListener beans additionally see the calls on statements and result sets,
+ * which requires proxying the result sets as well; that only happens when such a bean exists
+ * (SqlLogRowCounter with foodlist.sql-log.count-rows=true), since it puts every JDBC call of the
+ * application through the listener dispatch.
+ * Without any listener bean the DataSource is left untouched.
+ */
+@Configuration // Marks this class as a Spring configuration class
+public class DataSourceProxyConfig {
+
+    /**
+     * @param queryListeners All QueryExecutionListener beans, resolved lazily when the DataSource is created.
+     * @param methodListeners All MethodExecutionListener beans, resolved lazily when the DataSource is created.
+     * @return A BeanPostProcessor wrapping every DataSource bean.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<QueryExecutionListener> queryListeners,
+                                                                 ObjectProvider<MethodExecutionListener> methodListeners) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                List<QueryExecutionListener> queries = queryListeners.orderedStream().toList();
+                List<MethodExecutionListener> methods = methodListeners.orderedStream().toList();
+                if (queries.isEmpty() && methods.isEmpty()) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource).name(beanName);
+                queries.forEach(builder::listener);
+                methods.forEach(builder::methodListener);
+                if (!methods.isEmpty()) {
+                    builder.proxyResultSet();
+                }
+                return builder.build();
+            }
+        };
+    }
+}
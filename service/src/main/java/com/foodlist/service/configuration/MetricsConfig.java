@@ -0,0 +1,30 @@
+package com.foodlist.service.configuration;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics that Spring Boot does not register by itself.
+ * Controller, service and mapper timers come from LayerTimingAspect; HTTP, repository
+ * and Hikari pool metrics are auto-configured by Actuator.
+ */
+@Configuration // Marks this class as a Spring configuration class
+public class MetricsConfig {
+
+    /**
+     * Exposes Hibernate statistics (queries, entity loads, second-level and query cache hits).
+     * Requires hibernate.generate_statistics=true, otherwise all values stay at zero.
+     *
+     * @param entityManagerFactory The JPA EntityManagerFactory backed by Hibernate.
+     * @return A MeterBinder registering the hibernate.* meters.
+     */
+    @Bean
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Tags.empty());
+    }
+}
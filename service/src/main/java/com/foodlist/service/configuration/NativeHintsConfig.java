@@ -0,0 +1,92 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.controller.ItemPageQuery;
+import com.foodlist.service.dto.AuthTokenDTO;
+import com.foodlist.service.dto.HouseholdDTO;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.dto.UserDTO;
+import com.foodlist.service.mapper.HouseholdMapper;
+import com.foodlist.service.mapper.ItemMapper;
+import com.foodlist.service.mapper.ShoppingListMapper;
+import com.foodlist.service.mapper.UserMapper;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.IdempotencyRecord;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.data.domain.PageImpl;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Runtime hints for the GraalVM native image (profile "native").
+ * Spring AOT already covers beans, controllers and repositories; the hints here describe what it
+ * cannot see: reflective access to the entities and the generated MapStruct mappers, the DTOs, page
+ * and query objects that Thymeleaf renders through SpEL, templates and Swagger UI resources, and the JDK proxies that
+ * datasource-proxy creates around JDBC objects.
+ * Lombok needs no hints, it only generates code at compile time.
+ */
+@Configuration // Marks this class as a Spring configuration class
+@ImportRuntimeHints(NativeHintsConfig.FoodlistRuntimeHints.class)
+@RegisterReflectionForBinding({ItemDTO.class, ItemDisplayDTO.class, ShoppingListDTO.class, HouseholdDTO.class, UserDTO.class,
+        AuthTokenDTO.class, ItemIngestDTO.class, ItemPageQuery.class, PageImpl.class})
+public class NativeHintsConfig {
+
+    static final List<Class<?>> ENTITIES = List.of(Item.class, ShoppingList.class, Household.class, User.class,
+            IdempotencyRecord.class);
+    static final List<Class<?>> MAPPERS = List.of(ItemMapper.class, ShoppingListMapper.class, HouseholdMapper.class, UserMapper.class);
+
+    static class FoodlistRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Hibernate reads and writes the entity fields and instantiates entities and lazy proxies
+            for (Class<?> entity : ENTITIES) {
+                hints.reflection().registerType(entity,
+                        MemberCategory.DECLARED_FIELDS,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS);
+            }
+
+            // MapStruct generates <Mapper>Impl classes; they are beans, but the aspect and Mappers.getMapper() use reflection
+            for (Class<?> mapper : MAPPERS) {
+                hints.reflection().registerType(TypeReference.of(mapper.getName() + "Impl"),
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            hints.resources()
+                    .registerPattern("templates/*.html")
+                    .registerPattern("templates/fragments/*.html")
+                    .registerPattern("db/migration/*.sql")
+                    // Bootstrap and its precompressed variants, unpacked at build time (StaticAssetsConfig)
+                    .registerPattern("static/assets/*/*")
+                    // springdoc serves Swagger UI from the webjar and reads its version from the Maven metadata
+                    .registerPattern("META-INF/resources/webjars/swagger-ui/*/*")
+                    .registerPattern("META-INF/maven/org.webjars/swagger-ui/pom.properties");
+
+            // datasource-proxy wraps every JDBC object in a JDK proxy (ProxyJdbcObject first)
+            for (Class<?> jdbcType : List.of(DataSource.class, Connection.class, Statement.class,
+                    PreparedStatement.class, CallableStatement.class, ResultSet.class)) {
+                hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password hashing for all profiles: new passwords are stored as {bcrypt} hashes, existing hashes are
+ * checked according to their prefix ({noop}, {bcrypt}, {argon2}, ...). Hashing runs on a small bounded
+ * executor instead of the request threads, see {@link BoundedPasswordEncoder}.
+ */
+@Configuration // Marks this class as a Spring configuration class
+public class PasswordEncoderConfig {
+
+    /**
+     * Creates the password encoder used by the login (DaoAuthenticationProvider) and UserServiceImpl.
+     * The executor is not a bean of its own, so Spring Boot's applicationTaskExecutor stays in place.
+     *
+     * @param threads Maximum number of hashes computed at once; 0 for half of the available processors.
+     * @param queueCapacity Number of hashes that may wait for a thread before callers are rejected.
+     * @param timeout How long a caller waits for its hash, including the time in the queue.
+     * @return A BoundedPasswordEncoder instance.
+     */
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(@Value("${foodlist.security.password-hashing.threads:0}") int threads,
+                                                  @Value("${foodlist.security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                                  @Value("${foodlist.security.password-hashing.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hashing-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        return new BoundedPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder(), executor, timeout);
+    }
+
+    /**
+     * Exposes the hashing executor as executor.* meters (active and queued tasks, completed, pool size).
+     *
+     * @param passwordEncoder The bounded password encoder.
+     * @return A MeterBinder registering the meters with name "password.hashing".
+     */
+    @Bean
+    public MeterBinder passwordHashingMetrics(BoundedPasswordEncoder passwordEncoder) {
+        return new ExecutorServiceMetrics(passwordEncoder.executor(), "password.hashing", Tags.empty());
+    }
+}
@@ -0,0 +1,63 @@
+package com.foodlist.service.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.ReactiveTransactionManager;
+
+/**
+ * JDBC/JPA and R2DBC side by side for the 'reactive' profile.
+ * Spring Boot backs off the JDBC DataSource as soon as an R2DBC ConnectionFactory exists,
+ * so the Hikari DataSource and both transaction managers are declared explicitly:
+ * the JPA one stays primary for all @Transactional services, the R2DBC one is used by
+ * the reactive services via TransactionalOperator.
+ */
+@Configuration // Marks this class as a Spring configuration class
+@Profile("reactive") // Activates this configuration only when the "reactive" profile is active
+public class ReactiveTransactionConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * @param dataSourceProperties The spring.datasource.* settings.
+     * @return The Hikari pool for the blocking JPA stack, configured via spring.datasource.hikari.*.
+     */
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * @param entityManagerFactory The JPA EntityManagerFactory.
+     * @return The primary transaction manager for the blocking JPA services.
+     */
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+
+    /**
+     * @param connectionFactory The R2DBC ConnectionFactory.
+     * @return The transaction manager for the reactive services.
+     */
+    @Bean
+    public ReactiveTransactionManager reactiveTransactionManager(ConnectionFactory connectionFactory) {
+        return new R2dbcTransactionManager(connectionFactory);
+    }
+}
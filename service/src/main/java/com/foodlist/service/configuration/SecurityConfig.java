@@ -0,0 +1,144 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.security.AuthTokenService;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdMembershipCache;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.security.PasswordHashingUnavailableException;
+import com.foodlist.service.security.TokenAuthenticationFilter;
+import com.foodlist.service.security.UserAuthorities;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+/**
+ * Security Configuration for all profiles except 'dev'.
+ * Every request requires a signed-in user. The chain is stateless: there is no HTTP session, a password
+ * is checked once (form login, or HTTP Basic on POST /api/v1/auth/token) and exchanged for a signed token
+ * (AuthTokenService). The web UI keeps it in a cookie, API clients send it as "Authorization: Bearer".
+ * HTTP Basic stays available on every request for existing clients, at the cost of one password hash each.
+ * Users are loaded by HouseholdUserDetailsService, so the web UI knows the household of the user
+ * and only shows its shopping lists. The REST API is limited to that household as well (HouseholdAccess):
+ * a user reads the members of the household, but changes (including the password) only their own account.
+ * Listing or creating households and the operational endpoints (profiling, actuator except health) are
+ * reserved for admins (UserAuthorities).
+ */
+@Configuration // Marks this class as a Spring configuration class
+@Profile("!dev") // DevSecurityConfig takes over in the "dev" profile
+public class SecurityConfig {
+
+    static final String TOKEN_PATH = "/api/v1/auth/token";
+
+    private final AuthTokenService authTokenService;
+    private final HouseholdMembershipCache membershipCache;
+    private final HouseholdAccess householdAccess;
+
+    public SecurityConfig(AuthTokenService authTokenService, HouseholdMembershipCache membershipCache,
+                          HouseholdAccess householdAccess) {
+        this.authTokenService = authTokenService;
+        this.membershipCache = membershipCache;
+        this.householdAccess = householdAccess;
+    }
+
+    /**
+     * Configures the security filter chain to require authentication for all requests.
+     *
+     * @param http The HttpSecurity object to configure.
+     * @return A SecurityFilterChain instance.
+     * @throws Exception if an error occurs during configuration.
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+        http
+                .authorizeHttpRequests(auth -> auth
+                        // Static assets carry no user data; public, so that shared caches may keep them as well
+                        .requestMatchers(StaticAssetsConfig.ASSETS_PATH).permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**", "/api/v1/profiling/**").hasRole(UserAuthorities.ADMIN)
+                        // All households, users, lists and items at once, and new households: admins only
+                        .requestMatchers(HttpMethod.GET, "/api/v1/households", "/api/v1/users",
+                                "/api/v1/shoppinglists", "/api/v1/items").hasRole(UserAuthorities.ADMIN)
+                        .requestMatchers(HttpMethod.POST, "/api/v1/households").hasRole(UserAuthorities.ADMIN)
+                        .requestMatchers("/api/v1/households/{householdId}").access(householdAccess.household("householdId"))
+                        .requestMatchers(HttpMethod.GET, "/api/v1/users/{userId}").access(householdAccess.member("userId"))
+                        .requestMatchers("/api/v1/users/{userId}").access(householdAccess.self("userId"))
+                        .requestMatchers("/api/v1/shoppinglists/{shoppingListId}/**")
+                        .access(householdAccess.shoppingList("shoppingListId"))
+                        .requestMatchers("/api/v1/items/{itemId}").access(householdAccess.item("itemId"))
+                        .anyRequest().authenticated()
+                )
+                // No session: every request authenticates itself with its token; the context lives for the request only
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+                .addFilterBefore(new TokenAuthenticationFilter(authTokenService, membershipCache),
+                        UsernamePasswordAuthenticationFilter.class)
+                // The CSRF token lives in a cookie instead of the session; Bearer requests are not sent by browsers
+                // on their own and need none, neither does the token exchange of API clients
+                .csrf(csrf -> csrf
+                        .csrfTokenRepository(new CookieCsrfTokenRepository())
+                        .ignoringRequestMatchers(TokenAuthenticationFilter::hasBearerToken)
+                        .ignoringRequestMatchers(new AntPathRequestMatcher(TOKEN_PATH, HttpMethod.POST.name()))
+                )
+                // Login page of Spring Security; after login the user lands on the household view with a token cookie
+                .formLogin(form -> form
+                        .successHandler(tokenCookieSuccessHandler())
+                        .failureHandler(unavailableAwareFailureHandler())
+                        .permitAll())
+                .logout(logout -> logout.deleteCookies(AuthTokenService.COOKIE_NAME))
+                .httpBasic(basic -> basic.authenticationEntryPoint(unavailableAwareEntryPoint()));
+        return http.build();
+    }
+
+    private AuthenticationSuccessHandler tokenCookieSuccessHandler() {
+        return (request, response, authentication) -> {
+            String token = authTokenService.issue((HouseholdUser) authentication.getPrincipal());
+            response.addHeader(HttpHeaders.SET_COOKIE, authTokenService.cookie(token, request.isSecure()).toString());
+            response.sendRedirect(request.getContextPath() + "/");
+        };
+    }
+
+    /**
+     * A saturated password hashing pool answers 503 instead of "wrong password", so that clients retry.
+     */
+    private AuthenticationFailureHandler unavailableAwareFailureHandler() {
+        AuthenticationFailureHandler loginError = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingUnavailableException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+            } else {
+                loginError.onAuthenticationFailure(request, response, exception);
+            }
+        };
+    }
+
+    private AuthenticationEntryPoint unavailableAwareEntryPoint() {
+        BasicAuthenticationEntryPoint basic = new BasicAuthenticationEntryPoint();
+        basic.setRealmName("Realm");
+        return (request, response, exception) -> {
+            if (exception instanceof PasswordHashingUnavailableException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+            } else {
+                basic.commence(request, response, exception);
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.foodlist.service.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.time.Duration;
+
+/**
+ * Static assets of the web UI (Bootstrap, unpacked from the WebJar at build time) under /assets/**.
+ * URLs carry a hash of the file content (bootstrap-&lt;md5&gt;.min.css), so the files can be cached
+ * as immutable: a repeat visit loads them from the browser cache without any request, and a new
+ * version gets a new URL. Precompressed .br/.gz variants next to the files are served according to
+ * Accept-Encoding instead of compressing on every request.
+ */
+@Configuration // Marks this class as a Spring configuration class
+public class StaticAssetsConfig implements WebMvcConfigurer {
+
+    public static final String ASSETS_PATH = "/assets/**";
+
+    private final Duration maxAge;
+
+    public StaticAssetsConfig(@Value("${foodlist.assets.max-age:365d}") Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Registers /assets/** with a resolver chain: the version resolver strips the content hash from the URL,
+     * the encoded resolver picks the precompressed variant. Resolved paths are cached (resourceChain(true)).
+     *
+     * @param registry The ResourceHandlerRegistry to configure.
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler(ASSETS_PATH)
+                .addResourceLocations("classpath:/static/assets/")
+                .setCacheControl(CacheControl.maxAge(maxAge).cachePublic().immutable())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    /**
+     * Rewrites @{/assets/...} links in the templates to their content-hashed URLs.
+     *
+     * @return A ResourceUrlEncodingFilter instance.
+     */
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,46 @@
+package com.foodlist.service.controller;
+
+import com.foodlist.service.dto.AuthTokenDTO;
+import com.foodlist.service.security.AuthTokenService;
+import com.foodlist.service.security.HouseholdUser;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+
+/**
+ * REST Controller that exchanges a password sign-in for a stateless token.
+ * API clients authenticate once with HTTP Basic and send the token afterwards, so the password
+ * is only hashed once instead of on every request.
+ */
+@RestController // Marks this class as a REST controller
+@RequestMapping("/api/v1/auth")
+public class AuthTokenController {
+
+    private final AuthTokenService authTokenService;
+
+    public AuthTokenController(AuthTokenService authTokenService) {
+        this.authTokenService = authTokenService;
+    }
+
+    /**
+     * Issues a token for the signed-in user.
+     * Maps to POST /api/v1/auth/token
+     *
+     * @param user The user signed in with HTTP Basic (or an existing token).
+     * @return The token and its expiry.
+     * @throws ResponseStatusException with HttpStatus.UNAUTHORIZED if nobody is signed in.
+     */
+    @PostMapping("/token")
+    public AuthTokenDTO issueToken(@AuthenticationPrincipal HouseholdUser user) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Sign in with HTTP Basic to obtain a token.");
+        }
+        Instant expiresAt = authTokenService.expiresAt();
+        return new AuthTokenDTO(authTokenService.issue(user, expiresAt), expiresAt);
+    }
+}
@@ -0,0 +1,59 @@
+package com.foodlist.service.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Helper for exposing entity versions as ETags and evaluating If-Match headers on updates.
+ * The ETag of a resource is its JPA version, e.g. {@code "3"}.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * @param version The entity version, may be null for entities that were never written.
+     * @return The ETag value for the version, or null if there is none.
+     */
+    static String of(Long version) {
+        return version == null ? null : String.valueOf(version);
+    }
+
+    /**
+     * Extracts the expected version from an If-Match header.
+     *
+     * @param ifMatch The raw header value, may be null.
+     * @param required Whether updates without If-Match are rejected.
+     * @return The expected version, or null if the update is unconditional (no header or "*").
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_REQUIRED if the header is missing but required.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED for a weak ETag ("W/..."): If-Match uses
+     * strong comparison (RFC 9110, 13.1.1), so a weak tag never matches.
+     * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if the header does not contain a single version.
+     */
+    static Long parseIfMatch(String ifMatch, boolean required) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            if (required) {
+                throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED, "If-Match header is required for updates.");
+            }
+            return null;
+        }
+
+        String value = ifMatch.trim();
+        if ("*".equals(value)) {
+            return null;
+        }
+        if (value.startsWith("W/")) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "Weak ETags never match If-Match: " + ifMatch);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid If-Match header: " + ifMatch);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.foodlist.service.controller;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+
+/**
+ * Iterator for th:each that flushes the response every chunkSize elements, so the rows rendered so far
+ * reach the client while the next chunk is read from the database. The first flush happens before the
+ * first element is requested and sends everything above the table.
+ *
+ * @param <T> The element type.
+ */
+class FlushingIterator<T> implements Iterator<T> {
+
+    private final Iterator<T> delegate;
+    private final int chunkSize;
+    private final HttpServletResponse response;
+    private long count;
+    private long flushedAt = -1;
+
+    FlushingIterator(Iterator<T> delegate, int chunkSize, HttpServletResponse response) {
+        this.delegate = delegate;
+        this.chunkSize = chunkSize;
+        this.response = response;
+    }
+
+    @Override
+    public boolean hasNext() {
+        // Thymeleaf may ask more than once per element
+        if (count % chunkSize == 0 && flushedAt != count) {
+            flushedAt = count;
+            try {
+                response.flushBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return delegate.hasNext();
+    }
+
+    @Override
+    public T next() {
+        T next = delegate.next();
+        count++;
+        return next;
+    }
+}
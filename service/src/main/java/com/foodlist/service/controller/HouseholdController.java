@@ -1,10 +1,18 @@
 package com.foodlist.service.controller;
 
 import com.foodlist.service.dto.HouseholdDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
 import com.foodlist.service.service.HouseholdService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -19,15 +27,23 @@ import java.util.List;
 public class HouseholdController {
 
     private final HouseholdService householdService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
 
     /**
      * Constructor for HouseholdController, injecting the HouseholdService dependency.
      * Spring will automatically inject this bean.
      *
      * @param householdService The service responsible for household-related business logic.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
      */
-    public HouseholdController(HouseholdService householdService) {
+    public HouseholdController(HouseholdService householdService,
+                               HouseholdAccess householdAccess,
+                               @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
         this.householdService = householdService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
     }
 
     /**
@@ -44,15 +60,17 @@ public class HouseholdController {
     /**
      * Retrieves a single household by its ID.
      * Maps to GET /api/v1/households/{householdId}
+     * The version of the entity is returned as ETag.
      *
      * @param householdId The unique ID of the household to retrieve.
      * @return The HouseholdDTO of the found household.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the household does not exist.
      */
     @GetMapping("/{householdId}")
-    public HouseholdDTO getHouseholdById(@PathVariable Long householdId) {
+    public ResponseEntity<HouseholdDTO> getHouseholdById(@PathVariable Long householdId) {
         try {
-            return householdService.getHouseholdById(householdId);
+            HouseholdDTO found = householdService.getHouseholdById(householdId);
+            return ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found);
         } catch (EntityNotFoundException enfe) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Household with ID " + householdId + " not found.");
         }
@@ -86,24 +104,40 @@ public class HouseholdController {
      * Updates an existing household.
      * Maps to PUT /api/v1/households/{householdId}
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param id The ID of the household to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag). If present, the update only
+     * succeeds while the stored version still matches, without reading the household first.
      * @param household The HouseholdDTO containing the updated details.
      * The ID in the DTO is set from the path variable for consistency.
      * @return The HouseholdDTO of the updated household.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the household to update does not exist.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if related entities (Users, ShoppingLists) are not found
      * or other data integrity issues occur.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the household was modified since that version.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_REQUIRED if If-Match is required but missing.
+     * @throws AccessDeniedException (403 Forbidden) if a user or shopping list of another household is to be taken over.
      */
     @PutMapping("/{householdId}")
-    public HouseholdDTO updateHousehold(@PathVariable("householdId") Long id,
-                                        @Valid @RequestBody HouseholdDTO household) {
+    public ResponseEntity<HouseholdDTO> updateHousehold(@AuthenticationPrincipal HouseholdUser signedIn,
+                                                        @PathVariable("householdId") Long id,
+                                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                        @Valid @RequestBody HouseholdDTO household) {
         // Ensure the ID from the path matches the ID in the request body for consistency
         household.setId(id);
+        // The expected version comes only from If-Match; a version in the body is ignored
+        household.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        householdAccess.checkMembers(signedIn, household.getUserIds());
+        householdAccess.checkShoppingLists(signedIn, household.getShoppingListIds());
         try {
-            return this.householdService.updateHousehold(household);
+            HouseholdDTO updated = this.householdService.updateHousehold(household);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (EntityNotFoundException e) {
             // Catches if the household itself or a related entity (User/ShoppingList) is not found
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            // Another client changed the household after the version in If-Match was read
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         } catch (Exception e) {
             // Catch any other unexpected exceptions, e.g., validation or other constraint violations
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update household: " + e.getMessage());
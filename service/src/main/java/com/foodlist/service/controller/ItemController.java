@@ -1,17 +1,32 @@
 package com.foodlist.service.controller;
 
+import com.foodlist.service.concurrency.ItemWriteBehindQueue;
+import com.foodlist.service.concurrency.MutationTimeoutException;
 import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
 import com.foodlist.service.service.ItemService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.validation.Valid;
 // Import für MethodArgumentNotValidException, falls Sie eine globale Fehlerbehandlung haben
 // import org.springframework.web.bind.MethodArgumentNotValidException;
 
+import java.net.URI;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 // NoSuchElementException wird nicht mehr direkt im Service geworfen, daher hier entfernt
 // import java.util.NoSuchElementException;
 
@@ -20,19 +35,31 @@ import java.util.List;
  * Handles HTTP requests related to items, including CRUD operations.
  */
 @RestController // Marks this class as a REST controller
+@Profile("!reactive") // Replaced by the non-blocking ReactiveItemController in the "reactive" profile
 @RequestMapping("/api/v1/items") // Base path for all item-related endpoints
 public class ItemController {
 
+    public static final String CORRELATION_ID = "X-Correlation-ID";
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final ItemService itemService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
 
     /**
      * Constructor for ItemController, injecting the ItemService dependency.
      * Spring will automatically inject this bean.
      *
      * @param itemService The service responsible for item-related business logic.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
      */
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService,
+                          HouseholdAccess householdAccess,
+                          @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
         this.itemService = itemService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
     }
 
     /**
@@ -49,15 +76,17 @@ public class ItemController {
     /**
      * Retrieves a single item by its ID.
      * Maps to GET /api/v1/items/{itemId}
+     * The version of the entity is returned as ETag.
      *
      * @param itemId The unique ID of the item to retrieve.
      * @return The ItemDTO of the found item.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item does not exist.
      */
     @GetMapping("/{itemId}")
-    public ItemDisplayDTO getItemById(@PathVariable Long itemId) {
+    public ResponseEntity<ItemDisplayDTO> getItemById(@PathVariable Long itemId) {
         try {
-            return itemService.getItemById(itemId);
+            ItemDisplayDTO found = itemService.getItemById(itemId);
+            return ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found);
         } catch (EntityNotFoundException enfe) {
             // Log the exception for debugging purposes if needed
             // log.warn("Item with ID {} not found: {}", itemId, enfe.getMessage());
@@ -68,18 +97,45 @@ public class ItemController {
     /**
      * Adds a new item.
      * Maps to POST /api/v1/items
+     * With "Prefer: respond-async" and write-behind enabled, the item is validated, queued and written in a batch
+     * together with other additions (group commit). The response waits until that batch is committed: 201 Created
+     * with the ItemIngestDTO and a Location to the item, or 422 Unprocessable Entity if it failed. If it is not
+     * written within the response timeout, 202 Accepted with a Location to read the status from; the item is
+     * then only queued (not durable yet), resubmitting it with the same correlation ID is safe. Otherwise (also when
+     * write-behind is disabled) the item is written right away and returned with 201 Created.
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
+     * @param prefer Optional Prefer header; "respond-async" requests asynchronous writing.
+     * @param correlationId Optional client-chosen ID for the asynchronous item (at most 64 characters, unique per
+     * signed-in user). Resubmitting it never adds the item twice, resubmitting it with a different item fails;
+     * without it an ID is generated.
      * @param item The ItemDTO containing the details of the item to add.
      * The @Valid annotation triggers bean validation.
-     * @return The ItemDTO of the newly created item.
+     * @return The ItemDTO of the newly created item, or the ItemIngestDTO of the item written in a batch.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if validation fails or
      * if there's a constraint violation (e.g., non-existent related entity ID).
+     * @throws ResponseStatusException with HttpStatus.SERVICE_UNAVAILABLE if the write-behind queue is full or,
+     * in single-writer mode, the item was not added in time (it is then not added at all).
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list or the adding user belongs to another household.
      */
     @PostMapping // Simplified mapping, equivalent to @PostMapping("/")
-    @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
-    public ItemDTO addItem(@Valid @RequestBody ItemDTO item) {
+    public ResponseEntity<?> addItem(@AuthenticationPrincipal HouseholdUser signedIn,
+                                     @RequestHeader(value = "Prefer", required = false) String prefer,
+                                     @RequestHeader(value = CORRELATION_ID, required = false) String correlationId,
+                                     @Valid @RequestBody ItemDTO item) {
+        householdAccess.checkShoppingList(signedIn, item.getShoppingListId());
+        householdAccess.checkMember(signedIn, item.getAddedByUserId());
         try {
-            return this.itemService.addItem(item);
+            if (prefer != null && prefer.contains(RESPOND_ASYNC)) {
+                Optional<ItemIngestDTO> outcome = this.itemService.enqueueItem(item, ownerOf(signedIn), correlationId);
+                if (outcome.isPresent()) {
+                    return ingestResponse(outcome.get());
+                }
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(this.itemService.addItem(item));
+        } catch (RejectedExecutionException | MutationTimeoutException e) {
+            // Back-pressure: the queue is full or the list's writer is behind; nothing was written, retrying is safe
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         } catch (EntityNotFoundException enfe) {
             // This catches cases where addedByUserId or shoppingListId do not exist
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, enfe.getMessage());
@@ -92,29 +148,91 @@ public class ItemController {
         }
     }
 
+    private ResponseEntity<ItemIngestDTO> ingestResponse(ItemIngestDTO outcome) {
+        return switch (outcome.getStatus()) {
+            case COMMITTED -> ResponseEntity.created(URI.create("/api/v1/items/" + outcome.getItemId()))
+                    .header(CORRELATION_ID, outcome.getCorrelationId())
+                    .body(outcome);
+            case FAILED -> ResponseEntity.unprocessableEntity()
+                    .header(CORRELATION_ID, outcome.getCorrelationId())
+                    .body(outcome);
+            // Still queued, not durable yet: accepted, the client polls the status or resubmits
+            case PENDING -> ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/items/ingest/" + outcome.getCorrelationId()))
+                    .header(CORRELATION_ID, outcome.getCorrelationId())
+                    .body(outcome);
+        };
+    }
+
+    /**
+     * Correlation IDs belong to the signed-in user; without one ("dev" profile) all share one anonymous owner.
+     */
+    private static long ownerOf(HouseholdUser signedIn) {
+        return signedIn != null ? signedIn.getUserId() : ItemWriteBehindQueue.ANONYMOUS_OWNER;
+    }
+
+    /**
+     * Retrieves the status of an item the signed-in user added with "Prefer: respond-async".
+     * Maps to GET /api/v1/items/ingest/{correlationId}
+     *
+     * @param signedIn The signed-in user (null in the "dev" profile).
+     * @param correlationId The correlation ID returned when the item was accepted.
+     * @return The ItemIngestDTO: PENDING, COMMITTED (with the item ID) or FAILED (with the reason).
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the signed-in user submitted no item under this
+     * ID, or it was lost before it was written (resubmitting it with the same ID is safe).
+     */
+    @GetMapping("/ingest/{correlationId}")
+    public ItemIngestDTO getIngestStatus(@AuthenticationPrincipal HouseholdUser signedIn,
+                                         @PathVariable String correlationId) {
+        return itemService.getIngestStatus(ownerOf(signedIn), correlationId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "No item accepted under correlation ID " + correlationId + "."));
+    }
+
     /**
      * Updates an existing item.
      * Maps to PUT /api/v1/items/{itemId}
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param id The ID of the item to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag). If present, the update only
+     * succeeds while the stored version still matches, without reading the item first.
      * @param item The ItemDTO containing the updated details.
      * The ID in the DTO is set from the path variable for consistency.
      * @return The ItemDTO of the updated item.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item to update does not exist.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if related entities (User, ShoppingList) are not found
      * or other data integrity issues occur.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the item was modified since that version.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_REQUIRED if If-Match is required but missing.
+     * @throws ResponseStatusException with HttpStatus.SERVICE_UNAVAILABLE if, in single-writer mode, the update was
+     * not applied in time (it is then not applied at all).
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list or the adding user belongs to another household.
      */
     @PutMapping("/{itemId}")
-    public ItemDTO updateItem(@PathVariable("itemId") Long id,
-                              @Valid @RequestBody ItemDTO item) {
+    public ResponseEntity<ItemDTO> updateItem(@AuthenticationPrincipal HouseholdUser signedIn,
+                                              @PathVariable("itemId") Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody ItemDTO item) {
         // Ensure the ID from the path matches the ID in the request body for consistency
         // or set the DTO's ID from the path if the DTO's ID is not expected in the body.
         item.setId(id);
+        // The expected version comes only from If-Match; a version in the body is ignored
+        item.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        householdAccess.checkShoppingList(signedIn, item.getShoppingListId());
+        householdAccess.checkMember(signedIn, item.getAddedByUserId());
         try {
-            return this.itemService.updateItem(item);
+            ItemDTO updated = this.itemService.updateItem(item);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (EntityNotFoundException e) {
             // Catches if the item itself or a related entity (User/ShoppingList) is not found
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            // Another client changed the item after the version in If-Match was read
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (MutationTimeoutException e) {
+            // The update was withdrawn before it was applied; retrying is safe
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         } catch (Exception e) {
             // Catch any other unexpected exceptions, e.g., validation or other constraint violations
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update item: " + e.getMessage());
@@ -0,0 +1,70 @@
+package com.foodlist.service.controller;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+/**
+ * Filter, sorting and page of the item table in the web UI, bound from the query parameters.
+ * Missing or unknown values fall back to defaults, so every combination results in a valid,
+ * bounded query: only whitelisted sort columns, at most {@link #MAX_SIZE} rows per page.
+ *
+ * @param q Text the item names must contain.
+ * @param status "open", "checked" or "all".
+ * @param sort Sort column, one of the keys of {@link #SORT_COLUMNS}.
+ * @param dir "asc" or "desc".
+ * @param page Zero-based page number.
+ * @param size Rows per page.
+ */
+public record ItemPageQuery(String q, String status, String sort, String dir, Integer page, Integer size) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    /**
+     * Sort columns offered by the UI, mapped to entity properties.
+     */
+    public static final Map<String, String> SORT_COLUMNS = Map.of(
+            "addedAt", "addedAt",
+            "name", "name",
+            "quantity", "quantity",
+            "status", "isChecked",
+            "list", "shoppingList.name");
+
+    public ItemPageQuery {
+        q = q == null ? "" : q.strip();
+        status = "open".equals(status) || "checked".equals(status) ? status : "all";
+        sort = sort != null && SORT_COLUMNS.containsKey(sort) ? sort : "addedAt";
+        dir = "asc".equals(dir) ? "asc" : "desc";
+        page = page == null || page < 0 ? 0 : page;
+        size = size == null || size < 1 ? DEFAULT_SIZE : Math.min(size, MAX_SIZE);
+    }
+
+    /**
+     * @return true for checked items, false for open items, null for all.
+     */
+    public Boolean checked() {
+        return switch (status) {
+            case "open" -> false;
+            case "checked" -> true;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return The page request; the ID as second sort key keeps the order stable across pages.
+     */
+    public Pageable pageable() {
+        return PageRequest.of(page, size, sorting());
+    }
+
+    /**
+     * @return The sort column and direction, with the ID as second sort key.
+     */
+    public Sort sorting() {
+        Sort.Direction direction = Sort.Direction.fromString(dir);
+        return Sort.by(direction, SORT_COLUMNS.get(sort)).and(Sort.by(direction, "id"));
+    }
+}
@@ -0,0 +1,97 @@
+package com.foodlist.service.controller;
+
+import com.foodlist.service.profiling.JfrRecordingManager;
+import com.foodlist.service.profiling.JfrRecordingManager.RecordingStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+/**
+ * REST Controller for in-place profiling with Java Flight Recorder.
+ * Starts a bounded recording with the foodlist events and returns the .jfr file when it is stopped.
+ */
+@RestController // Marks this class as a REST controller
+@RequestMapping("/api/v1/profiling/recording") // Base path for the profiling endpoints
+@ConditionalOnProperty(name = "foodlist.profiling.enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingController {
+
+    private final JfrRecordingManager recordingManager;
+
+    /**
+     * Constructor for ProfilingController.
+     *
+     * @param recordingManager Manages the single JFR recording of this instance.
+     */
+    public ProfilingController(JfrRecordingManager recordingManager) {
+        this.recordingManager = recordingManager;
+    }
+
+    /**
+     * Returns the state of the current or last recording.
+     * Maps to GET /api/v1/profiling/recording
+     *
+     * @return The recording status.
+     */
+    @GetMapping
+    public RecordingStatus getStatus() {
+        return recordingManager.status();
+    }
+
+    /**
+     * Starts a recording that stops automatically after the given duration (capped by foodlist.profiling.max-duration).
+     * Maps to POST /api/v1/profiling/recording/start
+     *
+     * @param durationSeconds Optional duration in seconds.
+     * @return The status of the started recording.
+     * @throws ResponseStatusException with HttpStatus.CONFLICT if a recording is already running.
+     */
+    @PostMapping("/start")
+    @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
+    public RecordingStatus start(@RequestParam(required = false) Long durationSeconds) {
+        try {
+            return recordingManager.start(durationSeconds != null ? Duration.ofSeconds(durationSeconds) : null);
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops the recording and downloads it. The file is deleted on the server once it has been sent.
+     * Maps to POST /api/v1/profiling/recording/stop
+     *
+     * @return The .jfr file, to be opened with JDK Mission Control or "jfr print".
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if no recording was started.
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<Resource> stop() throws IOException {
+        Path file;
+        try {
+            file = recordingManager.stop();
+        } catch (IllegalStateException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage(), e);
+        }
+        long size = Files.size(file);
+        // The message converter closes the stream after writing the body, which removes the file
+        InputStream body = Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .contentLength(size)
+                .body(new InputStreamResource(body));
+    }
+}
@@ -0,0 +1,157 @@
+package com.foodlist.service.controller;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.service.ReactiveItemService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC variant of {@link ItemController}, active in the "reactive" profile instead of it.
+ * Serves the same paths and DTOs. Requests with {@code Accept: application/x-ndjson} receive the item list
+ * as a stream, written element by element instead of as one JSON array.
+ * <p>This is not WebFlux: the controller runs on Spring MVC and Tomcat like the rest of the application.
+ * Each request still takes a servlet thread for the filter chain and again for the async dispatch that
+ * writes the Mono/Flux result; only the database access in between is non-blocking. The NDJSON stream is
+ * paced by the blocking servlet output stream, not by an event loop. benchmarks/results/load-test-reactive.md
+ * measures this setup against ItemController, not a WebFlux server.
+ */
+@RestController // Marks this class as a REST controller
+@Profile("reactive") // Replaces ItemController when the "reactive" profile is active
+@RequestMapping("/api/v1/items") // Same base path as the blocking controller
+public class ReactiveItemController {
+
+    private final ReactiveItemService reactiveItemService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
+
+    /**
+     * Constructor for ReactiveItemController.
+     *
+     * @param reactiveItemService The non-blocking service for item-related business logic.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
+     */
+    public ReactiveItemController(ReactiveItemService reactiveItemService,
+                                  HouseholdAccess householdAccess,
+                                  @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
+        this.reactiveItemService = reactiveItemService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
+    }
+
+    /**
+     * Retrieves all items.
+     * Maps to GET /api/v1/items, as JSON array or as NDJSON stream.
+     *
+     * @return All items as ItemDisplayDTOs.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ItemDisplayDTO> getAllItems() {
+        return reactiveItemService.getAllItems();
+    }
+
+    /**
+     * Retrieves a single item by its ID, with its version as ETag.
+     * Maps to GET /api/v1/items/{itemId}
+     *
+     * @param itemId The unique ID of the item to retrieve.
+     * @return The ItemDisplayDTO of the found item.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item does not exist.
+     */
+    @GetMapping("/{itemId}")
+    public Mono<ResponseEntity<ItemDisplayDTO>> getItemById(@PathVariable Long itemId) {
+        return reactiveItemService.getItemById(itemId)
+                .map(found -> ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found))
+                .onErrorMap(EntityNotFoundException.class, enfe -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Item with ID " + itemId + " not found."));
+    }
+
+    /**
+     * Adds a new item.
+     * Maps to POST /api/v1/items
+     *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
+     * @param item The ItemDTO containing the details of the item to add.
+     * @return The ItemDTO of the newly created item.
+     * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if a related entity does not exist.
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list or the adding user belongs to another household.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
+    public Mono<ItemDTO> addItem(@AuthenticationPrincipal HouseholdUser signedIn, @Valid @RequestBody ItemDTO item) {
+        householdAccess.checkShoppingList(signedIn, item.getShoppingListId());
+        householdAccess.checkMember(signedIn, item.getAddedByUserId());
+        return reactiveItemService.addItem(item)
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), e -> e instanceof EntityNotFoundException
+                        ? new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage())
+                        : new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to add item: " + e.getMessage()));
+    }
+
+    /**
+     * Updates an existing item.
+     * Maps to PUT /api/v1/items/{itemId}
+     *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
+     * @param id The ID of the item to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag).
+     * @param item The ItemDTO containing the updated details.
+     * @return The ItemDTO of the updated item, with its new version as ETag.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item or a related entity does not exist.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the item was modified since that version.
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list or the adding user belongs to another household.
+     */
+    @PutMapping("/{itemId}")
+    public Mono<ResponseEntity<ItemDTO>> updateItem(@AuthenticationPrincipal HouseholdUser signedIn,
+                                                    @PathVariable("itemId") Long id,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                    @Valid @RequestBody ItemDTO item) {
+        item.setId(id);
+        item.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        householdAccess.checkShoppingList(signedIn, item.getShoppingListId());
+        householdAccess.checkMember(signedIn, item.getAddedByUserId());
+        return reactiveItemService.updateItem(item)
+                .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), ReactiveItemController::toUpdateStatus);
+    }
+
+    /**
+     * Deletes an item by its ID.
+     * Maps to DELETE /api/v1/items/{itemId}
+     *
+     * @param id The ID of the item to delete.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item does not exist.
+     */
+    @DeleteMapping("/{itemId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT) // Sets the HTTP status to 204 No Content on successful deletion
+    public Mono<Void> deleteItemById(@PathVariable("itemId") Long id) {
+        return reactiveItemService.deleteItemById(id)
+                .onErrorMap(EntityNotFoundException.class, e -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "Item with ID " + id + " not found for deletion."));
+    }
+
+    static ResponseStatusException toUpdateStatus(Throwable e) {
+        if (e instanceof EntityNotFoundException) {
+            return new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+        if (e instanceof OptimisticLockingFailureException) {
+            return new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        }
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update: " + e.getMessage());
+    }
+}
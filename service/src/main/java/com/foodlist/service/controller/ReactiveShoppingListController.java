@@ -0,0 +1,157 @@
+package com.foodlist.service.controller;
+
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.service.ReactiveItemService;
+import com.foodlist.service.service.ReactiveShoppingListService;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * R2DBC variant of {@link ShoppingListController}, active in the "reactive" profile instead of it.
+ * Additionally streams the items of a single list via GET /api/v1/shoppinglists/{shoppingListId}/items.
+ * Hosted by Spring MVC, not WebFlux; see {@link ReactiveItemController}.
+ */
+@RestController // Marks this class as a REST controller
+@Profile("reactive") // Replaces ShoppingListController when the "reactive" profile is active
+@RequestMapping("/api/v1/shoppinglists") // Same base path as the blocking controller
+public class ReactiveShoppingListController {
+
+    private final ReactiveShoppingListService reactiveShoppingListService;
+    private final ReactiveItemService reactiveItemService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
+
+    /**
+     * Constructor for ReactiveShoppingListController.
+     *
+     * @param reactiveShoppingListService The non-blocking service for shopping list-related business logic.
+     * @param reactiveItemService The non-blocking item service, used to stream the items of a list.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
+     */
+    public ReactiveShoppingListController(ReactiveShoppingListService reactiveShoppingListService,
+                                          ReactiveItemService reactiveItemService,
+                                          HouseholdAccess householdAccess,
+                                          @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
+        this.reactiveShoppingListService = reactiveShoppingListService;
+        this.reactiveItemService = reactiveItemService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
+    }
+
+    /**
+     * Retrieves all shopping lists.
+     * Maps to GET /api/v1/shoppinglists, as JSON array or as NDJSON stream.
+     *
+     * @return All ShoppingListDTOs.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ShoppingListDTO> getAllShoppingLists() {
+        return reactiveShoppingListService.getAllShoppingLists();
+    }
+
+    /**
+     * Retrieves a single shopping list by its ID, with its version as ETag.
+     * Maps to GET /api/v1/shoppinglists/{shoppingListId}
+     *
+     * @param shoppingListId The unique ID of the shopping list to retrieve.
+     * @return The ShoppingListDTO of the found shopping list.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist.
+     */
+    @GetMapping("/{shoppingListId}")
+    public Mono<ResponseEntity<ShoppingListDTO>> getShoppingListById(@PathVariable Long shoppingListId) {
+        return reactiveShoppingListService.getShoppingListById(shoppingListId)
+                .map(found -> ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found))
+                .onErrorMap(EntityNotFoundException.class, enfe -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "ShoppingList with ID " + shoppingListId + " not found."));
+    }
+
+    /**
+     * Retrieves the items of a shopping list, ordered by ID.
+     * Maps to GET /api/v1/shoppinglists/{shoppingListId}/items, as JSON array or as NDJSON stream.
+     *
+     * @param shoppingListId The ID of the shopping list.
+     * @return The items of the list as ItemDisplayDTOs.
+     */
+    @GetMapping(path = "/{shoppingListId}/items", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ItemDisplayDTO> getItemsOfShoppingList(@PathVariable Long shoppingListId) {
+        return reactiveItemService.getItemsByShoppingListId(shoppingListId);
+    }
+
+    /**
+     * Adds a new shopping list.
+     * Maps to POST /api/v1/shoppinglists
+     *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
+     * @param shoppingList The ShoppingListDTO containing the details of the shopping list to add.
+     * @return The ShoppingListDTO of the newly created shopping list.
+     * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if the household does not exist.
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list belongs to another household.
+     */
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
+    public Mono<ShoppingListDTO> addShoppingList(@AuthenticationPrincipal HouseholdUser signedIn,
+                                                 @Valid @RequestBody ShoppingListDTO shoppingList) {
+        householdAccess.checkHousehold(signedIn, shoppingList.getHouseholdId());
+        return reactiveShoppingListService.addShoppingList(shoppingList)
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), e -> e instanceof EntityNotFoundException
+                        ? new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage())
+                        : new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to add shopping list: " + e.getMessage()));
+    }
+
+    /**
+     * Updates an existing shopping list.
+     * Maps to PUT /api/v1/shoppinglists/{shoppingListId}
+     *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
+     * @param id The ID of the shopping list to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag).
+     * @param shoppingList The ShoppingListDTO containing the updated details.
+     * @return The ShoppingListDTO of the updated shopping list, with its new version as ETag.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list or household does not exist.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the shopping list was modified since that version.
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list belongs to another household.
+     */
+    @PutMapping("/{shoppingListId}")
+    public Mono<ResponseEntity<ShoppingListDTO>> updateShoppingList(@AuthenticationPrincipal HouseholdUser signedIn,
+                                                                    @PathVariable("shoppingListId") Long id,
+                                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                    @Valid @RequestBody ShoppingListDTO shoppingList) {
+        shoppingList.setId(id);
+        shoppingList.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        householdAccess.checkHousehold(signedIn, shoppingList.getHouseholdId());
+        return reactiveShoppingListService.updateShoppingList(shoppingList)
+                .map(updated -> ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated))
+                .onErrorMap(e -> !(e instanceof ResponseStatusException), ReactiveItemController::toUpdateStatus);
+    }
+
+    /**
+     * Deletes a shopping list and its items.
+     * Maps to DELETE /api/v1/shoppinglists/{shoppingListId}
+     *
+     * @param id The ID of the shopping list to delete.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist.
+     */
+    @DeleteMapping("/{shoppingListId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT) // Sets the HTTP status to 204 No Content on successful deletion
+    public Mono<Void> deleteShoppingListById(@PathVariable("shoppingListId") Long id) {
+        return reactiveShoppingListService.deleteShoppingListById(id)
+                .onErrorMap(EntityNotFoundException.class, e -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND, "ShoppingList with ID " + id + " not found for deletion."));
+    }
+}
@@ -1,9 +1,18 @@
 package com.foodlist.service.controller;
 
 import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
 import com.foodlist.service.service.ShoppingListService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import jakarta.validation.Valid;
@@ -15,19 +24,28 @@ import java.util.List;
  * Handles HTTP requests related to shopping lists, including CRUD operations.
  */
 @RestController // Marks this class as a REST controller
+@Profile("!reactive") // Replaced by the non-blocking ReactiveShoppingListController in the "reactive" profile
 @RequestMapping("/api/v1/shoppinglists") // Base path for all shopping list-related endpoints
 public class ShoppingListController {
 
     private final ShoppingListService shoppingListService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
 
     /**
      * Constructor for ShoppingListController, injecting the ShoppingListService dependency.
      * Spring will automatically inject this bean.
      *
      * @param shoppingListService The service responsible for shopping list-related business logic.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
      */
-    public ShoppingListController(ShoppingListService shoppingListService) {
+    public ShoppingListController(ShoppingListService shoppingListService,
+                                  HouseholdAccess householdAccess,
+                                  @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
         this.shoppingListService = shoppingListService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
     }
 
     /**
@@ -44,15 +62,17 @@ public class ShoppingListController {
     /**
      * Retrieves a single shopping list by its ID.
      * Maps to GET /api/v1/shoppinglists/{shoppingListId}
+     * The version of the entity is returned as ETag.
      *
      * @param shoppingListId The unique ID of the shopping list to retrieve.
      * @return The ShoppingListDTO of the found shopping list.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist.
      */
     @GetMapping("/{shoppingListId}")
-    public ShoppingListDTO getShoppingListById(@PathVariable Long shoppingListId) {
+    public ResponseEntity<ShoppingListDTO> getShoppingListById(@PathVariable Long shoppingListId) {
         try {
-            return shoppingListService.getShoppingListById(shoppingListId);
+            ShoppingListDTO found = shoppingListService.getShoppingListById(shoppingListId);
+            return ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found);
         } catch (EntityNotFoundException enfe) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "ShoppingList with ID " + shoppingListId + " not found.");
         }
@@ -62,15 +82,19 @@ public class ShoppingListController {
      * Adds a new shopping list.
      * Maps to POST /api/v1/shoppinglists
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param shoppingList The ShoppingListDTO containing the details of the shopping list to add.
      * The @Valid annotation triggers bean validation.
      * @return The ShoppingListDTO of the newly created shopping list.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if validation fails or
      * if there's a constraint violation (e.g., non-existent related entity ID like householdId).
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list belongs to another household.
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
-    public ShoppingListDTO addShoppingList(@Valid @RequestBody ShoppingListDTO shoppingList) {
+    public ShoppingListDTO addShoppingList(@AuthenticationPrincipal HouseholdUser signedIn,
+                                           @Valid @RequestBody ShoppingListDTO shoppingList) {
+        householdAccess.checkHousehold(signedIn, shoppingList.getHouseholdId());
         try {
             return this.shoppingListService.addShoppingList(shoppingList);
         } catch (EntityNotFoundException enfe) {
@@ -86,24 +110,39 @@ public class ShoppingListController {
      * Updates an existing shopping list.
      * Maps to PUT /api/v1/shoppinglists/{shoppingListId}
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param id The ID of the shopping list to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag). If present, the update only
+     * succeeds while the stored version still matches, without reading the shopping list first.
      * @param shoppingList The ShoppingListDTO containing the updated details.
      * The ID in the DTO is set from the path variable for consistency.
      * @return The ShoppingListDTO of the updated shopping list.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list to update does not exist.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if related entities (Household) are not found
      * or other data integrity issues occur.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the shopping list was modified since that version.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_REQUIRED if If-Match is required but missing.
+     * @throws AccessDeniedException (403 Forbidden) if the shopping list belongs to another household.
      */
     @PutMapping("/{shoppingListId}")
-    public ShoppingListDTO updateShoppingList(@PathVariable("shoppingListId") Long id,
-                                              @Valid @RequestBody ShoppingListDTO shoppingList) {
+    public ResponseEntity<ShoppingListDTO> updateShoppingList(@AuthenticationPrincipal HouseholdUser signedIn,
+                                                              @PathVariable("shoppingListId") Long id,
+                                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                              @Valid @RequestBody ShoppingListDTO shoppingList) {
         // Ensure the ID from the path matches the ID in the request body for consistency
         shoppingList.setId(id);
+        // The expected version comes only from If-Match; a version in the body is ignored
+        shoppingList.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        householdAccess.checkHousehold(signedIn, shoppingList.getHouseholdId());
         try {
-            return this.shoppingListService.updateShoppingList(shoppingList);
+            ShoppingListDTO updated = this.shoppingListService.updateShoppingList(shoppingList);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (EntityNotFoundException e) {
             // Catches if the shopping list itself or a related entity (Household) is not found
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            // Another client changed the shopping list after the version in If-Match was read
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         } catch (Exception e) {
             // Catch any other unexpected exceptions, e.g., validation or other constraint violations
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update shopping list: " + e.getMessage());
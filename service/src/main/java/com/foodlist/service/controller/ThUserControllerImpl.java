@@ -2,28 +2,265 @@ package com.foodlist.service.controller;
 
 import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.security.HouseholdMembershipCache;
+import com.foodlist.service.security.HouseholdUser;
 import com.foodlist.service.service.ItemService;
+import com.foodlist.service.service.ShoppingListService;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Controller
 public class ThUserControllerImpl {
 
+    private static final String ITEM_TABLE = "fragments/item-table :: item-table";
+    private static final String ITEM_ROWS = "fragments/item-table :: item-rows";
+    private static final String LOGIN_REDIRECT = "redirect:/login";
+
     ItemService itemService;
+    ShoppingListService shoppingListService;
+    HouseholdMembershipCache membershipCache;
+    ThymeleafViewResolver viewResolver;
+    int streamingChunkSize;
 
-    public ThUserControllerImpl(ItemService itemService) {
+    public ThUserControllerImpl(ItemService itemService, ShoppingListService shoppingListService,
+                                HouseholdMembershipCache membershipCache, ThymeleafViewResolver viewResolver,
+                                @Value("${foodlist.ui.streaming.chunk-size:500}") int streamingChunkSize) {
         this.itemService = itemService;
+        this.shoppingListService = shoppingListService;
+        this.membershipCache = membershipCache;
+        this.viewResolver = viewResolver;
+        this.streamingChunkSize = streamingChunkSize;
     }
 
+    /**
+     * Renders the household view of the signed-in user: one page of the items of all shopping lists
+     * of the household, filtered and sorted on the server. With all=true every matching item is shown:
+     * the rows are read through a database cursor and flushed to the client chunk by chunk while rendering.
+     * Maps to GET /?q=&status=&sort=&dir=&page=&size=&all=
+     *
+     * @param user The signed-in user.
+     * @param query Filter, sorting and page of the item table.
+     * @param all Whether to stream all items instead of rendering one page.
+     * @return The index page, or a redirect to the login page if nobody is signed in.
+     */
     @GetMapping("/")
-    public ModelAndView index() {
-        List<ItemDisplayDTO> items = itemService.getAllItems();
-        ModelAndView modelAndView = new ModelAndView("index");
-        modelAndView.addObject("items", items);
+    public ModelAndView index(@AuthenticationPrincipal HouseholdUser user, @ModelAttribute("query") ItemPageQuery query,
+                              @RequestParam(name = "all", defaultValue = "false") boolean all) {
+        if (user == null) {
+            return new ModelAndView(LOGIN_REDIRECT);
+        }
+        return page(user, null, query, all);
+    }
+
+    /**
+     * Renders the page of one shopping list of the signed-in user's household, filtered, sorted and streamed like the household view.
+     * Maps to GET /shoppinglists/{shoppingListId}?q=&status=&sort=&dir=&page=&size=&all=
+     *
+     * @param user The signed-in user.
+     * @param shoppingListId The ID of the shopping list.
+     * @param query Filter, sorting and page of the item table.
+     * @param all Whether to stream all items instead of rendering one page.
+     * @return The index page for this shopping list, or a redirect to the login page if nobody is signed in.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist in the household.
+     */
+    @GetMapping("/shoppinglists/{shoppingListId}")
+    public ModelAndView shoppingList(@AuthenticationPrincipal HouseholdUser user,
+                                     @PathVariable("shoppingListId") Long shoppingListId,
+                                     @ModelAttribute("query") ItemPageQuery query,
+                                     @RequestParam(name = "all", defaultValue = "false") boolean all) {
+        if (user == null) {
+            return new ModelAndView(LOGIN_REDIRECT);
+        }
+        return page(user, shoppingListId, query, all);
+    }
+
+    /**
+     * Renders only the item table of one shopping list, for swapping it into a loaded page.
+     * Maps to GET /fragments/shoppinglists/{shoppingListId}/items?q=&status=&sort=&dir=&page=&size=
+     *
+     * @param user The signed-in user.
+     * @param shoppingListId The ID of the shopping list.
+     * @param query Filter, sorting and page of the item table.
+     * @return The item-table fragment.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist in the household.
+     */
+    @GetMapping("/fragments/shoppinglists/{shoppingListId}/items")
+    public ModelAndView itemTable(@AuthenticationPrincipal HouseholdUser user,
+                                  @PathVariable("shoppingListId") Long shoppingListId,
+                                  @ModelAttribute("query") ItemPageQuery query) {
+        Long householdId = householdId(user);
+        try {
+            return new ModelAndView(ITEM_TABLE, "items", itemService.getItemPageByHouseholdId(householdId, shoppingListId,
+                    query.checked(), query.q(), query.pageable()).getContent());
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Renders only the table rows of the given items, e.g. the rows another client changed.
+     * Maps to GET /fragments/shoppinglists/{shoppingListId}/items/rows?ids=1,2,3
+     *
+     * @param user The signed-in user.
+     * @param shoppingListId The ID of the shopping list.
+     * @param ids The IDs of the items; IDs of other lists or households and deleted items are left out.
+     * @return The item-rows fragment, one tr element per found item.
+     */
+    @GetMapping("/fragments/shoppinglists/{shoppingListId}/items/rows")
+    public ModelAndView itemRows(@AuthenticationPrincipal HouseholdUser user,
+                                 @PathVariable("shoppingListId") Long shoppingListId,
+                                 @RequestParam(name = "ids", defaultValue = "") List<Long> ids) {
+        return rows(householdId(user), shoppingListId, ids);
+    }
+
+    /**
+     * Adds an item to the shopping list and renders only its new row. The signed-in user is recorded as the one who added it.
+     * Maps to POST /fragments/shoppinglists/{shoppingListId}/items
+     *
+     * @param user The signed-in user.
+     * @param shoppingListId The ID of the shopping list.
+     * @param name The name of the item.
+     * @param quantity The quantity, 1 if missing.
+     * @return The item-rows fragment with the new item.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the shopping list does not exist in the household.
+     */
+    @PostMapping("/fragments/shoppinglists/{shoppingListId}/items")
+    public ModelAndView addItem(@AuthenticationPrincipal HouseholdUser user,
+                                @PathVariable("shoppingListId") Long shoppingListId,
+                                @RequestParam("name") String name,
+                                @RequestParam(name = "quantity", defaultValue = "1") int quantity) {
+        Long householdId = householdId(user);
+        try {
+            // Cached: adding items is the most frequent write of the web UI
+            if (!membershipCache.isShoppingListInHousehold(shoppingListId, householdId)) {
+                throw new EntityNotFoundException(
+                        "ShoppingList with ID " + shoppingListId + " not found in household " + householdId);
+            }
+            ItemDTO added = itemService.addItem(
+                    new ItemDTO(null, name, quantity, false, null, user.getUserId(), shoppingListId, null));
+            return rows(householdId, shoppingListId, List.of(added.getId()));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * Checks or unchecks an item and renders only its changed row.
+     * Maps to POST /fragments/shoppinglists/{shoppingListId}/items/{itemId}/toggle
+     *
+     * @param user The signed-in user.
+     * @param shoppingListId The ID of the shopping list.
+     * @param itemId The ID of the item.
+     * @param version The version the client rendered; the toggle only applies to that version. Optional.
+     * @return The item-rows fragment with the changed item.
+     * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the item does not exist in this shopping list of the household.
+     * @throws ResponseStatusException with HttpStatus.CONFLICT if the item was modified since that version.
+     */
+    @PostMapping("/fragments/shoppinglists/{shoppingListId}/items/{itemId}/toggle")
+    public ModelAndView toggleItem(@AuthenticationPrincipal HouseholdUser user,
+                                   @PathVariable("shoppingListId") Long shoppingListId,
+                                   @PathVariable("itemId") Long itemId,
+                                   @RequestParam(name = "version", required = false) Long version) {
+        Long householdId = householdId(user);
+        try {
+            ItemDisplayDTO item = itemService.getItemsByShoppingListIdAndIds(householdId, shoppingListId, List.of(itemId))
+                    .stream()
+                    .findFirst()
+                    .orElseThrow(() -> new EntityNotFoundException(
+                            "Item with ID " + itemId + " not found in shopping list " + shoppingListId));
+            itemService.updateItem(new ItemDTO(item.getId(), item.getName(), item.getQuantity(), !item.isChecked(),
+                    item.getAddedAt(), item.getAddedByUserId(), item.getShoppingListId(),
+                    version != null ? version : item.getVersion()));
+            return rows(householdId, shoppingListId, List.of(itemId));
+        } catch (EntityNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        }
+    }
+
+    private ModelAndView page(HouseholdUser user, Long shoppingListId, ItemPageQuery query, boolean all) {
+        List<ShoppingListDTO> shoppingLists = user.getHouseholdId() != null
+                ? shoppingListService.getShoppingListsByHouseholdId(user.getHouseholdId())
+                : List.of();
+        ShoppingListDTO shoppingList = null;
+        if (shoppingListId != null) {
+            // Lists of other households are not distinguishable from lists that do not exist
+            shoppingList = shoppingLists.stream()
+                    .filter(list -> list.getId().equals(shoppingListId))
+                    .findFirst()
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                            "ShoppingList with ID " + shoppingListId + " not found."));
+        }
+
+        ModelAndView modelAndView = all && !shoppingLists.isEmpty()
+                ? new ModelAndView(streamingIndex(user.getHouseholdId(), shoppingListId, query))
+                : new ModelAndView("index");
+        modelAndView.addObject("shoppingList", shoppingList);
+        modelAndView.addObject("shoppingLists", shoppingLists);
+        modelAndView.addObject("streaming", all);
+        if (!all && !shoppingLists.isEmpty()) {
+            Page<ItemDisplayDTO> page = itemService.getItemPageByHouseholdId(user.getHouseholdId(), shoppingListId,
+                    query.checked(), query.q(), query.pageable());
+            modelAndView.addObject("page", page);
+            modelAndView.addObject("items", page.getContent());
+        }
         return modelAndView;
     }
 
+    /**
+     * The index view, rendered while the items are read: the cursor and its read-only transaction stay open
+     * during rendering, so neither the item list nor the HTML is held in memory as a whole.
+     */
+    private View streamingIndex(Long householdId, Long shoppingListId, ItemPageQuery query) {
+        return (model, request, response) -> {
+            View index = viewResolver.resolveViewName("index", RequestContextUtils.getLocale(request));
+            itemService.streamItemsByHouseholdId(householdId, shoppingListId, query.checked(), query.q(), query.sorting(),
+                    streamingChunkSize, items -> {
+                        Map<String, Object> streamingModel = new HashMap<>(model);
+                        streamingModel.put("items", new FlushingIterator<>(items, streamingChunkSize, response));
+                        try {
+                            index.render(streamingModel, request, response);
+                        } catch (RuntimeException e) {
+                            throw e;
+                        } catch (Exception e) {
+                            throw new IllegalStateException("Rendering the streamed index page failed", e);
+                        }
+                    });
+        };
+    }
+
+    private static Long householdId(HouseholdUser user) {
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED);
+        }
+        if (user.getHouseholdId() == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User " + user.getUsername() + " has no household.");
+        }
+        return user.getHouseholdId();
+    }
+
+    private ModelAndView rows(Long householdId, Long shoppingListId, List<Long> ids) {
+        return new ModelAndView(ITEM_ROWS, "items", itemService.getItemsByShoppingListIdAndIds(householdId, shoppingListId, ids));
+    }
 }
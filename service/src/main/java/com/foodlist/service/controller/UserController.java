@@ -1,10 +1,18 @@
 package com.foodlist.service.controller;
 
 import com.foodlist.service.dto.UserDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdUser;
 import com.foodlist.service.service.UserService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -19,15 +27,23 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final HouseholdAccess householdAccess;
+    private final boolean requireIfMatch;
 
     /**
      * Constructor for UserController, injecting the UserService dependency.
      * Spring will automatically inject this bean.
      *
      * @param userService The service responsible for user-related business logic.
+     * @param householdAccess Checks that the IDs in request bodies belong to the household of the signed-in user.
+     * @param requireIfMatch Whether updates without an If-Match header are rejected with 428 Precondition Required.
      */
-    public UserController(UserService userService) {
+    public UserController(UserService userService,
+                          HouseholdAccess householdAccess,
+                          @Value("${foodlist.concurrency.require-if-match:false}") boolean requireIfMatch) {
         this.userService = userService;
+        this.householdAccess = householdAccess;
+        this.requireIfMatch = requireIfMatch;
     }
 
     /**
@@ -44,15 +60,17 @@ public class UserController {
     /**
      * Retrieves a single user by their ID.
      * Maps to GET /api/v1/users/{userId}
+     * The version of the entity is returned as ETag.
      *
      * @param userId The unique ID of the user to retrieve.
      * @return The UserDTO of the found user.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the user does not exist.
      */
     @GetMapping("/{userId}")
-    public UserDTO getUserById(@PathVariable Long userId) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable Long userId) {
         try {
-            return userService.getUserById(userId);
+            UserDTO found = userService.getUserById(userId);
+            return ResponseEntity.ok().eTag(ETags.of(found.getVersion())).body(found);
         } catch (EntityNotFoundException enfe) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User with ID " + userId + " not found.");
         }
@@ -62,15 +80,18 @@ public class UserController {
      * Adds a new user.
      * Maps to POST /api/v1/users
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param user The UserDTO containing the details of the user to add.
      * The @Valid annotation triggers bean validation.
      * @return The UserDTO of the newly created user.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if validation fails or
      * if there's a constraint violation (e.g., non-existent related entity ID like householdId, or duplicate username/email).
+     * @throws AccessDeniedException (403 Forbidden) if the user is to be added to another household.
      */
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED) // Sets the HTTP status to 201 Created on success
-    public UserDTO addUser(@Valid @RequestBody UserDTO user) {
+    public UserDTO addUser(@AuthenticationPrincipal HouseholdUser signedIn, @Valid @RequestBody UserDTO user) {
+        householdAccess.checkHousehold(signedIn, user.getHouseholdId());
         try {
             return this.userService.addUser(user);
         } catch (EntityNotFoundException enfe) {
@@ -86,24 +107,40 @@ public class UserController {
      * Updates an existing user.
      * Maps to PUT /api/v1/users/{userId}
      *
+     * @param signedIn The signed-in user (null in the "dev" profile, which checks nothing).
      * @param id The ID of the user to update, extracted from the path.
+     * @param ifMatch Optional If-Match header with the expected version (ETag). If present, the update only
+     * succeeds while the stored version still matches, without reading the user first.
      * @param user The UserDTO containing the updated details.
      * The ID in the DTO is set from the path variable for consistency.
      * @return The UserDTO of the updated user.
      * @throws ResponseStatusException with HttpStatus.NOT_FOUND if the user to update does not exist.
      * @throws ResponseStatusException with HttpStatus.BAD_REQUEST if related entities (Household) are not found
      * or other data integrity issues occur (e.g., duplicate username/email).
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_FAILED if the user was modified since that version.
+     * @throws ResponseStatusException with HttpStatus.PRECONDITION_REQUIRED if If-Match is required but missing.
+     * @throws AccessDeniedException (403 Forbidden) if the user is to be moved to another household.
      */
     @PutMapping("/{userId}")
-    public UserDTO updateUser(@PathVariable("userId") Long id,
-                              @Valid @RequestBody UserDTO user) {
+    public ResponseEntity<UserDTO> updateUser(@AuthenticationPrincipal HouseholdUser signedIn,
+                                              @PathVariable("userId") Long id,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                              @Valid @RequestBody UserDTO user) {
         // Ensure the ID from the path matches the ID in the request body for consistency
         user.setId(id);
+        // The expected version comes only from If-Match; a version in the body is ignored
+        user.setVersion(ETags.parseIfMatch(ifMatch, requireIfMatch));
+        // Only the user themselves gets here (SecurityConfig); moving to another household is not allowed
+        householdAccess.checkHousehold(signedIn, user.getHouseholdId());
         try {
-            return this.userService.updateUser(user);
+            UserDTO updated = this.userService.updateUser(user);
+            return ResponseEntity.ok().eTag(ETags.of(updated.getVersion())).body(updated);
         } catch (EntityNotFoundException e) {
             // Catches if the user itself or a related entity (Household) is not found
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            // Another client changed the user after the version in If-Match was read
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         } catch (Exception e) {
             // Catch any other unexpected exceptions, e.g., validation or other constraint violations
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to update user: " + e.getMessage());
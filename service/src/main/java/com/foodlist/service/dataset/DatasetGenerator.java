@@ -0,0 +1,179 @@
+package com.foodlist.service.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Generates a synthetic dataset of production scale: households, users, shopping lists and items.
+ * All rows are created with a handful of set-based INSERT ... SELECT statements over
+ * {@code generate_series}, so millions of items take seconds instead of millions of round trips.
+ *
+ * <p>Sizes are skewed like real data: the number of users and lists per household and of items per
+ * list is {@code 1 + (max - 1) * r^skew} for a uniform random {@code r}, so most households are small
+ * and a few are large. Each list gets an activity level; items of active lists were added recently,
+ * which gives the warm-up and the "recently active" queries something to find.
+ * The data is appended to existing rows; with the same seed, a run on an empty database is repeatable.
+ *
+ * <p>Runs once before the application reports readiness when {@code foodlist.dataset.enabled=true}.
+ * Requires PostgreSQL.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "foodlist.dataset.enabled", havingValue = "true")
+public class DatasetGenerator implements ApplicationRunner {
+
+    private static final List<String> ITEM_NAMES = List.of("Milch", "Brot", "Butter", "Eier", "Kaese", "Aepfel",
+            "Bananen", "Tomaten", "Gurke", "Kartoffeln", "Zwiebeln", "Nudeln", "Reis", "Mehl", "Zucker", "Kaffee",
+            "Tee", "Joghurt", "Quark", "Haferflocken", "Mineralwasser", "Orangensaft", "Salat", "Paprika",
+            "Karotten", "Haehnchen", "Hackfleisch", "Lachs", "Olivenoel", "Spuelmittel", "Toilettenpapier", "Seife");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int households;
+    private final int maxUsersPerHousehold;
+    private final int maxListsPerHousehold;
+    private final int maxItemsPerList;
+    private final double skew;
+    private final double checkedRatio;
+    private final int activityDays;
+    private final double seed;
+    private final String passwordHash;
+
+    /**
+     * Constructor for DatasetGenerator.
+     *
+     * @param households Number of households to create.
+     * @param maxUsersPerHousehold Upper bound for the users of a household.
+     * @param maxListsPerHousehold Upper bound for the shopping lists of a household.
+     * @param maxItemsPerList Upper bound for the items of a shopping list.
+     * @param skew Exponent of the size distribution; 1 is uniform, larger values make small sizes more common.
+     * @param checkedRatio Share of items that are already checked.
+     * @param activityDays Period over which the items were added.
+     * @param seed Seed for PostgreSQL's random(), between -1 and 1.
+     * @param passwordHash Password hash stored for all generated users.
+     */
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${foodlist.dataset.households:10000}") int households,
+                            @Value("${foodlist.dataset.max-users-per-household:8}") int maxUsersPerHousehold,
+                            @Value("${foodlist.dataset.max-lists-per-household:20}") int maxListsPerHousehold,
+                            @Value("${foodlist.dataset.max-items-per-list:500}") int maxItemsPerList,
+                            @Value("${foodlist.dataset.skew:3}") double skew,
+                            @Value("${foodlist.dataset.checked-ratio:0.7}") double checkedRatio,
+                            @Value("${foodlist.dataset.activity-days:90}") int activityDays,
+                            @Value("${foodlist.dataset.seed:0.42}") double seed,
+                            @Value("${foodlist.dataset.password-hash:{noop}password}") String passwordHash) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.households = households;
+        this.maxUsersPerHousehold = maxUsersPerHousehold;
+        this.maxListsPerHousehold = maxListsPerHousehold;
+        this.maxItemsPerList = maxItemsPerList;
+        this.skew = skew;
+        this.checkedRatio = checkedRatio;
+        this.activityDays = activityDays;
+        this.seed = seed;
+        this.passwordHash = passwordHash;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+    }
+
+    /**
+     * Creates the dataset in a single transaction and updates the planner statistics afterwards.
+     *
+     * @return Number of rows created per table.
+     */
+    public DatasetSummary generate() {
+        long start = System.nanoTime();
+        log.info("Generating dataset: {} households, skew {}", households, skew);
+
+        // One transaction, so that setseed() and the temporary tables apply to all statements
+        DatasetSummary summary = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT setseed(?)", Object.class, seed);
+            long firstHousehold = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM households", Long.class);
+
+            int householdRows = jdbcTemplate.update("""
+                    INSERT INTO households (name, created_at, version)
+                    SELECT 'Haushalt ' || g, now() - random() * interval '365 days', 0
+                    FROM generate_series(1, ?) g""", households);
+
+            jdbcTemplate.update("""
+                    CREATE TEMPORARY TABLE dataset_households ON COMMIT DROP AS
+                    SELECT id AS household_id,
+                           1 + floor((? - 1) * power(random(), ?))::int AS users,
+                           1 + floor((? - 1) * power(random(), ?))::int AS lists
+                    FROM households WHERE id > ?""",
+                    maxUsersPerHousehold, skew, maxListsPerHousehold, skew, firstHousehold);
+
+            int userRows = jdbcTemplate.update("""
+                    INSERT INTO users (username, password_hash, name, enabled, created_at, household_id, version)
+                    SELECT 'user-' || d.household_id || '-' || g, ?, 'Benutzer ' || g, true, now(), d.household_id, 0
+                    FROM dataset_households d CROSS JOIN LATERAL generate_series(1, d.users) g""", passwordHash);
+
+            int shoppingListRows = jdbcTemplate.update("""
+                    INSERT INTO shopping_lists (name, is_default, created_at, household_id, version)
+                    SELECT 'Liste ' || g, g = 1, now(), d.household_id, 0
+                    FROM dataset_households d CROSS JOIN LATERAL generate_series(1, d.lists) g""");
+
+            // activity 0 means the items of the list were added just now, 1 means activity-days ago; few lists are very active
+            jdbcTemplate.update("""
+                    CREATE TEMPORARY TABLE dataset_lists ON COMMIT DROP AS
+                    SELECT l.id AS shopping_list_id,
+                           1 + floor((? - 1) * power(random(), ?))::int AS items,
+                           power(random(), 1.0 / ?) AS activity,
+                           u.user_ids
+                    FROM shopping_lists l
+                    JOIN (SELECT household_id, array_agg(id) AS user_ids FROM users
+                          WHERE household_id > ? GROUP BY household_id) u ON u.household_id = l.household_id
+                    WHERE l.household_id > ?""",
+                    maxItemsPerList, skew, skew, firstHousehold, firstHousehold);
+
+            int itemRows = jdbcTemplate.update("""
+                    INSERT INTO items (name, quantity, is_checked, added_at, added_by_user_id, shopping_list_id, version)
+                    SELECT n.names[1 + floor(random() * cardinality(n.names))::int],
+                           1 + floor(random() * 5)::int,
+                           random() < ?,
+                           now() - (d.activity * ? + random()) * interval '1 day',
+                           d.user_ids[1 + floor(random() * cardinality(d.user_ids))::int],
+                           d.shopping_list_id,
+                           0
+                    FROM dataset_lists d
+                    CROSS JOIN (SELECT string_to_array(?, ',') AS names) n
+                    CROSS JOIN LATERAL generate_series(1, d.items) g""",
+                    checkedRatio, activityDays, String.join(",", ITEM_NAMES));
+
+            return new DatasetSummary(householdRows, userRows, shoppingListRows, itemRows,
+                    Duration.ofNanos(System.nanoTime() - start));
+        });
+
+        // Without fresh statistics the planner keeps assuming empty tables
+        jdbcTemplate.execute("ANALYZE households, users, shopping_lists, items");
+
+        log.info("Generated {} households, {} users, {} shopping lists and {} items in {} ms",
+                summary.households(), summary.users(), summary.shoppingLists(), summary.items(),
+                summary.duration().toMillis());
+        return summary;
+    }
+
+    /**
+     * @param households Households created.
+     * @param users Users created.
+     * @param shoppingLists Shopping lists created.
+     * @param items Items created.
+     * @param duration Duration of the inserts, without ANALYZE.
+     */
+    public record DatasetSummary(long households, long users, long shoppingLists, long items, Duration duration) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.foodlist.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * DTO for a sign-in token, sent by API clients as "Authorization: Bearer &lt;token&gt;".
+ */
+@Getter
+@AllArgsConstructor
+public class AuthTokenDTO {
+
+    private String token;
+
+    private Instant expiresAt;
+}
@@ -21,4 +21,6 @@ public class HouseholdDTO{
     private List<Long> userIds;
 
     private List<Long> shoppingListIds;
+
+    private Long version;
 }
\ No newline at end of file
@@ -33,4 +33,6 @@ public class ItemDTO{
     private Long addedByUserId;
 
     private Long shoppingListId;
+
+    private Long version;
 }
\ No newline at end of file
@@ -33,6 +33,8 @@ public class ItemDisplayDTO {
     private Long shoppingListId;
     private String shoppingListName; // NEU: Name der Einkaufsliste
 
+    private Long version;
+
     // Optional: Konstruktor, um von ItemDTO zu ItemDisplayDTO zu konvertieren
     public ItemDisplayDTO(ItemDTO itemDTO) {
         this.id = itemDTO.getId();
@@ -42,6 +44,7 @@ public class ItemDisplayDTO {
         this.addedAt = itemDTO.getAddedAt();
         this.addedByUserId = itemDTO.getAddedByUserId();
         this.shoppingListId = itemDTO.getShoppingListId();
+        this.version = itemDTO.getVersion();
         // addedByUserName und shoppingListName müssen separat gesetzt werden
     }
 }
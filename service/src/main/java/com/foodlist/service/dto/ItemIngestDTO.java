@@ -0,0 +1,29 @@
+package com.foodlist.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * DTO for the state of an item written in a batch (POST /api/v1/items with "Prefer: respond-async").
+ */
+@Getter
+@AllArgsConstructor
+public class ItemIngestDTO {
+
+    public enum Status {
+        /** Accepted and queued, not yet in the database (not durable). */
+        PENDING,
+        /** Written to the database; itemId is set. */
+        COMMITTED,
+        /** Could not be written, e.g. because the shopping list was deleted meanwhile; see error. */
+        FAILED
+    }
+
+    private String correlationId;
+
+    private Status status;
+
+    private Long itemId;
+
+    private String error;
+}
@@ -24,4 +24,6 @@ public class ShoppingListDTO {
     private Long householdId;
 
     private List<ItemDTO> items;
+
+    private Long version;
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.foodlist.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
 import java.time.LocalDateTime;
@@ -22,4 +23,12 @@ public class UserDTO {
     private LocalDateTime createdAt;
 
     private Long householdId;
+
+    private Long version;
+
+    /**
+     * Klartext-Passwort beim Anlegen oder Ändern; wird nur gehasht gespeichert und nie ausgeliefert.
+     */
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String password;
 }
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.foodlist.service.idempotency;
+
+import com.foodlist.service.idempotency.IdempotencyStore.Claim;
+import com.foodlist.service.idempotency.IdempotencyStore.Completed;
+import com.foodlist.service.idempotency.IdempotencyStore.InProgress;
+import com.foodlist.service.idempotency.IdempotencyStore.Started;
+import com.foodlist.service.idempotency.IdempotencyStore.StoredResponse;
+import com.foodlist.service.security.HouseholdUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Makes POST, PUT and DELETE on items, shopping lists, households and users safe to retry: a request with an
+ * "Idempotency-Key" header runs once per user and key, every retry gets the stored response of the first
+ * execution (marked with "Idempotent-Replayed: true") instead of changing the data again.
+ *
+ * <ul>
+ *     <li>The same key with a different method, path or body is rejected with 422.</li>
+ *     <li>A retry while the first request is still running gets 409 with Retry-After.</li>
+ *     <li>Server errors (5xx) are not stored; the key is released and the retry runs again.</li>
+ *     <li>If the response cannot be stored after the change has committed (crash, database unreachable), a
+ *     retry after the lock timeout runs the request again; see {@link IdempotencyStore}.</li>
+ * </ul>
+ *
+ * Requests without the header are not affected. Runs after Spring Security and the rate limit, so the user
+ * is known and a rejected request does not claim its key.
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 2)
+@ConditionalOnProperty(name = "foodlist.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+
+    private static final String PENDING_ATTRIBUTE = IdempotencyFilter.class.getName() + ".pending";
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "DELETE");
+    private static final Pattern PATHS = Pattern.compile("/api/v1/(items|shoppinglists|households|users)(/.*)?");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore store;
+    private final int maxBodySize;
+
+    /**
+     * Constructor for IdempotencyFilter.
+     *
+     * @param store The claimed keys and stored responses; without one (e.g. in web slice tests) requests pass through.
+     * @param maxBodySize Largest request and response body handled; larger requests are rejected with 413,
+     * larger responses are sent but not stored.
+     */
+    public IdempotencyFilter(ObjectProvider<IdempotencyStore> store,
+                             @Value("${foodlist.idempotency.max-body-size:1MB}") DataSize maxBodySize) {
+        this.store = store.getIfAvailable();
+        this.maxBodySize = (int) maxBodySize.toBytes();
+    }
+
+    private record Pending(String scope, String key, Long recordId, String requestHash, ContentCachingResponseWrapper response) {
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return store == null || request.getHeader(IDEMPOTENCY_KEY) == null || !METHODS.contains(request.getMethod())
+                || !PATHS.matcher(path).matches();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false; // Reactive handlers answer on an async dispatch; the response is stored on the last one
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpServletRequest requestToUse = request;
+        Pending pending = request.getAttribute(PENDING_ATTRIBUTE) instanceof Pending previous ? previous : null;
+        if (pending == null) {
+            String key = request.getHeader(IDEMPOTENCY_KEY);
+            if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+                response.sendError(HttpStatus.BAD_REQUEST.value(), IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+                return;
+            }
+            byte[] body = request.getInputStream().readNBytes(maxBodySize + 1);
+            if (body.length > maxBodySize) {
+                response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                return;
+            }
+
+            String scope = scope(request);
+            String requestHash = fingerprint(request, body);
+            Claim claim = store.begin(scope, key, requestHash);
+            switch (claim) {
+                case Completed completed -> {
+                    replay(completed.response(), requestHash, response);
+                    return;
+                }
+                case InProgress inProgress -> {
+                    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                    response.sendError(HttpStatus.CONFLICT.value(), "A request with this " + IDEMPOTENCY_KEY + " is in progress");
+                    return;
+                }
+                case Started started -> {
+                    pending = new Pending(scope, key, started.recordId(), requestHash, new ContentCachingResponseWrapper(response));
+                    requestToUse = new CachedBodyRequest(request, body);
+                }
+            }
+        }
+
+        boolean finished = false;
+        try {
+            filterChain.doFilter(requestToUse, pending.response());
+            finished = true;
+        } finally {
+            if (finished && isAsyncStarted(request)) {
+                request.setAttribute(PENDING_ATTRIBUTE, pending);
+            } else {
+                request.removeAttribute(PENDING_ATTRIBUTE);
+                complete(pending, finished);
+            }
+        }
+    }
+
+    private void complete(Pending pending, boolean finished) throws IOException {
+        ContentCachingResponseWrapper wrapper = pending.response();
+        try {
+            int status = wrapper.getStatus();
+            if (finished && status < 500 && wrapper.getContentSize() <= maxBodySize) {
+                // Stored before it is sent: a client that saw the response can rely on the retry seeing it too
+                store.complete(pending.scope(), pending.key(), pending.recordId(), new StoredResponse(pending.requestHash(),
+                        status, wrapper.getContentType(), wrapper.getHeader(HttpHeaders.ETAG), wrapper.getContentAsByteArray()));
+            } else {
+                store.abandon(pending.recordId());
+            }
+        } catch (RuntimeException e) {
+            // The change itself is done; retries get 409 until the lock timeout, after it they run it again
+            log.warn("Could not store the response for an idempotency key of {}", pending.scope(), e);
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(StoredResponse stored, String requestHash, HttpServletResponse response) throws IOException {
+        if (!stored.requestHash().equals(requestHash)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), IDEMPOTENCY_KEY + " was already used for a different request");
+            return;
+        }
+        response.setHeader(REPLAYED, "true");
+        if (stored.etag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.etag());
+        }
+        if (stored.body().length == 0 && stored.status() >= 400) {
+            response.sendError(stored.status()); // Rendered by the error page like the first time
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    /**
+     * Keys are per user; clients of different users may well generate the same ones.
+     */
+    private static String scope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof HouseholdUser user) {
+            return "user:" + user.getUserId();
+        }
+        return authentication != null ? "name:" + authentication.getName() : "address:" + request.getRemoteAddr();
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            String query = request.getQueryString() != null ? "?" + request.getQueryString() : "";
+            digest.update((request.getMethod() + " " + request.getRequestURI() + query + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The body was read for the fingerprint; the controller reads it again from memory.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The whole body is in memory already: the listener can read it at once (isReady is always true)
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
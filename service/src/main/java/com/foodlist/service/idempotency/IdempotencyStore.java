@@ -0,0 +1,166 @@
+package com.foodlist.service.idempotency;
+
+import com.foodlist.service.model.IdempotencyRecord;
+import com.foodlist.service.repository.IdempotencyRecordRepo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Results of requests sent with an Idempotency-Key, per scope (the signed-in user) and key.
+ *
+ * <p>Completed responses are kept in a bounded in-memory cache, so that a retry on the same instance costs
+ * no database access at all. The table idempotency_keys is the source of truth: a key is claimed there
+ * before the request runs (the unique index decides between concurrent requests, also across instances),
+ * and the response is stored there before it is sent. Retries on another instance or after a restart
+ * read it from there.
+ *
+ * <p>Keys expire after the TTL; expired rows are deleted at most once per {@link #CLEANUP_INTERVAL}, by
+ * whichever request comes along. A claim whose request never finished (crash, lost connection) is taken
+ * over by the next request with that key after the lock timeout.
+ *
+ * <p>Claim, change and response are three transactions: the change commits in the service, the response is
+ * only known afterwards. If the instance dies (or the database is unreachable) between the commit of the change
+ * and {@link #complete}, the key stays claimed without a response, and a retry after the lock timeout runs the
+ * request a second time. Retries within the lock timeout get 409. Clients that must not apply a change twice
+ * in that case send If-Match with the version (updates) or add items with a correlation ID.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+
+    /**
+     * Outcome of {@link #begin}: the request may run ({@link Started}), was already answered ({@link Completed})
+     * or is still running elsewhere ({@link InProgress}).
+     */
+    public sealed interface Claim {
+    }
+
+    public record Started(Long recordId) implements Claim {
+    }
+
+    public record Completed(StoredResponse response) implements Claim {
+    }
+
+    public record InProgress() implements Claim {
+    }
+
+    /**
+     * The response of the first execution; the body is empty for errors, which are rendered by the error page.
+     */
+    public record StoredResponse(String requestHash, int status, String contentType, String etag, byte[] body) {
+    }
+
+    private record CacheKey(String scope, String key) {
+    }
+
+    private final IdempotencyRecordRepo repo;
+    private final Duration ttl;
+    private final Duration lockTimeout;
+    private final Cache<CacheKey, StoredResponse> responses;
+    private final AtomicReference<LocalDateTime> nextCleanup = new AtomicReference<>(LocalDateTime.MIN);
+
+    /**
+     * @param repo The table of claimed keys and stored responses.
+     * @param ttl How long a key is remembered; retries after that run again.
+     * @param lockTimeout After this time an unfinished claim is considered abandoned.
+     * @param cacheSize Maximum total size of the responses kept in memory.
+     * @param meterRegistry Registry for the cache.* meters, if available.
+     */
+    public IdempotencyStore(IdempotencyRecordRepo repo,
+                            @Value("${foodlist.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${foodlist.idempotency.lock-timeout:60s}") Duration lockTimeout,
+                            @Value("${foodlist.idempotency.cache-size:16MB}") DataSize cacheSize,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.repo = repo;
+        this.ttl = ttl;
+        this.lockTimeout = lockTimeout;
+        this.responses = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumWeight(cacheSize.toBytes())
+                .weigher((CacheKey key, StoredResponse response) -> 256 + response.body().length)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, responses, "idempotency.responses"));
+    }
+
+    /**
+     * Claims the key for a request, unless it was already answered or is in use.
+     *
+     * @param requestHash Fingerprint of the request, stored with the claim.
+     */
+    public Claim begin(String scope, String key, String requestHash) {
+        CacheKey cacheKey = new CacheKey(scope, key);
+        StoredResponse cached = responses.getIfPresent(cacheKey);
+        if (cached != null) {
+            return new Completed(cached);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        cleanUpIfDue(now);
+        Optional<IdempotencyRecord> existing = repo.findByScopeAndIdempotencyKey(scope, key);
+        if (existing.isPresent()) {
+            IdempotencyRecord record = existing.get();
+            if (record.getExpiresAt().isAfter(now)) {
+                if (record.getStatus() != null) {
+                    StoredResponse response = new StoredResponse(record.getRequestHash(), record.getStatus(),
+                            record.getContentType(), record.getEtag(), record.getBody() != null ? record.getBody() : new byte[0]);
+                    responses.put(cacheKey, response);
+                    return new Completed(response);
+                }
+                if (record.getCreatedAt().plus(lockTimeout).isAfter(now)) {
+                    return new InProgress();
+                }
+                log.warn("Idempotency key of {} unfinished since {}, running the request again", scope, record.getCreatedAt());
+            }
+            repo.deleteById(record.getId());
+        }
+
+        try {
+            IdempotencyRecord claimed = repo.saveAndFlush(new IdempotencyRecord(scope, key, requestHash, now, now.plus(ttl)));
+            return new Started(claimed.getId());
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent request with the same key claimed it between the lookup and the insert
+            return new InProgress();
+        }
+    }
+
+    /**
+     * Stores the response of a claimed request; retries get it from now on.
+     */
+    public void complete(String scope, String key, Long recordId, StoredResponse response) {
+        repo.complete(recordId, response.status(), response.contentType(), response.etag(), response.body());
+        responses.put(new CacheKey(scope, key), response);
+    }
+
+    /**
+     * Releases a claim without result (server error, response too large), so that a retry runs again.
+     */
+    public void abandon(Long recordId) {
+        repo.deleteById(recordId);
+    }
+
+    private void cleanUpIfDue(LocalDateTime now) {
+        LocalDateTime due = nextCleanup.get();
+        if (now.isAfter(due) && nextCleanup.compareAndSet(due, now.plus(CLEANUP_INTERVAL))) {
+            int deleted = repo.deleteExpired(now);
+            if (deleted > 0) {
+                log.debug("Deleted {} expired idempotency keys", deleted);
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ public interface HouseholdMapper {
      */
     @Mapping(target = "users", source = "userIds", qualifiedByName = "mapUserIdsToUsers")
     @Mapping(target = "shoppingLists", source = "shoppingListIds", qualifiedByName = "mapShoppingListIdsToShoppingLists")
+    @Mapping(target = "version", ignore = true) // Version wird ausschließlich von JPA verwaltet
     Household householdDTOToHousehold(HouseholdDTO householdDTO, @Context UserRepo userRepo, @Context ShoppingListRepo shoppingListRepo);
 
     /**
@@ -26,6 +26,10 @@ public interface ItemMapper {
 
     @Mapping(target = "addedBy", source = "addedByUserId", qualifiedByName = "mapUserIdToUser")
     @Mapping(target = "shoppingList", source = "shoppingListId", qualifiedByName = "mapShoppingListIdToShoppingList")
+    @Mapping(target = "version", ignore = true) // Version wird ausschließlich von JPA verwaltet
+    @Mapping(target = "correlationId", ignore = true) // Nur beim asynchronen Schreiben gesetzt
+    @Mapping(target = "correlationOwnerId", ignore = true)
+    @Mapping(target = "correlationHash", ignore = true)
     Item itemDTOToItem(ItemDTO itemDTO, @Context UserRepo userRepo, @Context ShoppingListRepo shoppingListRepo);
 
     @Mapping(target = "addedByUserId", source = "addedBy.id")
@@ -1,7 +1,9 @@
 package com.foodlist.service.mapper;
 
+import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ShoppingListDTO;
 import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
 import com.foodlist.service.model.ShoppingList;
 import com.foodlist.service.repository.HouseholdRepo;
 import org.mapstruct.Context;
@@ -28,6 +30,7 @@ public interface ShoppingListMapper {
      * @return Die konvertierte ShoppingList-Entität.
      */
     @Mapping(target = "household", source = "householdId", qualifiedByName = "mapHouseholdIdToHousehold")
+    @Mapping(target = "version", ignore = true) // Version wird ausschließlich von JPA verwaltet
     ShoppingList shoppingListDTOToShoppingList(ShoppingListDTO shoppingListDTO, @Context HouseholdRepo householdRepo);
 
     /**
@@ -59,6 +62,20 @@ public interface ShoppingListMapper {
      */
     List<ShoppingList> shoppingListDTOsToShoppingLists(List<ShoppingListDTO> shoppingListDTOs, @Context HouseholdRepo householdRepo);
 
+    /**
+     * Konvertiert die Items eines ShoppingListDTOs. Ersteller und Liste werden hier nicht aufgelöst,
+     * die Felder des asynchronen Schreibens (Korrelations-ID) setzt nur die Write-Behind-Warteschlange.
+     *
+     * @param itemDTO Das zu konvertierende ItemDTO.
+     * @return Die konvertierte Item-Entität.
+     */
+    @Mapping(target = "addedBy", ignore = true)
+    @Mapping(target = "shoppingList", ignore = true)
+    @Mapping(target = "correlationId", ignore = true)
+    @Mapping(target = "correlationOwnerId", ignore = true)
+    @Mapping(target = "correlationHash", ignore = true)
+    Item itemDTOToItem(ItemDTO itemDTO);
+
 
     /**
      * Hilfsmethode zum Mappen einer Household-ID zu einer Household-Entität.
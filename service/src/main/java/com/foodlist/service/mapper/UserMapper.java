@@ -33,19 +33,21 @@ public interface UserMapper {
     @Mapping(target = "household", source = "householdId", qualifiedByName = "mapHouseholdIdToHousehold")
     @Mapping(target = "passwordHash", ignore = true) // Passwort-Hash sollte nicht direkt vom DTO kommen
     @Mapping(target = "itemsAdded", ignore = true) // Items werden nicht über den UserDTO gesetzt
+    @Mapping(target = "version", ignore = true) // Version wird ausschließlich von JPA verwaltet
     User userDTOToUser(UserDTO userDTO, @Context HouseholdRepo householdRepo);
 
     /**
      * Konvertiert eine User-Entität in ein UserDTO.
      * Extrahiert die ID der zugehörigen Household-Entität.
-     * Das 'passwordHash' Feld wird ignoriert, da es nicht an den Client gesendet werden sollte.
+     * Das 'passwordHash' Feld wird ignoriert, da es nicht an den Client gesendet werden sollte,
+     * ebenso das Klartext-'password' des DTOs.
      * Die 'itemsAdded' Liste wird ebenfalls ignoriert, um Zyklen und große Payloads zu vermeiden.
      *
      * @param user Die zu konvertierende User-Entität.
      * @return Das konvertierte UserDTO.
      */
     @Mapping(target = "householdId", source = "household.id")
-
+    @Mapping(target = "password", ignore = true) // Nur eingehend, wird im Service gehasht
     UserDTO userToUserDTO(User user);
 
     /**
@@ -0,0 +1,94 @@
+package com.foodlist.service.metrics;
+
+import com.foodlist.service.profiling.JfrEvents;
+import com.foodlist.service.profiling.MethodEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a timer "foodlist.method" for every public method of the controllers, service
+ * implementations and mappers, tagged with layer, class, method and exception.
+ * Repository invocations are timed by Spring Boot itself ("spring.data.repository.invocations").
+ * Timers are resolved once per method and outcome, so the per-call overhead is a map lookup
+ * and two clock reads.
+ * While a JFR recording is running, each call is additionally emitted as a foodlist.Method event
+ * with the entity ID of its arguments and the size of its result.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "foodlist.metrics.layers.enabled", havingValue = "true", matchIfMissing = true)
+public class LayerTimingAspect {
+
+    public static final String METRIC_NAME = "foodlist.method";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public LayerTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("within(com.foodlist.service.controller..*) && execution(public * *(..))")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "controller");
+    }
+
+    @Around("within(com.foodlist.service.service..*ServiceImpl) && execution(public * *(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("within(com.foodlist.service.mapper..*) && execution(public * *(..))")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "mapper");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        MethodEvent event = JfrEvents.beginMethod();
+        Object result = null;
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try {
+            result = joinPoint.proceed();
+            return result;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long duration = System.nanoTime() - start;
+            Class<?> targetClass = joinPoint.getTarget().getClass();
+            String exception = failure != null ? failure.getClass().getSimpleName() : "none";
+            timer(new TimerKey(layer, targetClass, method, exception)).record(duration, TimeUnit.NANOSECONDS);
+            JfrEvents.commitMethod(event, layer, targetClass, method.getName(), joinPoint.getArgs(), result, failure);
+        }
+    }
+
+    private Timer timer(TimerKey key) {
+        Timer timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, k -> Timer.builder(METRIC_NAME)
+                    .description("Execution time of controller, service and mapper methods")
+                    .tag("layer", k.layer())
+                    .tag("class", k.targetClass().getSimpleName())
+                    .tag("method", k.method().getName())
+                    .tag("exception", k.exception())
+                    .register(meterRegistry));
+        }
+        return timer;
+    }
+
+    private record TimerKey(String layer, Class<?> targetClass, Method method, String exception) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.foodlist.service.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the CPU time and heap allocation of the servlet threads handling a request, via the
+ * per-thread counters of the ThreadMXBean. Results are recorded per route as "foodlist.request.cpu"
+ * and "foodlist.request.allocated" and, if enabled (dev), also returned as Server-Timing header.
+ *
+ * <p>Work done on other threads (single-writer mailboxes, reactive publishers) is not included.
+ * Requests on virtual threads (spring.threads.virtual.enabled) are not measured at all: the JDK
+ * only keeps these counters for platform threads and returns -1 for virtual ones.
+ * For the header the response body is buffered until the request is complete, so the header
+ * can still be set; that is why it is meant for development only. Handlers that flush while
+ * rendering (the streamed item table) get their output passed through instead, without the header.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(name = "foodlist.request-accounting.enabled", havingValue = "true", matchIfMissing = true)
+public class RequestResourceFilter extends OncePerRequestFilter {
+
+    private static final String USAGE_ATTRIBUTE = RequestResourceFilter.class.getName() + ".usage";
+
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final MeterRegistry meterRegistry;
+    private final boolean serverTiming;
+    private final boolean cpuSupported;
+    private final boolean allocationSupported;
+    private final AtomicBoolean virtualThreadLogged = new AtomicBoolean();
+
+    /**
+     * Constructor for RequestResourceFilter.
+     *
+     * @param meterRegistry Registry for the per-route metrics; without one (e.g. in web slice tests) only the header is written.
+     * @param serverTiming Whether the measurements are also returned as Server-Timing header.
+     */
+    public RequestResourceFilter(ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${foodlist.request-accounting.server-timing:false}") boolean serverTiming) {
+        this.threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.meterRegistry = meterRegistry.getIfAvailable();
+        this.serverTiming = serverTiming;
+        this.cpuSupported = enable(threadMXBean.isCurrentThreadCpuTimeSupported(), threadMXBean.isThreadCpuTimeEnabled(),
+                () -> threadMXBean.setThreadCpuTimeEnabled(true));
+        this.allocationSupported = enable(threadMXBean.isThreadAllocatedMemorySupported(), threadMXBean.isThreadAllocatedMemoryEnabled(),
+                () -> threadMXBean.setThreadAllocatedMemoryEnabled(true));
+        if (!cpuSupported || !allocationSupported) {
+            log.warn("Per-thread accounting not fully supported by this JVM (cpu: {}, allocation: {})", cpuSupported, allocationSupported);
+        }
+    }
+
+    private static boolean enable(boolean supported, boolean enabled, Runnable enabler) {
+        if (supported && !enabled) {
+            enabler.run();
+        }
+        return supported;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false; // Async requests are accounted across their dispatches and finished on the last one
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (Thread.currentThread().isVirtual()) {
+            if (virtualThreadLogged.compareAndSet(false, true)) {
+                log.info("Requests run on virtual threads, which have no CPU time and allocation counters; "
+                        + "foodlist.request.cpu and foodlist.request.allocated are not recorded");
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        HttpServletResponse responseToUse = response;
+        if (serverTiming && !isAsyncDispatch(request) && WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class) == null) {
+            responseToUse = new FlushableContentCachingResponseWrapper(response);
+        }
+
+        long cpuBefore = cpuSupported ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        long allocatedBefore = allocationSupported ? threadMXBean.getCurrentThreadAllocatedBytes() : 0;
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            Usage usage = new Usage(
+                    cpuSupported ? threadMXBean.getCurrentThreadCpuTime() - cpuBefore : 0,
+                    allocationSupported ? threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore : 0);
+            if (request.getAttribute(USAGE_ATTRIBUTE) instanceof Usage previous) {
+                usage = usage.plus(previous);
+            }
+            if (isAsyncStarted(request)) {
+                request.setAttribute(USAGE_ATTRIBUTE, usage);
+            } else {
+                request.removeAttribute(USAGE_ATTRIBUTE);
+                complete(request, responseToUse, usage);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, HttpServletResponse response, Usage usage) throws IOException {
+        String route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE) instanceof String pattern
+                ? pattern : "UNKNOWN";
+        String method = request.getMethod();
+        String status = String.valueOf(response.getStatus());
+
+        if (cpuSupported && meterRegistry != null) {
+            Timer.builder("foodlist.request.cpu")
+                    .description("CPU time of the servlet threads handling a request")
+                    .tags("method", method, "uri", route, "status", status)
+                    .register(meterRegistry)
+                    .record(usage.cpuNanos(), TimeUnit.NANOSECONDS);
+        }
+        if (allocationSupported && meterRegistry != null) {
+            DistributionSummary.builder("foodlist.request.allocated")
+                    .description("Heap bytes allocated by the servlet threads handling a request")
+                    .baseUnit("bytes")
+                    .tags("method", method, "uri", route, "status", status)
+                    .register(meterRegistry)
+                    .record(usage.allocatedBytes());
+        }
+
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper != null) {
+            if (!wrapper.isCommitted()) {
+                wrapper.addHeader("Server-Timing", String.format(Locale.ROOT, "cpu;dur=%.3f;desc=\"Thread CPU\", alloc;desc=\"%d bytes\"",
+                        usage.cpuNanos() / 1_000_000.0, usage.allocatedBytes()));
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * ContentCachingResponseWrapper ignores flushBuffer(); here a flush copies what was buffered so far
+     * to the response and sends it. The response is committed then, so the Server-Timing header is left out.
+     */
+    private static class FlushableContentCachingResponseWrapper extends ContentCachingResponseWrapper {
+
+        FlushableContentCachingResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            copyBodyToResponse(false);
+            getResponse().flushBuffer();
+        }
+    }
+
+    private record Usage(long cpuNanos, long allocatedBytes) {
+        Usage plus(Usage other) {
+            return new Usage(cpuNanos + other.cpuNanos, allocatedBytes + other.allocatedBytes);
+        }
+    }
+}
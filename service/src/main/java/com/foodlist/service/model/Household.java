@@ -23,6 +23,10 @@ public class Household {
     @Column(name = "name", nullable = false)
     private String name;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @OneToMany(mappedBy = "household", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<User> users = new ArrayList<>();
 
@@ -0,0 +1,58 @@
+package com.foodlist.service.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uq_idempotency_keys_scope_key", columnNames = {"scope", "idempotency_key"}))
+public class IdempotencyRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "scope", nullable = false, length = 100)
+    private String scope;
+
+    @Column(name = "idempotency_key", nullable = false)
+    private String idempotencyKey;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the first request with this key is still running
+    @Column(name = "status")
+    private Integer status;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "etag")
+    private String etag;
+
+    @Column(name = "body", length = 1048576)
+    private byte[] body;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public IdempotencyRecord(String scope, String idempotencyKey, String requestHash, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.scope = scope;
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+}
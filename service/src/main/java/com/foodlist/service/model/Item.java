@@ -11,7 +11,9 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "items")
+@Table(name = "items",
+        uniqueConstraints = @UniqueConstraint(name = "uq_items_correlation_owner_id",
+                columnNames = {"correlation_owner_id", "correlation_id"}))
 public class Item {
 
     @Id
@@ -31,6 +33,10 @@ public class Item {
     @Column(name = "added_at", nullable = false)
     private LocalDateTime addedAt;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "added_by_user_id")
     private User addedBy;
@@ -39,6 +45,17 @@ public class Item {
     @JoinColumn(name = "shopping_list_id")
     private ShoppingList shoppingList;
 
+    // Only set for items accepted asynchronously (write-behind): the client's ID, unique per owner (the signed-in user),
+    // and the fingerprint of the accepted item
+    @Column(name = "correlation_id", length = 64)
+    private String correlationId;
+
+    @Column(name = "correlation_owner_id")
+    private Long correlationOwnerId;
+
+    @Column(name = "correlation_hash", length = 64)
+    private String correlationHash;
+
     public Item(String name, int quantity, boolean isChecked, LocalDateTime addedAt) {
         this.name = name;
         this.quantity = quantity;
@@ -16,6 +16,11 @@ import java.util.List;
 @Table(name = "users")
 public class User {
 
+    /**
+     * Kennzeichen statt Hash für Benutzer ohne Passwort: passt zu keinem Passwort, die Anmeldung ist gesperrt.
+     */
+    public static final String NO_PASSWORD = "!";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "id")
@@ -27,6 +32,10 @@ public class User {
     @Column(name = "password_hash", nullable = false)
     private String passwordHash;
 
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     @ManyToOne
     @JoinColumn(name = "household_id")
     private Household household;
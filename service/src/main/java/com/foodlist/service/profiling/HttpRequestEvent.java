@@ -0,0 +1,29 @@
+package com.foodlist.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Duration of a whole HTTP request, including controller, view rendering and JSON serialization.
+ * Comparing it with the nested controller MethodEvent shows the time spent outside the handler.
+ */
+@Name("foodlist.HttpRequest")
+@Label("HTTP Request")
+@Category({"Foodlist", "Web"})
+@Description("Handling of one HTTP request")
+@StackTrace(false)
+public class HttpRequestEvent extends Event {
+
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+}
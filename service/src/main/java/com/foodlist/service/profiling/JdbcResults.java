@@ -0,0 +1,40 @@
+package com.foodlist.service.profiling;
+
+/**
+ * Helpers for interpreting the results of JDBC executions reported by datasource-proxy.
+ */
+final class JdbcResults {
+
+    private JdbcResults() {
+    }
+
+    /**
+     * @param result The return value of execute/executeUpdate/executeBatch.
+     * @return The affected rows for updates and batches, -1 if the result carries no row count.
+     */
+    static long rowCount(Object result) {
+        return switch (result) {
+            case Integer count -> count;
+            case Long count -> count;
+            case int[] counts -> sum(counts);
+            case long[] counts -> sum(counts);
+            case null, default -> -1;
+        };
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long count : counts) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
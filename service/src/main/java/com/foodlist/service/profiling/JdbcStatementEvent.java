@@ -0,0 +1,34 @@
+package com.foodlist.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Duration of a JDBC statement execution, as seen by the driver.
+ * The stack trace shows which repository call issued the statement.
+ */
+@Name("foodlist.JdbcStatement")
+@Label("JDBC Statement")
+@Category({"Foodlist", "Database"})
+@Description("Execution of a JDBC statement")
+@StackTrace(true)
+public class JdbcStatementEvent extends Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Batch Size")
+    @Description("Number of parameter sets for JDBC batches, 0 for single executions")
+    int batchSize;
+
+    @Label("Row Count")
+    @Description("Affected rows of inserts, updates and deletes, -1 for queries")
+    long rowCount;
+
+    @Label("Success")
+    boolean success;
+}
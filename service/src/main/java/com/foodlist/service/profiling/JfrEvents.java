@@ -0,0 +1,89 @@
+package com.foodlist.service.profiling;
+
+import com.foodlist.service.dto.HouseholdDTO;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.dto.UserDTO;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Emits the foodlist JFR events. The fields of an event are only filled in when a running
+ * recording will actually store it, so the cost without recording is an enabled-check.
+ */
+public final class JfrEvents {
+
+    private static final long NO_ENTITY_ID = -1;
+
+    private JfrEvents() {
+    }
+
+    /**
+     * Starts a MethodEvent, or returns null if no recording has it enabled.
+     */
+    public static MethodEvent beginMethod() {
+        MethodEvent event = new MethodEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends and commits a MethodEvent started by {@link #beginMethod()}.
+     */
+    public static void commitMethod(MethodEvent event, String layer, Class<?> targetClass, String methodName,
+                                    Object[] args, Object result, Throwable failure) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.layer = layer;
+            event.className = targetClass.getSimpleName();
+            event.methodName = methodName;
+            event.entityId = entityId(args);
+            event.resultSize = resultSize(result);
+            event.exception = failure != null ? failure.getClass().getSimpleName() : null;
+            event.commit();
+        }
+    }
+
+    static long entityId(Object[] args) {
+        for (Object arg : args) {
+            Long id = switch (arg) {
+                case Long value -> value;
+                case ItemDTO dto -> dto.getId();
+                case ItemDisplayDTO dto -> dto.getId();
+                case ShoppingListDTO dto -> dto.getId();
+                case HouseholdDTO dto -> dto.getId();
+                case UserDTO dto -> dto.getId();
+                case Item entity -> entity.getId();
+                case ShoppingList entity -> entity.getId();
+                case Household entity -> entity.getId();
+                case User entity -> entity.getId();
+                case null, default -> null;
+            };
+            if (id != null) {
+                return id;
+            }
+        }
+        return NO_ENTITY_ID;
+    }
+
+    static int resultSize(Object result) {
+        return switch (result) {
+            case null -> 0;
+            case Collection<?> collection -> collection.size();
+            case Map<?, ?> map -> map.size();
+            default -> 1;
+        };
+    }
+}
@@ -0,0 +1,160 @@
+package com.foodlist.service.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Starts and stops a single, bounded JFR recording inside the running service.
+ * The recording uses the JDK's low-overhead "default" settings plus the foodlist events, and is
+ * capped in duration and size, so a forgotten recording neither fills the disk nor keeps running.
+ * The foodlist events are only recorded above a duration threshold, like the JDK's own I/O events,
+ * so the stack traces of the JDBC events are only taken for the slow statements. At most one
+ * recording file exists at a time: it is deleted once downloaded, or when the next recording starts.
+ */
+@Slf4j
+@Component
+public class JfrRecordingManager {
+
+    private static final List<Class<? extends jdk.jfr.Event>> EVENTS =
+            List.of(HttpRequestEvent.class, MethodEvent.class, JdbcStatementEvent.class);
+
+    private final Duration maxDuration;
+    private final long maxSizeBytes;
+    private final Path directory;
+    private final Duration threshold;
+
+    private Recording recording;
+    private Path destination;
+
+    /**
+     * Constructor for JfrRecordingManager.
+     *
+     * @param maxDuration Upper bound for the duration of a recording; it stops automatically afterwards.
+     * @param maxSizeMb Upper bound for the size of the recording on disk.
+     * @param directory Directory for the recording files, the temp directory if empty.
+     * @param threshold Minimum duration of a request, method or JDBC event to be recorded; 0 records all.
+     */
+    public JfrRecordingManager(@Value("${foodlist.profiling.max-duration:10m}") Duration maxDuration,
+                               @Value("${foodlist.profiling.max-size-mb:100}") long maxSizeMb,
+                               @Value("${foodlist.profiling.directory:}") String directory,
+                               @Value("${foodlist.profiling.threshold:10ms}") Duration threshold) {
+        this.maxDuration = maxDuration;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.directory = directory.isBlank() ? Path.of(System.getProperty("java.io.tmpdir")) : Path.of(directory);
+        this.threshold = threshold;
+    }
+
+    /**
+     * Starts a recording.
+     *
+     * @param duration Requested duration, capped at the configured maximum; null for the maximum.
+     * @return The status of the started recording.
+     * @throws IllegalStateException if a recording is already running.
+     */
+    public synchronized RecordingStatus start(Duration duration) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running since " + recording.getStartTime());
+        }
+        if (recording != null) {
+            // Stopped after its duration, but never downloaded
+            log.info("Discarding the previous JFR recording in {}", destination);
+            delete(destination);
+        }
+        closeQuietly();
+
+        Duration effective = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        try {
+            Files.createDirectories(directory);
+            destination = Files.createTempFile(directory, "foodlist-", ".jfr");
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JFR configuration 'default' is not readable", e);
+        }
+        EVENTS.forEach(event -> recording.enable(event).withThreshold(threshold));
+        recording.setName("foodlist");
+        recording.setToDisk(true);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setDuration(effective);
+        try {
+            recording.setDestination(destination);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+        log.info("Started JFR recording for at most {} ({} bytes, events from {}) into {}",
+                effective, maxSizeBytes, threshold, destination);
+        return status();
+    }
+
+    /**
+     * Stops the current recording and returns its file. A recording that already stopped after
+     * its duration can be fetched the same way. The caller owns the file from now on and deletes
+     * it once it has been served.
+     *
+     * @return The path of the written .jfr file.
+     * @throws IllegalStateException if no recording was started.
+     */
+    public synchronized Path stop() {
+        if (recording == null) {
+            throw new IllegalStateException("No recording was started.");
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop(); // Writes the recording to its destination
+        }
+        Path file = destination;
+        closeQuietly();
+        log.info("Stopped JFR recording, written to {}", file);
+        return file;
+    }
+
+    /**
+     * @return The state of the current or last recording.
+     */
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus("NONE", null, null, null);
+        }
+        return new RecordingStatus(recording.getState().name(), recording.getStartTime(),
+                recording.getDuration(), destination.toString());
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete JFR recording {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void closeQuietly() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            destination = null;
+        }
+    }
+
+    /**
+     * @param state JFR recording state, or NONE.
+     * @param startTime When the recording started.
+     * @param duration Configured duration after which it stops automatically.
+     * @param file The file the recording is written to when it stops.
+     */
+    public record RecordingStatus(String state, Instant startTime, Duration duration, String file) {
+    }
+}
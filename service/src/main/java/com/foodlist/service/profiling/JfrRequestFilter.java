@@ -0,0 +1,42 @@
+package com.foodlist.service.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Emits an {@link HttpRequestEvent} for every HTTP request while a recording has it enabled.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class JfrRequestFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        HttpRequestEvent event = new HttpRequestEvent();
+        if (!event.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.method = request.getMethod();
+                event.uri = request.getRequestURI();
+                event.status = response.getStatus();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.foodlist.service.profiling;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Emits a {@link JdbcStatementEvent} for every statement executed through the proxied DataSource.
+ */
+@Component
+public class JfrStatementListener implements QueryExecutionListener {
+
+    private final ThreadLocal<JdbcStatementEvent> current = new ThreadLocal<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        JdbcStatementEvent event = new JdbcStatementEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            current.set(event);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        JdbcStatementEvent event = current.get();
+        if (event == null) {
+            return;
+        }
+        current.remove();
+        event.end();
+        if (event.shouldCommit()) {
+            event.sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                    : queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining(";\n"));
+            event.batchSize = execInfo.isBatch() ? execInfo.getBatchSize() : 0;
+            event.rowCount = JdbcResults.rowCount(execInfo.getResult());
+            event.success = execInfo.isSuccess();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.foodlist.service.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Duration of a controller, service or mapper method.
+ */
+@Name("foodlist.Method")
+@Label("Method")
+@Category({"Foodlist", "Application"})
+@Description("Execution of a controller, service or mapper method")
+@StackTrace(false)
+public class MethodEvent extends Event {
+
+    @Label("Layer")
+    String layer;
+
+    @Label("Class")
+    String className;
+
+    @Label("Method")
+    String methodName;
+
+    @Label("Entity ID")
+    @Description("ID of the first entity argument, -1 if there is none")
+    long entityId;
+
+    @Label("Result Size")
+    @Description("Number of returned elements for collections, 1 for single objects, 0 for null or void")
+    int resultSize;
+
+    @Label("Exception")
+    String exception;
+}
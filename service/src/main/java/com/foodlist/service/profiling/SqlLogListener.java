@@ -0,0 +1,181 @@
+package com.foodlist.service.profiling;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Replacement for spring.jpa.show-sql: logs only statements slower than a threshold ("foodlist.sql.slow")
+ * plus an optional random sample of all others ("foodlist.sql.sample"), each with bind parameters,
+ * the calling service method and the row count. Both loggers write through the async, bounded
+ * appender from logback-spring.xml, so the executing thread never waits for log I/O.
+ *
+ * <p>Queries are logged with "-" rows unless foodlist.sql-log.count-rows is set: then SqlLogRowCounter
+ * counts the rows while the result set is read, and the entry is logged when the result set or its
+ * statement is closed. Statements that are neither slow nor sampled cost a comparison and, with
+ * sampling enabled, one random number.
+ */
+@Component
+@ConditionalOnProperty(name = "foodlist.sql-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlLogListener implements QueryExecutionListener {
+
+    private static final Logger SLOW_LOG = LoggerFactory.getLogger("foodlist.sql.slow");
+    private static final Logger SAMPLE_LOG = LoggerFactory.getLogger("foodlist.sql.sample");
+    private static final int MAX_LOGGED_BATCH_ENTRIES = 3;
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final long slowThresholdMs;
+    private final double sampleRate;
+    private final int maxParameterLength;
+    private final SqlLogRowCounter rowCounter;
+
+    /**
+     * Constructor for SqlLogListener.
+     *
+     * @param slowThresholdMs Statements taking at least this long are logged as slow.
+     * @param sampleRate Fraction (0.0 - 1.0) of the remaining statements that is logged.
+     * @param maxParameterLength Bind parameter values are cut off after this many characters.
+     * @param rowCounter Counts the rows of logged queries; only present with foodlist.sql-log.count-rows=true.
+     */
+    public SqlLogListener(@Value("${foodlist.sql-log.slow-threshold-ms:200}") long slowThresholdMs,
+                          @Value("${foodlist.sql-log.sample-rate:0.0}") double sampleRate,
+                          @Value("${foodlist.sql-log.max-parameter-length:100}") int maxParameterLength,
+                          ObjectProvider<SqlLogRowCounter> rowCounter) {
+        this.slowThresholdMs = slowThresholdMs;
+        this.sampleRate = sampleRate;
+        this.maxParameterLength = maxParameterLength;
+        this.rowCounter = rowCounter.getIfAvailable();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsed = execInfo.getElapsedTime();
+        boolean slow = elapsed >= slowThresholdMs;
+        if (!slow && (sampleRate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        if (slow ? !SLOW_LOG.isWarnEnabled() : !SAMPLE_LOG.isInfoEnabled()) {
+            return;
+        }
+
+        Entry entry = new Entry(slow, elapsed, describe(queryInfoList), caller());
+        Object result = execInfo.getResult();
+        if (result instanceof ResultSet resultSet && rowCounter != null) {
+            rowCounter.count(resultSet, execInfo.getStatement(), rows -> log(entry, rows));
+        } else {
+            log(entry, JdbcResults.rowCount(result));
+        }
+    }
+
+    private void log(Entry entry, long rows) {
+        String rowText = rows < 0 ? "-" : String.valueOf(rows);
+        if (entry.slow) {
+            SLOW_LOG.warn("Slow SQL ({} ms, {} rows) in {}: {}", entry.elapsedMs, rowText, entry.caller, entry.sql);
+        } else {
+            SAMPLE_LOG.info("SQL ({} ms, {} rows) in {}: {}", entry.elapsedMs, rowText, entry.caller, entry.sql);
+        }
+    }
+
+    private String describe(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(this::describe).collect(Collectors.joining("; "));
+    }
+
+    private String describe(QueryInfo queryInfo) {
+        List<List<ParameterSetOperation>> parameterSets = queryInfo.getParametersList();
+        if (parameterSets.isEmpty()) {
+            return queryInfo.getQuery();
+        }
+        String parameters = parameterSets.stream()
+                .limit(MAX_LOGGED_BATCH_ENTRIES)
+                .map(this::describeParameters)
+                .collect(Collectors.joining(", "));
+        if (parameterSets.size() > MAX_LOGGED_BATCH_ENTRIES) {
+            parameters += ", ... (" + parameterSets.size() + " parameter sets)";
+        }
+        return queryInfo.getQuery() + " " + parameters;
+    }
+
+    private String describeParameters(List<ParameterSetOperation> operations) {
+        List<ParameterSetOperation> sorted = new ArrayList<>(operations);
+        sorted.sort(Comparator.comparing(operation -> String.valueOf(operation.getArgs()[0]),
+                Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())));
+        return sorted.stream()
+                .map(this::describeValue)
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private String describeValue(ParameterSetOperation operation) {
+        if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+            return "NULL";
+        }
+        Object[] args = operation.getArgs();
+        String value = args.length > 1 ? String.valueOf(args[1]) : "?";
+        return value.length() > maxParameterLength ? value.substring(0, maxParameterLength) + "..." : value;
+    }
+
+    /**
+     * @return The service method (or, outside services, the first application method) executing the statement.
+     */
+    private static String caller() {
+        Optional<StackWalker.StackFrame> frame = STACK_WALKER.walk(frames -> frames
+                .filter(SqlLogListener::isApplicationFrame)
+                .filter(f -> f.getClassName().endsWith("ServiceImpl"))
+                .findFirst());
+        if (frame.isEmpty()) {
+            frame = STACK_WALKER.walk(frames -> frames.filter(SqlLogListener::isApplicationFrame).findFirst());
+        }
+        return frame.map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + methodName(f))
+                .orElse("unknown");
+    }
+
+    private static String methodName(StackWalker.StackFrame frame) {
+        String name = frame.getMethodName();
+        if (name.startsWith("lambda$")) {
+            // Lambdas inside a service method (e.g. coalesced loads) are reported as the enclosing method
+            int end = name.indexOf('$', "lambda$".length());
+            return end > 0 ? name.substring("lambda$".length(), end) : name;
+        }
+        return name;
+    }
+
+    private static boolean isApplicationFrame(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        return className.startsWith("com.foodlist.service.")
+                && !className.startsWith("com.foodlist.service.profiling.")
+                && !className.startsWith("com.foodlist.service.metrics.")
+                && !className.contains("$$");
+    }
+
+    private static final class Entry {
+        private final boolean slow;
+        private final long elapsedMs;
+        private final String sql;
+        private final String caller;
+
+        private Entry(boolean slow, long elapsedMs, String sql, String caller) {
+            this.slow = slow;
+            this.elapsedMs = elapsedMs;
+            this.sql = sql;
+            this.caller = caller;
+        }
+    }
+}
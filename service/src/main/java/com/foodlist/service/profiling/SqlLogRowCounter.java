@@ -0,0 +1,101 @@
+package com.foodlist.service.profiling;
+
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Counts the rows read from the result sets of statements the SQL log reports, and hands the count over
+ * when the result set or its statement is closed.
+ *
+ * <p>Only active with foodlist.sql-log.count-rows=true: as a MethodExecutionListener it makes DataSourceProxyConfig
+ * proxy every connection, statement and result set, so each JDBC call (including every ResultSet.getX) goes
+ * through the listener dispatch, whether the statement is logged or not. Without it, logged queries show "-"
+ * as row count; updates still report their affected rows.
+ */
+@Component
+@ConditionalOnExpression("${foodlist.sql-log.enabled:true} and ${foodlist.sql-log.count-rows:false}")
+public class SqlLogRowCounter implements MethodExecutionListener {
+
+    private static final int MAX_PENDING_PER_THREAD = 32;
+
+    /** Result sets whose rows are being counted, with their statement and the consumer of the count. */
+    private final ThreadLocal<Map<Object, Rows>> pending = ThreadLocal.withInitial(IdentityHashMap::new);
+
+    /**
+     * Starts counting the rows of a result set.
+     *
+     * @param resultSet The result set returned by the statement.
+     * @param statement The statement; closing it reports the rows read so far.
+     * @param onClose Receives the number of rows read once the result set or statement is closed.
+     */
+    void count(ResultSet resultSet, Statement statement, LongConsumer onClose) {
+        Map<Object, Rows> open = pending.get();
+        if (open.size() >= MAX_PENDING_PER_THREAD) {
+            flush(open, candidate -> true); // Result sets that were never closed
+        }
+        open.put(resultSet, new Rows(statement, onClose));
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        Map<Object, Rows> open = pending.get();
+        if (open.isEmpty()) {
+            return;
+        }
+        Object target = executionContext.getTarget();
+        String method = executionContext.getMethod().getName();
+        if (target instanceof ResultSet) {
+            Rows rows = open.get(target);
+            if (rows == null) {
+                rows = open.get(executionContext.getProxy());
+            }
+            if (rows == null) {
+                return;
+            }
+            if ("next".equals(method) && Boolean.TRUE.equals(executionContext.getResult())) {
+                rows.count++;
+            } else if ("close".equals(method)) {
+                open.values().remove(rows);
+                rows.onClose.accept(rows.count);
+            }
+        } else if (target instanceof Statement && "close".equals(method)) {
+            flush(open, statement -> statement == target);
+        }
+    }
+
+    private void flush(Map<Object, Rows> open, Predicate<Statement> statementMatches) {
+        Iterator<Rows> entries = open.values().iterator();
+        while (entries.hasNext()) {
+            Rows rows = entries.next();
+            if (statementMatches.test(rows.statement)) {
+                entries.remove();
+                rows.onClose.accept(rows.count);
+            }
+        }
+    }
+
+    private static final class Rows {
+        private final Statement statement;
+        private final LongConsumer onClose;
+        private long count;
+
+        private Rows(Statement statement, LongConsumer onClose) {
+            this.statement = statement;
+            this.onClose = onClose;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.foodlist.service.ratelimit;
+
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.warmup.StartupWarmup;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Protects the database from single clients and from overload.
+ *
+ * <p>Per client: every household (users without household: the user, anonymous requests: the remote address,
+ * see {@link #clientKey}) has a read budget (GET, HEAD) and a separate write budget, kept in {@link StripedTokenBuckets}. A client that
+ * exceeds its budget gets 429 with Retry-After, without touching the database; the other households are not affected.
+ *
+ * <p>Globally: when requests wait for a database connection (Hikari pending threads) or the average request
+ * latency rises above its threshold, a growing share of requests is rejected with 503 before it queues up as
+ * well. At twice the threshold every request is shed. Actuator, static assets and the requests of the
+ * {@link StartupWarmup} are never limited.
+ *
+ * <p>Runs right after Spring Security, so the signed-in user is known and unauthenticated requests never reach it.
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConditionalOnProperty(name = "foodlist.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+
+    private enum Budget { READ, WRITE }
+
+    private enum Outcome { ALLOWED, LIMITED, SHED }
+
+    private static final int LATENCY_SMOOTHING_SHIFT = 4; // Each request moves the average by 1/16 of its difference
+
+    private final StripedTokenBuckets readBuckets;
+    private final StripedTokenBuckets writeBuckets;
+    private final ObjectProvider<DataSource> dataSource;
+    private final int maxPendingConnections;
+    private final long maxLatencyNanos;
+
+    private final LongAdder[][] decisions = new LongAdder[Budget.values().length][Outcome.values().length];
+    private final AtomicLong averageLatencyNanos = new AtomicLong();
+    private volatile HikariPoolMXBean pool;
+
+    /**
+     * Constructor for RateLimitFilter.
+     *
+     * @param stripes Number of token buckets per budget.
+     * @param readsPerSecond Sustained reads per second per household.
+     * @param readBurst Reads a household may send at once after a quiet period.
+     * @param writesPerSecond Sustained writes per second per household.
+     * @param writeBurst Writes a household may send at once after a quiet period.
+     * @param maxPendingConnections Threads waiting for a database connection above which requests are shed.
+     * @param maxLatency Average request latency above which requests are shed.
+     * @param dataSource The (Hikari) DataSource whose pool is watched.
+     */
+    public RateLimitFilter(@Value("${foodlist.rate-limit.stripes:4096}") int stripes,
+                           @Value("${foodlist.rate-limit.read.per-second:50}") double readsPerSecond,
+                           @Value("${foodlist.rate-limit.read.burst:100}") int readBurst,
+                           @Value("${foodlist.rate-limit.write.per-second:10}") double writesPerSecond,
+                           @Value("${foodlist.rate-limit.write.burst:20}") int writeBurst,
+                           @Value("${foodlist.rate-limit.shedding.max-pending-connections:5}") int maxPendingConnections,
+                           @Value("${foodlist.rate-limit.shedding.max-latency:500ms}") Duration maxLatency,
+                           ObjectProvider<DataSource> dataSource) {
+        this.readBuckets = new StripedTokenBuckets(stripes, readsPerSecond, readBurst, System::currentTimeMillis);
+        this.writeBuckets = new StripedTokenBuckets(stripes, writesPerSecond, writeBurst, System::currentTimeMillis);
+        this.maxPendingConnections = maxPendingConnections;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.dataSource = dataSource;
+        for (LongAdder[] row : decisions) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = new LongAdder();
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator/") || path.startsWith("/assets/") || StartupWarmup.isWarmupRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Budget budget = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                ? Budget.READ : Budget.WRITE;
+
+        double overload = overload();
+        if (overload > 1 && ThreadLocalRandom.current().nextDouble() < overload - 1) {
+            count(budget, Outcome.SHED);
+            recordLatency(0); // Shed requests cost nothing; lets the average recover even if everything is shed
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            return;
+        }
+
+        long waitMillis = (budget == Budget.READ ? readBuckets : writeBuckets).tryAcquire(clientKey(request));
+        if (waitMillis > 0) {
+            count(budget, Outcome.LIMITED);
+            reject(response, HttpStatus.TOO_MANY_REQUESTS, (waitMillis + 999) / 1000);
+            return;
+        }
+
+        count(budget, Outcome.ALLOWED);
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @return The load relative to the thresholds: at most 1 if the database keeps up, 2 if twice over a threshold.
+     */
+    double overload() {
+        HikariPoolMXBean hikariPool = pool();
+        double pending = hikariPool != null && maxPendingConnections > 0
+                ? (double) hikariPool.getThreadsAwaitingConnection() / maxPendingConnections : 0;
+        double latency = maxLatencyNanos > 0 ? (double) averageLatencyNanos.get() / maxLatencyNanos : 0;
+        return Math.max(pending, latency);
+    }
+
+    /**
+     * Households share budgets across their users; the key spaces are kept apart by the lowest bits.
+     * Anonymous requests (e.g. everything in the "dev" profile, which signs nobody in) are keyed by the remote
+     * address. Behind a reverse proxy that is the proxy's address for all clients, i.e. one shared budget, unless
+     * server.forward-headers-strategy is set so that the address comes from X-Forwarded-For.
+     */
+    private static long clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof HouseholdUser user) {
+            return user.getHouseholdId() != null ? user.getHouseholdId() << 2 : user.getUserId() << 2 | 1;
+        }
+        return (long) request.getRemoteAddr().hashCode() << 2 | 2;
+    }
+
+    /**
+     * Exponentially weighted moving average. Single samples are capped at twice the threshold, so one long
+     * request (e.g. the streamed item table) cannot shed the following ones on its own.
+     */
+    private void recordLatency(long nanos) {
+        long sample = maxLatencyNanos > 0 ? Math.min(nanos, 2 * maxLatencyNanos) : nanos;
+        averageLatencyNanos.getAndUpdate(average -> average + ((sample - average) >> LATENCY_SMOOTHING_SHIFT));
+    }
+
+    private HikariPoolMXBean pool() {
+        HikariPoolMXBean current = pool;
+        if (current == null) {
+            DataSource source = dataSource.getIfAvailable();
+            try {
+                // Behind datasource-proxy; the pool itself only exists after the first connection
+                if (source != null && source.isWrapperFor(HikariDataSource.class)) {
+                    current = source.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                    pool = current;
+                }
+            } catch (SQLException e) {
+                log.debug("DataSource cannot be unwrapped to Hikari, shedding by latency only", e);
+            }
+        }
+        return current;
+    }
+
+    private void count(Budget budget, Outcome outcome) {
+        decisions[budget.ordinal()][outcome.ordinal()].increment();
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, retryAfterSeconds)));
+        response.sendError(status.value());
+    }
+
+    /**
+     * Registers "foodlist.rate-limit.requests" per budget and outcome (allowed, limited = 429, shed = 503)
+     * and the current overload and average latency as gauges.
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Budget budget : Budget.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                FunctionCounter.builder("foodlist.rate-limit.requests", decisions[budget.ordinal()][outcome.ordinal()], LongAdder::sum)
+                        .description("Requests by rate limiting decision")
+                        .tags("budget", budget.name().toLowerCase(), "outcome", outcome.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+        Gauge.builder("foodlist.rate-limit.overload", this, RateLimitFilter::overload)
+                .description("Load relative to the shedding thresholds; above 1 requests are shed")
+                .register(registry);
+        Gauge.builder("foodlist.rate-limit.latency", averageLatencyNanos, latency -> latency.get() / 1_000_000.0)
+                .description("Moving average of the request latency used for shedding")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+}
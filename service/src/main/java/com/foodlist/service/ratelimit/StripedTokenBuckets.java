@@ -0,0 +1,78 @@
+package com.foodlist.service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets for an open set of keys (households, users) in a fixed amount of memory.
+ * A key is hashed onto one of a power-of-two number of stripes; keys that share a stripe share its budget,
+ * which with enough stripes is rare and only makes the limit stricter. The state of a bucket (time of the
+ * last refill and remaining tokens) is packed into one long and updated with compare-and-set, so there is
+ * no lock and no allocation per request.
+ */
+public class StripedTokenBuckets {
+
+    private static final int TOKEN_BITS = 24; // Tokens are counted in thousandths, up to 16777 tokens
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE_TOKEN = 1000;
+
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final double permitsPerSecond;
+    private final long capacity;
+    private final LongSupplier clockMillis;
+    private final long epochMillis;
+
+    /**
+     * @param stripes Number of buckets, rounded up to a power of two.
+     * @param permitsPerSecond Sustained rate per bucket.
+     * @param burst Maximum number of tokens a bucket holds, i.e. requests allowed at once after a quiet period.
+     * @param clockMillis Source of the current time in milliseconds.
+     */
+    public StripedTokenBuckets(int stripes, double permitsPerSecond, int burst, LongSupplier clockMillis) {
+        if (permitsPerSecond <= 0 || burst < 1 || burst * ONE_TOKEN > TOKEN_MASK) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0 and burst between 1 and " + TOKEN_MASK / ONE_TOKEN);
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = burst * ONE_TOKEN;
+        this.clockMillis = clockMillis;
+        this.epochMillis = clockMillis.getAsLong() - 1; // Relative times start at 1, state 0 means "never used"
+    }
+
+    /**
+     * Takes one token from the bucket of the key.
+     *
+     * @param key The key, e.g. a household ID.
+     * @return 0 if a token was taken, otherwise the milliseconds until the next token is available.
+     */
+    public long tryAcquire(long key) {
+        int index = index(key);
+        long now = clockMillis.getAsLong() - epochMillis;
+        while (true) {
+            long state = stripes.get(index);
+            long last = state == 0 ? now : state >>> TOKEN_BITS;
+            long tokens = state == 0 ? capacity : state & TOKEN_MASK;
+
+            // One permit per second is one thousandth of a token per millisecond
+            long refill = (long) (Math.max(0, now - last) * permitsPerSecond);
+            long available = Math.min(capacity, tokens + refill);
+            if (available < ONE_TOKEN) {
+                return (long) Math.ceil((ONE_TOKEN - available) / permitsPerSecond);
+            }
+            // Keep the time of the last refill while the elapsed time was too short to add anything,
+            // otherwise frequent calls at a low rate would never earn a token
+            long refilledAt = refill > 0 || state == 0 ? now : last;
+            if (stripes.compareAndSet(index, state, refilledAt << TOKEN_BITS | (available - ONE_TOKEN))) {
+                return 0;
+            }
+        }
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads consecutive IDs over all stripes
+        return (int) (hash ^ hash >>> 32) & mask;
+    }
+}
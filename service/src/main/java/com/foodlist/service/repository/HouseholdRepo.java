@@ -1,9 +1,23 @@
 package com.foodlist.service.repository;
 
 import com.foodlist.service.model.Household;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Repository
 public interface HouseholdRepo extends JpaRepository<Household, Long> {
+
+    /**
+     * Liefert die IDs der Haushalte, in deren Einkaufslisten seit {@code since} Items hinzugefügt wurden,
+     * neueste zuerst. Gelesen werden nur die Items des Zeitfensters (Index idx_items_added_at), nicht alle Items.
+     */
+    @Query("select s.household.id from Item i join i.shoppingList s where i.addedAt >= :since "
+            + "and s.household is not null group by s.household.id order by max(i.addedAt) desc")
+    List<Long> findRecentlyActiveIds(@Param("since") LocalDateTime since, Pageable pageable);
 }
@@ -0,0 +1,43 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepo extends JpaRepository<IdempotencyRecord, Long> {
+
+    /**
+     * Sucht das gespeicherte Ergebnis zu einem Idempotency-Key (Index uq_idempotency_keys_scope_key).
+     */
+    Optional<IdempotencyRecord> findByScopeAndIdempotencyKey(String scope, String idempotencyKey);
+
+    /**
+     * Hinterlegt die Antwort der ersten Ausfuehrung an einem belegten Schluessel, ohne ihn vorher zu laden.
+     *
+     * @return 1 bei Erfolg, 0 wenn der Schluessel inzwischen geloescht wurde.
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.etag = :etag, "
+            + "r.body = :body where r.id = :id")
+    int complete(@Param("id") Long id, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("etag") String etag, @Param("body") byte[] body);
+
+    /**
+     * Loescht alle abgelaufenen Schluessel (Index idx_idempotency_keys_expires_at).
+     *
+     * @return Anzahl der geloeschten Zeilen.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
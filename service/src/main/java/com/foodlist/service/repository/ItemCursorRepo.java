@@ -0,0 +1,26 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.model.Item;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.stream.Stream;
+
+/**
+ * Eigene Erweiterung von {@link ItemRepo}: liest Items über einen Datenbank-Cursor statt als vollständige Liste.
+ */
+public interface ItemCursorRepo {
+
+    /**
+     * Liest die Items mit Ersteller und Einkaufsliste über einen Cursor, jeweils fetchSize Zeilen pro Roundtrip.
+     * Gelesene Items werden aus dem Persistence Context entfernt, der Speicherbedarf hängt also nicht von der
+     * Anzahl der Zeilen ab. Muss in einer Transaktion aufgerufen und der Stream geschlossen werden; PostgreSQL
+     * verwendet den Cursor nur ohne Auto-Commit.
+     *
+     * @param spec Die Bedingungen, siehe {@link ItemSpecifications}.
+     * @param sort Die Sortierung.
+     * @param fetchSize Die Anzahl der Zeilen pro Roundtrip.
+     * @return Ein Stream der Items, der die Datenbankressourcen beim Schließen freigibt.
+     */
+    Stream<Item> streamAll(Specification<Item> spec, Sort sort, int fetchSize);
+}
@@ -0,0 +1,52 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.model.Item;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.stream.Stream;
+
+/**
+ * Implementierung von {@link ItemCursorRepo}; Spring Data findet sie über das Suffix "Impl".
+ */
+class ItemCursorRepoImpl implements ItemCursorRepo {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Item> streamAll(Specification<Item> spec, Sort sort, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Item> query = cb.createQuery(Item.class);
+        Root<Item> root = query.from(Item.class);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        // Wie @EntityGraph der findAll-Methoden: Ersteller und Liste kommen aus derselben Zeile
+        EntityGraph<Item> graph = entityManager.createEntityGraph(Item.class);
+        graph.addAttributeNodes("addedBy", "shoppingList");
+
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_SPEC_FETCH_GRAPH, graph)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .getResultStream()
+                .map(item -> {
+                    // Ersteller und Listen bleiben verwaltet, es sind nur wenige pro Haushalt
+                    entityManager.detach(item);
+                    return item;
+                });
+    }
+}
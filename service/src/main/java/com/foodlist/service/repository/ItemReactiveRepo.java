@@ -0,0 +1,141 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking repository for items, based on R2DBC.
+ * Reads the display fields with a single join, so no follow-up query per item is needed.
+ * Only active in the "reactive" profile.
+ */
+@Repository
+@Profile("reactive")
+public class ItemReactiveRepo {
+
+    private static final String SELECT_DISPLAY = "SELECT i.id, i.name, i.quantity, i.is_checked, i.added_at, i.version, "
+            + "i.added_by_user_id, u.username AS added_by_user_name, i.shopping_list_id, s.name AS shopping_list_name "
+            + "FROM items i "
+            + "LEFT JOIN users u ON u.id = i.added_by_user_id "
+            + "LEFT JOIN shopping_lists s ON s.id = i.shopping_list_id";
+
+    private final DatabaseClient databaseClient;
+
+    public ItemReactiveRepo(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<ItemDisplayDTO> findAllDisplay() {
+        return databaseClient.sql(SELECT_DISPLAY + " ORDER BY i.id")
+                .map(ItemReactiveRepo::toDisplayDTO)
+                .all();
+    }
+
+    public Flux<ItemDisplayDTO> findAllDisplayByShoppingListId(Long shoppingListId) {
+        return databaseClient.sql(SELECT_DISPLAY + " WHERE i.shopping_list_id = :shoppingListId ORDER BY i.id")
+                .bind("shoppingListId", shoppingListId)
+                .map(ItemReactiveRepo::toDisplayDTO)
+                .all();
+    }
+
+    public Mono<ItemDisplayDTO> findDisplayById(Long id) {
+        return databaseClient.sql(SELECT_DISPLAY + " WHERE i.id = :id")
+                .bind("id", id)
+                .map(ItemReactiveRepo::toDisplayDTO)
+                .one();
+    }
+
+    /**
+     * Inserts a new item with version 0.
+     *
+     * @return The generated ID.
+     */
+    public Mono<Long> insert(ItemDTO itemDTO, LocalDateTime addedAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO items "
+                        + "(name, quantity, is_checked, added_at, added_by_user_id, shopping_list_id, version) "
+                        + "VALUES (:name, :quantity, :checked, :addedAt, :addedBy, :shoppingListId, 0)")
+                .bind("quantity", itemDTO.getQuantity())
+                .bind("checked", itemDTO.isChecked())
+                .bind("addedAt", addedAt);
+        spec = bindNullable(spec, "name", itemDTO.getName(), String.class);
+        spec = bindNullable(spec, "addedBy", itemDTO.getAddedByUserId(), Long.class);
+        spec = bindNullable(spec, "shoppingListId", itemDTO.getShoppingListId(), Long.class);
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Updates an item and increments its version. With an expected version, the row is only
+     * changed while it still has that version.
+     *
+     * @return The new version, or an empty Mono if the item is missing or the version is stale.
+     */
+    public Mono<Long> updateReturningVersion(ItemDTO itemDTO, LocalDateTime addedAt) {
+        String sql = "UPDATE items SET name = :name, quantity = :quantity, is_checked = :checked, added_at = :addedAt, "
+                + "added_by_user_id = :addedBy, shopping_list_id = :shoppingListId, version = version + 1 "
+                + "WHERE id = :id" + (itemDTO.getVersion() != null ? " AND version = :version" : "") + " RETURNING version";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("id", itemDTO.getId())
+                .bind("quantity", itemDTO.getQuantity())
+                .bind("checked", itemDTO.isChecked())
+                .bind("addedAt", addedAt);
+        if (itemDTO.getVersion() != null) {
+            spec = spec.bind("version", itemDTO.getVersion());
+        }
+        spec = bindNullable(spec, "name", itemDTO.getName(), String.class);
+        spec = bindNullable(spec, "addedBy", itemDTO.getAddedByUserId(), Long.class);
+        spec = bindNullable(spec, "shoppingListId", itemDTO.getShoppingListId(), Long.class);
+        return spec.map(row -> row.get("version", Long.class)).one();
+    }
+
+    public Mono<Long> findVersionById(Long id) {
+        return databaseClient.sql("SELECT version FROM items WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Long.class))
+                .one();
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM items WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteByShoppingListId(Long shoppingListId) {
+        return databaseClient.sql("DELETE FROM items WHERE shopping_list_id = :shoppingListId")
+                .bind("shoppingListId", shoppingListId)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    static <T> DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                              String name, T value, Class<T> type) {
+        return value != null ? spec.bind(name, value) : spec.bindNull(name, type);
+    }
+
+    private static ItemDisplayDTO toDisplayDTO(Readable row) {
+        Integer quantity = row.get("quantity", Integer.class);
+        Boolean checked = row.get("is_checked", Boolean.class);
+        return new ItemDisplayDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                quantity != null ? quantity : 0,
+                Boolean.TRUE.equals(checked),
+                row.get("added_at", LocalDateTime.class),
+                row.get("added_by_user_id", Long.class),
+                row.get("added_by_user_name", String.class),
+                row.get("shopping_list_id", Long.class),
+                row.get("shopping_list_name", String.class),
+                row.get("version", Long.class)
+        );
+    }
+}
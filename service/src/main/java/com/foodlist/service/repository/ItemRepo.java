@@ -1,12 +1,81 @@
 package com.foodlist.service.repository;
 
 import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepo extends JpaRepository<Item, Long> {
+public interface ItemRepo extends JpaRepository<Item, Long>, JpaSpecificationExecutor<Item>, ItemCursorRepo {
 
     public Item findByName(String name);
 
+    /**
+     * Lädt alle Items zusammen mit Ersteller und Einkaufsliste in einer Abfrage, damit die Umwandlung
+     * in ItemDisplayDTOs keine Folgeabfrage pro Item auslöst.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"addedBy", "shoppingList"})
+    List<Item> findAll();
+
+    /**
+     * Lädt eine Seite von Items mit Ersteller und Einkaufsliste in einer Abfrage; die Bedingungen kommen aus
+     * {@link ItemSpecifications}. Die Anzahl für die Seitennavigation wird separat gezählt, auf der ersten
+     * Seite nur, wenn sie voll ist.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"addedBy", "shoppingList"})
+    Page<Item> findAll(Specification<Item> spec, Pageable pageable);
+
+    /**
+     * Lädt Items mit Ersteller und Einkaufsliste in einer Abfrage, z.B. die gerade geänderten Zeilen.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"addedBy", "shoppingList"})
+    List<Item> findAll(Specification<Item> spec, Sort sort);
+
+    /**
+     * Liefert die IDs der zuletzt hinzugefügten Items einer Einkaufsliste, neueste zuerst.
+     */
+    @Query("select i.id from Item i where i.shoppingList.id = :shoppingListId order by i.addedAt desc")
+    List<Long> findRecentIdsByShoppingListId(@Param("shoppingListId") Long shoppingListId, Pageable pageable);
+
+    /**
+     * Liefert die ID der Einkaufsliste, zu der ein Item gerade gehört; leer, wenn das Item fehlt oder keiner
+     * Liste zugeordnet ist.
+     */
+    @Query("select i.shoppingList.id from Item i where i.id = :id")
+    Optional<Long> findShoppingListIdById(@Param("id") Long id);
+
+    /**
+     * Aktualisiert ein Item nur dann, wenn seine Version noch der erwarteten entspricht (optimistisches Sperren
+     * ohne vorheriges Lesen der Zeile). Erhöht dabei die Version.
+     *
+     * @return Die Anzahl der geänderten Zeilen: 1 bei Erfolg, 0 wenn das Item fehlt oder die Version veraltet ist.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Item i set i.name = :name, i.quantity = :quantity, i.isChecked = :checked, i.addedAt = :addedAt, "
+            + "i.addedBy = :addedBy, i.shoppingList = :shoppingList, i.version = i.version + 1 "
+            + "where i.id = :id and i.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Long version,
+                               @Param("name") String name, @Param("quantity") int quantity,
+                               @Param("checked") boolean checked, @Param("addedAt") LocalDateTime addedAt,
+                               @Param("addedBy") User addedBy, @Param("shoppingList") ShoppingList shoppingList);
+
 }
@@ -0,0 +1,63 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.model.Item;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Bedingungen für die Item-Abfragen der Oberfläche, kombinierbar mit {@link Specification#and}.
+ * Nicht gesetzte Filter werden weggelassen statt als "(:param is null or ...)" in die Abfrage
+ * geschrieben, damit PostgreSQL für jede Kombination den passenden Index wählen kann.
+ */
+public final class ItemSpecifications {
+
+    private ItemSpecifications() {
+    }
+
+    /**
+     * Items aus den Einkaufslisten eines Haushalts (idx_shopping_lists_household_id, dann die Items pro Liste).
+     */
+    public static Specification<Item> inHousehold(Long householdId) {
+        return (root, query, cb) -> cb.equal(root.join("shoppingList").get("household").get("id"), householdId);
+    }
+
+    /**
+     * Items einer Einkaufsliste; ohne ID keine Einschränkung.
+     */
+    public static Specification<Item> inShoppingList(Long shoppingListId) {
+        return shoppingListId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("shoppingList").get("id"), shoppingListId);
+    }
+
+    /**
+     * Abgehakte oder offene Items; ohne Wert keine Einschränkung. Der Wert steht als Literal in der Abfrage
+     * statt als Parameter: Nur so kann PostgreSQL auch im generischen Plan eines vorbereiteten Statements
+     * den partiellen Index idx_items_unchecked_per_list (where is_checked = false) verwenden.
+     */
+    public static Specification<Item> checked(Boolean checked) {
+        return checked == null ? null
+                : (root, query, cb) -> checked ? cb.isTrue(root.get("isChecked")) : cb.isFalse(root.get("isChecked"));
+    }
+
+    /**
+     * Items, deren Name den Text enthält, ohne Beachtung der Groß-/Kleinschreibung; ohne Text keine Einschränkung.
+     * Platzhalter im Text (%, _) werden wörtlich gesucht.
+     */
+    public static Specification<Item> nameContains(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String pattern = "%" + text.strip().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), pattern, '\\');
+    }
+
+    /**
+     * Items mit den angegebenen IDs.
+     */
+    public static Specification<Item> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+}
@@ -0,0 +1,110 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.dto.ShoppingListDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+import static com.foodlist.service.repository.ItemReactiveRepo.bindNullable;
+
+/**
+ * Non-blocking repository for shopping lists, based on R2DBC.
+ * Only active in the "reactive" profile.
+ */
+@Repository
+@Profile("reactive")
+public class ShoppingListReactiveRepo {
+
+    private static final String SELECT = "SELECT id, name, is_default, created_at, household_id, version FROM shopping_lists";
+
+    private final DatabaseClient databaseClient;
+
+    public ShoppingListReactiveRepo(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Flux<ShoppingListDTO> findAll() {
+        return databaseClient.sql(SELECT + " ORDER BY id")
+                .map(ShoppingListReactiveRepo::toDTO)
+                .all();
+    }
+
+    public Mono<ShoppingListDTO> findById(Long id) {
+        return databaseClient.sql(SELECT + " WHERE id = :id")
+                .bind("id", id)
+                .map(ShoppingListReactiveRepo::toDTO)
+                .one();
+    }
+
+    /**
+     * Inserts a new shopping list with version 0.
+     *
+     * @return The generated ID.
+     */
+    public Mono<Long> insert(ShoppingListDTO shoppingListDTO, LocalDateTime createdAt) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("INSERT INTO shopping_lists "
+                        + "(name, is_default, created_at, household_id, version) "
+                        + "VALUES (:name, :isDefault, :createdAt, :householdId, 0)")
+                .bind("isDefault", shoppingListDTO.isDefault())
+                .bind("createdAt", createdAt);
+        spec = bindNullable(spec, "name", shoppingListDTO.getName(), String.class);
+        spec = bindNullable(spec, "householdId", shoppingListDTO.getHouseholdId(), Long.class);
+        return spec.filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    /**
+     * Updates a shopping list and increments its version, optionally only for an expected version.
+     *
+     * @return The new version, or an empty Mono if the list is missing or the version is stale.
+     */
+    public Mono<Long> updateReturningVersion(ShoppingListDTO shoppingListDTO, LocalDateTime createdAt) {
+        String sql = "UPDATE shopping_lists SET name = :name, is_default = :isDefault, created_at = :createdAt, "
+                + "household_id = :householdId, version = version + 1 "
+                + "WHERE id = :id" + (shoppingListDTO.getVersion() != null ? " AND version = :version" : "") + " RETURNING version";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+                .bind("id", shoppingListDTO.getId())
+                .bind("isDefault", shoppingListDTO.isDefault())
+                .bind("createdAt", createdAt);
+        if (shoppingListDTO.getVersion() != null) {
+            spec = spec.bind("version", shoppingListDTO.getVersion());
+        }
+        spec = bindNullable(spec, "name", shoppingListDTO.getName(), String.class);
+        spec = bindNullable(spec, "householdId", shoppingListDTO.getHouseholdId(), Long.class);
+        return spec.map(row -> row.get("version", Long.class)).one();
+    }
+
+    public Mono<Boolean> existsById(Long id) {
+        return databaseClient.sql("SELECT 1 FROM shopping_lists WHERE id = :id")
+                .bind("id", id)
+                .map(row -> Boolean.TRUE)
+                .first()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<Long> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM shopping_lists WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static ShoppingListDTO toDTO(Readable row) {
+        Boolean isDefault = row.get("is_default", Boolean.class);
+        return new ShoppingListDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                Boolean.TRUE.equals(isDefault),
+                row.get("created_at", LocalDateTime.class),
+                row.get("household_id", Long.class),
+                null, // Items werden wie im MVC-Stack über den Items-Endpunkt abgefragt
+                row.get("version", Long.class)
+        );
+    }
+}
@@ -1,9 +1,41 @@
 package com.foodlist.service.repository;
 
+import com.foodlist.service.model.Household;
 import com.foodlist.service.model.ShoppingList;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface ShoppingListRepo extends JpaRepository<ShoppingList, Long> {
+
+    /**
+     * Liefert die Einkaufslisten eines Haushalts in Anlagereihenfolge.
+     */
+    List<ShoppingList> findByHousehold_IdOrderByIdAsc(Long householdId);
+
+    /**
+     * Prüft, ob eine Einkaufsliste zu einem Haushalt gehört.
+     */
+    boolean existsByIdAndHousehold_Id(Long id, Long householdId);
+
+    /**
+     * Aktualisiert eine Einkaufsliste nur dann, wenn ihre Version noch der erwarteten entspricht.
+     *
+     * @return 1 bei Erfolg, 0 wenn die Einkaufsliste fehlt oder die Version veraltet ist.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ShoppingList s set s.name = :name, s.isDefault = :isDefault, s.createdAt = :createdAt, "
+            + "s.household = :household, s.version = s.version + 1 "
+            + "where s.id = :id and s.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Long version,
+                               @Param("name") String name, @Param("isDefault") boolean isDefault,
+                               @Param("createdAt") LocalDateTime createdAt, @Param("household") Household household);
 }
@@ -1,9 +1,47 @@
 package com.foodlist.service.repository;
 
+import com.foodlist.service.model.Household;
 import com.foodlist.service.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Repository
 public interface UserRepo extends JpaRepository<User, Long> {
+
+    /**
+     * Sucht einen Benutzer anhand seines Benutzernamens (Anmeldung), mit Haushalt in derselben Abfrage.
+     * Benutzernamen sind eindeutig (Index uq_users_username), die Suche ist ein Index-Zugriff.
+     */
+    @EntityGraph(attributePaths = "household")
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Liefert den aktiven Benutzer eines Haushalts mit der kleinsten ID (Index idx_users_household_id),
+     * z.B. um im Namen des Haushalts anzufragen.
+     */
+    Optional<User> findFirstByHousehold_IdAndEnabledTrueOrderByIdAsc(Long householdId);
+
+    /**
+     * Aktualisiert einen Benutzer nur dann, wenn seine Version noch der erwarteten entspricht.
+     * Ist passwordHash null, bleibt das bisherige Passwort erhalten.
+     *
+     * @return 1 bei Erfolg, 0 wenn der Benutzer fehlt oder die Version veraltet ist.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update User u set u.username = :username, u.name = :name, u.enabled = :enabled, "
+            + "u.household = :household, u.passwordHash = coalesce(:passwordHash, u.passwordHash), "
+            + "u.version = u.version + 1 "
+            + "where u.id = :id and u.version = :version")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Long version,
+                               @Param("username") String username, @Param("name") String name,
+                               @Param("enabled") boolean enabled, @Param("household") Household household,
+                               @Param("passwordHash") String passwordHash);
 }
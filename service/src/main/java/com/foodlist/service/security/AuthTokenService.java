@@ -0,0 +1,157 @@
+package com.foodlist.service.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless sign-in tokens. A token carries user ID, household ID, username and expiry,
+ * signed with HMAC-SHA256; verifying it needs neither a session store nor the users table.
+ * Format: base64url(userId|householdId|expiresAt|username) "." base64url(signature).
+ *
+ * <p>The secret comes from foodlist.security.token.secret (Base64, at least 32 bytes) and must be the same on
+ * all instances. Only the "dev" profile may run without it: a random secret is generated there, so tokens end
+ * with a restart. Every other profile fails to start, since instances with different random secrets would
+ * reject each other's tokens.
+ */
+@Slf4j
+@Service
+public class AuthTokenService {
+
+    /**
+     * Cookie that carries the token for the web UI (HttpOnly, SameSite=Lax).
+     */
+    public static final String COOKIE_NAME = "FOODLIST_TOKEN";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final UserAuthorities userAuthorities;
+    private final Clock clock;
+
+    @Autowired
+    public AuthTokenService(@Value("${foodlist.security.token.secret:}") String secret,
+                            @Value("${foodlist.security.token.ttl:8h}") Duration ttl,
+                            UserAuthorities userAuthorities, Environment environment) {
+        this(secret, ttl, userAuthorities, Clock.systemUTC(), environment.acceptsProfiles(Profiles.of("dev")));
+    }
+
+    AuthTokenService(String secret, Duration ttl, UserAuthorities userAuthorities, Clock clock, boolean randomSecretAllowed) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!randomSecretAllowed) {
+                throw new IllegalStateException("foodlist.security.token.secret is required outside the \"dev\" profile");
+            }
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("No foodlist.security.token.secret configured; using a random secret, tokens are lost on restart");
+        } else {
+            keyBytes = Base64.getDecoder().decode(secret.strip());
+            if (keyBytes.length < 32) {
+                throw new IllegalArgumentException("foodlist.security.token.secret must be at least 32 bytes (Base64)");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = ttl;
+        this.userAuthorities = userAuthorities;
+        this.clock = clock;
+    }
+
+    /**
+     * @param user The signed-in user.
+     * @return A token for this user, valid for the configured time to live.
+     */
+    public String issue(HouseholdUser user) {
+        return issue(user, expiresAt());
+    }
+
+    /**
+     * @param user The signed-in user.
+     * @param expiresAt The point in time until which the token is valid, usually {@link #expiresAt()}.
+     * @return A token for this user.
+     */
+    public String issue(HouseholdUser user, Instant expiresAt) {
+        String payload = user.getUserId() + "|" + (user.getHouseholdId() != null ? user.getHouseholdId() : "") + "|"
+                + expiresAt.getEpochSecond() + "|" + user.getUsername();
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * @param token A token as issued by {@link #issue}.
+     * @return The user of the token, or empty if the signature is invalid, the token is malformed or has expired.
+     */
+    public Optional<HouseholdUser> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            return Optional.empty();
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, dot));
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                return Optional.empty();
+            }
+            String[] parts = new String(payloadBytes, StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4 || Instant.ofEpochSecond(Long.parseLong(parts[2])).isBefore(clock.instant())) {
+                return Optional.empty();
+            }
+            Long householdId = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+            return Optional.of(new HouseholdUser(Long.valueOf(parts[0]), householdId, parts[3], "", true,
+                    userAuthorities.of(parts[3])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty(); // Not Base64 or not a number; NumberFormatException is an IllegalArgumentException
+        }
+    }
+
+    /**
+     * @return The point in time until which a token issued now is valid.
+     */
+    public Instant expiresAt() {
+        return clock.instant().plus(ttl);
+    }
+
+    /**
+     * @param token The token, or an empty string to delete the cookie.
+     * @param secure Whether the cookie may only be sent over HTTPS (true if the request came over HTTPS).
+     * @return The Set-Cookie value for the web UI.
+     */
+    public ResponseCookie cookie(String token, boolean secure) {
+        return ResponseCookie.from(COOKIE_NAME, token)
+                .httpOnly(true)
+                .secure(secure)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(token.isEmpty() ? Duration.ZERO : ttl)
+                .build();
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM); // Mac is not thread-safe, creating one is cheap
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
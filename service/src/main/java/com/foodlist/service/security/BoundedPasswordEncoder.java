@@ -0,0 +1,90 @@
+package com.foodlist.service.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the hashing of a PasswordEncoder (bcrypt: about 100 ms CPU per call by design) on a bounded executor.
+ * At most as many hashes are computed at once as the executor has threads, so a burst of logins cannot take
+ * the CPU away from the other requests; when the queue is full as well, the call fails fast with
+ * {@link PasswordHashingUnavailableException} instead of piling up.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final Duration timeout;
+
+    /**
+     * @param delegate The encoder that does the hashing.
+     * @param executor Bounded executor (fixed threads, bounded queue, rejecting when full).
+     * @param timeout How long a caller waits for its hash, including the time in the queue.
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, Duration timeout) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return The executor the hashes run on, e.g. for its metrics.
+     */
+    public ExecutorService executor() {
+        return executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword); // Only looks at the prefix, no hashing
+    }
+
+    /**
+     * Stops the hashing threads; called by Spring on shutdown.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new PasswordHashingUnavailableException("Password hashing is saturated, try again later.", e);
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new PasswordHashingUnavailableException("Password hashing took longer than " + timeout + ".", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.foodlist.service.security;
+
+import com.foodlist.service.repository.ItemRepo;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Restricts the REST API to the household of the signed-in user. The authorization managers are used by
+ * SecurityConfig for the IDs in the path: households, users, shopping lists and items of other households are
+ * refused with 403, while IDs that do not exist are let through, so that the controllers answer 404 as before.
+ * A user may only change or delete their own account. The check methods cover the IDs in request bodies and are
+ * called by the controllers; without a HouseholdUser (the "dev" chain signs nobody in) they check nothing.
+ * Admins ({@link UserAuthorities}) are not restricted. Users and shopping lists are looked up in the
+ * {@link HouseholdMembershipCache}, items by their ID.
+ */
+@Component
+public class HouseholdAccess {
+
+    private final HouseholdMembershipCache membershipCache;
+    private final ItemRepo itemRepo;
+
+    public HouseholdAccess(HouseholdMembershipCache membershipCache, ItemRepo itemRepo) {
+        this.membershipCache = membershipCache;
+        this.itemRepo = itemRepo;
+    }
+
+    /**
+     * @param variable Path variable with the household ID.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> household(String variable) {
+        return pathId(variable, (user, householdId) -> householdId.equals(user.getHouseholdId()));
+    }
+
+    /**
+     * Reading a user: the signed-in user and the other members of the household.
+     *
+     * @param variable Path variable with the user ID.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> member(String variable) {
+        return pathId(variable, this::isMemberOrUnknown);
+    }
+
+    /**
+     * Changing or deleting a user, including the password: only the user themselves.
+     *
+     * @param variable Path variable with the user ID.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> self(String variable) {
+        return pathId(variable, (user, userId) -> userId.equals(user.getUserId()));
+    }
+
+    /**
+     * @param variable Path variable with the shopping list ID.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> shoppingList(String variable) {
+        return pathId(variable, this::isShoppingListOfHouseholdOrUnknown);
+    }
+
+    /**
+     * @param variable Path variable with the item ID.
+     */
+    public AuthorizationManager<RequestAuthorizationContext> item(String variable) {
+        return pathId(variable, (user, itemId) -> itemRepo.findShoppingListIdById(itemId)
+                .map(shoppingListId -> membershipCache.isShoppingListInHousehold(shoppingListId, user.getHouseholdId()))
+                .orElseGet(() -> !itemRepo.existsById(itemId))); // Items without a list belong to no household
+    }
+
+    /**
+     * A household in a request body, e.g. of a new shopping list or user, must be the signed-in user's.
+     *
+     * @throws AccessDeniedException if it is another household.
+     */
+    public void checkHousehold(HouseholdUser user, Long householdId) {
+        check(user, u -> Objects.equals(householdId, u.getHouseholdId()), "household " + householdId);
+    }
+
+    /**
+     * @throws AccessDeniedException if the shopping list belongs to another household.
+     */
+    public void checkShoppingList(HouseholdUser user, Long shoppingListId) {
+        check(user, u -> shoppingListId == null || isShoppingListOfHouseholdOrUnknown(u, shoppingListId),
+                "shopping list " + shoppingListId);
+    }
+
+    /**
+     * @throws AccessDeniedException if one of the shopping lists belongs to another household.
+     */
+    public void checkShoppingLists(HouseholdUser user, Collection<Long> shoppingListIds) {
+        if (shoppingListIds != null) {
+            shoppingListIds.forEach(shoppingListId -> checkShoppingList(user, shoppingListId));
+        }
+    }
+
+    /**
+     * @throws AccessDeniedException if the user belongs to another household.
+     */
+    public void checkMember(HouseholdUser user, Long userId) {
+        check(user, u -> userId == null || isMemberOrUnknown(u, userId), "user " + userId);
+    }
+
+    /**
+     * @throws AccessDeniedException if one of the users belongs to another household.
+     */
+    public void checkMembers(HouseholdUser user, Collection<Long> userIds) {
+        if (userIds != null) {
+            userIds.forEach(userId -> checkMember(user, userId));
+        }
+    }
+
+    private boolean isMemberOrUnknown(HouseholdUser user, Long userId) {
+        return userId.equals(user.getUserId()) || !membershipCache.userExists(userId)
+                || membershipCache.isUserInHousehold(userId, user.getHouseholdId());
+    }
+
+    private boolean isShoppingListOfHouseholdOrUnknown(HouseholdUser user, Long shoppingListId) {
+        return !membershipCache.shoppingListExists(shoppingListId)
+                || membershipCache.isShoppingListInHousehold(shoppingListId, user.getHouseholdId());
+    }
+
+    private static void check(HouseholdUser user, Predicate<HouseholdUser> allowed, String what) {
+        if (user != null && !UserAuthorities.isAdmin(user.getAuthorities()) && !allowed.test(user)) {
+            throw new AccessDeniedException("No access to " + what + " outside the household of the signed-in user");
+        }
+    }
+
+    /**
+     * Grants admins, refuses anonymous requests (the chain answers 401) and otherwise tests the numeric path
+     * variable; a value that is no number is left to the controller (400).
+     */
+    private static AuthorizationManager<RequestAuthorizationContext> pathId(String variable,
+                                                                          BiPredicate<HouseholdUser, Long> allowed) {
+        return (authentication, context) -> {
+            Authentication current = authentication.get();
+            if (UserAuthorities.isAdmin(current)) {
+                return new AuthorizationDecision(true);
+            }
+            if (current == null || !(current.getPrincipal() instanceof HouseholdUser user)) {
+                return new AuthorizationDecision(false);
+            }
+            Long id;
+            try {
+                id = Long.valueOf(context.getVariables().get(variable));
+            } catch (NumberFormatException e) {
+                return new AuthorizationDecision(true);
+            }
+            return new AuthorizationDecision(allowed.test(user, id));
+        };
+    }
+}
@@ -0,0 +1,119 @@
+package com.foodlist.service.security;
+
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Cached answers to "does this user (still) belong to this household" and "does this shopping list belong
+ * to this household". Token sign-ins check the membership on every request, so that a user who was disabled
+ * or moved to another household loses access within the expiry time instead of at the end of the token;
+ * the cache keeps that to one lookup per user and expiry time. The services evict entries they change.
+ */
+@Component
+public class HouseholdMembershipCache {
+
+    private record Membership(Long householdId, boolean enabled) {
+    }
+
+    private record Owner(Long householdId) {
+    }
+
+    private final LoadingCache<Long, Optional<Membership>> users;
+    private final LoadingCache<Long, Optional<Owner>> shoppingLists;
+
+    /**
+     * @param userRepo Source of the household and enabled flag of a user.
+     * @param shoppingListRepo Source of the household of a shopping list.
+     * @param expireAfterWrite How long an answer is used without asking the database again.
+     * @param maximumSize Maximum number of users and of shopping lists kept each.
+     * @param meterRegistry Registry for the cache.* meters, if available.
+     */
+    public HouseholdMembershipCache(UserRepo userRepo, ShoppingListRepo shoppingListRepo,
+                                    @Value("${foodlist.security.membership-cache.expire-after-write:60s}") Duration expireAfterWrite,
+                                    @Value("${foodlist.security.membership-cache.maximum-size:10000}") long maximumSize,
+                                    ObjectProvider<MeterRegistry> meterRegistry) {
+        // The household is a lazy proxy; its ID is known without loading it
+        this.users = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build(userId -> userRepo.findById(userId).map(user -> new Membership(
+                        user.getHousehold() != null ? user.getHousehold().getId() : null, user.isEnabled())));
+        this.shoppingLists = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build(shoppingListId -> shoppingListRepo.findById(shoppingListId)
+                        .map(shoppingList -> new Owner(shoppingList.getHousehold() != null ? shoppingList.getHousehold().getId() : null)));
+        meterRegistry.ifAvailable(registry -> {
+            CaffeineCacheMetrics.monitor(registry, users, "household-membership.users");
+            CaffeineCacheMetrics.monitor(registry, shoppingLists, "household-membership.shopping-lists");
+        });
+    }
+
+    /**
+     * @return true if the user exists, is enabled and belongs to the household (householdId null: to none).
+     */
+    public boolean isActiveMember(Long userId, Long householdId) {
+        return users.get(userId)
+                .filter(membership -> membership.enabled() && Objects.equals(membership.householdId(), householdId))
+                .isPresent();
+    }
+
+    /**
+     * @return true if the user exists and belongs to the household, enabled or not.
+     */
+    public boolean isUserInHousehold(Long userId, Long householdId) {
+        return householdId != null && users.get(userId)
+                .filter(membership -> householdId.equals(membership.householdId())).isPresent();
+    }
+
+    /**
+     * @return true if the shopping list exists and belongs to the household.
+     */
+    public boolean isShoppingListInHousehold(Long shoppingListId, Long householdId) {
+        return householdId != null && shoppingLists.get(shoppingListId)
+                .filter(owner -> householdId.equals(owner.householdId())).isPresent();
+    }
+
+    /**
+     * @return true if the user exists, e.g. to validate a reference without a database round trip.
+     */
+    public boolean userExists(Long userId) {
+        return users.get(userId).isPresent();
+    }
+
+    /**
+     * @return true if the shopping list exists, with or without household.
+     */
+    public boolean shoppingListExists(Long shoppingListId) {
+        return shoppingLists.get(shoppingListId).isPresent();
+    }
+
+    public void evictUser(Long userId) {
+        users.invalidate(userId);
+    }
+
+    public void evictShoppingList(Long shoppingListId) {
+        shoppingLists.invalidate(shoppingListId);
+    }
+
+    /**
+     * Forgets everything, e.g. after a household with all its users and lists was deleted.
+     */
+    public void evictAll() {
+        users.invalidateAll();
+        shoppingLists.invalidateAll();
+    }
+}
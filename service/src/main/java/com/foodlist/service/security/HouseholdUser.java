@@ -0,0 +1,29 @@
+package com.foodlist.service.security;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Signed-in user together with the household it belongs to. The IDs are resolved once at login and
+ * kept in the security context, so household-scoped requests need no extra lookup of the user.
+ */
+@Getter
+public class HouseholdUser extends User {
+
+    private final Long userId;
+
+    /**
+     * The household of the user, null if the user does not belong to one.
+     */
+    private final Long householdId;
+
+    public HouseholdUser(Long userId, Long householdId, String username, String password, boolean enabled,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+        this.householdId = householdId;
+    }
+}
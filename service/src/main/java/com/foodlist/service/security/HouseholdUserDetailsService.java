@@ -0,0 +1,34 @@
+package com.foodlist.service.security;
+
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.UserRepo;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loads the users of the application for the login. Password hashes carry their encoding as prefix,
+ * e.g. {bcrypt} or {noop}, and are checked by Spring Security's DelegatingPasswordEncoder.
+ * Users without a password ({@link User#NO_PASSWORD}) are treated like unknown users, so that signing in
+ * fails the same way and takes the same time.
+ */
+@Service
+public class HouseholdUserDetailsService implements UserDetailsService {
+
+    private final UserRepo userRepo;
+    private final UserAuthorities userAuthorities;
+
+    public HouseholdUserDetailsService(UserRepo userRepo, UserAuthorities userAuthorities) {
+        this.userRepo = userRepo;
+        this.userAuthorities = userAuthorities;
+    }
+
+    @Override
+    public HouseholdUser loadUserByUsername(String username) {
+        User user = userRepo.findByUsername(username)
+                .filter(found -> !User.NO_PASSWORD.equals(found.getPasswordHash()))
+                .orElseThrow(() -> new UsernameNotFoundException("User " + username + " not found."));
+        return new HouseholdUser(user.getId(), user.getHousehold() != null ? user.getHousehold().getId() : null,
+                user.getUsername(), user.getPasswordHash(), user.isEnabled(), userAuthorities.of(user.getUsername()));
+    }
+}
@@ -0,0 +1,17 @@
+package com.foodlist.service.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a password cannot be hashed or checked because all hashing threads are busy and the queue is full,
+ * or the task did not finish in time. The request should be retried later (503), the credentials are not wrong.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+    public PasswordHashingUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,74 @@
+package com.foodlist.service.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Signs in requests that carry a token from {@link AuthTokenService}: API clients send it as
+ * "Authorization: Bearer", the web UI as cookie. Requests with an invalid or expired token, or of a user
+ * who no longer belongs to the household of the token, stay anonymous and are rejected by the
+ * authorization rules. Not a bean, so that it only runs inside the security filter chain.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final AuthTokenService tokenService;
+    private final HouseholdMembershipCache membershipCache;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+    // Same repository as the chain: the session management then sees the token sign-in as already stored and does
+    // not treat every request as a new login (which would rotate the CSRF token of the page on each request)
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
+    public TokenAuthenticationFilter(AuthTokenService tokenService, HouseholdMembershipCache membershipCache) {
+        this.tokenService = tokenService;
+        this.membershipCache = membershipCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String token = token(request);
+        if (token != null && securityContextHolderStrategy.getContext().getAuthentication() == null) {
+            tokenService.verify(token)
+                    .filter(user -> membershipCache.isActiveMember(user.getUserId(), user.getHouseholdId()))
+                    .ifPresent(user -> {
+                        SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+                        context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+                        securityContextHolderStrategy.setContext(context);
+                        securityContextRepository.saveContext(context, request, response);
+                    });
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return true if the request carries its token in the Authorization header; such requests cannot be
+     * forged by another site and need no CSRF token.
+     */
+    public static boolean hasBearerToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization != null && authorization.startsWith(BEARER);
+    }
+
+    private static String token(HttpServletRequest request) {
+        if (hasBearerToken(request)) {
+            return request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER.length()).strip();
+        }
+        var cookie = WebUtils.getCookie(request, AuthTokenService.COOKIE_NAME);
+        return cookie != null && !cookie.getValue().isEmpty() ? cookie.getValue() : null;
+    }
+}
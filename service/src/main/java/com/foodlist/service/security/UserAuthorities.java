@@ -0,0 +1,58 @@
+package com.foodlist.service.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Authorities of the signed-in users: ROLE_USER for everybody, ROLE_ADMIN in addition for the usernames in
+ * foodlist.security.admin-users. Admins may use the operational endpoints (profiling, actuator except health)
+ * and are not restricted to their own household. The role is not part of the token, so removing a username
+ * from the list takes effect with the next request.
+ */
+@Component
+public class UserAuthorities {
+
+    public static final String ADMIN = "ADMIN";
+    private static final String ROLE_ADMIN = "ROLE_" + ADMIN;
+
+    private static final List<GrantedAuthority> USER = AuthorityUtils.createAuthorityList("ROLE_USER");
+    private static final List<GrantedAuthority> USER_AND_ADMIN = AuthorityUtils.createAuthorityList("ROLE_USER", ROLE_ADMIN);
+
+    private final Set<String> adminUsers;
+
+    /**
+     * @param adminUsers Usernames with the admin role, comma-separated in the configuration.
+     */
+    public UserAuthorities(@Value("${foodlist.security.admin-users:}") Set<String> adminUsers) {
+        this.adminUsers = adminUsers.stream()
+                .map(String::strip)
+                .filter(username -> !username.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * @return The authorities of the user with this username.
+     */
+    public List<GrantedAuthority> of(String username) {
+        return adminUsers.contains(username) ? USER_AND_ADMIN : USER;
+    }
+
+    /**
+     * @return true if the authentication carries the admin role.
+     */
+    public static boolean isAdmin(Authentication authentication) {
+        return authentication != null && isAdmin(authentication.getAuthorities());
+    }
+
+    static boolean isAdmin(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream().anyMatch(authority -> ROLE_ADMIN.equals(authority.getAuthority()));
+    }
+}
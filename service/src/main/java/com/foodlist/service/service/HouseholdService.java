@@ -39,6 +39,7 @@ public interface HouseholdService {
      * Die ID im DTO muss einem bestehenden Haushalt entsprechen.
      * @return Das HouseholdDTO des aktualisierten Haushalts.
      * @throws jakarta.persistence.EntityNotFoundException wenn kein Haushalt mit der ID im DTO gefunden wird.
+     * @throws org.springframework.dao.OptimisticLockingFailureException wenn die im DTO angegebene Version des Haushalts veraltet ist.
      */
     HouseholdDTO updateHousehold(HouseholdDTO householdDTO);
 
@@ -1,5 +1,6 @@
 package com.foodlist.service.service;
 
+import com.foodlist.service.concurrency.RequestCoalescer;
 import com.foodlist.service.dto.HouseholdDTO;
 import com.foodlist.service.mapper.HouseholdMapper;
 import com.foodlist.service.model.Household;
@@ -8,8 +9,10 @@ import com.foodlist.service.model.User;
 import com.foodlist.service.repository.HouseholdRepo;
 import com.foodlist.service.repository.ShoppingListRepo; // Import ShoppingListRepo
 import com.foodlist.service.repository.UserRepo; // Import UserRepo
+import com.foodlist.service.security.HouseholdMembershipCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -24,6 +27,8 @@ public class HouseholdServiceImpl implements HouseholdService {
     private final HouseholdMapper householdMapper;
     private final UserRepo userRepo; // Dependency for User entity
     private final ShoppingListRepo shoppingListRepo; // Dependency for ShoppingList entity
+    private final RequestCoalescer requestCoalescer; // Shares concurrent identical reads
+    private final HouseholdMembershipCache membershipCache; // Moves users and lists between households
 
     /**
      * Constructor for HouseholdServiceImpl, injecting required dependencies.
@@ -33,13 +38,18 @@ public class HouseholdServiceImpl implements HouseholdService {
      * @param householdMapper The mapper for converting between Household and HouseholdDTO.
      * @param userRepo The repository for User entities, needed to resolve userIds.
      * @param shoppingListRepo The repository for ShoppingList entities, needed to resolve shoppingListIds.
+     * @param requestCoalescer The single-flight layer used to share concurrent lookups of the same household.
+     * @param membershipCache The cache of household memberships, cleared when a household changes.
      */
     public HouseholdServiceImpl(HouseholdRepo householdRepo, HouseholdMapper householdMapper,
-                                UserRepo userRepo, ShoppingListRepo shoppingListRepo) {
+                                UserRepo userRepo, ShoppingListRepo shoppingListRepo,
+                                RequestCoalescer requestCoalescer, HouseholdMembershipCache membershipCache) {
         this.householdRepo = householdRepo;
         this.householdMapper = householdMapper;
         this.userRepo = userRepo;
         this.shoppingListRepo = shoppingListRepo;
+        this.requestCoalescer = requestCoalescer;
+        this.membershipCache = membershipCache;
     }
 
     /**
@@ -96,6 +106,7 @@ public class HouseholdServiceImpl implements HouseholdService {
     /**
      * Retrieves a household by its ID and converts it to HouseholdDTO.
      * Uses Optional.orElseThrow for robust error handling if the household is not found.
+     * Concurrent calls for the same ID share a single database load.
      *
      * @param id The ID of the household to retrieve.
      * @return The HouseholdDTO of the found household.
@@ -103,9 +114,11 @@ public class HouseholdServiceImpl implements HouseholdService {
      */
     @Override
     public HouseholdDTO getHouseholdById(Long id) {
-        Household household = householdRepo.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Household with ID " + id + " not found."));
-        return householdMapper.householdToHouseholdDTO(household);
+        return requestCoalescer.load("household", id, () -> {
+            Household household = householdRepo.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Household with ID " + id + " not found."));
+            return householdMapper.householdToHouseholdDTO(household);
+        });
     }
 
     /**
@@ -115,7 +128,12 @@ public class HouseholdServiceImpl implements HouseholdService {
      *
      * @param householdDTO The DTO with updated household details. The ID must match an existing household.
      * @return The DTO of the updated household.
+     * If the DTO carries a version, the update only applies to that version of the household.
+     * Unlike the other entities, households are still read before the write, because replacing
+     * the user and shopping list collections requires a managed entity.
+     *
      * @throws EntityNotFoundException if the household to be updated, or any related User/ShoppingList, does not exist.
+     * @throws OptimisticLockingFailureException if the household was modified after the given version.
      */
     @Override
     public HouseholdDTO updateHousehold(HouseholdDTO householdDTO) {
@@ -124,6 +142,14 @@ public class HouseholdServiceImpl implements HouseholdService {
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Household to be updated not found. Household Id: " + householdDTO.getId()));
 
+        // Reject stale writes early; the version is also compared by Hibernate when the changes are written
+        if (householdDTO.getVersion() != null) {
+            if (!householdDTO.getVersion().equals(existingHousehold.getVersion())) {
+                throw new OptimisticLockingFailureException("Household with ID " + householdDTO.getId()
+                        + " was modified concurrently. Expected version: " + householdDTO.getVersion());
+            }
+        }
+
         // Update basic fields from DTO to the existing entity
         existingHousehold.setName(householdDTO.getName());
         // Update createdAt timestamp on update, as per original logic if desired.
@@ -163,6 +189,8 @@ public class HouseholdServiceImpl implements HouseholdService {
 
         // Save the updated existing Household entity
         Household updatedHousehold = householdRepo.save(existingHousehold);
+        // Users and lists may have moved in or out; households change rarely, so forget all memberships
+        membershipCache.evictAll();
         return householdMapper.householdToHouseholdDTO(updatedHousehold);
     }
 
@@ -179,6 +207,7 @@ public class HouseholdServiceImpl implements HouseholdService {
             throw new EntityNotFoundException("Household with ID " + id + " not found for deletion.");
         }
         householdRepo.deleteById(id);
+        membershipCache.evictAll();
     }
 
     // Removed specific methods like addUserToHousehold, removeUserFromHousehold, etc.
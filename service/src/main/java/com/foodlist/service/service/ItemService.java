@@ -2,16 +2,36 @@ package com.foodlist.service.service;
 
 import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ItemService {
     ItemDTO addItem(ItemDTO itemDTO);
 
+    Optional<ItemIngestDTO> enqueueItem(ItemDTO itemDTO, long ownerId, String correlationId);
+
+    Optional<ItemIngestDTO> getIngestStatus(long ownerId, String correlationId);
+
     List<ItemDisplayDTO> getAllItems();
 
     ItemDisplayDTO getItemById(Long id);
 
+    Page<ItemDisplayDTO> getItemPageByHouseholdId(Long householdId, Long shoppingListId, Boolean checked, String name,
+                                                  Pageable pageable);
+
+    void streamItemsByHouseholdId(Long householdId, Long shoppingListId, Boolean checked, String name, Sort sort,
+                                  int chunkSize, Consumer<Iterator<ItemDisplayDTO>> consumer);
+
+    List<ItemDisplayDTO> getItemsByShoppingListIdAndIds(Long householdId, Long shoppingListId, Collection<Long> ids);
+
     ItemDTO updateItem(ItemDTO itemDTO);
 
     void deleteItemById(Long id);
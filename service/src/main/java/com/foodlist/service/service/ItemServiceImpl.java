@@ -1,21 +1,45 @@
 package com.foodlist.service.service;
 
+import com.foodlist.service.concurrency.ItemWriteBehindQueue;
+import com.foodlist.service.concurrency.ShoppingListMutationDispatcher;
 import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ItemDisplayDTO; // Importieren Sie das neue DTO
+import com.foodlist.service.dto.ItemIngestDTO;
 import com.foodlist.service.mapper.ItemMapper;
 import com.foodlist.service.model.Item;
 import com.foodlist.service.model.ShoppingList;
 import com.foodlist.service.model.User;
 import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.ItemSpecifications;
 import com.foodlist.service.repository.ShoppingListRepo;
 import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.HouseholdMembershipCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -25,17 +49,97 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepo itemRepo;
     private final UserRepo userRepo;
     private final ShoppingListRepo shoppingListRepo;
+    private final ShoppingListMutationDispatcher mutationDispatcher;
+    private final ItemWriteBehindQueue writeBehindQueue;
+    private final HouseholdMembershipCache membershipCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration writeBehindResponseTimeout;
 
     public ItemServiceImpl(ItemMapper itemMapper, ItemRepo itemRepo,
-                           UserRepo userRepo, ShoppingListRepo shoppingListRepo) {
+                           UserRepo userRepo, ShoppingListRepo shoppingListRepo,
+                           ShoppingListMutationDispatcher mutationDispatcher,
+                           ItemWriteBehindQueue writeBehindQueue, HouseholdMembershipCache membershipCache,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${foodlist.items.write-behind.response-timeout:5s}") Duration writeBehindResponseTimeout) {
         this.itemMapper = itemMapper;
         this.itemRepo = itemRepo;
         this.userRepo = userRepo;
         this.shoppingListRepo = shoppingListRepo;
+        this.mutationDispatcher = mutationDispatcher;
+        this.writeBehindQueue = writeBehindQueue;
+        this.membershipCache = membershipCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writeBehindResponseTimeout = writeBehindResponseTimeout;
     }
 
+    /**
+     * Fügt ein Item hinzu. Im Single-Writer-Modus läuft die Änderung über die Mailbox der Einkaufsliste.
+     */
     @Override
     public ItemDTO addItem(ItemDTO itemDTO) {
+        return mutationDispatcher.execute(itemDTO.getShoppingListId(), () -> doAddItem(itemDTO));
+    }
+
+    /**
+     * Nimmt ein Item zum gebündelten Schreiben an (Write-Behind), sofern der Modus aktiv ist, und wartet,
+     * bis sein Batch geschrieben ist, höchstens aber response-timeout.
+     * Ersteller und Einkaufsliste werden wie beim synchronen Hinzufügen geprüft, aber über den
+     * Zugehörigkeits-Cache statt mit einer Abfrage pro Item.
+     *
+     * @param itemDTO Das Item.
+     * @param ownerId Der angemeldete Benutzer; Korrelations-IDs gelten nur pro Benutzer.
+     * @param correlationId Die ID, unter der der Client den Status abfragt; null für eine neue.
+     * @return COMMITTED (mit Item-ID), FAILED, oder PENDING, wenn es nicht rechtzeitig geschrieben wurde;
+     * leer, wenn der Modus nicht aktiv ist.
+     * @throws EntityNotFoundException wenn der Ersteller oder die Einkaufsliste nicht existiert.
+     * @throws IllegalArgumentException wenn die Korrelations-ID länger als 64 Zeichen ist.
+     * @throws java.util.concurrent.RejectedExecutionException wenn die Warteschlange voll ist.
+     */
+    @Override
+    public Optional<ItemIngestDTO> enqueueItem(ItemDTO itemDTO, long ownerId, String correlationId) {
+        if (!writeBehindQueue.isEnabled()) {
+            return Optional.empty();
+        }
+        if (correlationId != null && (correlationId.isBlank() || correlationId.length() > 64)) {
+            throw new IllegalArgumentException("Correlation ID must have 1 to 64 characters.");
+        }
+        if (itemDTO.getAddedByUserId() != null && !membershipCache.userExists(itemDTO.getAddedByUserId())) {
+            throw new EntityNotFoundException(
+                    "User with ID " + itemDTO.getAddedByUserId() + " not found. Cannot add item.");
+        }
+        if (itemDTO.getShoppingListId() != null && !membershipCache.shoppingListExists(itemDTO.getShoppingListId())) {
+            throw new EntityNotFoundException(
+                    "ShoppingList with ID " + itemDTO.getShoppingListId() + " not found. Cannot add item.");
+        }
+        String id = correlationId != null ? correlationId : UUID.randomUUID().toString();
+        CompletableFuture<ItemIngestDTO> outcome = writeBehindQueue.enqueue(itemDTO, ownerId, id);
+        try {
+            return Optional.of(outcome.get(writeBehindResponseTimeout.toMillis(), TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return Optional.of(new ItemIngestDTO(id, ItemIngestDTO.Status.PENDING, null, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.of(new ItemIngestDTO(id, ItemIngestDTO.Status.PENDING, null, null));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause()); // The queue completes its futures only normally
+        }
+    }
+
+    /**
+     * Liefert den Status eines asynchron angenommenen Items des angemeldeten Benutzers.
+     *
+     * @param ownerId Der angemeldete Benutzer.
+     * @param correlationId Die Korrelations-ID aus der Annahme.
+     * @return Der Status, oder leer, wenn die ID unbekannt ist (nie angenommen, von einem anderen Benutzer
+     * oder vor dem Schreiben verloren).
+     */
+    @Override
+    public Optional<ItemIngestDTO> getIngestStatus(long ownerId, String correlationId) {
+        return writeBehindQueue.status(ownerId, correlationId);
+    }
+
+    private ItemDTO doAddItem(ItemDTO itemDTO) {
         try {
             Item item = itemMapper.itemDTOToItem(itemDTO, userRepo, shoppingListRepo); // Pass repos to mapper
 
@@ -90,42 +194,164 @@ public class ItemServiceImpl implements ItemService {
         return itemMapper.itemToItemDisplayDTO(item);
     }
 
+    /**
+     * Ruft eine Seite der Items eines Haushalts für die UI-Anzeige ab, optional gefiltert.
+     * Die Abfrage ist auf die Einkaufslisten des Haushalts beschränkt, ihr Aufwand hängt also nur
+     * von den Daten des Haushalts ab und nicht von der Größe der Tabelle.
+     *
+     * @param householdId Die ID des Haushalts.
+     * @param shoppingListId Nur Items dieser Einkaufsliste des Haushalts; null für alle Listen.
+     * @param checked Nur abgehakte (true) oder offene (false) Items; null für alle.
+     * @param name Nur Items, deren Name diesen Text enthält; null oder leer für alle.
+     * @param pageable Seite, Seitengröße und Sortierung.
+     * @return Die Seite mit ItemDisplayDTOs.
+     * @throws EntityNotFoundException wenn die Einkaufsliste nicht existiert oder zu einem anderen Haushalt gehört.
+     */
+    @Override
+    public Page<ItemDisplayDTO> getItemPageByHouseholdId(Long householdId, Long shoppingListId, Boolean checked,
+                                                         String name, Pageable pageable) {
+        Page<Item> items = itemRepo.findAll(householdItems(householdId, shoppingListId, checked, name), pageable);
+        // Nur eine leere Seite erfordert die Prüfung, ob die Einkaufsliste zum Haushalt gehört
+        if (shoppingListId != null && items.isEmpty()
+                && !shoppingListRepo.existsByIdAndHousehold_Id(shoppingListId, householdId)) {
+            throw new EntityNotFoundException(
+                    "ShoppingList with ID " + shoppingListId + " not found in household " + householdId + ".");
+        }
+        return items.map(itemMapper::itemToItemDisplayDTO);
+    }
+
+    /**
+     * Liest alle Items eines Haushalts für die UI-Anzeige über einen Datenbank-Cursor, gefiltert wie
+     * {@link #getItemPageByHouseholdId}, aber ohne Seiten. Der Consumer erhält die Items, während sie in Blöcken
+     * von chunkSize Zeilen gelesen werden; Cursor und Lesetransaktion bleiben offen, bis er zurückkehrt.
+     * Es wird also nie die ganze Liste im Speicher gehalten.
+     *
+     * @param householdId Die ID des Haushalts.
+     * @param shoppingListId Nur Items dieser Einkaufsliste des Haushalts; null für alle Listen.
+     * @param checked Nur abgehakte (true) oder offene (false) Items; null für alle.
+     * @param name Nur Items, deren Name diesen Text enthält; null oder leer für alle.
+     * @param sort Die Sortierung.
+     * @param chunkSize Die Anzahl der Zeilen, die pro Roundtrip gelesen werden.
+     * @param consumer Verarbeitet die Items, z.B. indem er sie rendert. Der Iterator ist nur während des Aufrufs gültig.
+     */
+    @Override
+    public void streamItemsByHouseholdId(Long householdId, Long shoppingListId, Boolean checked, String name, Sort sort,
+                                         int chunkSize, Consumer<Iterator<ItemDisplayDTO>> consumer) {
+        Specification<Item> spec = householdItems(householdId, shoppingListId, checked, name);
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Item> items = itemRepo.streamAll(spec, sort, chunkSize)) {
+                consumer.accept(items.map(itemMapper::itemToItemDisplayDTO).iterator());
+            }
+        });
+    }
+
+    /**
+     * Ruft ausgewählte Items einer Einkaufsliste für die UI-Anzeige ab, z.B. nur die geänderten Zeilen.
+     * IDs, die nicht (mehr) zur Liste oder zum Haushalt gehören, werden ignoriert.
+     *
+     * @param householdId Die ID des Haushalts, zu dem die Einkaufsliste gehören muss.
+     * @param shoppingListId Die ID der Einkaufsliste.
+     * @param ids Die IDs der gewünschten Items.
+     * @return Die gefundenen ItemDisplayDTOs in Einfügereihenfolge.
+     */
+    @Override
+    public List<ItemDisplayDTO> getItemsByShoppingListIdAndIds(Long householdId, Long shoppingListId, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Specification<Item> spec = Specification.where(ItemSpecifications.inHousehold(householdId))
+                .and(ItemSpecifications.inShoppingList(shoppingListId))
+                .and(ItemSpecifications.idIn(ids));
+        return itemMapper.itemsToItemDisplayDTOs(itemRepo.findAll(spec, Sort.by("id")));
+    }
+
+    /**
+     * Aktualisiert ein Item. Im Single-Writer-Modus läuft die Änderung über die Mailbox der Einkaufsliste,
+     * zu der das Item gerade gehört (nicht der im DTO angegebenen), sodass alle Änderungen eines Items
+     * nacheinander angewendet werden, auch Verschiebungen in eine andere Liste und Updates ohne Liste.
+     */
     @Override
     public ItemDTO updateItem(ItemDTO itemDTO) {
+        Long currentShoppingListId = mutationDispatcher.isEnabled() && itemDTO.getId() != null
+                ? itemRepo.findShoppingListIdById(itemDTO.getId()).orElse(null) : null;
+        return mutationDispatcher.execute(currentShoppingListId, () -> doUpdateItem(itemDTO));
+    }
+
+    private ItemDTO doUpdateItem(ItemDTO itemDTO) {
+        if (itemDTO.getVersion() != null) {
+            return updateItemIfVersionMatches(itemDTO);
+        }
+
         Item existingItem = itemRepo.findById(itemDTO.getId())
                 .orElseThrow(() -> new EntityNotFoundException(
                         "Item to be updated not found. Item Id: " + itemDTO.getId()));
 
-        // Aktualisiere grundlegende Felder
-        existingItem.setName(itemDTO.getName());
-        existingItem.setQuantity(itemDTO.getQuantity());
-        existingItem.setChecked(itemDTO.isChecked());
-        existingItem.setAddedAt(LocalDateTime.now());
-
-        // Behandle User relationship update
+        // Beziehungen zuerst auflösen: Das Item darf erst verändert werden, wenn das Update gültig ist,
+        // da es innerhalb einer Batch-Transaktion verwaltet ist und sonst teilweise gespeichert würde.
+        User user = null;
         if (itemDTO.getAddedByUserId() != null) {
-            User user = userRepo.findById(itemDTO.getAddedByUserId())
+            user = userRepo.findById(itemDTO.getAddedByUserId())
                     .orElseThrow(() -> new EntityNotFoundException(
                             "User with ID " + itemDTO.getAddedByUserId() + " not found for update."));
-            existingItem.setAddedBy(user);
-        } else {
-            existingItem.setAddedBy(null);
         }
 
-        // Behandle ShoppingList relationship update
+        ShoppingList shoppingList = null;
         if (itemDTO.getShoppingListId() != null) {
-            ShoppingList shoppingList = shoppingListRepo.findById(itemDTO.getShoppingListId())
+            shoppingList = shoppingListRepo.findById(itemDTO.getShoppingListId())
                     .orElseThrow(() -> new EntityNotFoundException(
                             "ShoppingList with ID " + itemDTO.getShoppingListId() + " not found for update."));
-            existingItem.setShoppingList(shoppingList);
-        } else {
-            existingItem.setShoppingList(null);
         }
 
+        // Aktualisiere grundlegende Felder
+        existingItem.setName(itemDTO.getName());
+        existingItem.setQuantity(itemDTO.getQuantity());
+        existingItem.setChecked(itemDTO.isChecked());
+        existingItem.setAddedAt(LocalDateTime.now());
+
+        // Behandle User und ShoppingList relationship update
+        existingItem.setAddedBy(user);
+        existingItem.setShoppingList(shoppingList);
+
         Item updatedItem = itemRepo.save(existingItem);
         return itemMapper.itemToItemDTO(updatedItem); // Return original ItemDTO for API consistency
     }
 
+    /**
+     * Bedingtes Update mit der vom Client erwarteten Version. Das Item wird vorher nicht gelesen:
+     * Ein einziges UPDATE ... WHERE version = ? entscheidet, ob die Änderung gilt.
+     *
+     * @throws EntityNotFoundException wenn das Item, der Benutzer oder die Einkaufsliste nicht existiert.
+     * @throws OptimisticLockingFailureException wenn das Item inzwischen von jemand anderem geändert wurde.
+     */
+    private ItemDTO updateItemIfVersionMatches(ItemDTO itemDTO) {
+        LocalDateTime now = LocalDateTime.now();
+        // Referenzen statt Entitäten: Fehlende Beziehungen meldet die Datenbank über den Fremdschlüssel
+        User user = itemDTO.getAddedByUserId() != null ? userRepo.getReferenceById(itemDTO.getAddedByUserId()) : null;
+        ShoppingList shoppingList = itemDTO.getShoppingListId() != null
+                ? shoppingListRepo.getReferenceById(itemDTO.getShoppingListId()) : null;
+
+        int updatedRows;
+        try {
+            updatedRows = itemRepo.updateIfVersionMatches(itemDTO.getId(), itemDTO.getVersion(),
+                    itemDTO.getName(), itemDTO.getQuantity(), itemDTO.isChecked(), now, user, shoppingList);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("User with ID " + itemDTO.getAddedByUserId() + " or ShoppingList with ID "
+                    + itemDTO.getShoppingListId() + " not found for update.");
+        }
+
+        if (updatedRows == 0) {
+            // Nur im Fehlerfall wird nachgesehen, ob das Item fehlt oder die Version veraltet ist
+            if (!itemRepo.existsById(itemDTO.getId())) {
+                throw new EntityNotFoundException("Item to be updated not found. Item Id: " + itemDTO.getId());
+            }
+            throw new OptimisticLockingFailureException("Item with ID " + itemDTO.getId()
+                    + " was modified concurrently. Expected version: " + itemDTO.getVersion());
+        }
+
+        return new ItemDTO(itemDTO.getId(), itemDTO.getName(), itemDTO.getQuantity(), itemDTO.isChecked(), now,
+                itemDTO.getAddedByUserId(), itemDTO.getShoppingListId(), itemDTO.getVersion() + 1);
+    }
+
     @Override
     public void deleteItemById(Long id) {
         if (!itemRepo.existsById(id)) {
@@ -133,4 +359,14 @@ public class ItemServiceImpl implements ItemService {
         }
         itemRepo.deleteById(id);
     }
+
+    /**
+     * Die Items eines Haushalts mit den optionalen Filtern der UI.
+     */
+    private static Specification<Item> householdItems(Long householdId, Long shoppingListId, Boolean checked, String name) {
+        return Specification.where(ItemSpecifications.inHousehold(householdId))
+                .and(ItemSpecifications.inShoppingList(shoppingListId))
+                .and(ItemSpecifications.checked(checked))
+                .and(ItemSpecifications.nameContains(name));
+    }
 }
@@ -0,0 +1,26 @@
+package com.foodlist.service.service;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Nicht-blockierende Variante des {@link ItemService} für das Profil "reactive".
+ * Fehler werden wie im blockierenden Service als EntityNotFoundException bzw.
+ * OptimisticLockingFailureException signalisiert.
+ */
+public interface ReactiveItemService {
+
+    Flux<ItemDisplayDTO> getAllItems();
+
+    Flux<ItemDisplayDTO> getItemsByShoppingListId(Long shoppingListId);
+
+    Mono<ItemDisplayDTO> getItemById(Long id);
+
+    Mono<ItemDTO> addItem(ItemDTO itemDTO);
+
+    Mono<ItemDTO> updateItem(ItemDTO itemDTO);
+
+    Mono<Void> deleteItemById(Long id);
+}
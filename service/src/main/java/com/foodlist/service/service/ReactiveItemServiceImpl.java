@@ -0,0 +1,81 @@
+package com.foodlist.service.service;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.repository.ItemReactiveRepo;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveItemServiceImpl implements ReactiveItemService {
+
+    private final ItemReactiveRepo itemReactiveRepo;
+
+    public ReactiveItemServiceImpl(ItemReactiveRepo itemReactiveRepo) {
+        this.itemReactiveRepo = itemReactiveRepo;
+    }
+
+    @Override
+    public Flux<ItemDisplayDTO> getAllItems() {
+        return itemReactiveRepo.findAllDisplay();
+    }
+
+    @Override
+    public Flux<ItemDisplayDTO> getItemsByShoppingListId(Long shoppingListId) {
+        return itemReactiveRepo.findAllDisplayByShoppingListId(shoppingListId);
+    }
+
+    @Override
+    public Mono<ItemDisplayDTO> getItemById(Long id) {
+        return itemReactiveRepo.findDisplayById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Item with ID " + id + " not found.")));
+    }
+
+    @Override
+    public Mono<ItemDTO> addItem(ItemDTO itemDTO) {
+        LocalDateTime addedAt = LocalDateTime.now();
+        return itemReactiveRepo.insert(itemDTO, addedAt)
+                .map(id -> new ItemDTO(id, itemDTO.getName(), itemDTO.getQuantity(), itemDTO.isChecked(), addedAt,
+                        itemDTO.getAddedByUserId(), itemDTO.getShoppingListId(), 0L))
+                // Fehlende Beziehungen meldet die Datenbank über den Fremdschlüssel
+                .onErrorMap(DataIntegrityViolationException.class, e -> new EntityNotFoundException(
+                        "User with ID " + itemDTO.getAddedByUserId() + " or ShoppingList with ID "
+                                + itemDTO.getShoppingListId() + " not found. Cannot add item."))
+                .doOnError(e -> log.error("Error adding item: {}", e.getMessage()));
+    }
+
+    @Override
+    public Mono<ItemDTO> updateItem(ItemDTO itemDTO) {
+        LocalDateTime addedAt = LocalDateTime.now();
+        return itemReactiveRepo.updateReturningVersion(itemDTO, addedAt)
+                .map(version -> new ItemDTO(itemDTO.getId(), itemDTO.getName(), itemDTO.getQuantity(), itemDTO.isChecked(),
+                        addedAt, itemDTO.getAddedByUserId(), itemDTO.getShoppingListId(), version))
+                .onErrorMap(DataIntegrityViolationException.class, e -> new EntityNotFoundException(
+                        "User with ID " + itemDTO.getAddedByUserId() + " or ShoppingList with ID "
+                                + itemDTO.getShoppingListId() + " not found for update."))
+                // Keine Zeile geändert: Nur jetzt wird nachgesehen, ob das Item fehlt oder die Version veraltet ist
+                .switchIfEmpty(Mono.defer(() -> itemReactiveRepo.findVersionById(itemDTO.getId())
+                        .flatMap(current -> Mono.<ItemDTO>error(new OptimisticLockingFailureException("Item with ID "
+                                + itemDTO.getId() + " was modified concurrently. Expected version: " + itemDTO.getVersion())))
+                        .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(
+                                "Item to be updated not found. Item Id: " + itemDTO.getId())))));
+    }
+
+    @Override
+    public Mono<Void> deleteItemById(Long id) {
+        return itemReactiveRepo.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new EntityNotFoundException("Item with ID " + id + " not found for deletion."))
+                        : Mono.empty());
+    }
+}
@@ -0,0 +1,24 @@
+package com.foodlist.service.service;
+
+import com.foodlist.service.dto.ShoppingListDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Nicht-blockierende Variante des {@link ShoppingListService} für das Profil "reactive".
+ */
+public interface ReactiveShoppingListService {
+
+    Mono<ShoppingListDTO> addShoppingList(ShoppingListDTO shoppingListDTO);
+
+    Flux<ShoppingListDTO> getAllShoppingLists();
+
+    Mono<ShoppingListDTO> getShoppingListById(Long id);
+
+    Mono<ShoppingListDTO> updateShoppingList(ShoppingListDTO shoppingListDTO);
+
+    /**
+     * Löscht eine Einkaufsliste samt ihrer Items in einer Transaktion.
+     */
+    Mono<Void> deleteShoppingListById(Long id);
+}
@@ -0,0 +1,84 @@
+package com.foodlist.service.service;
+
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.repository.ItemReactiveRepo;
+import com.foodlist.service.repository.ShoppingListReactiveRepo;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Service
+@Profile("reactive")
+public class ReactiveShoppingListServiceImpl implements ReactiveShoppingListService {
+
+    private final ShoppingListReactiveRepo shoppingListReactiveRepo;
+    private final ItemReactiveRepo itemReactiveRepo;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveShoppingListServiceImpl(ShoppingListReactiveRepo shoppingListReactiveRepo,
+                                           ItemReactiveRepo itemReactiveRepo,
+                                           ReactiveTransactionManager transactionManager) {
+        this.shoppingListReactiveRepo = shoppingListReactiveRepo;
+        this.itemReactiveRepo = itemReactiveRepo;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+    }
+
+    @Override
+    public Mono<ShoppingListDTO> addShoppingList(ShoppingListDTO shoppingListDTO) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return shoppingListReactiveRepo.insert(shoppingListDTO, createdAt)
+                .map(id -> new ShoppingListDTO(id, shoppingListDTO.getName(), shoppingListDTO.isDefault(), createdAt,
+                        shoppingListDTO.getHouseholdId(), null, 0L))
+                .onErrorMap(DataIntegrityViolationException.class, e -> new EntityNotFoundException(
+                        "Household mit ID " + shoppingListDTO.getHouseholdId() + " nicht gefunden. Kann Einkaufsliste nicht hinzufügen."))
+                .doOnError(e -> log.error("Fehler beim Hinzufügen der Einkaufsliste: {}", e.getMessage()));
+    }
+
+    @Override
+    public Flux<ShoppingListDTO> getAllShoppingLists() {
+        return shoppingListReactiveRepo.findAll();
+    }
+
+    @Override
+    public Mono<ShoppingListDTO> getShoppingListById(Long id) {
+        return shoppingListReactiveRepo.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Einkaufsliste mit ID " + id + " nicht gefunden.")));
+    }
+
+    @Override
+    public Mono<ShoppingListDTO> updateShoppingList(ShoppingListDTO shoppingListDTO) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return shoppingListReactiveRepo.updateReturningVersion(shoppingListDTO, createdAt)
+                .map(version -> new ShoppingListDTO(shoppingListDTO.getId(), shoppingListDTO.getName(),
+                        shoppingListDTO.isDefault(), createdAt, shoppingListDTO.getHouseholdId(), null, version))
+                .onErrorMap(DataIntegrityViolationException.class, e -> new EntityNotFoundException(
+                        "Household mit ID " + shoppingListDTO.getHouseholdId() + " nicht gefunden für Update."))
+                .switchIfEmpty(Mono.defer(() -> shoppingListReactiveRepo.existsById(shoppingListDTO.getId())
+                        .flatMap(exists -> Mono.error(exists
+                                ? new OptimisticLockingFailureException("Einkaufsliste mit ID " + shoppingListDTO.getId()
+                                + " wurde zwischenzeitlich geändert. Erwartete Version: " + shoppingListDTO.getVersion())
+                                : new EntityNotFoundException("Zu aktualisierende Einkaufsliste nicht gefunden. Einkaufslisten-ID: "
+                                + shoppingListDTO.getId())))));
+    }
+
+    @Override
+    public Mono<Void> deleteShoppingListById(Long id) {
+        // Wie CascadeType.ALL im JPA-Modell: zuerst die Items, dann die Liste selbst
+        return itemReactiveRepo.deleteByShoppingListId(id)
+                .then(shoppingListReactiveRepo.deleteById(id))
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new EntityNotFoundException("Einkaufsliste mit ID " + id + " nicht gefunden zum Löschen."))
+                        : Mono.<Void>empty())
+                .as(transactionalOperator::transactional);
+    }
+}
@@ -32,6 +32,14 @@ public interface ShoppingListService {
      */
     ShoppingListDTO getShoppingListById(Long id);
 
+    /**
+     * Ruft die Einkaufslisten eines Haushalts ab.
+     *
+     * @param householdId Die ID des Haushalts.
+     * @return Die ShoppingListDTOs des Haushalts in Anlagereihenfolge.
+     */
+    List<ShoppingListDTO> getShoppingListsByHouseholdId(Long householdId);
+
     /**
      * Aktualisiert eine bestehende Einkaufsliste.
      *
@@ -39,6 +47,7 @@ public interface ShoppingListService {
      * Die ID im DTO muss einer bestehenden Einkaufsliste entsprechen.
      * @return Das ShoppingListDTO der aktualisierten Einkaufsliste.
      * @throws jakarta.persistence.EntityNotFoundException wenn keine Einkaufsliste mit der ID im DTO gefunden wird.
+     * @throws org.springframework.dao.OptimisticLockingFailureException wenn die im DTO angegebene Version der Einkaufsliste veraltet ist.
      */
     ShoppingListDTO updateShoppingList(ShoppingListDTO shoppingListDTO);
 
@@ -1,13 +1,17 @@
 package com.foodlist.service.service;
 
+import com.foodlist.service.concurrency.RequestCoalescer;
 import com.foodlist.service.dto.ShoppingListDTO;
 import com.foodlist.service.mapper.ShoppingListMapper;
 import com.foodlist.service.model.Household;
 import com.foodlist.service.model.ShoppingList;
 import com.foodlist.service.repository.HouseholdRepo; // Import HouseholdRepo
 import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.security.HouseholdMembershipCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +25,8 @@ public class ShoppingListServiceImpl implements ShoppingListService {
     private final ShoppingListMapper shoppingListMapper;
     private final ShoppingListRepo shoppingListRepo;
     private final HouseholdRepo householdRepo; // Abhängigkeit für Household Entität
+    private final RequestCoalescer requestCoalescer; // Bündelt gleichzeitige identische Lesezugriffe
+    private final HouseholdMembershipCache membershipCache; // Haushalt je Liste für die Berechtigungsprüfung
 
     /**
      * Konstruktor für ShoppingListServiceImpl, der die erforderlichen Abhängigkeiten injiziert.
@@ -29,13 +35,19 @@ public class ShoppingListServiceImpl implements ShoppingListService {
      * @param shoppingListMapper Der Mapper für die Konvertierung zwischen ShoppingList und ShoppingListDTO.
      * @param shoppingListRepo Das Repository für ShoppingList Entitäten.
      * @param householdRepo Das Repository für Household Entitäten, benötigt zur Auflösung von householdId.
+     * @param requestCoalescer Die Single-Flight-Schicht, die gleichzeitige Abfragen derselben Einkaufsliste bündelt.
+     * @param membershipCache Der Cache der Haushalts-Zugehörigkeiten, wird bei Änderungen geleert.
      */
     public ShoppingListServiceImpl(ShoppingListMapper shoppingListMapper,
                                    ShoppingListRepo shoppingListRepo,
-                                   HouseholdRepo householdRepo) {
+                                   HouseholdRepo householdRepo,
+                                   RequestCoalescer requestCoalescer,
+                                   HouseholdMembershipCache membershipCache) {
         this.shoppingListMapper = shoppingListMapper;
         this.shoppingListRepo = shoppingListRepo;
         this.householdRepo = householdRepo;
+        this.requestCoalescer = requestCoalescer;
+        this.membershipCache = membershipCache;
     }
 
     /**
@@ -97,6 +109,7 @@ public class ShoppingListServiceImpl implements ShoppingListService {
     /**
      * Ruft eine Einkaufsliste anhand ihrer ID ab und konvertiert sie in ShoppingListDTO.
      * Verwendet Optional.orElseThrow für eine robuste Fehlerbehandlung, wenn die Einkaufsliste nicht gefunden wird.
+     * Gleichzeitige Aufrufe für dieselbe ID teilen sich einen einzigen Datenbankzugriff.
      *
      * @param id Die ID der abzurufenden Einkaufsliste.
      * @return Das ShoppingListDTO der gefundenen Einkaufsliste.
@@ -104,9 +117,22 @@ public class ShoppingListServiceImpl implements ShoppingListService {
      */
     @Override
     public ShoppingListDTO getShoppingListById(Long id) {
-        ShoppingList shoppingList = shoppingListRepo.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Einkaufsliste mit ID " + id + " nicht gefunden."));
-        return shoppingListMapper.shoppingListToShoppingListDTO(shoppingList);
+        return requestCoalescer.load("shoppingList", id, () -> {
+            ShoppingList shoppingList = shoppingListRepo.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Einkaufsliste mit ID " + id + " nicht gefunden."));
+            return shoppingListMapper.shoppingListToShoppingListDTO(shoppingList);
+        });
+    }
+
+    /**
+     * Ruft die Einkaufslisten eines Haushalts ab, in Anlagereihenfolge.
+     *
+     * @param householdId Die ID des Haushalts.
+     * @return Die ShoppingListDTOs des Haushalts; leer, wenn der Haushalt keine Listen hat oder nicht existiert.
+     */
+    @Override
+    public List<ShoppingListDTO> getShoppingListsByHouseholdId(Long householdId) {
+        return shoppingListMapper.shoppingListsToShoppingListDTOs(shoppingListRepo.findByHousehold_IdOrderByIdAsc(householdId));
     }
 
     /**
@@ -114,12 +140,19 @@ public class ShoppingListServiceImpl implements ShoppingListService {
      * Es ruft die bestehende Einkaufsliste ab, aktualisiert ihre Felder einschließlich Beziehungen,
      * und speichert die Änderungen.
      *
+     * Ist im DTO eine Version gesetzt, wird die Einkaufsliste nicht vorher gelesen, sondern bedingt aktualisiert.
+     *
      * @param shoppingListDTO Das DTO mit aktualisierten Details der Einkaufsliste. Die ID muss einer bestehenden Einkaufsliste entsprechen.
      * @return Das DTO der aktualisierten Einkaufsliste.
      * @throws EntityNotFoundException wenn die zu aktualisierende Einkaufsliste oder der zugehörige Haushalt nicht existiert.
+     * @throws OptimisticLockingFailureException wenn die Einkaufsliste inzwischen geändert wurde.
      */
     @Override
     public ShoppingListDTO updateShoppingList(ShoppingListDTO shoppingListDTO) {
+        if (shoppingListDTO.getVersion() != null) {
+            return updateShoppingListIfVersionMatches(shoppingListDTO);
+        }
+
         // Stelle sicher, dass die Einkaufsliste existiert, bevor ein Update versucht wird
         ShoppingList existingShoppingList = shoppingListRepo.findById(shoppingListDTO.getId())
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -144,9 +177,44 @@ public class ShoppingListServiceImpl implements ShoppingListService {
 
         // Speichere die aktualisierte bestehende ShoppingList Entität
         ShoppingList updatedShoppingList = shoppingListRepo.save(existingShoppingList);
+        membershipCache.evictShoppingList(updatedShoppingList.getId());
         return shoppingListMapper.shoppingListToShoppingListDTO(updatedShoppingList);
     }
 
+    /**
+     * Bedingtes Update mit der vom Client erwarteten Version, ohne die Zeile vorher zu lesen.
+     */
+    private ShoppingListDTO updateShoppingListIfVersionMatches(ShoppingListDTO shoppingListDTO) {
+        LocalDateTime now = LocalDateTime.now();
+        Household household = shoppingListDTO.getHouseholdId() != null
+                ? householdRepo.getReferenceById(shoppingListDTO.getHouseholdId()) : null;
+
+        int updatedRows;
+        try {
+            updatedRows = shoppingListRepo.updateIfVersionMatches(shoppingListDTO.getId(), shoppingListDTO.getVersion(),
+                    shoppingListDTO.getName(), shoppingListDTO.isDefault(), now, household);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException(
+                    "Household mit ID " + shoppingListDTO.getHouseholdId() + " nicht gefunden für Update.");
+        }
+
+        if (updatedRows == 0) {
+            if (!shoppingListRepo.existsById(shoppingListDTO.getId())) {
+                throw new EntityNotFoundException(
+                        "Zu aktualisierende Einkaufsliste nicht gefunden. Einkaufslisten-ID: " + shoppingListDTO.getId());
+            }
+            throw new OptimisticLockingFailureException("Einkaufsliste mit ID " + shoppingListDTO.getId()
+                    + " wurde zwischenzeitlich geändert. Erwartete Version: " + shoppingListDTO.getVersion());
+        }
+        membershipCache.evictShoppingList(shoppingListDTO.getId());
+
+        // Über denselben Mapper wie das unbedingte Update, damit beide Antworten gleich aufgebaut sind
+        ShoppingList updated = new ShoppingList(household, shoppingListDTO.getName(), shoppingListDTO.isDefault(), now);
+        updated.setId(shoppingListDTO.getId());
+        updated.setVersion(shoppingListDTO.getVersion() + 1);
+        return shoppingListMapper.shoppingListToShoppingListDTO(updated);
+    }
+
     /**
      * Löscht eine Einkaufsliste anhand ihrer ID.
      * Prüft auf Existenz vor dem Löschen, um eine spezifischere Fehlermeldung zu liefern, falls nicht gefunden.
@@ -160,5 +228,6 @@ public class ShoppingListServiceImpl implements ShoppingListService {
             throw new EntityNotFoundException("Einkaufsliste mit ID " + id + " nicht gefunden zum Löschen.");
         }
         shoppingListRepo.deleteById(id);
+        membershipCache.evictShoppingList(id);
     }
 }
@@ -42,6 +42,7 @@ public interface UserService {
      * Die ID im DTO muss einem bestehenden Benutzer entsprechen.
      * @return Das UserDTO des aktualisierten Benutzers.
      * @throws jakarta.persistence.EntityNotFoundException wenn kein Benutzer mit der ID im DTO gefunden wird.
+     * @throws org.springframework.dao.OptimisticLockingFailureException wenn die im DTO angegebene Version des Benutzers veraltet ist.
      */
     UserDTO updateUser(UserDTO userDTO);
 
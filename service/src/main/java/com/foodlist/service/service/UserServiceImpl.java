@@ -6,8 +6,12 @@ import com.foodlist.service.model.Household;
 import com.foodlist.service.model.User;
 import com.foodlist.service.repository.HouseholdRepo; // Import HouseholdRepo
 import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.HouseholdMembershipCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -21,6 +25,8 @@ public class UserServiceImpl implements UserService {
     private final UserRepo userRepo;
     private final UserMapper userMapper;
     private final HouseholdRepo householdRepo; // Abhängigkeit für Household Entität
+    private final PasswordEncoder passwordEncoder; // Hasht Passwörter auf einem begrenzten Thread-Pool
+    private final HouseholdMembershipCache membershipCache; // Zugehörigkeiten für die Token-Anmeldung
 
     /**
      * Konstruktor für UserServiceImpl, der die erforderlichen Abhängigkeiten injiziert.
@@ -29,12 +35,17 @@ public class UserServiceImpl implements UserService {
      * @param userRepo Das Repository für User Entitäten.
      * @param userMapper Der Mapper für die Konvertierung zwischen User und UserDTO.
      * @param householdRepo Das Repository für Household Entitäten, benötigt zur Auflösung von householdId.
+     * @param passwordEncoder Der Encoder für die Passwort-Hashes (siehe PasswordEncoderConfig).
+     * @param membershipCache Der Cache der Haushalts-Zugehörigkeiten, wird bei Änderungen geleert.
      */
     public UserServiceImpl(UserRepo userRepo, UserMapper userMapper,
-                           HouseholdRepo householdRepo) {
+                           HouseholdRepo householdRepo, PasswordEncoder passwordEncoder,
+                           HouseholdMembershipCache membershipCache) {
         this.userRepo = userRepo;
         this.userMapper = userMapper;
         this.householdRepo = householdRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.membershipCache = membershipCache;
     }
 
     /**
@@ -43,15 +54,8 @@ public class UserServiceImpl implements UserService {
      * löst die zugehörige Household Entität anhand ihrer ID auf,
      * setzt den Erstellungszeitstempel und speichert den Benutzer in der Datenbank.
      *
-     * HINWEIS ZUM PASSWORT: Da das UserDTO, das wir definiert haben, kein 'passwordHash' Feld enthält,
-     * wird in dieser Implementierung das 'passwordHash' Feld des User-Models nicht direkt vom DTO befüllt.
-     * In einer realen Anwendung würden Sie hier:
-     * 1. Ein separates DTO für die Benutzererstellung verwenden, das ein Klartext-Passwortfeld enthält.
-     * 2. Dieses Klartext-Passwort mit einem 'PasswordEncoder' (z.B. BCryptPasswordEncoder) hashen.
-     * 3. Den gehashten Wert im User-Model setzen, bevor es gespeichert wird.
-     * Für dieses Beispiel wird angenommen, dass das 'passwordHash' bereits auf andere Weise (z.B. durch
-     * eine vorgelagerte Authentifizierungsschicht oder einen speziellen Registrierungs-DTO) gehandhabt wird,
-     * oder dass es sich um eine vereinfachte Darstellung handelt, bei der das Passwort nicht über dieses DTO gesetzt wird.
+     * Das Passwort aus dem DTO wird gehasht gespeichert. Ohne Passwort wird ein zufälliger Wert gehasht,
+     * der Benutzer kann sich dann erst nach dem Setzen eines Passworts anmelden.
      *
      * @param userDTO Das DTO, das Details des Benutzers enthält, einschließlich householdId.
      * @return Das DTO des neu erstellten Benutzers, einschließlich seiner generierten ID und des Zeitstempels.
@@ -68,16 +72,12 @@ public class UserServiceImpl implements UserService {
             // Set the creation timestamp for the new user
             user.setCreatedAt(LocalDateTime.now());
 
-            // HINWEIS: Hier wäre der Platz, um das Passwort zu hashen und im 'user' Objekt zu setzen.
-            // Beispiel: user.setPasswordHash(passwordEncoder.encode(userDTO.getRawPassword()));
-            // Da UserDTO kein Passwortfeld hat, wird dies hier ausgelassen.
-            // Stellen Sie sicher, dass 'passwordHash' im User-Model korrekt gesetzt wird,
-            // bevor der Benutzer gespeichert wird, falls dies für die Datenbank erforderlich ist (nullable=false).
-            // Für dieses Beispiel setzen wir einen Platzhalter, wenn es nicht vom DTO kommt.
-            if (user.getPasswordHash() == null || user.getPasswordHash().isEmpty()) {
-                // Dies ist ein Platzhalter. In einer realen Anwendung MUSS ein Passwort gesetzt werden.
-                user.setPasswordHash("default_hashed_password_placeholder");
-                log.warn("Password hash not provided for new user {}. Using a placeholder. This should be handled securely.", userDTO.getUsername());
+            if (userDTO.getPassword() != null && !userDTO.getPassword().isEmpty()) {
+                user.setPasswordHash(passwordEncoder.encode(userDTO.getPassword()));
+            } else {
+                // Die Spalte ist nicht nullable; das Kennzeichen sperrt die Anmeldung, ohne einen Hash zu berechnen
+                user.setPasswordHash(User.NO_PASSWORD);
+                log.info("No password provided for new user {}; sign-in is disabled until one is set", userDTO.getUsername());
             }
 
             // Löse die Household Entität basierend auf householdId aus dem DTO auf und setze sie
@@ -131,15 +131,20 @@ public class UserServiceImpl implements UserService {
      * Es ruft den bestehenden Benutzer ab, aktualisiert seine Felder einschließlich Beziehungen,
      * und speichert die Änderungen.
      *
-     * HINWEIS ZUM PASSWORT: Diese Methode ist nicht dafür gedacht, das Passwort zu aktualisieren.
-     * Passwort-Updates sollten über einen separaten, sicheren Endpunkt erfolgen.
+     * Enthält das DTO ein Passwort, wird es gehasht übernommen, sonst bleibt das bisherige erhalten.
+     * Da sich Haushalt oder Status ändern können, wird der Benutzer aus dem Zugehörigkeits-Cache entfernt.
      *
      * @param userDTO Das DTO mit aktualisierten Details des Benutzers. Die ID muss einem bestehenden Benutzer entsprechen.
      * @return Das DTO des aktualisierten Benutzers.
      * @throws EntityNotFoundException wenn der zu aktualisierende Benutzer oder der zugehörige Haushalt nicht existiert.
+     * @throws OptimisticLockingFailureException wenn im DTO eine Version gesetzt ist und der Benutzer inzwischen geändert wurde.
      */
     @Override
     public UserDTO updateUser(UserDTO userDTO) {
+        if (userDTO.getVersion() != null) {
+            return updateUserIfVersionMatches(userDTO);
+        }
+
         // Stelle sicher, dass der Benutzer existiert, bevor ein Update versucht wird
         User existingUser = userRepo.findById(userDTO.getId())
                 .orElseThrow(() -> new EntityNotFoundException(
@@ -164,14 +169,48 @@ public class UserServiceImpl implements UserService {
             existingUser.setHousehold(null);
         }
 
-        // HINWEIS ZUM PASSWORT: Das Passwort wird hier nicht aktualisiert.
-        // existingUser.setPasswordHash(userDTO.getPasswordHash()); // NICHT EMPFOHLEN für dieses DTO
+        if (userDTO.getPassword() != null && !userDTO.getPassword().isEmpty()) {
+            existingUser.setPasswordHash(passwordEncoder.encode(userDTO.getPassword()));
+        }
 
         // Speichere die aktualisierte bestehende User Entität
         User updatedUser = userRepo.save(existingUser);
+        membershipCache.evictUser(updatedUser.getId());
         return userMapper.userToUserDTO(updatedUser);
     }
 
+    /**
+     * Bedingtes Update mit der vom Client erwarteten Version, ohne die Zeile vorher zu lesen.
+     * Da das DTO nicht alle Felder enthält (z.B. createdAt), wird der Benutzer nur im Erfolgsfall neu geladen.
+     */
+    private UserDTO updateUserIfVersionMatches(UserDTO userDTO) {
+        Household household = userDTO.getHouseholdId() != null
+                ? householdRepo.getReferenceById(userDTO.getHouseholdId()) : null;
+        String passwordHash = userDTO.getPassword() != null && !userDTO.getPassword().isEmpty()
+                ? passwordEncoder.encode(userDTO.getPassword()) : null;
+
+        int updatedRows;
+        try {
+            updatedRows = userRepo.updateIfVersionMatches(userDTO.getId(), userDTO.getVersion(),
+                    userDTO.getUsername(), userDTO.getName(), userDTO.isEnabled(), household, passwordHash);
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException(
+                    "Household mit ID " + userDTO.getHouseholdId() + " nicht gefunden für Update.");
+        }
+
+        if (updatedRows == 0) {
+            if (!userRepo.existsById(userDTO.getId())) {
+                throw new EntityNotFoundException(
+                        "Zu aktualisierender Benutzer nicht gefunden. Benutzer-ID: " + userDTO.getId());
+            }
+            throw new OptimisticLockingFailureException("Benutzer mit ID " + userDTO.getId()
+                    + " wurde zwischenzeitlich geändert. Erwartete Version: " + userDTO.getVersion());
+        }
+
+        membershipCache.evictUser(userDTO.getId());
+        return getUserById(userDTO.getId());
+    }
+
     /**
      * Löscht einen Benutzer anhand seiner ID.
      * Prüft auf Existenz vor dem Löschen, um eine spezifischere Fehlermeldung zu liefern, falls nicht gefunden.
@@ -185,5 +224,6 @@ public class UserServiceImpl implements UserService {
             throw new EntityNotFoundException("Benutzer mit ID " + id + " nicht gefunden zum Löschen.");
         }
         userRepo.deleteById(id);
+        membershipCache.evictUser(id);
     }
 }
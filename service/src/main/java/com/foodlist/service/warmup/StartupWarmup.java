@@ -0,0 +1,367 @@
+package com.foodlist.service.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.AuthTokenService;
+import com.foodlist.service.security.HouseholdUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Warms the service up before it reports readiness.
+ * Replays the reads of the REST API for the most recently active households as HTTP requests to the
+ * service's own port: the household, its users, its shopping lists and their newest items. The requests
+ * pass Tomcat, the filters, the DispatcherServlet, the controllers and the JSON message converters like
+ * those of a client; they fill the connection pool, Hibernate's query plan cache and the PostgreSQL
+ * buffers, and are repeated often enough for the JIT to compile the hot paths.
+ *
+ * <p>Each household is read by one of its users, with a token from {@link AuthTokenService}, so the
+ * replay also works where the API requires signing in. The requests carry {@link #HEADER} with a value
+ * that is random per process; the rate limiter lets them through without spending a household's budget.
+ * They are counted in the http.server.requests metrics like any other request.
+ *
+ * <p>The listener runs synchronously on {@link ApplicationReadyEvent}; Spring Boot publishes
+ * {@code ReadinessState.ACCEPTING_TRAFFIC} only after it returns, so /actuator/health/readiness
+ * stays OUT_OF_SERVICE during the warm-up. The warm-up is bounded by a time budget; when the
+ * budget is used up, it stops after the current read and the service becomes ready anyway.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "foodlist.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup {
+
+    /**
+     * Header that marks the requests of the warm-up.
+     */
+    public static final String HEADER = "X-Foodlist-Warmup";
+    private static final String KEY = UUID.randomUUID().toString();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HouseholdRepo householdRepo;
+    private final UserRepo userRepo;
+    private final ItemRepo itemRepo;
+    private final AuthTokenService authTokenService;
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String contextPath;
+    private final Duration budget;
+    private final Duration activeWithin;
+    private final int households;
+    private final int itemsPerList;
+    private final int rounds;
+    private final int connections;
+    private volatile int serverPort;
+
+    /**
+     * Constructor for StartupWarmup.
+     *
+     * @param contextPath Context path of the servlet container, prepended to the replayed paths.
+     * @param budget Upper bound for the whole warm-up.
+     * @param activeWithin Households count as active if items were added to their lists within this time.
+     * @param households Number of most recently active households whose reads are replayed.
+     * @param itemsPerList Number of newest items read per shopping list.
+     * @param rounds How often the reads are repeated; later rounds mainly serve the JIT.
+     * @param connections Number of connections opened at once to fill the pool.
+     */
+    public StartupWarmup(HouseholdRepo householdRepo, UserRepo userRepo, ItemRepo itemRepo,
+                         AuthTokenService authTokenService, DataSource dataSource, ObjectMapper objectMapper,
+                         ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${server.servlet.context-path:}") String contextPath,
+                         @Value("${foodlist.warmup.budget:30s}") Duration budget,
+                         @Value("${foodlist.warmup.active-within:7d}") Duration activeWithin,
+                         @Value("${foodlist.warmup.households:20}") int households,
+                         @Value("${foodlist.warmup.items-per-list:20}") int itemsPerList,
+                         @Value("${foodlist.warmup.rounds:20}") int rounds,
+                         @Value("${foodlist.warmup.connections:${spring.datasource.hikari.minimum-idle:10}}") int connections) {
+        this.householdRepo = householdRepo;
+        this.userRepo = userRepo;
+        this.itemRepo = itemRepo;
+        this.authTokenService = authTokenService;
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.contextPath = contextPath;
+        this.budget = budget;
+        this.activeWithin = activeWithin;
+        this.households = households;
+        this.itemsPerList = itemsPerList;
+        this.rounds = rounds;
+        this.connections = connections;
+    }
+
+    /**
+     * Remembers the port of the application's web server; a separate management server is ignored.
+     */
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        if (event.getApplicationContext().getServerNamespace() == null) {
+            setServerPort(event.getWebServer().getPort());
+        }
+    }
+
+    void setServerPort(int serverPort) {
+        this.serverPort = serverPort;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    /**
+     * @return true if the request was sent by the warm-up of this process.
+     */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        return value != null && MessageDigest.isEqual(value.getBytes(StandardCharsets.UTF_8), KEY.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs the warm-up on a separate thread and waits for it at most for the budget.
+     *
+     * @return What was read, and whether all rounds finished within the budget.
+     */
+    public WarmupResult warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + budget.toNanos();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Progress progress = new Progress();
+
+        CompletableFuture<Void> worker = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                run(progress, deadline, cancelled);
+                worker.complete(null);
+            } catch (Throwable e) {
+                worker.completeExceptionally(e);
+            }
+        }, "foodlist-warmup");
+        thread.setDaemon(true);
+        thread.start();
+
+        boolean finished = false;
+        try {
+            worker.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            finished = true;
+        } catch (TimeoutException e) {
+            cancelled.set(true);
+        } catch (ExecutionException e) {
+            cancelled.set(true);
+            log.warn("Warm-up failed, the service starts without it", e.getCause());
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            Thread.currentThread().interrupt();
+        }
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        WarmupResult result;
+        synchronized (progress) {
+            result = new WarmupResult(progress.households, progress.shoppingLists, progress.items,
+                    progress.rounds, progress.reads, duration, finished && progress.rounds == rounds);
+        }
+        boolean completed = result.completed();
+        log.info("Warm-up {} after {} ms: {} rounds, {} reads over {} households, {} shopping lists and {} items",
+                completed ? "completed" : "stopped", duration.toMillis(), result.rounds(), result.reads(),
+                result.households(), result.shoppingLists(), result.items());
+        meterRegistry.ifAvailable(registry -> Timer.builder("foodlist.warmup")
+                .description("Duration of the warm-up before readiness")
+                .tag("outcome", completed ? "completed" : "stopped")
+                .register(registry)
+                .record(duration));
+        return result;
+    }
+
+    private void run(Progress progress, long deadline, AtomicBoolean cancelled)
+            throws SQLException, IOException, InterruptedException {
+        fillConnectionPool();
+        int port = serverPort;
+        if (port <= 0) {
+            log.info("No web server running, the warm-up only fills the connection pool");
+            return;
+        }
+
+        List<Replay> replays = new ArrayList<>();
+        for (Long householdId : householdRepo.findRecentlyActiveIds(LocalDateTime.now().minus(activeWithin),
+                PageRequest.of(0, households))) {
+            // Households without an active user cannot be read by any client
+            userRepo.findFirstByHousehold_IdAndEnabledTrueOrderByIdAsc(householdId)
+                    .ifPresent(user -> replays.add(new Replay(householdId, token(user, householdId))));
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        String baseUrl = "http://localhost:" + port + contextPath;
+        for (int round = 0; round < rounds; round++) {
+            for (Replay replay : replays) {
+                if (cancelled.get() || System.nanoTime() > deadline) {
+                    return;
+                }
+                replayHousehold(client, baseUrl, replay, progress, round == 0);
+            }
+            synchronized (progress) {
+                progress.rounds++;
+            }
+        }
+    }
+
+    private String token(User user, Long householdId) {
+        return authTokenService.issue(new HouseholdUser(user.getId(), householdId, user.getUsername(), "", true,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    /**
+     * Holds the configured number of connections at the same time, so the pool opens them now
+     * instead of during the first requests.
+     */
+    private void fillConnectionPool() throws SQLException {
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                held.add(dataSource.getConnection());
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Reads a household the way a client does: the household, then each of its users and lists,
+     * then the newest items of each list. Entities deleted in the meantime (404) are skipped.
+     */
+    private void replayHousehold(HttpClient client, String baseUrl, Replay replay, Progress progress, boolean count)
+            throws IOException, InterruptedException {
+        Optional<JsonNode> household = get(client, baseUrl + "/api/v1/households/" + replay.householdId(), replay.token());
+        if (household.isEmpty()) {
+            return;
+        }
+        int reads = 1;
+        int shoppingLists = 0;
+        int items = 0;
+
+        for (Long userId : ids(household.get(), "userIds")) {
+            reads += get(client, baseUrl + "/api/v1/users/" + userId, replay.token()).isPresent() ? 1 : 0;
+        }
+        for (Long shoppingListId : ids(household.get(), "shoppingListIds")) {
+            if (get(client, baseUrl + "/api/v1/shoppinglists/" + shoppingListId, replay.token()).isEmpty()) {
+                continue;
+            }
+            reads++;
+            shoppingLists++;
+            for (Long itemId : itemRepo.findRecentIdsByShoppingListId(shoppingListId, PageRequest.of(0, itemsPerList))) {
+                int read = get(client, baseUrl + "/api/v1/items/" + itemId, replay.token()).isPresent() ? 1 : 0;
+                reads += read;
+                items += read;
+            }
+        }
+
+        synchronized (progress) {
+            progress.reads += reads;
+            if (count) {
+                progress.households++;
+                progress.shoppingLists += shoppingLists;
+                progress.items += items;
+            }
+        }
+    }
+
+    /**
+     * @return The JSON body of a successful response, empty for any other status.
+     */
+    private Optional<JsonNode> get(HttpClient client, String url, String token) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .header(HEADER, KEY)
+                .GET()
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            log.debug("Warm-up request {} answered {}", url, response.statusCode());
+            return Optional.empty();
+        }
+        return Optional.of(objectMapper.readTree(response.body()));
+    }
+
+    private static List<Long> ids(JsonNode node, String field) {
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode id : node.path(field)) {
+            ids.add(id.asLong());
+        }
+        return ids;
+    }
+
+    /**
+     * A household and the token of the user it is read by.
+     */
+    private record Replay(Long householdId, String token) {
+    }
+
+    /**
+     * Counters of the warm-up thread, read by the waiting thread.
+     */
+    private static final class Progress {
+        private int households;
+        private int shoppingLists;
+        private int items;
+        private int rounds;
+        private long reads;
+    }
+
+    /**
+     * @param households Distinct households read.
+     * @param shoppingLists Distinct shopping lists read.
+     * @param items Distinct items read.
+     * @param rounds Rounds finished within the budget.
+     * @param reads Reads over all rounds.
+     * @param duration Duration of the warm-up.
+     * @param completed Whether all rounds finished within the budget.
+     */
+    public record WarmupResult(int households, int shoppingLists, int items, int rounds, long reads,
+                               Duration duration, boolean completed) {
+    }
+}
@@ -0,0 +1,54 @@
+-- Ausgangsschema, wie es bisher von Hibernate (ddl-auto=update) erzeugt wurde.
+-- Bestehende Datenbanken ohne Flyway-Historie werden auf Version 1 gesetzt (baseline-on-migrate)
+-- und erhalten nur die folgenden Migrationen.
+
+create table households (
+    id         bigint generated by default as identity,
+    name       varchar(255) not null,
+    created_at timestamp(6) not null,
+    version    bigint,
+    primary key (id)
+);
+
+create table users (
+    id            bigint generated by default as identity,
+    username      varchar(255) not null,
+    password_hash varchar(255) not null,
+    name          varchar(255),
+    enabled       boolean      not null,
+    created_at    timestamp(6) not null,
+    household_id  bigint,
+    version       bigint,
+    primary key (id)
+);
+
+create table shopping_lists (
+    id           bigint generated by default as identity,
+    name         varchar(255) not null,
+    is_default   boolean      not null,
+    created_at   timestamp(6) not null,
+    household_id bigint,
+    version      bigint,
+    primary key (id)
+);
+
+create table items (
+    id               bigint generated by default as identity,
+    name             varchar(255),
+    quantity         integer      not null,
+    is_checked       boolean      not null,
+    added_at         timestamp(6) not null,
+    added_by_user_id bigint,
+    shopping_list_id bigint,
+    version          bigint,
+    primary key (id)
+);
+
+alter table users
+    add constraint FKlacr3nkhlm93hgc5d32ukqim9 foreign key (household_id) references households;
+alter table shopping_lists
+    add constraint FK1ycmgab69n7mnv8ul8irpd9cv foreign key (household_id) references households;
+alter table items
+    add constraint FKe2cs4ovhywpnnltb0ujq4jiov foreign key (added_by_user_id) references users;
+alter table items
+    add constraint FK3p5y9bolwoqrrpmgu11dtog45 foreign key (shopping_list_id) references shopping_lists;
@@ -0,0 +1,14 @@
+-- Indizes fuer die Fremdschluessel. PostgreSQL legt sie nicht automatisch an; ohne sie werden
+-- die Listen eines Haushalts, die Items einer Liste usw. per Seq Scan gesucht, und das Loeschen
+-- eines Haushalts/einer Liste prueft die referenzierenden Tabellen ebenfalls per Seq Scan.
+
+create index if not exists idx_users_household_id on users (household_id);
+create index if not exists idx_shopping_lists_household_id on shopping_lists (household_id);
+create index if not exists idx_items_shopping_list_id on items (shopping_list_id);
+create index if not exists idx_items_added_by_user_id on items (added_by_user_id);
+
+-- Offene (nicht abgehakte) Items pro Liste: der typische Blick auf eine Einkaufsliste.
+-- Der Index enthaelt nur die offenen Items und bleibt daher klein, auch wenn sich abgehakte Items ansammeln.
+-- Er wird nur genutzt, wenn die Abfrage die Bedingung als Literal enthaelt (is_checked = false),
+-- nicht als Bind-Parameter.
+create index if not exists idx_items_unchecked_per_list on items (shopping_list_id) where is_checked = false;
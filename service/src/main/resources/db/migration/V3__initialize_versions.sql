@@ -0,0 +1,7 @@
+-- Die Versionsspalten fuer optimistisches Sperren wurden per ddl-auto=update ohne Wert angelegt.
+-- Bestehende Zeilen starten bei Version 0, damit bedingte Updates (version = version + 1) greifen.
+
+update households set version = 0 where version is null;
+update users set version = 0 where version is null;
+update shopping_lists set version = 0 where version is null;
+update items set version = 0 where version is null;
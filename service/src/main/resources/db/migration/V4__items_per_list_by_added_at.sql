@@ -0,0 +1,7 @@
+-- Haushaltsansicht der Oberflaeche: eine Seite der Items aller Listen eines Haushalts, standardmaessig
+-- neueste zuerst. Die Listen kommen ueber idx_shopping_lists_household_id, die Items pro Liste ueber
+-- diesen Index bereits nach added_at sortiert; der Aufwand haengt damit nur von der Groesse des
+-- Haushalts ab. Der Index ersetzt idx_items_shopping_list_id, dessen Spalte er als erste enthaelt.
+
+create index if not exists idx_items_shopping_list_id_added_at on items (shopping_list_id, added_at);
+drop index if exists idx_items_shopping_list_id;
@@ -0,0 +1,6 @@
+-- Anmeldung: der Benutzer wird bei jedem Passwort-Login ueber seinen Namen gesucht. Ohne Index war das
+-- ein Seq Scan ueber alle Benutzer; der eindeutige Index macht daraus einen Index-Zugriff und verhindert
+-- doppelte Benutzernamen, bei denen die Anmeldung nicht eindeutig waere.
+-- Bestehende Duplikate muessen vor der Migration bereinigt werden, sonst schlaegt sie fehl.
+
+create unique index if not exists uq_users_username on users (username);
@@ -0,0 +1,22 @@
+-- Idempotency-Key fuer POST/PUT/DELETE der REST-API: pro Benutzer und Schluessel das Ergebnis der ersten
+-- Ausfuehrung, damit Wiederholungen (Mobilgeraete bei schlechtem Netz) es erneut ausliefern statt die
+-- Aenderung ein zweites Mal auszufuehren. status ist null, solange die erste Ausfuehrung laeuft.
+-- Der eindeutige Index sorgt dafuer, dass auch ueber mehrere Instanzen nur ein Request einen Schluessel
+-- belegt; abgelaufene Zeilen werden ueber idx_idempotency_keys_expires_at regelmaessig geloescht.
+
+create table idempotency_keys (
+    id              bigint generated by default as identity,
+    scope           varchar(100) not null,
+    idempotency_key varchar(255) not null,
+    request_hash    varchar(64)  not null,
+    status          integer,
+    content_type    varchar(255),
+    etag            varchar(255),
+    body            bytea,
+    created_at      timestamp(6) not null,
+    expires_at      timestamp(6) not null,
+    primary key (id)
+);
+
+create unique index uq_idempotency_keys_scope_key on idempotency_keys (scope, idempotency_key);
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
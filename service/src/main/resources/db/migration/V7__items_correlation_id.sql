@@ -0,0 +1,8 @@
+-- Asynchrone Annahme von Items (Prefer: respond-async): jedes Item traegt die Korrelations-ID, unter der
+-- der Client seinen Status abfragt. Der eindeutige Index macht das Schreiben idempotent: sendet ein Client
+-- ein Item erneut, weil die Annahme verloren ging (z.B. Neustart vor dem Schreiben), entsteht kein zweites.
+-- Synchron angelegte Items haben keine ID (null, mehrfach erlaubt). Die neue Spalte ohne Default ist eine
+-- reine Katalog-Aenderung; der Index wird einmalig ueber die bestehenden Zeilen aufgebaut.
+
+alter table items add column correlation_id varchar(64);
+create unique index if not exists uq_items_correlation_id on items (correlation_id);
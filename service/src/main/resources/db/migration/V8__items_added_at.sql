@@ -0,0 +1,5 @@
+-- Aufwaermen beim Start: die zuletzt aktiven Haushalte werden aus den Items eines Zeitfensters
+-- (added_at >= jetzt - foodlist.warmup.active-within) bestimmt. Ueber diesen Index liest die Abfrage nur
+-- die Items des Fensters statt bei jedem Start alle Items zu gruppieren.
+
+create index if not exists idx_items_added_at on items (added_at);
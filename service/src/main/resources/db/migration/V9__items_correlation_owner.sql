@@ -0,0 +1,11 @@
+-- Korrelations-IDs asynchron angenommener Items gelten pro Benutzer (correlation_owner_id = angemeldeter
+-- Benutzer), nicht global: zwei Clients mit derselben ID ueberschreiben sich nicht mehr gegenseitig, und der
+-- Status ist nur fuer den eigenen Benutzer lesbar. correlation_hash ist der Fingerabdruck des angenommenen
+-- Items; kommt dieselbe ID mit einem anderen Item erneut, wird es abgelehnt statt als geschrieben gemeldet.
+-- Bestehende Zeilen erhalten ihren Ersteller als Besitzer; ohne Fingerabdruck gilt eine Wiederholung als gleich.
+
+alter table items add column correlation_owner_id bigint;
+alter table items add column correlation_hash varchar(64);
+update items set correlation_owner_id = added_by_user_id where correlation_id is not null;
+drop index if exists uq_items_correlation_id;
+create unique index if not exists uq_items_correlation_owner_id on items (correlation_owner_id, correlation_id);
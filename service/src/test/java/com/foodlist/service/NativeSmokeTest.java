@@ -0,0 +1,94 @@
+package com.foodlist.service;
+
+import com.foodlist.service.dto.HouseholdDTO;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.UserRepo;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end checks over HTTP for the parts of the application that depend on runtime hints in a
+ * native image: JSON binding of the DTOs, JPA entities and mappers, Thymeleaf templates, springdoc
+ * and the actuator. Runs on the JVM with the regular suite and as native image with -PnativeTest.
+ */
+@Tag("native")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles({"dev", "test"})
+class NativeSmokeTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private HouseholdRepo householdRepo;
+    @Autowired
+    private UserRepo userRepo;
+
+    @Test
+    void healthEndpoint_isUp() {
+        assertThat(restTemplate.getForEntity("/api/v1/health", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void createdItem_isReturnedByRestApiAndRenderedByTemplate() {
+        HouseholdDTO household = post("/api/v1/households", Map.of("name", "Smoke household"), HouseholdDTO.class);
+        ShoppingListDTO shoppingList = post("/api/v1/shoppinglists",
+                Map.of("name", "Smoke list", "householdId", household.getId()), ShoppingListDTO.class);
+        ItemDTO item = post("/api/v1/items",
+                Map.of("name", "Smoke milk", "quantity", 2, "shoppingListId", shoppingList.getId()), ItemDTO.class);
+        assertThat(item.getId()).isNotNull();
+        assertThat(item.getShoppingListId()).isEqualTo(shoppingList.getId());
+
+        ResponseEntity<ItemDTO[]> items = restTemplate.getForEntity("/api/v1/items", ItemDTO[].class);
+        assertThat(items.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(items.getBody()).extracting(ItemDTO::getName).contains("Smoke milk");
+
+        User user = new User("smoke", "{noop}smoke-secret", householdRepo.getReferenceById(household.getId()), true,
+                LocalDateTime.now());
+        userRepo.save(user);
+        ResponseEntity<String> page = restTemplate.withBasicAuth("smoke", "smoke-secret")
+                .getForEntity("/shoppinglists/" + shoppingList.getId(), String.class);
+        assertThat(page.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(page.getBody()).contains("Smoke milk");
+    }
+
+    @Test
+    void openApiDocumentAndSwaggerUi_areServed() {
+        ResponseEntity<String> apiDocs = restTemplate.getForEntity("/v3/api-docs", String.class);
+        assertThat(apiDocs.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(apiDocs.getBody()).contains("\"openapi\"", "/api/v1/items");
+
+        assertThat(restTemplate.getForEntity("/swagger-ui/index.html", String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void prometheusEndpoint_isServed() {
+        restTemplate.getForEntity("/api/v1/health", String.class);
+
+        ResponseEntity<String> metrics = restTemplate.getForEntity("/actuator/prometheus", String.class);
+        assertThat(metrics.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(metrics.getBody()).contains("http_server_requests_seconds");
+    }
+
+    private <T> T post(String path, Map<String, Object> body, Class<T> type) {
+        ResponseEntity<T> response = restTemplate.postForEntity(path, body, type);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return response.getBody();
+    }
+}
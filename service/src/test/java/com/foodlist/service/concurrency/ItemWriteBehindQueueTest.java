@@ -0,0 +1,284 @@
+package com.foodlist.service.concurrency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.controller.ItemController;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.dto.ItemIngestDTO.Status;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.HouseholdUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Item additions written in batches ("Prefer: respond-async") against H2.
+ */
+@SpringBootTest(properties = {
+        "foodlist.items.write-behind.enabled=true",
+        "foodlist.items.write-behind.flush-interval=20ms",
+        "foodlist.rate-limit.enabled=false" // Bulk additions exceed the write budget of one household
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ItemWriteBehindQueueTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+
+    @Autowired
+    private ItemWriteBehindQueue queue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Household household;
+    private HouseholdUser signedIn;
+    private ShoppingList shoppingList;
+
+    @BeforeEach
+    void setUp() {
+        household = householdRepo.save(new Household("Write-behind household", LocalDateTime.now()));
+        User user = userRepo.save(new User("wb-" + UUID.randomUUID(), "x", household, true, LocalDateTime.now()));
+        shoppingList = shoppingListRepo.save(new ShoppingList(household, "Weekly", true, LocalDateTime.now()));
+        signedIn = new HouseholdUser(user.getId(), household.getId(), user.getUsername(), "", true, List.of());
+    }
+
+    @Test
+    void asyncPost_isAnsweredOnceItsBatchIsCommitted() throws Exception {
+        long batchesBefore = queue.getBatchCount();
+        int items = 50;
+        List<Thread> clients = new ArrayList<>();
+        Queue<Integer> statuses = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < items; i++) {
+            String correlationId = "bulk-" + i + "-" + shoppingList.getId();
+            String body = item("Item " + i);
+            clients.add(Thread.ofVirtual().start(() -> {
+                try {
+                    statuses.add(mockMvc.perform(addItemAsync(body).header(ItemController.CORRELATION_ID, correlationId))
+                            .andReturn().getResponse().getStatus());
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        assertThat(statuses).hasSize(items).containsOnly(201);
+        assertThat(itemCount()).isEqualTo(items);
+        assertThat(queue.getBatchCount() - batchesBefore).isLessThan(items);
+
+        mockMvc.perform(get("/api/v1/items/ingest/bulk-0-" + shoppingList.getId()).with(user(signedIn)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMMITTED"))
+                .andExpect(jsonPath("$.itemId").isNumber());
+    }
+
+    @Test
+    void committedItem_isCreatedWithItsId() throws Exception {
+        String correlationId = UUID.randomUUID().toString();
+        String itemId = mockMvc.perform(addItemAsync(item("Tea")).header(ItemController.CORRELATION_ID, correlationId))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(ItemController.CORRELATION_ID, correlationId))
+                .andExpect(jsonPath("$.status").value("COMMITTED"))
+                .andReturn().getResponse().getHeader("Location").replace("/api/v1/items/", "");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM items WHERE id = ?", String.class, Long.valueOf(itemId)))
+                .isEqualTo("Tea");
+    }
+
+    @Test
+    void resubmittedCorrelationId_isWrittenOnce() throws Exception {
+        String correlationId = UUID.randomUUID().toString();
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(addItemAsync(item("Milk")).header(ItemController.CORRELATION_ID, correlationId))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.status").value("COMMITTED"));
+        }
+        assertThat(itemCount()).isEqualTo(1);
+    }
+
+    @Test
+    void correlationIdReusedForAnotherItem_failsAndKeepsTheFirst() throws Exception {
+        String correlationId = UUID.randomUUID().toString();
+        mockMvc.perform(addItemAsync(item("Milk")).header(ItemController.CORRELATION_ID, correlationId))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(addItemAsync(item("Butter")).header(ItemController.CORRELATION_ID, correlationId))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.status").value("FAILED"));
+        assertThat(itemCount()).isEqualTo(1);
+        assertThat(queue.status(signedIn.getUserId(), correlationId)).map(ItemIngestDTO::getStatus).contains(Status.COMMITTED);
+    }
+
+    @Test
+    void correlationIds_arePerUser() throws Exception {
+        User other = userRepo.save(new User("wb-" + UUID.randomUUID(), "x", household, true, LocalDateTime.now()));
+        HouseholdUser otherSignedIn = new HouseholdUser(other.getId(), signedIn.getHouseholdId(), other.getUsername(),
+                "", true, List.of());
+        String correlationId = UUID.randomUUID().toString();
+
+        mockMvc.perform(addItemAsync(item("Milk")).header(ItemController.CORRELATION_ID, correlationId))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/items/ingest/" + correlationId).with(user(otherSignedIn)))
+                .andExpect(status().isNotFound());
+
+        String bread = objectMapper.writeValueAsString(Map.of("name", "Bread", "quantity", 1,
+                "addedByUserId", other.getId(), "shoppingListId", shoppingList.getId()));
+        mockMvc.perform(post("/api/v1/items").with(user(otherSignedIn)).with(csrf())
+                        .header("Prefer", "respond-async").header(ItemController.CORRELATION_ID, correlationId)
+                        .contentType(MediaType.APPLICATION_JSON).content(bread))
+                .andExpect(status().isCreated());
+        assertThat(itemCount()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownShoppingList_isRejectedBeforeQueueing_andUnknownIdIsNotFound() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("name", "Bread", "quantity", 1,
+                "addedByUserId", signedIn.getUserId(), "shoppingListId", Long.MAX_VALUE));
+        mockMvc.perform(addItemAsync(body)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/items/ingest/" + UUID.randomUUID()).with(user(signedIn)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void withoutPrefer_itemIsWrittenSynchronously() throws Exception {
+        mockMvc.perform(post("/api/v1/items").with(user(signedIn)).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content(item("Eggs")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").isNumber());
+    }
+
+    @Test
+    void fullQueueRejects_andStopWritesWhatWasAccepted() {
+        // Never flushes on its own: only a full batch or stop() writes
+        ItemWriteBehindQueue small = new ItemWriteBehindQueue(jdbcTemplate, transactionManager, true,
+                3, 100, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(10));
+        long owner = signedIn.getUserId();
+        assertThatThrownBy(() -> small.enqueue(dto(shoppingList.getId()), owner, "not-started"))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        small.start();
+        String prefix = UUID.randomUUID() + "-";
+        CompletableFuture<ItemIngestDTO> first = small.enqueue(dto(shoppingList.getId()), owner, prefix + 1);
+        small.enqueue(dto(shoppingList.getId()), owner, prefix + 2);
+        small.enqueue(dto(Long.MAX_VALUE), owner, prefix + 3); // List deleted after validation
+        assertThatThrownBy(() -> small.enqueue(dto(shoppingList.getId()), owner, prefix + 4))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(first).isNotDone();
+        assertThat(small.status(owner, prefix + 1)).map(ItemIngestDTO::getStatus).contains(Status.PENDING);
+
+        small.stop();
+
+        assertThat(first).isCompletedWithValueMatching(written -> written.getStatus() == Status.COMMITTED
+                && written.getItemId() != null);
+        assertThat(small.status(owner, prefix + 2)).map(ItemIngestDTO::getStatus).contains(Status.COMMITTED);
+        assertThat(small.status(owner, prefix + 3)).hasValueSatisfying(failed -> {
+            assertThat(failed.getStatus()).isEqualTo(Status.FAILED);
+            assertThat(failed.getError()).isNotBlank();
+        });
+        assertThat(small.status(owner, prefix + 4)).isEmpty();
+        assertThat(small.status(owner + 1, prefix + 1)).isEmpty();
+        assertThat(itemCount()).isEqualTo(2);
+    }
+
+    @Test
+    void afterRestart_writtenItemIsComparedInTheDatabase() {
+        long owner = signedIn.getUserId();
+        String correlationId = UUID.randomUUID().toString();
+        ItemIngestDTO written = queue.enqueue(dto(shoppingList.getId()), owner, correlationId).join();
+
+        // A new queue knows nothing in memory, like one after a restart
+        ItemWriteBehindQueue restarted = new ItemWriteBehindQueue(jdbcTemplate, transactionManager, true,
+                10, 100, Duration.ofMillis(20), Duration.ofMinutes(1), Duration.ofSeconds(10));
+        restarted.start();
+        try {
+            ItemDTO other = dto(shoppingList.getId());
+            other.setName("Margarine");
+            assertThat(restarted.enqueue(other, owner, correlationId).join().getStatus()).isEqualTo(Status.FAILED);
+            assertThat(restarted.enqueue(dto(shoppingList.getId()), owner, correlationId).join())
+                    .extracting(ItemIngestDTO::getStatus, ItemIngestDTO::getItemId)
+                    .containsExactly(Status.COMMITTED, written.getItemId());
+        } finally {
+            restarted.stop();
+        }
+        assertThat(itemCount()).isEqualTo(1);
+    }
+
+    private int itemCount() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM items WHERE shopping_list_id = ?", Integer.class,
+                shoppingList.getId());
+    }
+
+    private ItemDTO dto(Long shoppingListId) {
+        ItemDTO dto = new ItemDTO();
+        dto.setName("Butter");
+        dto.setQuantity(1);
+        dto.setAddedByUserId(signedIn.getUserId());
+        dto.setShoppingListId(shoppingListId);
+        return dto;
+    }
+
+    private MockHttpServletRequestBuilder addItemAsync(String body) {
+        return post("/api/v1/items").with(user(signedIn)).with(csrf())
+                .header("Prefer", "respond-async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private String item(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name, "quantity", 1,
+                "addedByUserId", signedIn.getUserId(), "shoppingListId", shoppingList.getId()));
+    }
+}
@@ -0,0 +1,135 @@
+package com.foodlist.service.concurrency;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RequestCoalescerTest {
+
+    RequestCoalescer requestCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("foodlist.coalescing.slow.timeout-ms", "50");
+        requestCoalescer = new RequestCoalescer(environment, true, 5000);
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentCallers() throws Exception {
+        int callers = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> requestCoalescer.load("household", 1L, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "Haushalt 1";
+                })));
+            }
+            // Warten, bis alle Aufrufer entweder laden oder auf den laufenden Ladevorgang warten
+            while (requestCoalescer.getRequestCount() < callers) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("Haushalt 1", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(callers - 1, requestCoalescer.getCoalescedCount());
+        assertTrue(requestCoalescer.getCoalescingRatio() > 0.8);
+    }
+
+    @Test
+    void shouldLoadAgainAfterPreviousLoadCompleted() {
+        AtomicInteger loads = new AtomicInteger();
+        requestCoalescer.load("shoppingList", 1L, loads::incrementAndGet);
+        requestCoalescer.load("shoppingList", 1L, loads::incrementAndGet);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, requestCoalescer.getCoalescedCount());
+    }
+
+    @Test
+    void shouldPropagateLoaderExceptionToCaller() {
+        assertThrows(EntityNotFoundException.class, () -> requestCoalescer.load("household", 99L, () -> {
+            throw new EntityNotFoundException("Household with ID 99 not found.");
+        }));
+    }
+
+    @Test
+    void shouldFallBackToOwnLoadWhenLeaderExceedsNamespaceTimeout() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> leader = executor.submit(() -> requestCoalescer.load("slow", 1L, () -> {
+                leaderStarted.countDown();
+                await(release);
+                return "leader";
+            }));
+            await(leaderStarted);
+
+            assertEquals("follower", requestCoalescer.load("slow", 1L, () -> "follower"));
+            assertEquals(1, requestCoalescer.getTimeoutCount());
+
+            release.countDown();
+            assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+
+            // The follower counts as a timeout only, so the outcomes still add up to the requests
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            requestCoalescer.bindTo(registry);
+            assertEquals(1.0, registry.get("foodlist.coalescing.calls").tag("outcome", "loads").functionCounter().count());
+            assertEquals(0.0, registry.get("foodlist.coalescing.calls").tag("outcome", "coalesced").functionCounter().count());
+            assertEquals(1.0, registry.get("foodlist.coalescing.calls").tag("outcome", "timeouts").functionCounter().count());
+            assertEquals(2.0, registry.get("foodlist.coalescing.requests").functionCounter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldExportCountersAndRatioAsMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        requestCoalescer.bindTo(registry);
+        requestCoalescer.load("shoppingList", 1L, () -> "Liste 1");
+
+        assertEquals(1.0, registry.get("foodlist.coalescing.requests").functionCounter().count());
+        assertEquals(1.0, registry.get("foodlist.coalescing.calls").tag("outcome", "loads").functionCounter().count());
+        assertEquals(1.0, registry.find("foodlist.coalescing.calls").functionCounters().stream()
+                .mapToDouble(FunctionCounter::count).sum()); // The requests are not one of the outcomes
+        assertEquals(0.0, registry.get("foodlist.coalescing.ratio").gauge().value());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.foodlist.service.concurrency;
+
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ShoppingListMutationDispatcherTest {
+
+    PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    void shouldApplyConcurrentMutationsOfOneListWithoutLostUpdates() throws Exception {
+        ShoppingListMutationDispatcher dispatcher = new ShoppingListMutationDispatcher(transactionManager, true, 16, 5000);
+        int writers = 200;
+        // Absichtlich nicht threadsicher: nur ein einziger Schreiber pro Liste darf darauf zugreifen
+        int[] quantity = {0};
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                results.add(executor.submit(() -> dispatcher.execute(1L, () -> {
+                    quantity[0] = quantity[0] + 1;
+                    return Thread.currentThread().isVirtual();
+                })));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers, quantity[0]);
+        assertEquals(writers, dispatcher.getMutationCount());
+        assertTrue(dispatcher.getBatchCount() <= writers);
+    }
+
+    @Test
+    void shouldReportFailureOnlyToTheFailingMutation() {
+        ShoppingListMutationDispatcher dispatcher = new ShoppingListMutationDispatcher(transactionManager, true, 16, 5000);
+
+        assertThrows(EntityNotFoundException.class, () -> dispatcher.execute(2L, () -> {
+            throw new EntityNotFoundException("User with ID 7 not found for update.");
+        }));
+        assertEquals("ok", dispatcher.execute(2L, () -> "ok"));
+    }
+
+    @Test
+    void shouldWithdrawMutationThatWasNotStartedInTime() throws Exception {
+        ShoppingListMutationDispatcher dispatcher = new ShoppingListMutationDispatcher(transactionManager, true, 16, 50);
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean lateMutationApplied = new AtomicBoolean();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Hält den Schreiber der Liste fest, bis die zweite Änderung ihr Zeitlimit überschritten hat
+            Future<String> blocking = executor.submit(() -> dispatcher.execute(3L, () -> {
+                writerBusy.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "first";
+            }));
+            assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+
+            assertThrows(MutationTimeoutException.class, () -> dispatcher.execute(3L, () -> {
+                lateMutationApplied.set(true);
+                return "late";
+            }));
+            release.countDown();
+            blocking.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("after", dispatcher.execute(3L, () -> "after"));
+        assertFalse(lateMutationApplied.get());
+        assertEquals(1, dispatcher.getCancelledCount());
+    }
+
+    @Test
+    void shouldRunDirectlyWhenDisabled() {
+        ShoppingListMutationDispatcher dispatcher = new ShoppingListMutationDispatcher(transactionManager, false, 16, 5000);
+
+        Thread caller = Thread.currentThread();
+        assertEquals(caller, dispatcher.execute(1L, Thread::currentThread));
+        assertEquals(0, dispatcher.getMutationCount());
+    }
+}
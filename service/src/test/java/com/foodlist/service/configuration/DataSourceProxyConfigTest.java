@@ -0,0 +1,61 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.profiling.SqlLogListener;
+import com.foodlist.service.profiling.SqlLogRowCounter;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Result sets are only proxied when a MethodExecutionListener (the SQL log's row counter) is registered.
+ */
+class DataSourceProxyConfigTest {
+
+    @Test
+    void withoutRowCounting_resultSetsAreNotProxied() throws Exception {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("sqlLogListener", sqlLogListener(beans));
+
+        assertThat(proxiesResultSets(beans)).isFalse();
+    }
+
+    @Test
+    void withRowCounting_resultSetsAreProxied() throws Exception {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("sqlLogRowCounter", new SqlLogRowCounter());
+        beans.addBean("sqlLogListener", sqlLogListener(beans));
+
+        assertThat(proxiesResultSets(beans)).isTrue();
+    }
+
+    private static SqlLogListener sqlLogListener(StaticListableBeanFactory beans) {
+        return new SqlLogListener(200, 0.0, 100, beans.getBeanProvider(SqlLogRowCounter.class));
+    }
+
+    private static boolean proxiesResultSets(StaticListableBeanFactory beans) throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:proxy-config;DB_CLOSE_DELAY=-1");
+        DataSource dataSource = (DataSource) DataSourceProxyConfig.dataSourceProxyPostProcessor(
+                        beans.getBeanProvider(QueryExecutionListener.class),
+                        beans.getBeanProvider(MethodExecutionListener.class))
+                .postProcessAfterInitialization(h2, "dataSource");
+        assertThat(dataSource).isNotSameAs(h2);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+            assertThat(resultSet.next()).isTrue();
+            return Proxy.isProxyClass(resultSet.getClass());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.model.Item;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeHintsConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeHintsConfigTest() {
+        new NativeHintsConfig.FoodlistRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(), NativeHintsConfig.class);
+    }
+
+    @Test
+    void entitiesAndMapperImplementations_areRegisteredForReflection() throws Exception {
+        for (Class<?> entity : NativeHintsConfig.ENTITIES) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(entity)).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.reflection().onField(Item.class.getDeclaredField("shoppingList"))).accepts(hints);
+        for (Class<?> mapper : NativeHintsConfig.MAPPERS) {
+            Class<?> implementation = Class.forName(mapper.getName() + "Impl");
+            assertThat(RuntimeHintsPredicates.reflection().onType(implementation)).accepts(hints);
+        }
+    }
+
+    @Test
+    void dtosRenderedByThymeleaf_areRegisteredForBinding() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(ItemDisplayDTO.class.getMethod("getName"))).accepts(hints);
+    }
+
+    @Test
+    void templatesMigrationsAssetsAndSwaggerUi_areIncludedAsResources() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/index.html")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/fragments/item-table.html")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("db/migration/V2__foreign_key_indexes.sql")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("static/assets/bootstrap/bootstrap.min.css.gz")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/resources/webjars/swagger-ui/5.10.3/index.html")).accepts(hints);
+    }
+
+    @Test
+    void jdbcProxiesOfDatasourceProxy_areRegistered() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, Connection.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, PreparedStatement.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, ResultSet.class)).accepts(hints);
+    }
+}
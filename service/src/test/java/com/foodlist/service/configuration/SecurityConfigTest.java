@@ -0,0 +1,240 @@
+package com.foodlist.service.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.dto.UserDTO;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.security.AuthTokenService;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.security.UserAuthorities;
+import com.foodlist.service.service.UserService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Stateless sign-in with the production security configuration (profile "test" without "dev"):
+ * password once, then the signed token as Bearer header or cookie. The API is limited to the household
+ * of the signed-in user, the operational endpoints to admins.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String username;
+    private Long userId;
+    private Long householdId;
+    private Household otherHousehold;
+
+    @BeforeEach
+    void setUp() {
+        Household household = householdRepo.save(new Household("Security household", LocalDateTime.now()));
+        householdId = household.getId();
+        username = "token-" + UUID.randomUUID();
+        userId = userService.addUser(new UserDTO(null, username, "Token", true, null, householdId, null, "secret"))
+                .getId();
+        otherHousehold = householdRepo.save(new Household("Other household", LocalDateTime.now()));
+    }
+
+    @Test
+    void tokenFromBasicSignIn_authenticatesApiRequestsWithoutSession() throws Exception {
+        String token = issueToken();
+
+        mockMvc.perform(get("/api/v1/users/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(username))
+                .andExpect(jsonPath("$.password").doesNotExist())
+                .andExpect(result -> assertThat(result.getRequest().getSession(false)).isNull());
+    }
+
+    @Test
+    void bearerRequest_needsNoCsrfToken() throws Exception {
+        mockMvc.perform(post("/api/v1/shoppinglists").header(HttpHeaders.AUTHORIZATION, "Bearer " + issueToken())
+                        .contentType("application/json").content(json(Map.of("name", "Via token", "householdId", householdId))))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void resourcesOfOtherHouseholds_areForbidden() throws Exception {
+        Long otherUserId = userService.addUser(new UserDTO(null, "other-" + UUID.randomUUID(), "Other", true, null,
+                otherHousehold.getId(), null, "secret")).getId();
+        ShoppingList otherList = shoppingListRepo.save(new ShoppingList(otherHousehold, "Other list", true, LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/v1/households/" + householdId).with(user(signedIn()))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/households/" + otherHousehold.getId()).with(user(signedIn())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/users/" + otherUserId).with(user(signedIn()))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/shoppinglists/" + otherList.getId()).with(user(signedIn())))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/v1/items").with(user(signedIn())).with(csrf()).contentType("application/json")
+                        .content(json(Map.of("name", "Milk", "quantity", 1, "addedByUserId", userId,
+                                "shoppingListId", otherList.getId()))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/users").with(user(signedIn()))).andExpect(status().isForbidden());
+        // Unknown IDs are still answered by the controllers
+        mockMvc.perform(get("/api/v1/shoppinglists/" + Long.MAX_VALUE).with(user(signedIn())))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void password_isChangedOnlyByTheAccountOwner() throws Exception {
+        Long memberId = userService.addUser(new UserDTO(null, "member-" + UUID.randomUUID(), "Member", true, null,
+                householdId, null, "secret")).getId();
+        String changed = json(Map.of("username", username, "name", "Token", "enabled", true,
+                "householdId", householdId, "password", "changed"));
+
+        mockMvc.perform(get("/api/v1/users/" + memberId).with(user(signedIn()))).andExpect(status().isOk());
+        mockMvc.perform(put("/api/v1/users/" + memberId).with(user(signedIn())).with(csrf())
+                        .contentType("application/json").content(changed))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(put("/api/v1/users/" + userId).with(user(signedIn())).with(csrf())
+                        .contentType("application/json").content(changed))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(SecurityConfig.TOKEN_PATH).with(httpBasic(username, "changed")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void movingIntoAnotherHousehold_isForbidden() throws Exception {
+        mockMvc.perform(put("/api/v1/users/" + userId).with(user(signedIn())).with(csrf()).contentType("application/json")
+                        .content(json(Map.of("username", username, "name", "Token", "enabled", true,
+                                "householdId", otherHousehold.getId()))))
+                .andExpect(status().isForbidden());
+        assertThat(userService.getUserById(userId).getHouseholdId()).isEqualTo(householdId);
+    }
+
+    @Test
+    void profilingAndActuator_needTheAdminRole() throws Exception {
+        HouseholdUser admin = new HouseholdUser(userId, householdId, "root", "", true,
+                new UserAuthorities(Set.of("root")).of("root"));
+
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/actuator/metrics").with(user(signedIn()))).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/v1/profiling/recording").with(user(signedIn()))).andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/metrics").with(user(admin))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/profiling/recording").with(user(admin))).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/households/" + otherHousehold.getId()).with(user(admin)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void tamperedToken_isRejected() throws Exception {
+        String token = issueToken();
+
+        mockMvc.perform(get("/api/v1/users/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token + "x"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void tokenOfDisabledUser_isRejected() throws Exception {
+        String token = issueToken();
+        UserDTO user = userService.getUserById(userId);
+        user.setEnabled(false);
+        userService.updateUser(user);
+
+        mockMvc.perform(get("/api/v1/users/" + userId).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void wrongPassword_isRejected() throws Exception {
+        mockMvc.perform(post(SecurityConfig.TOKEN_PATH).with(httpBasic(username, "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void userWithoutPassword_cannotSignIn() throws Exception {
+        String withoutPassword = "nopass-" + UUID.randomUUID();
+        userService.addUser(new UserDTO(null, withoutPassword, "No password", true, null, householdId, null, null));
+
+        mockMvc.perform(post(SecurityConfig.TOKEN_PATH).with(httpBasic(withoutPassword, "")))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post(SecurityConfig.TOKEN_PATH).with(httpBasic(withoutPassword, User.NO_PASSWORD)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void formLogin_setsTokenCookieThatSignsInTheWebUi() throws Exception {
+        MvcResult login = mockMvc.perform(post("/login").with(csrf())
+                        .param("username", username).param("password", "secret"))
+                .andExpect(redirectedUrl("/"))
+                .andExpect(cookie().httpOnly(AuthTokenService.COOKIE_NAME, true))
+                .andReturn();
+        Cookie token = login.getResponse().getCookie(AuthTokenService.COOKIE_NAME);
+
+        mockMvc.perform(get("/").cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("action=\"/logout\"")));
+    }
+
+    @Test
+    void withoutToken_browserIsSentToLogin() throws Exception {
+        mockMvc.perform(get("/").header(HttpHeaders.ACCEPT, "text/html"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(header().string(HttpHeaders.LOCATION, containsString("/login")));
+    }
+
+    private HouseholdUser signedIn() {
+        return new HouseholdUser(userId, householdId, username, "", true, new UserAuthorities(Set.of()).of(username));
+    }
+
+    private String json(Map<String, ?> body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+
+    private String issueToken() throws Exception {
+        String body = mockMvc.perform(post(SecurityConfig.TOKEN_PATH).with(httpBasic(username, "secret")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("token").asText();
+    }
+}
@@ -0,0 +1,76 @@
+package com.foodlist.service.configuration;
+
+import com.foodlist.service.security.HouseholdUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Serving of the bundled assets with the production security configuration (profile "test" without "dev").
+ * Needs the build step that unpacks and precompresses Bootstrap (process-resources).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StaticAssetsConfigTest {
+
+    private static final String CSS = "/assets/bootstrap/bootstrap.min.css";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    void page_linksContentHashedAssetsInsteadOfCdn() throws Exception {
+        HouseholdUser user = new HouseholdUser(1L, null, "anna", "{noop}secret", true, List.of());
+
+        mockMvc.perform(get("/").with(user(user)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("href=\"" + versioned(CSS) + "\"")))
+                .andExpect(content().string(containsString("rel=\"preload\" as=\"script\"")))
+                .andExpect(content().string(not(containsString("cdn.jsdelivr.net"))));
+    }
+
+    @Test
+    void versionedAsset_isPublicImmutableAndPrecompressed() throws Exception {
+        String url = versioned(CSS);
+        assertThat(url).matches("/assets/bootstrap/bootstrap\\.min-[0-9a-f]{32}\\.css");
+
+        mockMvc.perform(get(url).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString("Accept-Encoding")))
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString("text/css")));
+    }
+
+    @Test
+    void versionedAsset_withoutAcceptEncoding_isServedUncompressed() throws Exception {
+        mockMvc.perform(get(versioned(CSS)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().string(containsString("Bootstrap")));
+    }
+
+    private String versioned(String path) {
+        return resourceUrlProvider.getForLookupPath(path);
+    }
+}
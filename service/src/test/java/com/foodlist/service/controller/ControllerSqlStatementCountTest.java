@@ -0,0 +1,300 @@
+package com.foodlist.service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.sqlcount.MaxSqlStatements;
+import com.foodlist.service.sqlcount.SqlRecording;
+import com.foodlist.service.sqlcount.SqlStatementCountTest;
+import com.foodlist.service.sqlcount.SqlStatementRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the REST endpoints, running full-stack against the embedded database.
+ * Guards against N+1 selects when entities or mappings change.
+ */
+@SqlStatementCountTest
+class ControllerSqlStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private SqlStatementRecorder sqlStatements;
+    @Autowired
+    private HouseholdRepo householdRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+    @Autowired
+    private ItemRepo itemRepo;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Household household;
+    private List<User> users;
+    private List<ShoppingList> shoppingLists;
+    private List<Item> items;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        household = new Household();
+        household.setName("Household");
+        household.setCreatedAt(now);
+        household = householdRepo.save(household);
+
+        Household other = new Household();
+        other.setName("Other household");
+        other.setCreatedAt(now);
+        other = householdRepo.save(other);
+
+        users = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setPasswordHash("{noop}secret");
+            user.setEnabled(true);
+            user.setCreatedAt(now);
+            user.setHousehold(i == 3 ? other : household);
+            users.add(userRepo.save(user));
+        }
+
+        shoppingLists = new ArrayList<>();
+        for (int i = 1; i <= 2; i++) {
+            ShoppingList shoppingList = new ShoppingList();
+            shoppingList.setName("List " + i);
+            shoppingList.setDefault(i == 1);
+            shoppingList.setCreatedAt(now);
+            shoppingList.setHousehold(i == 2 ? other : household);
+            shoppingLists.add(shoppingListRepo.save(shoppingList));
+        }
+
+        items = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            Item item = new Item("Item " + i, i, false, now);
+            item.setAddedBy(users.get(i % users.size()));
+            item.setShoppingList(shoppingLists.get(i % shoppingLists.size()));
+            items.add(itemRepo.save(item));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepo.deleteAll();
+        shoppingListRepo.deleteAll();
+        userRepo.deleteAll();
+        householdRepo.deleteAll();
+    }
+
+    @Test
+    void getAllItems_loadsUsersAndListsWithoutFollowUpQueries() throws Exception {
+        sqlStatements.record(() -> mockMvc.perform(get("/api/v1/items")).andExpect(status().isOk()))
+                .assertAtMost(1)
+                .assertNoStatementInLoop()
+                .assertTotalFasterThan(Duration.ofMillis(500));
+    }
+
+    @Test
+    @MaxSqlStatements(3)
+    void getItemById() throws Exception {
+        mockMvc.perform(get("/api/v1/items/{id}", items.get(0).getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSqlStatements(3)
+    void addItem_resolvesRelationsOnce() throws Exception {
+        String body = """
+                {"name": "Milch", "quantity": 2, "addedByUserId": %d, "shoppingListId": %d}
+                """.formatted(users.get(0).getId(), shoppingLists.get(0).getId());
+        mockMvc.perform(post("/api/v1/items").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void updateItem_withStaleIfMatch_isRejectedByTheConditionalUpdate() throws Exception {
+        Item item = items.get(0);
+        String body = """
+                {"name": "%s", "quantity": 5, "addedByUserId": %d, "shoppingListId": %d}
+                """;
+        mockMvc.perform(put("/api/v1/items/{id}", item.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted("First", item.getAddedBy().getId(), item.getShoppingList().getId())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+
+        SqlRecording stale = sqlStatements.record(() -> mockMvc.perform(put("/api/v1/items/{id}", item.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted("Second", item.getAddedBy().getId(), item.getShoppingList().getId())))
+                .andExpect(status().isPreconditionFailed()));
+
+        // One conditional UPDATE decides; the item is only looked at to tell 412 from 404
+        assertThat(stale.statements()).map(SqlRecording.Statement::sql)
+                .anySatisfy(sql -> assertThat(sql.toLowerCase()).startsWith("update items").contains("version=?"));
+        stale.assertAtMost(2);
+        assertThat(itemRepo.findById(item.getId())).get()
+                .satisfies(current -> {
+                    assertThat(current.getName()).isEqualTo("First");
+                    assertThat(current.getVersion()).isEqualTo(1L);
+                });
+
+        mockMvc.perform(put("/api/v1/items/{id}", item.getId()).header(HttpHeaders.IF_MATCH, "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.formatted("Weak", item.getAddedBy().getId(), item.getShoppingList().getId())))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateShoppingList_withIfMatch_answersLikeTheUnconditionalUpdate() throws Exception {
+        ShoppingList shoppingList = shoppingLists.get(0);
+        String body = """
+                {"name": "%s", "default": true, "householdId": %d}
+                """;
+        String unconditional = mockMvc.perform(put("/api/v1/shoppinglists/{id}", shoppingList.getId())
+                        .contentType(MediaType.APPLICATION_JSON).content(body.formatted("Plain", household.getId())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] conditional = new String[1];
+        SqlRecording update = sqlStatements.record(() -> conditional[0] = mockMvc.perform(put("/api/v1/shoppinglists/{id}",
+                        shoppingList.getId()).header(HttpHeaders.IF_MATCH, "\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON).content(body.formatted("Conditional", household.getId())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""))
+                .andReturn().getResponse().getContentAsString());
+
+        // Same fields either way; the conditional answer is still built without reading the list back
+        JsonNode plain = objectMapper.readTree(unconditional);
+        JsonNode ifMatch = objectMapper.readTree(conditional[0]);
+        assertThat(fieldNames(ifMatch)).isEqualTo(fieldNames(plain));
+        assertThat(ifMatch.get("items")).isEqualTo(plain.get("items"));
+        assertThat(ifMatch.get("name").asText()).isEqualTo("Conditional");
+        assertThat(ifMatch.get("householdId").asLong()).isEqualTo(household.getId());
+        update.assertAtMost(1);
+    }
+
+    @Test
+    @MaxSqlStatements(1)
+    void getAllShoppingLists() throws Exception {
+        mockMvc.perform(get("/api/v1/shoppinglists")).andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSqlStatements(1)
+    void getShoppingListById() throws Exception {
+        mockMvc.perform(get("/api/v1/shoppinglists/{id}", shoppingLists.get(0).getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllHouseholds_batchesUsersAndListsOfAllHouseholds() throws Exception {
+        sqlStatements.record(() -> mockMvc.perform(get("/api/v1/households")).andExpect(status().isOk()))
+                .assertAtMost(3)
+                .assertNoStatementInLoop();
+    }
+
+    @Test
+    @MaxSqlStatements(3)
+    void getHouseholdById() throws Exception {
+        mockMvc.perform(get("/api/v1/households/{id}", household.getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    void getAllUsers_batchesHouseholds() throws Exception {
+        sqlStatements.record(() -> mockMvc.perform(get("/api/v1/users")).andExpect(status().isOk()))
+                .assertAtMost(2)
+                .assertNoStatementInLoop();
+    }
+
+    @Test
+    @MaxSqlStatements(1)
+    void getUserById() throws Exception {
+        mockMvc.perform(get("/api/v1/users/{id}", users.get(0).getId())).andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSqlStatements(1)
+    void itemTableFragment_loadsOneListInOneQuery() throws Exception {
+        mockMvc.perform(get("/fragments/shoppinglists/{id}/items", shoppingLists.get(0).getId()).with(signedIn(users.get(0))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSqlStatements(1)
+    void itemRowsFragment_loadsOnlyRequestedRows() throws Exception {
+        mockMvc.perform(get("/fragments/shoppinglists/{id}/items/rows", shoppingLists.get(1).getId())
+                        .with(signedIn(users.get(2)))
+                        .param("ids", items.get(0).getId() + "," + items.get(2).getId()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @MaxSqlStatements(2)
+    void shoppingListPage_loadsListsAndOnePageOfItems() throws Exception {
+        mockMvc.perform(get("/shoppinglists/{id}", shoppingLists.get(0).getId()).with(signedIn(users.get(0))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void householdView_countsOnlyFullPagesAndStaysInTheHousehold() throws Exception {
+        sqlStatements.record(() -> mockMvc.perform(get("/").with(signedIn(users.get(0))).param("size", "2"))
+                        .andExpect(status().isOk())
+                        .andExpect(content().string(containsString("(3 Items)")))
+                        .andExpect(content().string(not(containsString("Item 1<")))))
+                .assertAtMost(3)
+                .assertNoStatementInLoop();
+    }
+
+    @Test
+    void householdView_streamsAllItemsThroughOneCursorQuery() throws Exception {
+        sqlStatements.record(() -> mockMvc.perform(get("/").with(signedIn(users.get(0))).param("all", "true"))
+                        .andExpect(status().isOk())
+                        .andExpect(content().string(containsString("Item 2<")))
+                        .andExpect(content().string(containsString("Item 6<")))
+                        .andExpect(content().string(not(containsString("Item 1<")))))
+                .assertAtMost(2)
+                .assertNoStatementInLoop();
+    }
+
+    private static RequestPostProcessor signedIn(User user) {
+        return user(new HouseholdUser(user.getId(), user.getHousehold().getId(), user.getUsername(),
+                user.getPasswordHash(), true, List.of()));
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
@@ -1,8 +1,11 @@
 package com.foodlist.service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.concurrency.MutationTimeoutException;
 import com.foodlist.service.dto.ItemDTO;
 import com.foodlist.service.dto.ItemDisplayDTO; // Importieren Sie ItemDisplayDTO
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.security.HouseholdAccess;
 import com.foodlist.service.service.ItemService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,31 +13,44 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.aot.DisabledInAotMode;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import static org.hamcrest.Matchers.is;
 
 @WebMvcTest(ItemController.class)
+@DisabledInAotMode // @MockBean is not supported in AOT mode (native tests)
 @AutoConfigureMockMvc(addFilters = false)
 public class ItemControllerTest {
 
     @MockBean
     private ItemService itemService;
 
+    @MockBean
+    private HouseholdAccess householdAccess;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -63,7 +79,8 @@ public class ItemControllerTest {
                 false,              // Is checked
                 LocalDateTime.now(),// CreatedAt
                 101L,               // Added By User ID
-                201L                // Shopping List ID
+                201L,               // Shopping List ID
+                0L                  // Version
         );
         item02 = new ItemDTO(
                 2L,                 // Item ID
@@ -72,7 +89,8 @@ public class ItemControllerTest {
                 true,               // Is checked
                 LocalDateTime.now(),// CreatedAt
                 102L,               // Added By User ID
-                201L                // Shopping List ID
+                201L,               // Shopping List ID
+                0L                  // Version
         );
 
         // Initialisierung von ItemDisplayDTOs (für getAllItems, getItemById)
@@ -85,7 +103,8 @@ public class ItemControllerTest {
                 101L,
                 "Benutzer A", // Beispiel-Benutzername
                 201L,
-                "Einkaufsliste X" // Beispiel-Einkaufslistenname
+                "Einkaufsliste X", // Beispiel-Einkaufslistenname
+                0L
         );
         itemDisplay02 = new ItemDisplayDTO(
                 2L,
@@ -96,7 +115,8 @@ public class ItemControllerTest {
                 102L,
                 "Benutzer B", // Beispiel-Benutzername
                 201L,
-                "Einkaufsliste X" // Beispiel-Einkaufslistenname
+                "Einkaufsliste X", // Beispiel-Einkaufslistenname
+                0L
         );
         itemDisplayList = List.of(itemDisplay01, itemDisplay02);
     }
@@ -186,7 +206,8 @@ public class ItemControllerTest {
                 true,
                 item01.getAddedAt(),
                 101L,
-                201L
+                201L,
+                1L
         );
         // Mock the service call to return the updated DTO
         when(itemService.updateItem(any(ItemDTO.class))).thenReturn(updatedItemDTO);
@@ -217,7 +238,8 @@ public class ItemControllerTest {
                 false,
                 LocalDateTime.now(),
                 101L,
-                201L
+                201L,
+                1L
         );
         // Mock the service call to throw EntityNotFoundException
         when(itemService.updateItem(any(ItemDTO.class))).thenThrow(new jakarta.persistence.EntityNotFoundException("Item not found for update"));
@@ -261,4 +283,82 @@ public class ItemControllerTest {
         // Verify the service method was called
         verify(itemService).deleteItemById(nonExistentId);
     }
+
+    @Test
+    public void shouldReturnVersionAsETag() throws Exception {
+        Long itemId = itemDisplay01.getId();
+        when(itemService.getItemById(itemId)).thenReturn(itemDisplay01);
+
+        this.mockMvc.perform(get(controllerPath + "/{itemId}", itemId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    public void shouldPassIfMatchVersionToService() throws Exception {
+        Long itemId = item01.getId();
+        when(itemService.updateItem(any(ItemDTO.class))).thenReturn(new ItemDTO(
+                itemId, "Apfel", 5, false, LocalDateTime.now(), 101L, 201L, 4L));
+
+        this.mockMvc.perform(put(controllerPath + "/{itemId}", itemId)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item01)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+
+        verify(itemService).updateItem(argThat(dto -> Long.valueOf(3L).equals(dto.getVersion())));
+    }
+
+    @Test
+    public void shouldReturnPreconditionFailedForStaleIfMatch() throws Exception {
+        Long itemId = item01.getId();
+        when(itemService.updateItem(any(ItemDTO.class)))
+                .thenThrow(new OptimisticLockingFailureException("Item with ID 1 was modified concurrently."));
+
+        this.mockMvc.perform(put(controllerPath + "/{itemId}", itemId)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item01)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailableWhenQueuedAddWasWithdrawn() throws Exception {
+        when(itemService.addItem(any(ItemDTO.class)))
+                .thenThrow(new MutationTimeoutException("Mutation of shopping list 1 was not started within 5000 ms.", null));
+
+        this.mockMvc.perform(post(controllerPath)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item01)))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    public void shouldReturnAcceptedWithStatusLocationWhenQueuedItemIsNotWrittenInTime() throws Exception {
+        when(itemService.enqueueItem(any(ItemDTO.class), anyLong(), eq("c-1")))
+                .thenReturn(Optional.of(new ItemIngestDTO("c-1", ItemIngestDTO.Status.PENDING, null, null)));
+
+        this.mockMvc.perform(post(controllerPath)
+                        .header("Prefer", "respond-async")
+                        .header(ItemController.CORRELATION_ID, "c-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item01)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/v1/items/ingest/c-1"))
+                .andExpect(header().string(ItemController.CORRELATION_ID, "c-1"))
+                .andExpect(jsonPath("$.status", is("PENDING")));
+    }
+
+    @Test
+    public void shouldReturnServiceUnavailableWhenWriteBehindQueueIsFull() throws Exception {
+        when(itemService.enqueueItem(any(ItemDTO.class), anyLong(), any()))
+                .thenThrow(new RejectedExecutionException("Write-behind queue is full."));
+
+        this.mockMvc.perform(post(controllerPath)
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item01)))
+                .andExpect(status().isServiceUnavailable());
+    }
 }
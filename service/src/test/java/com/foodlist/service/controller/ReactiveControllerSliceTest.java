@@ -0,0 +1,134 @@
+package com.foodlist.service.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.service.ReactiveItemService;
+import com.foodlist.service.service.ReactiveShoppingListService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ReactiveItemController and ReactiveShoppingListController with mocked services, without Docker.
+ * They are hosted by Spring MVC, so every Mono/Flux answer starts async processing and is written by
+ * the async dispatch; ReactiveControllerTest covers them end to end against PostgreSQL.
+ */
+@WebMvcTest({ReactiveItemController.class, ReactiveShoppingListController.class})
+@DisabledInAotMode // @MockBean is not supported in AOT mode (native tests)
+@AutoConfigureMockMvc(addFilters = false)
+@ActiveProfiles("reactive")
+class ReactiveControllerSliceTest {
+
+    @MockBean
+    private ReactiveItemService reactiveItemService;
+
+    @MockBean
+    private ReactiveShoppingListService reactiveShoppingListService;
+
+    @MockBean
+    private HouseholdAccess householdAccess;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void getItemById_answersWithVersionAsETag_orNotFound() throws Exception {
+        when(reactiveItemService.getItemById(1L)).thenReturn(Mono.just(display(1L, "Apfel", 3L)));
+        when(reactiveItemService.getItemById(2L)).thenReturn(Mono.error(new EntityNotFoundException("missing")));
+
+        async(get("/api/v1/items/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.name").value("Apfel"));
+        async(get("/api/v1/items/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void itemsOfList_areStreamedAsNdjson() throws Exception {
+        when(reactiveItemService.getItemsByShoppingListId(201L))
+                .thenReturn(Flux.just(display(1L, "Apfel", 0L), display(2L, "Banane", 0L)));
+
+        String body = async(get("/api/v1/shoppinglists/201/items").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().filter(line -> !line.isBlank()).toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(1)).get("name").asText()).isEqualTo("Banane");
+    }
+
+    @Test
+    void updateItem_withStaleIfMatch_isPreconditionFailed() throws Exception {
+        when(reactiveItemService.updateItem(any(ItemDTO.class)))
+                .thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+
+        async(put("/api/v1/items/1").header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(item("Apfel")))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void addItem_toUnknownList_isBadRequest() throws Exception {
+        when(reactiveItemService.addItem(any(ItemDTO.class)))
+                .thenReturn(Mono.error(new EntityNotFoundException("ShoppingList with ID 201 not found.")));
+
+        async(post("/api/v1/items").contentType(MediaType.APPLICATION_JSON).content(item("Apfel")))
+                .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Performs the request and, once its Mono/Flux has completed, the async dispatch that writes the response.
+     */
+    private ResultActions async(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private String item(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name, "quantity", 1,
+                "addedByUserId", 101L, "shoppingListId", 201L));
+    }
+
+    private static ItemDisplayDTO display(Long id, String name, Long version) {
+        return new ItemDisplayDTO(id, name, 1, false, LocalDateTime.now(), 101L, "Benutzer A", 201L,
+                "Einkaufsliste X", version);
+    }
+}
@@ -0,0 +1,217 @@
+package com.foodlist.service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.security.HouseholdUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The "reactive" profile end to end: ReactiveItemController and ReactiveShoppingListController with their
+ * services and R2DBC repositories against PostgreSQL (the repositories use RETURNING, which H2 lacks).
+ * The controllers are hosted by Spring MVC, so every Mono/Flux answer is an async dispatch.
+ * Skipped when no Docker environment is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisabledInAotMode // Needs Docker, not part of the native test image
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "foodlist.security.token.secret=Zm9vZGxpc3QtdGVzdC1zZWNyZXQtbm90LWZvci1wcm9kdWN0aW9u" // Required outside "dev"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("reactive")
+class ReactiveControllerTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        // ReactiveTransactionConfig builds the DataSource from spring.datasource.*, which @ServiceConnection bypasses
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private HouseholdUser signedIn;
+    private long shoppingListId;
+
+    @BeforeEach
+    void setUp() {
+        long householdId = insert("INSERT INTO households (name, created_at, version) VALUES ('Reactive', now(), 0) RETURNING id");
+        long userId = insert("INSERT INTO users (username, password_hash, name, enabled, created_at, household_id, version) "
+                + "VALUES ('reactive-' || gen_random_uuid(), 'x', 'Reactive', true, now(), " + householdId + ", 0) RETURNING id");
+        shoppingListId = insert("INSERT INTO shopping_lists (name, is_default, created_at, household_id, version) "
+                + "VALUES ('Weekly', true, now(), " + householdId + ", 0) RETURNING id");
+        signedIn = new HouseholdUser(userId, householdId, "reactive", "", true, List.of());
+    }
+
+    @Test
+    void reactiveControllers_replaceTheBlockingOnes() {
+        assertThat(context.getBeanNamesForType(ReactiveItemController.class)).hasSize(1);
+        assertThat(context.getBeanNamesForType(ReactiveShoppingListController.class)).hasSize(1);
+        assertThat(context.getBeanNamesForType(ItemController.class)).isEmpty();
+        assertThat(context.getBeanNamesForType(ShoppingListController.class)).isEmpty();
+    }
+
+    @Test
+    void item_isAddedReadUpdatedConditionallyAndDeleted() throws Exception {
+        JsonNode added = json(async(post("/api/v1/items").with(user(signedIn)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON).content(item("Milk")))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.version").value(0)));
+        long itemId = added.get("id").asLong();
+
+        async(get("/api/v1/items/" + itemId).with(user(signedIn)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+                .andExpect(jsonPath("$.name").value("Milk"))
+                .andExpect(jsonPath("$.shoppingListName").value("Weekly"));
+
+        async(put("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(item("Oat milk")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        async(put("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .contentType(MediaType.APPLICATION_JSON).content(item("Stale")))
+                .andExpect(status().isPreconditionFailed());
+        assertThat(jdbcTemplate.queryForObject("SELECT name FROM items WHERE id = ?", String.class, itemId))
+                .isEqualTo("Oat milk");
+
+        async(delete("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf()))
+                .andExpect(status().isNoContent());
+        async(get("/api/v1/items/" + itemId).with(user(signedIn)))
+                .andExpect(status().isNotFound());
+        async(delete("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void itemOfUnknownList_isBadRequest() throws Exception {
+        String body = objectMapper.writeValueAsString(Map.of("name", "Bread", "quantity", 1,
+                "addedByUserId", signedIn.getUserId(), "shoppingListId", Long.MAX_VALUE));
+        async(post("/api/v1/items").with(user(signedIn)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void itemsOfList_areStreamedAsNdjsonInIdOrder() throws Exception {
+        for (String name : List.of("Eggs", "Flour")) {
+            async(post("/api/v1/items").with(user(signedIn)).with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON).content(item(name)))
+                    .andExpect(status().isCreated());
+        }
+
+        String body = async(get("/api/v1/shoppinglists/" + shoppingListId + "/items").with(user(signedIn))
+                .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().filter(line -> !line.isBlank()).toList();
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines.get(0)).get("name").asText()).isEqualTo("Eggs");
+        assertThat(objectMapper.readTree(lines.get(1)).get("name").asText()).isEqualTo("Flour");
+    }
+
+    @Test
+    void shoppingList_isUpdatedConditionallyAndDeletedWithItsItems() throws Exception {
+        async(post("/api/v1/items").with(user(signedIn)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON).content(item("Rice")))
+                .andExpect(status().isCreated());
+        String list = objectMapper.writeValueAsString(Map.of("name", "Party", "default", false,
+                "householdId", signedIn.getHouseholdId()));
+
+        async(put("/api/v1/shoppinglists/" + shoppingListId).with(user(signedIn)).with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON).content(list))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+        async(put("/api/v1/shoppinglists/" + shoppingListId).with(user(signedIn)).with(csrf())
+                .header(HttpHeaders.IF_MATCH, "\"0\"").contentType(MediaType.APPLICATION_JSON).content(list))
+                .andExpect(status().isPreconditionFailed());
+        async(put("/api/v1/shoppinglists/" + Long.MAX_VALUE).with(user(signedIn)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON).content(list))
+                .andExpect(status().isNotFound());
+
+        async(delete("/api/v1/shoppinglists/" + shoppingListId).with(user(signedIn)).with(csrf()))
+                .andExpect(status().isNoContent());
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM items WHERE shopping_list_id = ?",
+                Integer.class, shoppingListId)).isZero();
+        async(get("/api/v1/shoppinglists/" + shoppingListId).with(user(signedIn)))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Performs the request and, once its Mono/Flux has completed, the async dispatch that writes the response.
+     */
+    private ResultActions async(RequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started));
+    }
+
+    private JsonNode json(ResultActions result) throws Exception {
+        return objectMapper.readTree(result.andReturn().getResponse().getContentAsString());
+    }
+
+    private long insert(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private String item(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name, "quantity", 1,
+                "addedByUserId", signedIn.getUserId(), "shoppingListId", shoppingListId));
+    }
+}
@@ -0,0 +1,346 @@
+package com.foodlist.service.controller;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import com.foodlist.service.configuration.SecurityConfig;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.security.AuthTokenService;
+import com.foodlist.service.security.HouseholdAccess;
+import com.foodlist.service.security.HouseholdMembershipCache;
+import com.foodlist.service.security.HouseholdUser;
+import com.foodlist.service.security.UserAuthorities;
+import com.foodlist.service.service.ItemService;
+import com.foodlist.service.service.ShoppingListService;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.mockito.Mockito.never;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrlPattern;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ThUserControllerImpl.class)
+@DisabledInAotMode // @MockBean is not supported in AOT mode (native tests)
+@Import({SecurityConfig.class, AuthTokenService.class, UserAuthorities.class, HouseholdAccess.class})
+class ThUserControllerImplTest {
+
+    @MockBean
+    private ItemService itemService;
+
+    @MockBean
+    private ShoppingListService shoppingListService;
+
+    @MockBean
+    private HouseholdMembershipCache membershipCache;
+
+    @MockBean
+    private ItemRepo itemRepo;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private ItemDisplayDTO milk;
+    private ItemDisplayDTO bread;
+    private ShoppingListDTO weekly;
+    private ShoppingListDTO party;
+    private HouseholdUser anna;
+
+    @BeforeEach
+    void setUp() {
+        milk = new ItemDisplayDTO(1L, "Milch", 2, false, LocalDateTime.now(), 101L, "anna", 7L, "Wocheneinkauf", 3L);
+        bread = new ItemDisplayDTO(2L, "Brot", 1, true, LocalDateTime.now(), 101L, "anna", 7L, "Wocheneinkauf", 0L);
+        weekly = new ShoppingListDTO(7L, "Wocheneinkauf", true, LocalDateTime.now(), 3L, null, 0L);
+        party = new ShoppingListDTO(8L, "Party", false, LocalDateTime.now(), 3L, null, 0L);
+        anna = new HouseholdUser(101L, 3L, "anna", "{noop}secret", true, List.of());
+    }
+
+    @Test
+    void shoppingListPage_rendersTheItemTableOnce() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+        when(itemService.getItemPageByHouseholdId(eq(3L), eq(7L), isNull(), eq(""), any()))
+                .thenReturn(new PageImpl<>(List.of(milk, bread)));
+
+        String html = mockMvc.perform(get("/shoppinglists/7").with(user(anna)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/shoppinglists/8")))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(html.split("<table", -1)).hasSize(2);
+        assertThat(html.split("data-item-id=\"1\"", -1)).hasSize(2);
+        verify(itemService, never()).getAllItems();
+    }
+
+    @Test
+    void index_showsOnePageOfTheItemsOfTheUsersHousehold() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+        when(itemService.getItemPageByHouseholdId(eq(3L), isNull(), isNull(), eq(""), any()))
+                .thenReturn(new PageImpl<>(List.of(milk), PageRequest.of(0, 50), 1));
+
+        mockMvc.perform(get("/").with(user(anna)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Milch")))
+                .andExpect(content().string(containsString("Seite 1 von 1 (1 Items)")));
+
+        verify(shoppingListService, never()).getAllShoppingLists();
+        verify(itemService, never()).getAllItems();
+    }
+
+    @Test
+    void index_appliesFilterSortAndPageOnTheServer() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+        when(itemService.getItemPageByHouseholdId(eq(3L), isNull(), eq(false), eq("milch"), any()))
+                .thenReturn(new PageImpl<>(List.of(milk), PageRequest.of(2, 10), 21));
+
+        mockMvc.perform(get("/").with(user(anna))
+                        .param("q", " milch ").param("status", "open").param("sort", "name").param("dir", "asc")
+                        .param("page", "2").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Seite 3 von 3 (21 Items)")));
+
+        verify(itemService).getItemPageByHouseholdId(eq(3L), isNull(), eq(false), eq("milch"),
+                eq(PageRequest.of(2, 10, Sort.by("name").ascending().and(Sort.by("id").ascending()))));
+    }
+
+    @Test
+    void index_unknownSortAndOversizedPage_fallBackToBoundedDefaults() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly));
+        when(itemService.getItemPageByHouseholdId(eq(3L), isNull(), isNull(), eq(""), any()))
+                .thenReturn(new PageImpl<>(List.of()));
+
+        mockMvc.perform(get("/").with(user(anna)).param("sort", "passwordHash").param("size", "100000"))
+                .andExpect(status().isOk());
+
+        verify(itemService).getItemPageByHouseholdId(eq(3L), isNull(), isNull(), eq(""),
+                eq(PageRequest.of(0, ItemPageQuery.MAX_SIZE, Sort.by("addedAt").descending().and(Sort.by("id").descending()))));
+    }
+
+    @Test
+    void index_all_streamsEveryItemInsteadOfOnePage() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+        streamItems(List.of(milk, bread).iterator());
+
+        mockMvc.perform(get("/").with(user(anna)).param("all", "true").param("status", "open").param("sort", "name"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data-item-id=\"1\"")))
+                .andExpect(content().string(containsString("data-item-id=\"2\"")))
+                .andExpect(content().string(containsString("Seitenweise anzeigen")))
+                .andExpect(content().string(not(containsString("Seite 1 von"))));
+
+        verify(itemService).streamItemsByHouseholdId(eq(3L), isNull(), eq(false), eq(""),
+                eq(Sort.by("name").descending().and(Sort.by("id").descending())), eq(500), any());
+        verify(itemService, never()).getItemPageByHouseholdId(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shoppingListPage_all_sendsThePageHeadBeforeTheFirstRowIsRead() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+        AtomicBoolean committedBeforeFirstRow = new AtomicBoolean();
+        Iterator<ItemDisplayDTO> rows = List.of(milk).iterator();
+        streamItems(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public ItemDisplayDTO next() {
+                committedBeforeFirstRow.set(((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+                        .getResponse().isCommitted());
+                return rows.next();
+            }
+        });
+
+        mockMvc.perform(get("/shoppinglists/7").with(user(anna)).param("all", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Milch")));
+
+        assertThat(committedBeforeFirstRow).isTrue();
+        verify(itemService).streamItemsByHouseholdId(eq(3L), eq(7L), isNull(), eq(""), any(), anyInt(), any());
+    }
+
+    @Test
+    void index_withoutHousehold_rendersEmptyPage() throws Exception {
+        HouseholdUser homeless = new HouseholdUser(102L, null, "ben", "{noop}secret", true, List.of());
+
+        mockMvc.perform(get("/").with(user(homeless)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("<table"))));
+
+        verify(itemService, never()).getItemPageByHouseholdId(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void index_withoutSignedInUser_redirectsToLogin() throws Exception {
+        mockMvc.perform(get("/").accept(MediaType.TEXT_HTML))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrlPattern("**/login"));
+
+        verify(itemService, never()).getItemPageByHouseholdId(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void shoppingListPage_listOfOtherHousehold_returnsNotFound() throws Exception {
+        when(shoppingListService.getShoppingListsByHouseholdId(3L)).thenReturn(List.of(weekly, party));
+
+        mockMvc.perform(get("/shoppinglists/99").with(user(anna)))
+                .andExpect(status().isNotFound());
+
+        verify(itemService, never()).getItemPageByHouseholdId(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void itemTable_rendersOnlyTheTableOfOneList() throws Exception {
+        when(itemService.getItemPageByHouseholdId(eq(3L), eq(7L), isNull(), eq(""), any()))
+                .thenReturn(new PageImpl<>(List.of(milk, bread)));
+
+        mockMvc.perform(get("/fragments/shoppinglists/7/items").with(user(anna)))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<table")))
+                .andExpect(content().string(containsString("Milch")))
+                .andExpect(content().string(containsString("Brot")))
+                .andExpect(content().string(not(containsString("<html"))))
+                .andExpect(content().string(not(containsString("navbar"))));
+    }
+
+    @Test
+    void itemTable_unknownList_returnsNotFound() throws Exception {
+        when(itemService.getItemPageByHouseholdId(eq(3L), eq(99L), any(), any(), any()))
+                .thenThrow(new EntityNotFoundException("not found"));
+
+        mockMvc.perform(get("/fragments/shoppinglists/99/items").with(user(anna)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void itemTable_withoutSignedInUser_returnsUnauthorized() throws Exception {
+        mockMvc.perform(get("/fragments/shoppinglists/7/items"))
+                .andExpect(status().isUnauthorized());
+
+        verify(itemService, never()).getItemPageByHouseholdId(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void toggleItem_withoutCsrfToken_isForbidden() throws Exception {
+        mockMvc.perform(post("/fragments/shoppinglists/7/items/1/toggle").with(user(anna)))
+                .andExpect(status().isForbidden());
+
+        verify(itemService, never()).updateItem(any());
+    }
+
+    @Test
+    void itemRows_rendersOnlyTheRequestedRows() throws Exception {
+        when(itemService.getItemsByShoppingListIdAndIds(3L, 7L, List.of(2L))).thenReturn(List.of(bread));
+
+        mockMvc.perform(get("/fragments/shoppinglists/7/items/rows").with(user(anna)).param("ids", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data-item-id=\"2\"")))
+                .andExpect(content().string(not(containsString("<table"))))
+                .andExpect(content().string(not(containsString("Milch"))));
+    }
+
+    @Test
+    void toggleItem_updatesWithClientVersionAndReturnsChangedRow() throws Exception {
+        ItemDisplayDTO checkedMilk = new ItemDisplayDTO(1L, "Milch", 2, true, LocalDateTime.now(), 101L, "anna", 7L,
+                "Wocheneinkauf", 4L);
+        when(itemService.getItemsByShoppingListIdAndIds(3L, 7L, List.of(1L)))
+                .thenReturn(List.of(milk))
+                .thenReturn(List.of(checkedMilk));
+
+        mockMvc.perform(post("/fragments/shoppinglists/7/items/1/toggle").with(user(anna)).with(csrf()).param("version", "3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("data-item-id=\"1\"")))
+                .andExpect(content().string(containsString("version=4")))
+                .andExpect(content().string(not(containsString("<table"))));
+
+        verify(itemService).updateItem(argThat(item -> item.getId() == 1L && item.isChecked() && item.getVersion() == 3L));
+    }
+
+    @Test
+    void toggleItem_staleVersion_returnsConflict() throws Exception {
+        when(itemService.getItemsByShoppingListIdAndIds(3L, 7L, List.of(1L))).thenReturn(List.of(milk));
+        when(itemService.updateItem(any())).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        mockMvc.perform(post("/fragments/shoppinglists/7/items/1/toggle").with(user(anna)).with(csrf()).param("version", "2"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void toggleItem_itemOfOtherListOrHousehold_returnsNotFound() throws Exception {
+        when(itemService.getItemsByShoppingListIdAndIds(3L, 8L, List.of(1L))).thenReturn(List.of());
+
+        mockMvc.perform(post("/fragments/shoppinglists/8/items/1/toggle").with(user(anna)).with(csrf()))
+                .andExpect(status().isNotFound());
+
+        verify(itemService, never()).updateItem(any());
+    }
+
+    @Test
+    void addItem_returnsOnlyTheNewRowAddedByTheSignedInUser() throws Exception {
+        ItemDisplayDTO eggs = new ItemDisplayDTO(3L, "Eier", 10, false, LocalDateTime.now(), 101L, "anna", 7L,
+                "Wocheneinkauf", 0L);
+        when(membershipCache.isShoppingListInHousehold(7L, 3L)).thenReturn(true);
+        when(itemService.addItem(argThat(item -> "Eier".equals(item.getName()) && item.getShoppingListId() == 7L
+                && item.getAddedByUserId() == 101L)))
+                .thenReturn(new ItemDTO(3L, "Eier", 10, false, LocalDateTime.now(), 101L, 7L, 0L));
+        when(itemService.getItemsByShoppingListIdAndIds(3L, 7L, List.of(3L))).thenReturn(List.of(eggs));
+
+        mockMvc.perform(post("/fragments/shoppinglists/7/items").with(user(anna)).with(csrf())
+                        .param("name", "Eier").param("quantity", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Eier")))
+                .andExpect(content().string(not(containsString("<table"))));
+    }
+
+    @Test
+    void addItem_listOfOtherHousehold_returnsNotFound() throws Exception {
+        when(membershipCache.isShoppingListInHousehold(9L, 3L)).thenReturn(false);
+
+        mockMvc.perform(post("/fragments/shoppinglists/9/items").with(user(anna)).with(csrf()).param("name", "Eier"))
+                .andExpect(status().isNotFound());
+
+        verify(itemService, never()).addItem(any());
+    }
+
+    private void streamItems(Iterator<ItemDisplayDTO> items) {
+        doAnswer(invocation -> {
+            invocation.<Consumer<Iterator<ItemDisplayDTO>>>getArgument(6).accept(items);
+            return null;
+        }).when(itemService).streamItemsByHouseholdId(any(), any(), any(), any(), any(), anyInt(), any());
+    }
+}
@@ -0,0 +1,72 @@
+package com.foodlist.service.dataset;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Generates a small dataset on PostgreSQL at startup and checks row counts, bounds, skew and
+ * referential consistency. Skipped when no Docker environment is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisabledInAotMode // Needs Docker, not part of the native test image
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "foodlist.dataset.enabled=true",
+        "foodlist.dataset.households=500",
+        "foodlist.dataset.max-users-per-household=8",
+        "foodlist.dataset.max-lists-per-household=10",
+        "foodlist.dataset.max-items-per-list=100"
+})
+class DatasetGeneratorTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void householdSizes_areSkewedAndWithinBounds() {
+        assertThat(count("SELECT count(*) FROM households")).isEqualTo(500);
+        assertThat(count("SELECT max(c) FROM (SELECT count(*) c FROM users GROUP BY household_id) s")).isBetween(2L, 8L);
+        assertThat(count("SELECT max(c) FROM (SELECT count(*) c FROM shopping_lists GROUP BY household_id) s")).isBetween(2L, 10L);
+        assertThat(count("SELECT max(c) FROM (SELECT count(*) c FROM items GROUP BY shopping_list_id) s")).isBetween(2L, 100L);
+
+        // r^3 puts three quarters of the households below 40 % of the maximum size
+        long small = count("SELECT count(*) FROM (SELECT count(*) c FROM users GROUP BY household_id) s WHERE c <= 3");
+        assertThat(small).isGreaterThan(250);
+    }
+
+    @Test
+    void everyHouseholdHasUsersAndOneDefaultList() {
+        assertThat(count("SELECT count(*) FROM households h WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.household_id = h.id)"))
+                .isZero();
+        assertThat(count("SELECT count(*) FROM shopping_lists WHERE is_default")).isEqualTo(500);
+    }
+
+    @Test
+    void items_areAddedByUsersOfTheListsHousehold() {
+        assertThat(count("SELECT count(*) FROM items")).isPositive();
+        assertThat(count("""
+                SELECT count(*) FROM items i
+                JOIN shopping_lists l ON l.id = i.shopping_list_id
+                JOIN users u ON u.id = i.added_by_user_id
+                WHERE u.household_id <> l.household_id""")).isZero();
+        assertThat(count("SELECT count(*) FROM items WHERE added_by_user_id IS NULL")).isZero();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
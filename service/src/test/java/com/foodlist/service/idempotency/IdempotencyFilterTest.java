@@ -0,0 +1,220 @@
+package com.foodlist.service.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.idempotency.IdempotencyStore.Completed;
+import com.foodlist.service.idempotency.IdempotencyStore.InProgress;
+import com.foodlist.service.idempotency.IdempotencyStore.Started;
+import com.foodlist.service.idempotency.IdempotencyStore.StoredResponse;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.IdempotencyRecordRepo;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.HouseholdUser;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Idempotency keys with the production security configuration (profile "test" without "dev").
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+
+    @Autowired
+    private ItemRepo itemRepo;
+
+    @Autowired
+    private IdempotencyRecordRepo idempotencyRecordRepo;
+
+    private HouseholdUser signedIn;
+    private ShoppingList shoppingList;
+
+    @BeforeEach
+    void setUp() {
+        Household household = householdRepo.save(new Household("Idempotency household", LocalDateTime.now()));
+        User user = userRepo.save(new User("idem-" + UUID.randomUUID(), "x", household, true, LocalDateTime.now()));
+        shoppingList = shoppingListRepo.save(new ShoppingList(household, "Weekly", true, LocalDateTime.now()));
+        signedIn = new HouseholdUser(user.getId(), household.getId(), user.getUsername(), "", true, List.of());
+    }
+
+    @Test
+    void retriedPost_returnsTheFirstResponseWithoutAddingTheItemAgain() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = item("Milk");
+
+        String first = mockMvc.perform(addItem(body).header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+                .andReturn().getResponse().getContentAsString();
+        String retry = mockMvc.perform(addItem(body).header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(retry).isEqualTo(first);
+        assertThat(itemRepo.findAll()).filteredOn(item -> item.getShoppingList().getId().equals(shoppingList.getId()))
+                .hasSize(1);
+    }
+
+    @Test
+    void sameKeyForDifferentRequest_isRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        mockMvc.perform(addItem(item("Milk")).header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isCreated());
+        mockMvc.perform(addItem(item("Bread")).header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void retriedDelete_isAnsweredLikeTheFirstInsteadOfNotFound() throws Exception {
+        Long itemId = objectMapper.readTree(mockMvc.perform(addItem(item("Eggs")))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        String key = UUID.randomUUID().toString();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(delete("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf())
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY, key))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(delete("/api/v1/items/" + itemId).with(user(signedIn)).with(csrf()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requestsWithoutKey_areNotDeduplicated() throws Exception {
+        mockMvc.perform(addItem(item("Butter"))).andExpect(status().isCreated());
+        mockMvc.perform(addItem(item("Butter"))).andExpect(status().isCreated())
+                .andExpect(jsonPath("$.name").value("Butter"));
+
+        assertThat(itemRepo.findAll()).filteredOn(item -> item.getShoppingList().getId().equals(shoppingList.getId()))
+                .hasSize(2);
+    }
+
+    @Test
+    void otherInstance_findsStoredResponseInTheTable_andConcurrentClaimsAreRejected() {
+        String key = UUID.randomUUID().toString();
+        IdempotencyStore first = newStore();
+        IdempotencyStore second = newStore(); // Separate cache, same table: another instance
+
+        assertThat(first.begin("user:1", key, "hash")).isInstanceOf(Started.class);
+        assertThat(second.begin("user:1", key, "hash")).isInstanceOf(InProgress.class);
+        assertThat(second.begin("user:2", key, "hash")).isInstanceOf(Started.class); // Keys are per user
+
+        Long recordId = idempotencyRecordRepo.findByScopeAndIdempotencyKey("user:1", key).orElseThrow().getId();
+        first.complete("user:1", key, recordId, new StoredResponse("hash", 201, "application/json", null, "{}".getBytes()));
+
+        assertThat(second.begin("user:1", key, "hash")).isInstanceOfSatisfying(Completed.class,
+                completed -> assertThat(completed.response().status()).isEqualTo(201));
+    }
+
+    @Test
+    void cachedBody_canBeReadThroughAReadListener() throws Exception {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("idempotencyStore", newStore());
+        IdempotencyFilter filter = new IdempotencyFilter(beans.getBeanProvider(IdempotencyStore.class), DataSize.ofMegabytes(1));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/items");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, UUID.randomUUID().toString());
+        request.setContent("{\"name\":\"Milk\"}".getBytes(StandardCharsets.UTF_8));
+        List<String> events = new ArrayList<>();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (filtered, response) -> {
+            ServletInputStream input = filtered.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    events.add("onDataAvailable");
+                    byte[] buffer = new byte[4];
+                    while (input.isReady() && !input.isFinished()) {
+                        read.write(buffer, 0, input.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    events.add("onAllDataRead");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    events.add("onError");
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        });
+
+        assertThat(events).containsExactly("onDataAvailable", "onAllDataRead");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"name\":\"Milk\"}");
+    }
+
+    private IdempotencyStore newStore() {
+        return new IdempotencyStore(idempotencyRecordRepo, Duration.ofHours(1), Duration.ofMinutes(1), DataSize.ofMegabytes(1),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+    }
+
+    private MockHttpServletRequestBuilder addItem(String body) {
+        return post("/api/v1/items").with(user(signedIn)).with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private String item(String name) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("name", name, "quantity", 1,
+                "addedByUserId", signedIn.getUserId(), "shoppingListId", shoppingList.getId()));
+    }
+}
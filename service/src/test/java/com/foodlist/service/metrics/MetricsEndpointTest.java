@@ -0,0 +1,63 @@
+package com.foodlist.service.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles({"dev", "test"})
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void prometheusEndpoint_exposesLayerTimersHibernateAndPoolMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/items")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("foodlist_method_seconds_bucket{"),
+                        containsString("layer=\"controller\""),
+                        containsString("layer=\"service\""),
+                        containsString("layer=\"mapper\""),
+                        containsString("spring_data_repository_invocations_seconds_bucket{"),
+                        containsString("http_server_requests_seconds_bucket{"),
+                        containsString("hibernate_query_executions_total"),
+                        containsString("hibernate_entities_loads_total"),
+                        containsString("hikaricp_connections_active"),
+                        containsString("foodlist_coalescing_requests_total"),
+                        containsString("foodlist_coalescing_calls_total{"),
+                        containsString("foodlist_coalescing_ratio"))));
+    }
+
+    @Test
+    void requestAccounting_returnsServerTimingInDevAndRecordsPerRouteMetrics() throws Exception {
+        mockMvc.perform(get("/api/v1/items"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing",
+                        matchesPattern("cpu;dur=\\d+\\.\\d{3};desc=\"Thread CPU\", alloc;desc=\"\\d+ bytes\"")));
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("foodlist_request_cpu_seconds_bucket{"),
+                        containsString("foodlist_request_allocated_bytes_bucket{"),
+                        containsString("uri=\"/api/v1/items\""))));
+    }
+}
@@ -0,0 +1,56 @@
+package com.foodlist.service.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestResourceFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final RequestResourceFilter filter = new RequestResourceFilter(
+            new StaticListableBeanFactory(Map.of("registry", registry)).getBeanProvider(MeterRegistry.class), true);
+
+    @Test
+    void platformThread_isMeasured() throws Exception {
+        MockHttpServletResponse response = on(Executors.newSingleThreadExecutor(), this::handle);
+
+        assertThat(response.getHeader("Server-Timing")).startsWith("cpu;dur=");
+        assertThat(registry.find("foodlist.request.cpu").timer()).isNotNull();
+        assertThat(registry.find("foodlist.request.allocated").summary().totalAmount()).isPositive();
+    }
+
+    @Test
+    void virtualThread_isPassedThroughWithoutMeasurement() throws Exception {
+        MockHttpServletResponse response = on(Executors.newVirtualThreadPerTaskExecutor(), this::handle);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Server-Timing")).isNull();
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    private MockHttpServletResponse handle() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/items");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/items");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static <T> T on(ExecutorService executor, Callable<T> task) throws Exception {
+        try (executor) {
+            return executor.submit(task).get();
+        }
+    }
+}
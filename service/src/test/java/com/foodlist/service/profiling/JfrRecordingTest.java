@@ -0,0 +1,84 @@
+package com.foodlist.service.profiling;
+
+import com.foodlist.service.model.Household;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.jayway.jsonpath.JsonPath;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "foodlist.profiling.threshold=0ms") // A single H2 lookup stays below any threshold
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+class JfrRecordingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    @AfterEach
+    void tearDown() {
+        householdRepo.deleteAll();
+    }
+
+    @Test
+    void recording_containsRequestMethodAndStatementEvents() throws Exception {
+        Household household = new Household();
+        household.setName("Household");
+        household.setCreatedAt(LocalDateTime.now());
+        Long householdId = householdRepo.save(household).getId();
+
+        String started = mockMvc.perform(post("/api/v1/profiling/recording/start").param("durationSeconds", "60"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.state").value("RUNNING"))
+                .andReturn().getResponse().getContentAsString();
+        Path recorded = Path.of(JsonPath.<String>read(started, "$.file"));
+        mockMvc.perform(post("/api/v1/profiling/recording/start")).andExpect(status().isConflict());
+
+        mockMvc.perform(get("/api/v1/households/{id}", householdId)).andExpect(status().isOk());
+
+        byte[] jfr = mockMvc.perform(post("/api/v1/profiling/recording/stop"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Path file = Files.createTempFile("foodlist-test-", ".jfr");
+        Files.write(file, jfr);
+        assertFalse(Files.exists(recorded), "The recording is deleted on the server once downloaded");
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("foodlist.HttpRequest")
+                && event.getString("uri").equals("/api/v1/households/" + householdId)
+                && event.getInt("status") == 200));
+        RecordedEvent serviceCall = events.stream()
+                .filter(event -> event.getEventType().getName().equals("foodlist.Method")
+                        && event.getString("layer").equals("service")
+                        && event.getString("methodName").equals("getHouseholdById"))
+                .findFirst().orElseThrow();
+        assertEquals(householdId, serviceCall.getLong("entityId"));
+        assertEquals(1, serviceCall.getInt("resultSize"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().equals("foodlist.JdbcStatement")
+                && event.getString("sql").contains("households")));
+
+        mockMvc.perform(post("/api/v1/profiling/recording/stop")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,86 @@
+package com.foodlist.service.profiling;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.repository.HouseholdRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "foodlist.sql-log.sample-rate=1.0",
+        "foodlist.sql-log.slow-threshold-ms=60000",
+        "foodlist.sql-log.count-rows=true"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+class SqlLogListenerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    private final ListAppender<ILoggingEvent> sampleLog = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        sampleLog.start();
+        ((Logger) LoggerFactory.getLogger("foodlist.sql.sample")).addAppender(sampleLog);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ((Logger) LoggerFactory.getLogger("foodlist.sql.sample")).detachAppender(sampleLog);
+        householdRepo.deleteAll();
+    }
+
+    @Test
+    void sampledQuery_isLoggedWithParametersCallerAndRowCount() throws Exception {
+        Household household = new Household();
+        household.setName("Household");
+        household.setCreatedAt(LocalDateTime.now());
+        Long householdId = householdRepo.save(household).getId();
+        sampleLog.list.clear();
+
+        mockMvc.perform(get("/api/v1/households/{id}", householdId)).andExpect(status().isOk());
+
+        assertTrue(sampleLog.list.stream().map(ILoggingEvent::getFormattedMessage).anyMatch(message ->
+                        message.contains("1 rows")
+                                && message.contains("in HouseholdServiceImpl.getHouseholdById")
+                                && message.contains("from households")
+                                && message.contains("[" + householdId + "]")),
+                () -> "Unexpected SQL log: " + sampleLog.list);
+    }
+
+    @Test
+    void sampledInsert_isLoggedWithAffectedRows() throws Exception {
+        mockMvc.perform(post("/api/v1/households")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Neuer Haushalt\"}"))
+                .andExpect(status().isCreated());
+
+        assertTrue(sampleLog.list.stream().map(ILoggingEvent::getFormattedMessage).anyMatch(message ->
+                        message.startsWith("SQL (") && message.contains("1 rows")
+                                && message.contains("in HouseholdServiceImpl.addHousehold")
+                                && message.contains("insert into households")
+                                && message.contains("Neuer Haushalt")),
+                () -> "Unexpected SQL log: " + sampleLog.list);
+    }
+}
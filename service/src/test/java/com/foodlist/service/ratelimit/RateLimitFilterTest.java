@@ -0,0 +1,110 @@
+package com.foodlist.service.ratelimit;
+
+import com.foodlist.service.security.HouseholdUser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void householdOverItsReadBudget_getsTooManyRequests_otherHouseholdsAndWritesAreUnaffected() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofSeconds(10));
+
+        assertThat(perform(filter, "GET", 3L).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "GET", 3L).getStatus()).isEqualTo(200);
+        MockHttpServletResponse limited = perform(filter, "GET", 3L);
+        assertThat(limited.getStatus()).isEqualTo(429);
+        assertThat(limited.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("10"); // 0.1 per second
+
+        assertThat(perform(filter, "GET", 4L).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "POST", 3L).getStatus()).isEqualTo(200);
+        assertThat(registry.get("foodlist.rate-limit.requests").tags("budget", "read", "outcome", "limited")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void slowRequests_raiseOverload_andRequestsAreShedUntilTheAverageRecovers() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofMillis(1));
+        FilterChain slowChain = (request, response) -> {
+            try {
+                Thread.sleep(3);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        int shed = 0;
+        for (int i = 0; i < 40; i++) {
+            if (perform(filter, "POST", (long) i, slowChain).getStatus() == 503) {
+                shed++;
+            }
+        }
+        assertThat(filter.overload()).isGreaterThan(1);
+
+        for (int i = 0; i < 40; i++) {
+            if (perform(filter, "POST", 100L + i).getStatus() == 503) {
+                shed++;
+            }
+        }
+        assertThat(shed).isPositive();
+        assertThat(filter.overload()).isLessThan(1); // Shed and fast requests brought the average down again
+        assertThat(registry.get("foodlist.rate-limit.requests").tags("budget", "write", "outcome", "shed")
+                .functionCounter().count()).isEqualTo(shed);
+    }
+
+    @Test
+    void actuator_isNeverLimited() throws Exception {
+        RateLimitFilter filter = filter(Duration.ofSeconds(10));
+
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/actuator/health");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(200);
+        }
+    }
+
+    private RateLimitFilter filter(Duration maxLatency) {
+        RateLimitFilter filter = new RateLimitFilter(64, 0.1, 2, 0.1, 2, 5, maxLatency,
+                new StaticListableBeanFactory().getBeanProvider(DataSource.class));
+        filter.bindTo(registry);
+        return filter;
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, Long householdId) throws Exception {
+        return perform(filter, method, householdId, new MockFilterChain());
+    }
+
+    private static MockHttpServletResponse perform(RateLimitFilter filter, String method, Long householdId,
+                                                   FilterChain chain) throws Exception {
+        HouseholdUser user = new HouseholdUser(householdId * 10, householdId, "user" + householdId, "", true, List.of());
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities()));
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1/items");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodlist.service.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketsTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsAtTheRate() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(64, 2, 3, now::get);
+
+        assertThat(buckets.tryAcquire(7)).isZero();
+        assertThat(buckets.tryAcquire(7)).isZero();
+        assertThat(buckets.tryAcquire(7)).isZero();
+        assertThat(buckets.tryAcquire(7)).isEqualTo(500); // 2 per second: next token in 500 ms
+
+        now.addAndGet(499);
+        assertThat(buckets.tryAcquire(7)).isEqualTo(1);
+        now.addAndGet(1);
+        assertThat(buckets.tryAcquire(7)).isZero();
+    }
+
+    @Test
+    void tryAcquire_frequentCallsAtLowRate_stillEarnTokens() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(64, 0.5, 1, now::get);
+        assertThat(buckets.tryAcquire(7)).isZero();
+
+        // Every millisecond adds half a thousandth of a token, which rounds down to nothing
+        for (int i = 0; i < 1999; i++) {
+            now.incrementAndGet();
+            assertThat(buckets.tryAcquire(7)).isPositive();
+        }
+        now.incrementAndGet();
+        assertThat(buckets.tryAcquire(7)).isZero();
+    }
+
+    @Test
+    void tryAcquire_keysHaveSeparateBuckets() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(4096, 1, 1, now::get);
+
+        assertThat(buckets.tryAcquire(1)).isZero();
+        assertThat(buckets.tryAcquire(1)).isPositive();
+        assertThat(buckets.tryAcquire(2)).isZero();
+        assertThat(buckets.tryAcquire(3)).isZero();
+    }
+
+    @Test
+    void tryAcquire_concurrentCallers_neverTakeMoreThanTheBurst() throws Exception {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(64, 1, 1000, now::get); // Clock stands still
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int thread = 0; thread < 8; thread++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    for (int i = 0; i < 500; i++) {
+                        if (buckets.tryAcquire(42) == 0) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(granted).hasValue(1000);
+    }
+}
@@ -0,0 +1,133 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemDisplayDTO;
+import com.foodlist.service.dto.ShoppingListDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ItemReactiveRepo and ShoppingListReactiveRepo against PostgreSQL: generated IDs, the display join,
+ * the conditional update with RETURNING and the deletes. Skipped when no Docker environment is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisabledInAotMode // Needs Docker, not part of the native test image
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "foodlist.security.token.secret=Zm9vZGxpc3QtdGVzdC1zZWNyZXQtbm90LWZvci1wcm9kdWN0aW9u" // Required outside "dev"
+})
+@ActiveProfiles("reactive")
+class ReactiveRepoTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        // ReactiveTransactionConfig builds the DataSource from spring.datasource.*, which @ServiceConnection bypasses
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/" + POSTGRES.getDatabaseName());
+        registry.add("spring.r2dbc.username", POSTGRES::getUsername);
+        registry.add("spring.r2dbc.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private ItemReactiveRepo itemReactiveRepo;
+
+    @Autowired
+    private ShoppingListReactiveRepo shoppingListReactiveRepo;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long householdId;
+    private long userId;
+
+    @BeforeEach
+    void setUp() {
+        householdId = jdbcTemplate.queryForObject(
+                "INSERT INTO households (name, created_at, version) VALUES ('Repo', now(), 0) RETURNING id", Long.class);
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (username, password_hash, name, enabled, created_at, "
+                + "household_id, version) VALUES ('repo-' || gen_random_uuid(), 'x', 'Repo', true, now(), ?, 0) RETURNING id",
+                Long.class, householdId);
+    }
+
+    @Test
+    void insertedItems_areReadWithUserAndListNames() {
+        long listId = insertList("Groceries");
+        long first = itemReactiveRepo.insert(item(listId, "Apples", null), LocalDateTime.now()).block();
+        long second = itemReactiveRepo.insert(item(listId, "Pears", null), LocalDateTime.now()).block();
+
+        ItemDisplayDTO found = itemReactiveRepo.findDisplayById(first).block();
+        assertThat(found.getName()).isEqualTo("Apples");
+        assertThat(found.getAddedByUserName()).startsWith("repo-");
+        assertThat(found.getShoppingListName()).isEqualTo("Groceries");
+        assertThat(found.getVersion()).isZero();
+
+        List<ItemDisplayDTO> ofList = itemReactiveRepo.findAllDisplayByShoppingListId(listId).collectList().block();
+        assertThat(ofList).extracting(ItemDisplayDTO::getId).containsExactly(first, second);
+        assertThat(itemReactiveRepo.findDisplayById(Long.MAX_VALUE).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void update_withStaleVersion_changesNothing() {
+        long listId = insertList("Groceries");
+        long itemId = itemReactiveRepo.insert(item(listId, "Milk", null), LocalDateTime.now()).block();
+
+        ItemDTO update = item(listId, "Oat milk", 0L);
+        update.setId(itemId);
+        assertThat(itemReactiveRepo.updateReturningVersion(update, LocalDateTime.now()).block()).isEqualTo(1L);
+        assertThat(itemReactiveRepo.updateReturningVersion(update, LocalDateTime.now()).blockOptional()).isEmpty();
+
+        update.setVersion(null); // Without an expected version the update is unconditional
+        assertThat(itemReactiveRepo.updateReturningVersion(update, LocalDateTime.now()).block()).isEqualTo(2L);
+        assertThat(itemReactiveRepo.findVersionById(itemId).block()).isEqualTo(2L);
+    }
+
+    @Test
+    void shoppingList_isInsertedUpdatedAndDeletedWithItsItems() {
+        ShoppingListDTO list = new ShoppingListDTO(null, "Party", false, null, householdId, null, null);
+        long listId = shoppingListReactiveRepo.insert(list, LocalDateTime.now()).block();
+        itemReactiveRepo.insert(item(listId, "Chips", null), LocalDateTime.now()).block();
+        assertThat(shoppingListReactiveRepo.existsById(listId).block()).isTrue();
+
+        list.setId(listId);
+        list.setVersion(0L);
+        assertThat(shoppingListReactiveRepo.updateReturningVersion(list, LocalDateTime.now()).block()).isEqualTo(1L);
+        assertThat(shoppingListReactiveRepo.updateReturningVersion(list, LocalDateTime.now()).blockOptional()).isEmpty();
+        assertThat(shoppingListReactiveRepo.findById(listId).block().getVersion()).isEqualTo(1L);
+
+        assertThat(itemReactiveRepo.deleteByShoppingListId(listId).block()).isEqualTo(1L);
+        assertThat(shoppingListReactiveRepo.deleteById(listId).block()).isEqualTo(1L);
+        assertThat(shoppingListReactiveRepo.existsById(listId).block()).isFalse();
+        assertThat(shoppingListReactiveRepo.deleteById(listId).block()).isZero();
+    }
+
+    private long insertList(String name) {
+        return shoppingListReactiveRepo.insert(new ShoppingListDTO(null, name, true, null, householdId, null, null),
+                LocalDateTime.now()).block();
+    }
+
+    private ItemDTO item(long shoppingListId, String name, Long version) {
+        return new ItemDTO(null, name, 1, false, null, userId, shoppingListId, version);
+    }
+}
@@ -0,0 +1,245 @@
+package com.foodlist.service.repository;
+
+import com.foodlist.service.dto.ItemDTO;
+import com.foodlist.service.dto.ItemIngestDTO;
+import com.foodlist.service.service.ItemService;
+import com.foodlist.service.sqlcount.SqlRecording;
+import com.foodlist.service.sqlcount.SqlStatementCountConfiguration;
+import com.foodlist.service.sqlcount.SqlStatementRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.aot.DisabledInAotMode;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the Flyway migrations against PostgreSQL, validates the entity mappings against the
+ * migrated schema and checks that the main lookups are served by the migration's indexes.
+ * The plans are taken for the SQL that the repositories actually send, recorded while calling
+ * them, as generic plans: that is the plan the driver uses once it has prepared the statement,
+ * so a condition that only works with a known parameter value does not count.
+ * Skipped when no Docker environment is available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisabledInAotMode // Needs Docker, not part of the native test image
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "foodlist.items.write-behind.enabled=true"
+})
+@Import(SqlStatementCountConfiguration.class)
+class SchemaMigrationTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "addedAt", "id");
+
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JdbcConnectionDetails connectionDetails;
+
+    @Autowired
+    private SqlStatementRecorder recorder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ItemRepo itemRepo;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @Autowired
+    private HouseholdRepo householdRepo;
+
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+
+    @Test
+    void migrations_areAppliedAndMatchTheEntities() {
+        // ddl-auto=validate already failed the context if a mapped column were missing
+        Integer applied = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM flyway_schema_history WHERE success", Integer.class);
+        assertThat(applied).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    void itemsOfList_useShoppingListIndex() throws Exception {
+        assertThat(planOf("from items", () -> itemRepo.findRecentIdsByShoppingListId(42L, PageRequest.of(0, 20))))
+                .contains("idx_items_shopping_list_id_added_at")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    @Test
+    void itemPageOfHousehold_usesListIndexPerShoppingList() throws Exception {
+        assertThat(planOf("order by", () -> itemService.getItemPageByHouseholdId(3L, null, null, null,
+                PageRequest.of(0, 50, NEWEST_FIRST))))
+                .contains("idx_items_shopping_list_id_added_at")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    @Test
+    void uncheckedItemsOfList_usePartialIndex() throws Exception {
+        // Lists 11 to 15 belong to household 3
+        assertThat(planOf("order by", () -> itemService.getItemPageByHouseholdId(3L, 11L, false, null,
+                PageRequest.of(0, 50, NEWEST_FIRST))))
+                .contains("idx_items_unchecked_per_list")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    @Test
+    void recentlyActiveHouseholds_readOnlyTheWindowOverAddedAtIndex() throws Exception {
+        assertThat(planOf("from items", () -> householdRepo.findRecentlyActiveIds(LocalDateTime.now().minusDays(7),
+                PageRequest.of(0, 20))))
+                .contains("idx_items_added_at")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    @Test
+    void itemsAddedByUser_useAddedByIndex() throws Exception {
+        assertThat(planOf("from items", () -> transactionTemplate.executeWithoutResult(
+                status -> userRepo.findById(7L).orElseThrow().getItemsAdded().size())))
+                .contains("idx_items_added_by_user_id")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    @Test
+    void usersOfHousehold_useHouseholdIndex() throws Exception {
+        assertThat(planOf("from users", () -> transactionTemplate.executeWithoutResult(
+                status -> householdRepo.findById(3L).orElseThrow().getUsers().size())))
+                .contains("idx_users_household_id")
+                .doesNotContain("Seq Scan on users");
+    }
+
+    @Test
+    void listsOfHousehold_useHouseholdIndex() throws Exception {
+        assertThat(planOf("from shopping_lists", () -> shoppingListRepo.findByHousehold_IdOrderByIdAsc(3L)))
+                .contains("idx_shopping_lists_household_id")
+                .doesNotContain("Seq Scan on shopping_lists");
+    }
+
+    @Test
+    void signIn_usesUniqueUsernameIndex() throws Exception {
+        assertThat(planOf("from users", () -> userRepo.findByUsername("user42")))
+                .contains("uq_users_username")
+                .doesNotContain("Seq Scan on users");
+    }
+
+    @Test
+    void writeBehindReadBack_usesCorrelationOwnerIndex() throws Exception {
+        ItemDTO item = new ItemDTO();
+        item.setName("queued item");
+        item.setQuantity(1);
+        item.setAddedByUserId(1L);
+        item.setShoppingListId(1L);
+        assertThat(planOf("correlation_id FROM items", () -> assertThat(itemService.enqueueItem(item, 1L, "plan-" + System.nanoTime())
+                .orElseThrow().getStatus()).isEqualTo(ItemIngestDTO.Status.COMMITTED)))
+                .contains("uq_items_correlation_owner_id")
+                // Filtering on correlation_id alone walks the whole index instead of seeking to the owner
+                .contains("Index Cond: ((correlation_owner_id = $1)")
+                .doesNotContain("Seq Scan on items");
+    }
+
+    /**
+     * Records the statements of the action and returns the generic plan of the first one containing the fragment.
+     */
+    private String planOf(String fragment, SqlStatementRecorder.Action action) throws Exception {
+        seed();
+        SqlRecording recording = recorder.record(action);
+        String sql = recording.statements().stream()
+                .map(SqlRecording.Statement::sql)
+                .filter(statement -> statement.contains(fragment))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement containing '" + fragment + "' in " + recording));
+        return sql + "\n" + String.join("\n", genericPlan(sql));
+    }
+
+    /**
+     * EXPLAIN (GENERIC_PLAN) leaves the parameters unbound, which the driver's extended protocol does not
+     * allow; so it is sent as a simple query over a separate connection.
+     */
+    private List<String> genericPlan(String sql) throws SQLException {
+        Properties properties = new Properties();
+        properties.setProperty("user", connectionDetails.getUsername());
+        properties.setProperty("password", connectionDetails.getPassword());
+        properties.setProperty("preferQueryMode", "simple");
+        List<String> lines = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(connectionDetails.getJdbcUrl(), properties);
+             Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN (GENERIC_PLAN) " + numberPlaceholders(sql))) {
+            while (plan.next()) {
+                lines.add(plan.getString(1));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * GENERIC_PLAN takes the server's $1, $2, ... placeholders instead of the driver's "?".
+     */
+    private static String numberPlaceholders(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /**
+     * 100 households with 10 users and 5 lists each, 100 items per list of which 90 are checked.
+     * Small enough to insert in a second, large enough that the planner prefers the indexes.
+     */
+    private void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.execute("TRUNCATE items, shopping_lists, users, households RESTART IDENTITY");
+        jdbcTemplate.execute("INSERT INTO households (name, created_at, version) "
+                + "SELECT 'household ' || g, now(), 0 FROM generate_series(1, 100) g");
+        jdbcTemplate.execute("INSERT INTO users (username, password_hash, name, enabled, created_at, household_id, version) "
+                + "SELECT 'user' || g, 'x', 'User ' || g, true, now(), (g - 1) / 10 + 1, 0 FROM generate_series(1, 1000) g");
+        jdbcTemplate.execute("INSERT INTO shopping_lists (name, is_default, created_at, household_id, version) "
+                + "SELECT 'list ' || g, g % 5 = 1, now(), (g - 1) / 5 + 1, 0 FROM generate_series(1, 500) g");
+        jdbcTemplate.execute("INSERT INTO items (name, quantity, is_checked, added_at, added_by_user_id, shopping_list_id, version) "
+                + "SELECT 'item ' || g, 1, g % 10 <> 0, now(), (g - 1) % 1000 + 1, (g - 1) / 100 + 1, 0 "
+                + "FROM generate_series(1, 50000) g");
+        jdbcTemplate.execute("ANALYZE");
+        seeded = true;
+    }
+}
@@ -0,0 +1,75 @@
+package com.foodlist.service.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2026-10-18T08:00:00Z");
+    private static final UserAuthorities AUTHORITIES = new UserAuthorities(Set.of());
+
+    private final AuthTokenService tokens = new AuthTokenService(SECRET, Duration.ofHours(8), AUTHORITIES, Clock.fixed(NOW, ZoneOffset.UTC), false);
+    private final HouseholdUser anna = new HouseholdUser(101L, 3L, "anna|admin", "{noop}secret", true, List.of());
+
+    @Test
+    void verify_returnsTheUserOfAnIssuedToken() {
+        HouseholdUser user = tokens.verify(tokens.issue(anna)).orElseThrow();
+
+        assertThat(user.getUserId()).isEqualTo(101L);
+        assertThat(user.getHouseholdId()).isEqualTo(3L);
+        assertThat(user.getUsername()).isEqualTo("anna|admin");
+        assertThat(user.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void verify_userWithoutHousehold() {
+        HouseholdUser homeless = new HouseholdUser(102L, null, "ben", "{noop}secret", true, List.of());
+
+        assertThat(tokens.verify(tokens.issue(homeless)).orElseThrow().getHouseholdId()).isNull();
+    }
+
+    @Test
+    void verify_rejectsTamperedToken() {
+        String token = tokens.issue(anna);
+        String otherHousehold = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("101|4|" + NOW.plus(Duration.ofHours(8)).getEpochSecond() + "|anna|admin").getBytes());
+
+        assertThat(tokens.verify(otherHousehold + token.substring(token.indexOf('.')))).isEmpty();
+        assertThat(tokens.verify(token.substring(0, token.length() - 2))).isEmpty();
+        assertThat(tokens.verify("not a token")).isEmpty();
+    }
+
+    @Test
+    void verify_rejectsTokenOfAnotherSecret() {
+        AuthTokenService otherInstance = new AuthTokenService("", Duration.ofHours(8), AUTHORITIES, Clock.fixed(NOW, ZoneOffset.UTC), true);
+
+        assertThat(otherInstance.verify(tokens.issue(anna))).isEmpty();
+    }
+
+    @Test
+    void missingSecret_failsOutsideDev() {
+        assertThatThrownBy(() -> new AuthTokenService(" ", Duration.ofHours(8), AUTHORITIES, Clock.systemUTC(), false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("foodlist.security.token.secret");
+    }
+
+    @Test
+    void verify_rejectsExpiredToken() {
+        String token = tokens.issue(anna);
+        AuthTokenService later = new AuthTokenService(SECRET, Duration.ofHours(8), AUTHORITIES,
+                Clock.fixed(NOW.plus(Duration.ofHours(8)).plusSeconds(1), ZoneOffset.UTC), false);
+
+        assertThat(later.verify(token)).isEmpty();
+    }
+}
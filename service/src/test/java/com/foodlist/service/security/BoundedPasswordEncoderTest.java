@@ -0,0 +1,78 @@
+package com.foodlist.service.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(
+            new PlainTextEncoder(), executor, Duration.ofMillis(200));
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void matches_delegatesTheCheck() {
+        assertThat(encoder.matches("secret", "secret")).isTrue();
+        assertThat(encoder.matches("secret", "other")).isFalse();
+    }
+
+    @Test
+    void matches_saturatedExecutor_failsFastInsteadOfQueueing() {
+        executor.execute(this::awaitRelease); // running
+        executor.execute(this::awaitRelease); // queued, the queue is full now
+
+        assertThatThrownBy(() -> encoder.matches("secret", "secret"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessageContaining("saturated");
+    }
+
+    @Test
+    void matches_hashNotDoneInTime_failsWithUnavailable() {
+        executor.execute(this::awaitRelease); // the check waits in the queue behind it
+
+        assertThatThrownBy(() -> encoder.matches("secret", "secret"))
+                .isInstanceOf(PasswordHashingUnavailableException.class)
+                .hasMessageContaining("longer than");
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Compares the plain passwords, so that the tests need no real hashing.
+     */
+    private static final class PlainTextEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.foodlist.service.sqlcount;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Statement budget for a whole test method, checked by {@link SqlStatementCountExtension}.
+ * Statements executed in @BeforeEach (e.g. test data setup) are not counted.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MaxSqlStatements {
+
+    /**
+     * @return Maximum number of statements the test method may execute.
+     */
+    int value();
+
+    /**
+     * @return Whether the same statement may be executed more than once.
+     */
+    boolean allowLoops() default false;
+}
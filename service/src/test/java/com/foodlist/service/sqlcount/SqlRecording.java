@@ -0,0 +1,114 @@
+package com.foodlist.service.sqlcount;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * The SQL statements executed during one recorded request or service call, with assertions
+ * for statement counts and latency.
+ */
+public class SqlRecording {
+
+    /**
+     * A single executed statement.
+     *
+     * @param sql The SQL text as sent to the driver, with ? placeholders.
+     * @param elapsedMillis Execution time reported by the driver.
+     * @param batchSize Number of parameter sets for JDBC batches, 0 for single executions.
+     */
+    public record Statement(String sql, long elapsedMillis, int batchSize) {
+    }
+
+    private final List<Statement> statements = Collections.synchronizedList(new ArrayList<>());
+
+    void add(Statement statement) {
+        statements.add(statement);
+    }
+
+    /**
+     * @return A snapshot of the recorded statements in execution order.
+     */
+    public List<Statement> statements() {
+        synchronized (statements) {
+            return List.copyOf(statements);
+        }
+    }
+
+    /**
+     * @return Number of executed statements; a JDBC batch counts as one.
+     */
+    public int count() {
+        return statements().size();
+    }
+
+    /**
+     * Fails if more than the given number of statements were executed.
+     */
+    public SqlRecording assertAtMost(int maxStatements) {
+        int count = count();
+        if (count > maxStatements) {
+            fail("Expected at most " + maxStatements + " SQL statements but " + count + " were executed:\n" + describe());
+        }
+        return this;
+    }
+
+    /**
+     * Fails if the same SQL text was executed more than once, the typical sign of a statement
+     * issued per element of a loop (N+1 selects, single-row inserts instead of a batch).
+     */
+    public SqlRecording assertNoStatementInLoop() {
+        Map<String, Long> repeated = statements().stream()
+                .collect(Collectors.groupingBy(Statement::sql, LinkedHashMap::new, Collectors.counting()))
+                .entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        if (!repeated.isEmpty()) {
+            fail("SQL statements executed repeatedly, probably inside a loop:\n" + repeated.entrySet().stream()
+                    .map(entry -> "  " + entry.getValue() + "x " + entry.getKey())
+                    .collect(Collectors.joining("\n")));
+        }
+        return this;
+    }
+
+    /**
+     * Fails if any single statement took longer than the given duration.
+     */
+    public SqlRecording assertEachFasterThan(Duration maxDuration) {
+        statements().stream()
+                .filter(statement -> statement.elapsedMillis() > maxDuration.toMillis())
+                .findFirst()
+                .ifPresent(statement -> fail("SQL statement took " + statement.elapsedMillis() + " ms (limit "
+                        + maxDuration.toMillis() + " ms): " + statement.sql()));
+        return this;
+    }
+
+    /**
+     * Fails if all statements together took longer than the given duration.
+     */
+    public SqlRecording assertTotalFasterThan(Duration maxDuration) {
+        long total = statements().stream().mapToLong(Statement::elapsedMillis).sum();
+        if (total > maxDuration.toMillis()) {
+            fail("SQL statements took " + total + " ms in total (limit " + maxDuration.toMillis() + " ms):\n" + describe());
+        }
+        return this;
+    }
+
+    private String describe() {
+        Function<Statement, String> line = statement -> "  [" + statement.elapsedMillis() + " ms"
+                + (statement.batchSize() > 0 ? ", batch of " + statement.batchSize() : "") + "] " + statement.sql();
+        return statements().stream().map(line).collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public String toString() {
+        return count() + " SQL statements:\n" + describe();
+    }
+}
@@ -0,0 +1,17 @@
+package com.foodlist.service.sqlcount;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Registers the {@link SqlStatementRecorder} as QueryExecutionListener; the application's
+ * DataSourceProxyConfig then reports every executed statement to it.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlStatementCountConfiguration {
+
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder() {
+        return new SqlStatementRecorder();
+    }
+}
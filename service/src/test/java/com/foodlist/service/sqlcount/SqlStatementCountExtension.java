@@ -0,0 +1,47 @@
+package com.foodlist.service.sqlcount;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Optional;
+
+/**
+ * Records the statements of each test method annotated with {@link MaxSqlStatements}
+ * and checks them against its budget after the method has run.
+ */
+public class SqlStatementCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(SqlStatementCountExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (budget(context).isEmpty()) {
+            return;
+        }
+        SqlStatementRecorder recorder = SpringExtension.getApplicationContext(context).getBean(SqlStatementRecorder.class);
+        context.getStore(NAMESPACE).put(context.getUniqueId(), recorder.start());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        SqlRecording recording = context.getStore(NAMESPACE).remove(context.getUniqueId(), SqlRecording.class);
+        if (recording == null) {
+            return;
+        }
+        SpringExtension.getApplicationContext(context).getBean(SqlStatementRecorder.class).stop(recording);
+        if (context.getExecutionException().isPresent()) {
+            return; // The test already failed, keep its original failure
+        }
+        MaxSqlStatements budget = budget(context).orElseThrow();
+        recording.assertAtMost(budget.value());
+        if (!budget.allowLoops()) {
+            recording.assertNoStatementInLoop();
+        }
+    }
+
+    private static Optional<MaxSqlStatements> budget(ExtensionContext context) {
+        return context.getTestMethod().map(method -> method.getAnnotation(MaxSqlStatements.class));
+    }
+}
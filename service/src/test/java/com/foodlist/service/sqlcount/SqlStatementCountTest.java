@@ -0,0 +1,27 @@
+package com.foodlist.service.sqlcount;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Full-stack test against the embedded H2 database of the "test" profile, with MockMvc and
+ * SQL statement recording. Inject {@link SqlStatementRecorder} to record single requests,
+ * or annotate test methods with {@link MaxSqlStatements}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"dev", "test"})
+@Import(SqlStatementCountConfiguration.class)
+@ExtendWith(SqlStatementCountExtension.class)
+public @interface SqlStatementCountTest {
+}
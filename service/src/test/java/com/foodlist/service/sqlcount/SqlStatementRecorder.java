@@ -0,0 +1,68 @@
+package com.foodlist.service.sqlcount;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Receives every statement executed through the proxied DataSource and hands it to all
+ * recordings that are currently open. Statements from other threads (e.g. the single-writer
+ * mailboxes) are recorded as well, so tests must not run in parallel.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private final List<SqlRecording> activeRecordings = new CopyOnWriteArrayList<>();
+
+    /**
+     * An action whose statements are recorded, e.g. a MockMvc request or a service call.
+     */
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * Records all statements executed while the action runs.
+     *
+     * @param action The HTTP request or service call to observe.
+     * @return The statements executed by the action.
+     */
+    public SqlRecording record(Action action) throws Exception {
+        SqlRecording recording = start();
+        try {
+            action.run();
+        } finally {
+            stop(recording);
+        }
+        return recording;
+    }
+
+    SqlRecording start() {
+        SqlRecording recording = new SqlRecording();
+        activeRecordings.add(recording);
+        return recording;
+    }
+
+    void stop(SqlRecording recording) {
+        activeRecordings.remove(recording);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (activeRecordings.isEmpty()) {
+            return;
+        }
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlRecording.Statement statement = new SqlRecording.Statement(
+                    queryInfo.getQuery(), execInfo.getElapsedTime(), execInfo.isBatch() ? execInfo.getBatchSize() : 0);
+            activeRecordings.forEach(recording -> recording.add(statement));
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.foodlist.service.warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodlist.service.model.Household;
+import com.foodlist.service.model.Item;
+import com.foodlist.service.model.ShoppingList;
+import com.foodlist.service.model.User;
+import com.foodlist.service.repository.HouseholdRepo;
+import com.foodlist.service.repository.ItemRepo;
+import com.foodlist.service.repository.ShoppingListRepo;
+import com.foodlist.service.repository.UserRepo;
+import com.foodlist.service.security.AuthTokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The warm-up against a running server with the sign-in of the "test" profile: the reads are replayed over HTTP
+ * with a token of a household member.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "foodlist.warmup.households=1",
+        "foodlist.warmup.rounds=3",
+        "foodlist.warmup.items-per-list=2",
+        "foodlist.rate-limit.read.burst=1" // Warm-up requests are not limited
+})
+@ActiveProfiles("test")
+class StartupWarmupTest {
+
+    @Autowired
+    private StartupWarmup startupWarmup;
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+    @Autowired
+    private HouseholdRepo householdRepo;
+    @Autowired
+    private UserRepo userRepo;
+    @Autowired
+    private ShoppingListRepo shoppingListRepo;
+    @Autowired
+    private ItemRepo itemRepo;
+    @LocalServerPort
+    private int port;
+
+    @BeforeEach
+    void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        Household active = household("Active household", now);
+        Household idle = household("Idle household", now);
+        User user = user("warmup-user", active, now);
+        User idleUser = user("idle-user", idle, now);
+
+        ShoppingList activeList = shoppingList("Active list", active, now);
+        ShoppingList idleList = shoppingList("Idle list", idle, now);
+        for (int i = 1; i <= 3; i++) {
+            Item item = new Item("Item " + i, i, false, now.minusMinutes(3 - i));
+            item.setAddedBy(user);
+            item.setShoppingList(activeList);
+            itemRepo.save(item);
+        }
+        Item old = new Item("Old item", 1, false, now.minusDays(8));
+        old.setAddedBy(idleUser);
+        old.setShoppingList(idleList);
+        itemRepo.save(old);
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepo.deleteAll();
+        shoppingListRepo.deleteAll();
+        userRepo.deleteAll();
+        householdRepo.deleteAll();
+    }
+
+    @Test
+    void readiness_isReportedAfterWarmup() {
+        assertThat(applicationAvailability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    }
+
+    @Test
+    void warmUp_replaysReadsOfMostRecentlyActiveHousehold() {
+        StartupWarmup.WarmupResult result = startupWarmup.warmUp();
+
+        assertThat(result.completed()).isTrue();
+        assertThat(result.rounds()).isEqualTo(3);
+        assertThat(result.households()).isEqualTo(1);
+        assertThat(result.shoppingLists()).isEqualTo(1);
+        assertThat(result.items()).isEqualTo(2);
+        // household, user, list and two items per round
+        assertThat(result.reads()).isEqualTo(3 * 5);
+    }
+
+    @Test
+    void warmUp_skipsHouseholdsWithoutItemsInTheActiveWindow(@Autowired AuthTokenService authTokenService,
+                                                             @Autowired DataSource dataSource,
+                                                             @Autowired ObjectMapper objectMapper,
+                                                             @Autowired ObjectProvider<MeterRegistry> meterRegistry) {
+        StartupWarmup lastWeek = new StartupWarmup(householdRepo, userRepo, itemRepo, authTokenService, dataSource,
+                objectMapper, meterRegistry, "", Duration.ofSeconds(30), Duration.ofDays(7), 10, 2, 1, 1);
+        lastWeek.setServerPort(port);
+
+        StartupWarmup.WarmupResult result = lastWeek.warmUp();
+
+        assertThat(result.completed()).isTrue();
+        assertThat(result.households()).isEqualTo(1);
+        assertThat(result.reads()).isEqualTo(5);
+    }
+
+    @Test
+    void warmUp_stopsWhenBudgetIsUsedUp(@Autowired AuthTokenService authTokenService,
+                                        @Autowired DataSource dataSource, @Autowired ObjectMapper objectMapper,
+                                        @Autowired ObjectProvider<MeterRegistry> meterRegistry) {
+        StartupWarmup withoutBudget = new StartupWarmup(householdRepo, userRepo, itemRepo, authTokenService, dataSource,
+                objectMapper, meterRegistry, "", Duration.ZERO, Duration.ofDays(7), 1, 2, 3, 1);
+        withoutBudget.setServerPort(port);
+
+        StartupWarmup.WarmupResult result = withoutBudget.warmUp();
+
+        assertThat(result.completed()).isFalse();
+        assertThat(result.rounds()).isLessThan(3);
+    }
+
+    private User user(String username, Household household, LocalDateTime createdAt) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("{noop}secret");
+        user.setEnabled(true);
+        user.setCreatedAt(createdAt);
+        user.setHousehold(household);
+        return userRepo.save(user);
+    }
+
+    private Household household(String name, LocalDateTime createdAt) {
+        Household household = new Household();
+        household.setName(name);
+        household.setCreatedAt(createdAt);
+        return householdRepo.save(household);
+    }
+
+    private ShoppingList shoppingList(String name, Household household, LocalDateTime createdAt) {
+        ShoppingList shoppingList = new ShoppingList();
+        shoppingList.setName(name);
+        shoppingList.setCreatedAt(createdAt);
+        shoppingList.setHousehold(household);
+        return shoppingListRepo.save(shoppingList);
+    }
+}